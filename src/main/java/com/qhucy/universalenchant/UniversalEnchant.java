@@ -1,11 +1,76 @@
 package com.qhucy.universalenchant;
 
+import com.qhucy.universalenchant.account.Account;
+import com.qhucy.universalenchant.account.AccountStorage;
+import com.qhucy.universalenchant.account.AccountTransferService;
+import com.qhucy.universalenchant.block.BlockChangeEngine;
+import com.qhucy.universalenchant.block.BukkitBlockAccess;
+import com.qhucy.universalenchant.block.EventBlockProtection;
+import com.qhucy.universalenchant.broadcast.BroadcastDispatcher;
+import com.qhucy.universalenchant.cluster.BalanceCoherence;
+import com.qhucy.universalenchant.command.AccountsCommand;
+import com.qhucy.universalenchant.command.CommandRouter;
+import com.qhucy.universalenchant.command.InfoCommand;
+import com.qhucy.universalenchant.command.PlayerNameIndex;
+import com.qhucy.universalenchant.command.ReloadCommand;
+import com.qhucy.universalenchant.command.SetCommand;
+import com.qhucy.universalenchant.command.ShopCommand;
 import com.qhucy.universalenchant.config.Config;
 import com.qhucy.universalenchant.config.ConfigLoadException;
+import com.qhucy.universalenchant.cooldown.CooldownReadyEvent;
+import com.qhucy.universalenchant.cooldown.CooldownService;
+import com.qhucy.universalenchant.effect.EffectPipeline;
+import com.qhucy.universalenchant.enchant.CustomEnchantment;
+import com.qhucy.universalenchant.hud.BukkitHudSink;
+import com.qhucy.universalenchant.hud.HudLayout;
+import com.qhucy.universalenchant.hud.HudLine;
+import com.qhucy.universalenchant.hud.HudListener;
+import com.qhucy.universalenchant.hud.HudService;
+import com.qhucy.universalenchant.hud.HudVariable;
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import com.qhucy.universalenchant.migration.ItemMigrator;
+import com.qhucy.universalenchant.migration.MigrationListener;
+import com.qhucy.universalenchant.migration.WorldMigrationJob;
+import com.qhucy.universalenchant.movement.MoveSampler;
+import com.qhucy.universalenchant.movement.MovementListener;
+import com.qhucy.universalenchant.placeholder.PlaceholderListener;
+import com.qhucy.universalenchant.placeholder.PlaceholderResolver;
+import com.qhucy.universalenchant.player.PlayerData;
+import com.qhucy.universalenchant.player.PlayerDataListener;
+import com.qhucy.universalenchant.player.PlayerDataService;
+import com.qhucy.universalenchant.player.PlayerDataStorage;
+import com.qhucy.universalenchant.player.PlayerDataWriteQueue;
+import com.qhucy.universalenchant.player.SqlPlayerDataStorage;
+import com.qhucy.universalenchant.player.WritePriority;
+import com.qhucy.universalenchant.proc.ProcEngine;
+import com.qhucy.universalenchant.shop.ShopListener;
+import com.qhucy.universalenchant.shop.ShopRenderer;
+import com.qhucy.universalenchant.shop.ShopService;
+import com.qhucy.universalenchant.spatial.EntitySpatialIndex;
+import com.qhucy.universalenchant.spatial.SpatialIndexListener;
+import com.qhucy.universalenchant.state.EnchantmentStateListener;
+import com.qhucy.universalenchant.state.EnchantmentStateStore;
+import com.qhucy.universalenchant.statistics.FileRollupStorage;
+import com.qhucy.universalenchant.statistics.RollupStorage;
+import com.qhucy.universalenchant.statistics.RollupStorageType;
+import com.qhucy.universalenchant.statistics.UsageRollup;
+import com.qhucy.universalenchant.statistics.UsageStatistics;
+import com.qhucy.universalenchant.util.MessageManager;
+import lombok.Getter;
 import lombok.NonNull;
+import org.bukkit.World;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 /**
@@ -26,21 +91,250 @@ public final class UniversalEnchant
     // Data for basic information about this plugin.
     private PluginInfo pluginInfo;
 
+    // Decides if enchantments proc.
+    @Getter
+    private ProcEngine procEngine;
+
+    // Index of living entities for area of effect enchantments.
+    @Getter
+    private EntitySpatialIndex entitySpatialIndex;
+
+    // Cooldowns of enchantments per player.
+    @Getter
+    private CooldownService cooldownService;
+
+    // Runtime state of enchantments per online player.
+    @Getter
+    private EnchantmentStateStore enchantmentStateStore;
+
+    // Samples and coalesces player movement for movement enchantments.
+    @Getter
+    private MoveSampler< Player > moveSampler;
+
+    // Computes heavy effects of enchantments off the main thread and applies them on a later tick.
+    @Getter
+    private EffectPipeline  effectPipeline;
+    private ExecutorService effectExecutor;
+
+    // Breaks the blocks of multi-block enchantments in batches, after checking them with protection plugins. Block
+    // break listeners ignore the events called while the protection is checking.
+    @Getter
+    private BlockChangeEngine< Player, World, ItemStack > blockChangeEngine;
+    @Getter
+    private EventBlockProtection                          blockProtection;
+
+    // Migrations of enchanted items stored in an old format, and the job that sweeps the worlds with them.
+    @Getter
+    private ItemMigrator      itemMigrator;
+    private WorldMigrationJob worldMigrationJob;
+
+    // Counters, gauges and latencies of every subsystem.
+    @Getter
+    private MetricsRegistry metricsRegistry;
+
+    // Storage, write queue and load threads for player data. The account storage is the same storage.
+    private PlayerDataStorage    playerDataStorage;
+    private AccountStorage       accountStorage;
+    private RollupStorage        rollupStorage;
+    private PlayerDataWriteQueue playerDataWriteQueue;
+    private ExecutorService      databaseExecutor;
+
+    // Loads, caches and saves the data of players.
+    @Getter
+    private PlayerDataService playerDataService;
+
+    // Keeps the cached balances of servers sharing the player database coherent. Other plugins connect its transport.
+    @Getter
+    private BalanceCoherence balanceCoherence;
+
+    // Broadcasts messages to every player, rendered once per locale.
+    @Getter
+    private BroadcastDispatcher< Player > broadcastDispatcher;
+
+    // Renders the placeholders of players in texts, such as %balance%. Other plugins register their placeholders in it.
+    @Getter
+    private PlaceholderResolver< Player > placeholderResolver;
+
+    // Sells enchantments from pages rendered once per locale.
+    @Getter
+    private ShopService shopService;
+
+    // Shows the balance and cooldowns of every player on their sidebar and action bar.
+    @Getter
+    private HudService< Player > hudService;
+    private BukkitHudSink        hudSink;
+
+    // Aggregates the usage of enchantments in memory and rolls it up periodically. Enchantments record their procs and
+    // damage in it.
+    @Getter
+    private UsageStatistics usageStatistics;
+
+    // Imports and exports the currency accounts of every player in the background.
+    private AccountTransferService accountTransferService;
+
     @Override
     public final void onEnable()
     {
         loadConfig();
 
+        // The plugin disables itself if the config couldn't be loaded.
+        if ( !isEnabled() )
+        {
+            return;
+        }
+
         pluginInfo = new PluginInfo( getDescription() );
 
         // utility classes
+        metricsRegistry = new MetricsRegistry();
+        procEngine      = config.getProcSeed() == null ? new ProcEngine( config.getEnchantmentRegistry() )
+                                                       : new ProcEngine( config.getEnchantmentRegistry(),
+                                                                         config.getProcSeed() );
+        entitySpatialIndex    = new EntitySpatialIndex();
+        cooldownService       = new CooldownService(
+                ( player, enchantmentId ) -> getServer().getPluginManager().callEvent(
+                        new CooldownReadyEvent( player, enchantmentId ) ) );
+        enchantmentStateStore = new EnchantmentStateStore( config.getEnchantmentRegistry().size(),
+                                                           getServer().getMaxPlayers() );
+        moveSampler           = new MoveSampler<>( metricsRegistry );
+        effectExecutor        = Executors.newFixedThreadPool( config.getEffectThreads(), runnable ->
+        {
+            final Thread thread = new Thread( runnable, "UniversalEnchant-Effects" );
+
+            thread.setDaemon( true );
+
+            return thread;
+        } );
+        effectPipeline        = new EffectPipeline( effectExecutor, config.getEffectMaxAgeTicks(), metricsRegistry,
+                                                    getLogger() );
+        blockProtection       = new EventBlockProtection( getServer().getPluginManager() );
+        blockChangeEngine     = new BlockChangeEngine<>( new BukkitBlockAccess(), blockProtection,
+                                                         config.getBlockChangeTickBudget(), System::nanoTime,
+                                                         metricsRegistry );
+
+        itemMigrator          = new ItemMigrator();
+        broadcastDispatcher   = new BroadcastDispatcher<>( Player::getLocale, ( player, message ) ->
+        {
+            // Players can quit before a spread out broadcast reaches them.
+            if ( player.isOnline() )
+            {
+                player.sendMessage( message );
+            }
+        }, config.getBroadcastSendsPerTick(), metricsRegistry );
+
+        metricsRegistry.gauge( "enchantment-state.players", enchantmentStateStore::size );
+        metricsRegistry.gauge( "enchantment-state.bytes", enchantmentStateStore::getMemoryFootprint );
+
+        for ( final World world : getServer().getWorlds() )
+        {
+            entitySpatialIndex.trackWorld( world );
+        }
+
+        // load data
+        loadPlayerData();
+
+        if ( !isEnabled() )
+        {
+            return;
+        }
+
+        loadMigration();
+        loadAccountTransfers();
+        loadStatistics();
+
+        loadPlaceholders();
+
+        shopService = new ShopService( getServer(), config.getEnchantmentRegistry(), playerDataService,
+                                       broadcastDispatcher, placeholderResolver, new ShopRenderer( config ),
+                                       config.getShopRows(),
+                                       runnable -> getServer().getScheduler().runTask( this, runnable ),
+                                       metricsRegistry );
+        hudSink     = new BukkitHudSink( getServer().getScoreboardManager() );
+        hudService  = new HudService<>( hudSink, createHudLayout(), config.getHudRefreshInterval(), metricsRegistry );
 
         // events
+        getServer().getPluginManager().registerEvents( new SpatialIndexListener( entitySpatialIndex ), this );
+        getServer().getPluginManager().registerEvents( new PlayerDataListener( playerDataService ), this );
+        getServer().getPluginManager().registerEvents( new EnchantmentStateListener( enchantmentStateStore ), this );
+        getServer().getPluginManager().registerEvents( new MovementListener( moveSampler ), this );
+        getServer().getPluginManager().registerEvents( new MigrationListener( itemMigrator ), this );
+        getServer().getPluginManager().registerEvents( new ShopListener( shopService ), this );
+        getServer().getPluginManager().registerEvents( new HudListener( hudService, hudSink ), this );
+        getServer().getPluginManager().registerEvents( new PlaceholderListener( placeholderResolver ), this );
+
+        // Players online through a reload never log in again.
+        for ( final Player player : getServer().getOnlinePlayers() )
+        {
+            playerDataService.onJoin( player.getUniqueId() );
+            enchantmentStateStore.allocate( player.getUniqueId() );
+            hudService.add( player );
+        }
+
         // commands
+        final PlayerNameIndex playerNameIndex = new PlayerNameIndex( getServer().getOnlinePlayers() );
+        final CommandRouter   commandRouter   = new CommandRouter( () -> config );
+        final PluginCommand   pluginCommand   = getCommand( "universalenchant" );
+
+        commandRouter.register( new InfoCommand( config.getEnchantmentRegistry(), () -> config ) );
+        commandRouter.register( new ShopCommand( shopService, () -> config ) );
+        commandRouter.register( new SetCommand( getServer(), config.getEnchantmentRegistry(), playerDataService,
+                                                playerNameIndex, () -> config ) );
+        commandRouter.register( new ReloadCommand( this, () -> config ) );
+
+        if ( accountTransferService != null )
+        {
+            commandRouter.register( new AccountsCommand( accountTransferService, () -> config ) );
+        }
+
+        getServer().getPluginManager().registerEvents( playerNameIndex, this );
+
+        if ( pluginCommand != null )
+        {
+            pluginCommand.setExecutor( commandRouter );
+            pluginCommand.setTabCompleter( commandRouter );
+        }
 
         // scheduler
+        getServer().getScheduler().runTaskTimer(
+                this, () -> entitySpatialIndex.refresh( config.getSpatialIndexRefreshPerTick() ), 1L, 1L );
+        getServer().getScheduler().runTaskTimer( this, cooldownService::tick, 1L, 1L );
+        getServer().getScheduler().runTaskTimer( this, moveSampler::tick, 1L, 1L );
+        getServer().getScheduler().runTaskTimer( this, effectPipeline::tick, 1L, 1L );
+        getServer().getScheduler().runTaskTimer( this, blockChangeEngine::tick, 1L, 1L );
+        getServer().getScheduler().runTaskTimer( this, broadcastDispatcher::tick, 1L, 1L );
+        getServer().getScheduler().runTaskTimer( this, hudService::tick, 1L, 1L );
+        getServer().getScheduler().runTaskTimer( this, placeholderResolver::tick, 1L, 1L );
 
-        // load data
+        if ( worldMigrationJob != null )
+        {
+            // Started on the first tick, once other plugins registered their migrations.
+            getServer().getScheduler().runTask( this, worldMigrationJob::start );
+            getServer().getScheduler().runTaskTimer( this, worldMigrationJob::tick, 1L, 1L );
+        }
+
+        if ( config.getMetricsReportInterval() > 0 )
+        {
+            final long reportTicks = config.getMetricsReportInterval() * 20L;
+
+            getServer().getScheduler().runTaskTimer(
+                    this, () -> metricsRegistry.report().forEach( getLogger()::info ), reportTicks, reportTicks );
+        }
+
+        if ( config.getStatisticsRollupInterval() > 0 )
+        {
+            final long rollupTicks = config.getStatisticsRollupInterval() * 20L;
+
+            getServer().getScheduler().runTaskTimer(
+                    this, () -> saveRollup( usageStatistics.rollup(), true ), rollupTicks, rollupTicks );
+        }
+
+        if ( config.getPlayerDataAutosaveInterval() > 0 )
+        {
+            final long autosaveTicks = config.getPlayerDataAutosaveInterval() * 20L;
+
+            getServer().getScheduler().runTaskTimer(
+                    this, () -> playerDataService.saveAll( WritePriority.LOW ), autosaveTicks, autosaveTicks );
+        }
 
         // enabled message
     }
@@ -67,10 +361,381 @@ public final class UniversalEnchant
         }
     }
 
+    /**
+     * Reloads all configuration files and moves the runtime state that depends on enchantment ids, which change with
+     * every load, to the new ids. The previously loaded configuration stays in use if any configuration file fails to
+     * load.
+     *
+     * @return If the configuration files reloaded.
+     */
+    public final boolean reloadConfigFiles()
+    {
+        final List< String > previousKeys = getEnchantmentKeys();
+
+        try
+        {
+            config = new Config( config );
+        }
+        catch ( final ConfigLoadException | IOException exception )
+        {
+            getLogger().log( Level.SEVERE, "Unable to reload the configuration files.", exception );
+
+            return false;
+        }
+
+        final int[] newIds = getEnchantmentIds( previousKeys );
+
+        // Procs are counted by enchantment id, which changes with every load.
+        saveRollup( usageStatistics.rollup( getEnchantmentKeys() ), true );
+        enchantmentStateStore.remap( newIds, config.getEnchantmentRegistry().size() );
+        cooldownService.remap( newIds );
+        effectPipeline.invalidateAll();
+        shopService.reload( new ShopRenderer( config ), config.getShopRows() );
+        hudService.setLayout( createHudLayout() );
+
+        getLogger().info( "Reloaded the configuration files." );
+
+        return true;
+    }
+
+    /**
+     * Creates the placeholder resolver with the placeholders of this plugin, whose memoized values are forgotten when
+     * a balance changes within a tick.
+     */
+    private void loadPlaceholders()
+    {
+        placeholderResolver = new PlaceholderResolver<>( metricsRegistry );
+
+        placeholderResolver.register( "%player%", Player::getName );
+        placeholderResolver.register( "%balance%", player ->
+        {
+            final PlayerData playerData = playerDataService.getCached( player.getUniqueId() );
+
+            return playerData == null ? "..." : ShopRenderer.formatAmount( playerData.getBalance() );
+        } );
+
+        playerDataService.addBalanceListener( ( uniqueId, balance ) ->
+        {
+            final Player player = getServer().getPlayer( uniqueId );
+
+            if ( player != null )
+            {
+                placeholderResolver.invalidate( player );
+            }
+        } );
+    }
+
+    /**
+     * Creates what the HUD shows from the config: the configured sidebar lines, a line for the cooldown of every
+     * enchantment, which is hidden while the enchantment is ready, and the action bar.
+     */
+    private HudLayout< Player > createHudLayout()
+    {
+        // Balances are compared in cents, so only changes that show render the line again.
+        final HudVariable< Player >     balance = new HudVariable<>( "%balance%", player ->
+        {
+            final PlayerData playerData = playerDataService.getCached( player.getUniqueId() );
+
+            return playerData == null ? Long.MIN_VALUE : Math.round( playerData.getBalance() * 100.0 );
+        }, cents -> cents == Long.MIN_VALUE ? "..." : ShopRenderer.formatAmount( cents / 100.0 ) );
+        final List< HudLine< Player > > lines   = new ArrayList<>();
+
+        for ( final String line : config.getHudSidebarLines() )
+        {
+            lines.add( createHudLine( line, balance ) );
+        }
+
+        if ( config.getHudCooldownLine() != null )
+        {
+            for ( final CustomEnchantment enchantment : config.getEnchantmentRegistry().getEnchantments() )
+            {
+                final int                   enchantmentId = enchantment.getId();
+                final String                template      = MessageManager.replaceVariables(
+                        config.getHudCooldownLine(), new String[] { "%enchantment%", enchantment.getDisplayName() } );
+                // Rounded up, so the line shows 1 second until the enchantment is ready.
+                final HudVariable< Player > seconds       = new HudVariable<>( "%seconds%", player ->
+                        ( cooldownService.getRemainingTicks( player.getUniqueId(), enchantmentId ) + 19L ) / 20L,
+                        Long::toString );
+
+                lines.add( new HudLine<>( template, true, seconds ) );
+            }
+        }
+
+        final HudLine< Player > actionBar = config.getHudActionBar() == null ? null
+                                                                             : createHudLine( config.getHudActionBar(),
+                                                                                              balance );
+
+        return new HudLayout<>( config.getHudSidebarTitle(), lines, actionBar );
+    }
+
+    /**
+     * Creates a HUD line from a template, which reads the balance of viewers only if the template shows it.
+     */
+    private static HudLine< Player > createHudLine( @NonNull final String template,
+                                                    @NonNull final HudVariable< Player > balance )
+    {
+        return template.contains( balance.getName() ) ? new HudLine<>( template, false, balance )
+                                                      : new HudLine<>( template, false );
+    }
+
+    /**
+     * Connects to the player database, opens the write journal and creates the player data service. Disables the
+     * plugin if unable to connect or open the journal.
+     */
+    private void loadPlayerData()
+    {
+        final File journalFile = new File( getDataFolder(), "player-data.journal" );
+
+        try
+        {
+            final SqlPlayerDataStorage sqlPlayerDataStorage = new SqlPlayerDataStorage(
+                    config.getDatabaseUrl(), config.getDatabaseUser(), config.getDatabasePassword() );
+
+            playerDataStorage    = sqlPlayerDataStorage;
+            accountStorage       = sqlPlayerDataStorage;
+            rollupStorage        = sqlPlayerDataStorage;
+            playerDataWriteQueue = new PlayerDataWriteQueue( playerDataStorage, journalFile.toPath(),
+                                                             config.getWriteQueueCapacity(),
+                                                             config.getWriteQueueBackpressure(),
+                                                             getServer()::isPrimaryThread, metricsRegistry,
+                                                             getLogger() );
+        }
+        catch ( final IOException exception )
+        {
+            getLogger().severe( "Unable to connect to the player database or read its journal." );
+
+            if ( playerDataStorage != null )
+            {
+                playerDataStorage.close();
+            }
+
+            setPluginFailure();
+
+            exception.printStackTrace();
+
+            return;
+        }
+
+        databaseExecutor  = Executors.newFixedThreadPool( config.getDatabaseThreads(), runnable ->
+        {
+            final Thread thread = new Thread( runnable, "UniversalEnchant-Database" );
+
+            thread.setDaemon( true );
+
+            return thread;
+        } );
+        playerDataService = new PlayerDataService( playerDataStorage, playerDataWriteQueue, databaseExecutor,
+                                                   runnable -> getServer().getScheduler().runTask( this, runnable ),
+                                                   metricsRegistry, config.getPlayerDataRetainedAfterQuit(),
+                                                   getLogger() );
+        balanceCoherence  = new BalanceCoherence( config.getClusterNodeId(), playerDataService,
+                                                  runnable -> getServer().getScheduler().runTask( this, runnable ),
+                                                  System::currentTimeMillis, config.getClusterTrackedAccounts(),
+                                                  metricsRegistry, getLogger() );
+
+        playerDataService.addBalanceListener( balanceCoherence );
+        playerDataWriteQueue.start();
+    }
+
+    /**
+     * Creates the world item migration job from its checkpoint. Item migrations are skipped, rather than disabling the
+     * plugin, if the checkpoint can't be read.
+     */
+    private void loadMigration()
+    {
+        final File checkpointFile = new File( getDataFolder(), "migration.checkpoint" );
+
+        try
+        {
+            worldMigrationJob = new WorldMigrationJob( getServer(), itemMigrator, checkpointFile.toPath(),
+                                                       config.getMigrationTickBudget(),
+                                                       config.getMigrationReportInterval(), metricsRegistry,
+                                                       getLogger() );
+        }
+        catch ( final IOException exception )
+        {
+            getLogger().log( Level.SEVERE, "Unable to read the item migration checkpoint, items won't be migrated "
+                                           + "until it is fixed or deleted.", exception );
+        }
+    }
+
+    /**
+     * Creates the account transfer service from its checkpoint. Account transfers are unavailable, rather than
+     * disabling the plugin, if the checkpoint can't be read.
+     */
+    private void loadAccountTransfers()
+    {
+        final File checkpointFile = new File( getDataFolder(), "accounts.checkpoint" );
+
+        try
+        {
+            accountTransferService = new AccountTransferService(
+                    accountStorage, getDataFolder().toPath(), checkpointFile.toPath(), config.getAccountBatchSize(),
+                    config.getAccountsPerSecond(), runnable -> getServer().getScheduler().runTask( this, runnable ),
+                    this::applyImportedAccounts, metricsRegistry, getLogger() );
+        }
+        catch ( final IOException exception )
+        {
+            getLogger().log( Level.SEVERE, "Unable to read the account transfer checkpoint, accounts can't be "
+                                           + "imported or exported until it is fixed or deleted.", exception );
+        }
+    }
+
+    /**
+     * Creates the enchantment usage statistics, whose rollups are stored in the player database or in files in the
+     * statistics folder.
+     */
+    private void loadStatistics()
+    {
+        usageStatistics = new UsageStatistics( getEnchantmentKeys(), config.getStatisticsSketchWidth(),
+                                               config.getStatisticsDamageSources(), System::currentTimeMillis,
+                                               metricsRegistry );
+
+        if ( config.getStatisticsStorage() == RollupStorageType.FILE )
+        {
+            rollupStorage = new FileRollupStorage( new File( getDataFolder(), "statistics" ).toPath() );
+        }
+    }
+
+    /**
+     * Returns the keys of the loaded enchantments by id.
+     */
+    private List< String > getEnchantmentKeys()
+    {
+        final List< String > keys = new ArrayList<>();
+
+        for ( final CustomEnchantment enchantment : config.getEnchantmentRegistry().getEnchantments() )
+        {
+            keys.add( enchantment.getKey() );
+        }
+
+        return keys;
+    }
+
+    /**
+     * Returns the id every enchantment has now by its id when it had the given keys, or -1 if it no longer exists.
+     */
+    private int[] getEnchantmentIds( @NonNull final List< String > keys )
+    {
+        final int[] ids = new int[ keys.size() ];
+
+        for ( int id = 0; id < ids.length; id++ )
+        {
+            final CustomEnchantment enchantment = config.getEnchantmentRegistry().getByKey( keys.get( id ) );
+
+            ids[ id ] = enchantment == null ? -1 : enchantment.getId();
+        }
+
+        return ids;
+    }
+
+    /**
+     * Stores a usage rollup, on a database thread or on the current thread. Rollups aren't stored if their interval
+     * is 0.
+     */
+    private void saveRollup( @NonNull final UsageRollup rollup, final boolean async )
+    {
+        if ( config.getStatisticsRollupInterval() == 0 )
+        {
+            return;
+        }
+
+        final Runnable save = () ->
+        {
+            try
+            {
+                rollupStorage.saveRollup( rollup );
+            }
+            catch ( final IOException exception )
+            {
+                getLogger().log( Level.WARNING, "Unable to store the enchantment usage statistics.", exception );
+            }
+        };
+
+        if ( async )
+        {
+            databaseExecutor.execute( save );
+        }
+        else
+        {
+            save.run();
+        }
+    }
+
+    /**
+     * Applies imported balances to the cached data of this server and the servers sharing its database.
+     */
+    private void applyImportedAccounts( @NonNull final List< Account > accounts )
+    {
+        for ( final Account account : accounts )
+        {
+            balanceCoherence.applyStoredBalance( account.getUniqueId(), account.getBalance() );
+        }
+    }
+
     @Override
     public final void onDisable()
     {
+        if ( worldMigrationJob != null )
+        {
+            worldMigrationJob.stop();
+        }
+
+        if ( effectExecutor != null )
+        {
+            // Results can't be applied once the plugin is disabled, so effects still computing are abandoned.
+            effectExecutor.shutdownNow();
+        }
+
+        if ( blockChangeEngine != null )
+        {
+            // Drops are only dropped once every block of an operation is broken.
+            blockChangeEngine.flush();
+        }
+
+        if ( hudSink != null )
+        {
+            // Players would otherwise keep a sidebar that is no longer updated.
+            getServer().getOnlinePlayers().forEach( hudSink::hideSidebar );
+        }
+
         // save data
+        if ( playerDataService != null )
+        {
+            try
+            {
+                if ( accountTransferService != null )
+                {
+                    // Stopped transfers continue from their checkpoint when started again.
+                    accountTransferService.close( 30L, TimeUnit.SECONDS );
+                }
+            }
+            catch ( final InterruptedException exception )
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            if ( usageStatistics != null )
+            {
+                saveRollup( usageStatistics.rollup(), false );
+            }
+
+            balanceCoherence.close();
+            playerDataService.saveAll( WritePriority.NORMAL );
+            databaseExecutor.shutdown();
+
+            try
+            {
+                // Writes the queue can't finish in time are spilled to the journal and written on the next start.
+                playerDataWriteQueue.close( 30L, TimeUnit.SECONDS );
+            }
+            catch ( final InterruptedException exception )
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            playerDataStorage.close();
+        }
 
         // disable message
     }
@@ -0,0 +1,33 @@
+package com.qhucy.universalenchant.account;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.UUID;
+
+/**
+ * Class for the currency account of a player as it is imported and exported in bulk.
+ *
+ * @author Qhucy
+ * @see AccountTransferService
+ */
+@Getter
+public final class Account
+{
+
+    private final UUID   uniqueId;
+    private final double balance;
+
+    /**
+     * Creates an account.
+     *
+     * @param uniqueId The unique id of the player that owns the account. Can't be null.
+     * @param balance  The balance of the account.
+     */
+    public Account( @NonNull final UUID uniqueId, final double balance )
+    {
+        this.uniqueId = uniqueId;
+        this.balance  = balance;
+    }
+
+}
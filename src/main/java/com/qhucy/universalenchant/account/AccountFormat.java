@@ -0,0 +1,253 @@
+package com.qhucy.universalenchant.account;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Enum for the file formats accounts are imported from and exported to, with one account per line.
+ * <p>
+ * CSV lines hold the unique id and balance, such as {@code 069a79f4-44e9-4726-a5be-fca90e38aaf5,250.0}, and can start
+ * with a header line. JSON lines hold an object per line, such as
+ * {@code {"uuid":"069a79f4-44e9-4726-a5be-fca90e38aaf5","balance":250.0}}, and other keys of imported objects are
+ * ignored. Blank lines are skipped in both.
+ *
+ * @author Qhucy
+ */
+public enum AccountFormat
+{
+
+    CSV( ".csv", "uuid,balance" )
+            {
+                @Override
+                public Account parse( @NonNull final String line )
+                {
+                    final String[] fields = line.split( ",", -1 );
+
+                    if ( fields.length < 2 )
+                    {
+                        throw new IllegalArgumentException( "Expected a unique id and a balance." );
+                    }
+
+                    final String uniqueId = unquote( fields[ 0 ] );
+
+                    if ( uniqueId.equalsIgnoreCase( "uuid" ) )
+                    {
+                        // The header line.
+                        return null;
+                    }
+
+                    return createAccount( uniqueId, unquote( fields[ 1 ] ) );
+                }
+
+                @Override
+                public String format( @NonNull final Account account )
+                {
+                    return account.getUniqueId() + "," + account.getBalance();
+                }
+            },
+    JSON_LINES( ".jsonl", null )
+            {
+                @Override
+                public Account parse( @NonNull final String line )
+                {
+                    return parseObject( line );
+                }
+
+                @Override
+                public String format( @NonNull final Account account )
+                {
+                    return formatObject( account );
+                }
+            };
+
+    // The extension of files in the format.
+    @Getter
+    private final String extension;
+    // The first line of exported files, or null if files have no header.
+    @Getter
+    private final String header;
+
+    AccountFormat( @NonNull final String extension, final String header )
+    {
+        this.extension = extension;
+        this.header    = header;
+    }
+
+    /**
+     * Parses the account on a line.
+     *
+     * @param line The line without its line break. Can't be null.
+     *
+     * @return The account, or null if the line doesn't hold one, such as a header.
+     *
+     * @throws IllegalArgumentException If the line isn't a valid account.
+     */
+    Account parseLine( @NonNull final String line )
+    {
+        return line.trim().isEmpty() ? null : parse( line.trim() );
+    }
+
+    /**
+     * Parses the account on a line that isn't blank.
+     *
+     * @param line The trimmed line. Can't be null.
+     *
+     * @return The account, or null if the line doesn't hold one.
+     *
+     * @throws IllegalArgumentException If the line isn't a valid account.
+     */
+    public abstract Account parse( @NonNull final String line );
+
+    /**
+     * Formats an account as a line.
+     *
+     * @param account The account. Can't be null.
+     *
+     * @return The line without its line break.
+     */
+    public abstract String format( @NonNull final Account account );
+
+    /**
+     * Returns the format of a file by its extension.
+     *
+     * @param fileName The name of the file. Can't be null.
+     *
+     * @return The format or null if the extension isn't supported.
+     */
+    public static AccountFormat fromFileName( @NonNull final String fileName )
+    {
+        final String lowerCase = fileName.toLowerCase( Locale.ROOT );
+
+        for ( final AccountFormat format : values() )
+        {
+            if ( lowerCase.endsWith( format.extension ) )
+            {
+                return format;
+            }
+        }
+
+        return null;
+    }
+
+    private static String unquote( @NonNull final String field )
+    {
+        final String trimmed = field.trim();
+
+        return trimmed.length() >= 2 && trimmed.startsWith( "\"" ) && trimmed.endsWith( "\"" )
+               ? trimmed.substring( 1, trimmed.length() - 1 ) : trimmed;
+    }
+
+    private static Account createAccount( final String uniqueId, final String balance )
+    {
+        if ( uniqueId == null || balance == null )
+        {
+            throw new IllegalArgumentException( "Expected a unique id and a balance." );
+        }
+
+        final double amount = Double.parseDouble( balance );
+
+        if ( Double.isNaN( amount ) || Double.isInfinite( amount ) )
+        {
+            throw new IllegalArgumentException( "Invalid balance '" + balance + "'." );
+        }
+
+        return new Account( UUID.fromString( uniqueId ), amount );
+    }
+
+    /**
+     * Parses a JSON object with at least a string 'uuid' and a numeric 'balance'.
+     */
+    private static Account parseObject( @NonNull final String line )
+    {
+        String uniqueId = null;
+        String balance  = null;
+
+        try ( final JsonReader reader = new JsonReader( new StringReader( line ) ) )
+        {
+            reader.beginObject();
+
+            while ( reader.hasNext() )
+            {
+                final String key = reader.nextName();
+
+                if ( reader.peek() == JsonToken.NULL )
+                {
+                    reader.nextNull();
+                }
+                else if ( key.equals( "uuid" ) )
+                {
+                    uniqueId = readText( reader, JsonToken.STRING );
+                }
+                else if ( key.equals( "balance" ) )
+                {
+                    balance = readText( reader, JsonToken.NUMBER );
+                }
+                else
+                {
+                    reader.skipValue();
+                }
+            }
+
+            reader.endObject();
+
+            if ( reader.peek() != JsonToken.END_DOCUMENT )
+            {
+                throw new IllegalArgumentException( "Unexpected text after the object." );
+            }
+        }
+        catch ( final IOException | IllegalStateException exception )
+        {
+            // Thrown by the reader for malformed JSON and for values of the wrong type.
+            throw new IllegalArgumentException( exception.getMessage(), exception );
+        }
+
+        return createAccount( uniqueId, balance );
+    }
+
+    /**
+     * Reads a value of a type as text.
+     */
+    private static String readText( @NonNull final JsonReader reader, @NonNull final JsonToken type )
+            throws IOException
+    {
+        if ( reader.peek() != type )
+        {
+            throw new IllegalArgumentException( "Expected a " + type.name().toLowerCase( Locale.ROOT ) + " at "
+                                                + reader.getPath() + "." );
+        }
+
+        return reader.nextString();
+    }
+
+    /**
+     * Formats an account as a JSON object.
+     */
+    private static String formatObject( @NonNull final Account account )
+    {
+        final StringWriter writer = new StringWriter();
+
+        try ( final JsonWriter json = new JsonWriter( writer ) )
+        {
+            json.beginObject().name( "uuid" ).value( account.getUniqueId().toString() ).name( "balance" )
+                .value( account.getBalance() ).endObject();
+        }
+        catch ( final IOException exception )
+        {
+            // Writing to memory never fails.
+            throw new UncheckedIOException( exception );
+        }
+
+        return writer.toString();
+    }
+
+}
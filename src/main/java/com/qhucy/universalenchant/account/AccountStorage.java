@@ -0,0 +1,41 @@
+package com.qhucy.universalenchant.account;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Storage that currency accounts are imported to and exported from in batches. Implementations are called from the
+ * transfer thread, never from the main server thread.
+ *
+ * @author Qhucy
+ * @see AccountTransferService
+ */
+public interface AccountStorage
+{
+
+    /**
+     * Replaces the balances of a batch of accounts in one transaction, creating the accounts that don't exist. The
+     * enchantments of the players are kept.
+     *
+     * @param accounts The accounts. Can't be null.
+     *
+     * @throws IOException If unable to write to the storage.
+     */
+    void saveAccounts( final List< Account > accounts )
+            throws IOException;
+
+    /**
+     * Loads a batch of accounts in order of their unique ids.
+     *
+     * @param after The unique id of the last account of the previous batch, or null to start from the first account.
+     * @param limit The maximum amount of accounts to load.
+     *
+     * @return The accounts after the given one, fewer than the limit only if no accounts are left.
+     *
+     * @throws IOException If unable to read from the storage.
+     */
+    List< Account > loadAccounts( final UUID after, final int limit )
+            throws IOException;
+
+}
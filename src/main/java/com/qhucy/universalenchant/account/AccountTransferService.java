@@ -0,0 +1,549 @@
+package com.qhucy.universalenchant.account;
+
+import com.qhucy.universalenchant.metrics.Counter;
+import com.qhucy.universalenchant.metrics.LatencyRecorder;
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class that imports currency accounts from files in the plugin data folder into the {@link AccountStorage} and exports
+ * them back, streaming millions of accounts in batches while the server stays online.
+ * <p>
+ * Transfers run one at a time on their own low priority thread, so the main server thread never touches the files or
+ * the database. Only one batch of accounts is held in memory at a time: imports read the file line by line and write
+ * every batch in one transaction, and exports page through the storage by unique id and append every page to the file.
+ * Transfers can be throttled to an amount of accounts per second, which bounds the load they put on a database shared
+ * with the running server.
+ * <p>
+ * The position of a transfer is saved to a {@link TransferCheckpoint} after every batch, so a transfer that was
+ * stopped, failed or was interrupted by a restart continues where it stopped when it is started again for the same
+ * file. Imports replace balances, so a batch that is imported again after a crash ends with the same balances. The
+ * accounts of every imported batch are passed to a listener on the main server thread, so cached balances can be
+ * updated.
+ * <p>
+ * Every method is meant to be called from the main server thread.
+ *
+ * @author Qhucy
+ * @see AccountFormat
+ */
+public final class AccountTransferService
+{
+
+    // The amount of nanoseconds between progress reports of a running transfer.
+    private static final long REPORT_NANOS = TimeUnit.SECONDS.toNanos( 30L );
+
+    @Getter( AccessLevel.PRIVATE )
+    private final AccountStorage              storage;
+    // The folder that imported and exported files must be in.
+    private final Path                        dataFolder;
+    private final Path                        checkpointPath;
+    // The amount of accounts per batch.
+    private final int                         batchSize;
+    // The maximum amount of accounts transferred per second, or 0 for no limit.
+    private final int                         accountsPerSecond;
+    // Runs the import listener on the main server thread.
+    private final Executor                    mainExecutor;
+    // Receives the accounts of every imported batch on the main server thread.
+    private final Consumer< List< Account > > importListener;
+    @Getter( AccessLevel.PRIVATE )
+    private final Logger                      logger;
+
+    // Wakes the transfer thread while it is throttled, so it stops right away.
+    private final Object                   throttle = new Object();
+    // The imported batches not yet passed to the import listener.
+    private final Queue< List< Account > > imported = new ConcurrentLinkedQueue<>();
+    // The checkpoint of the running transfer, or of the last transfer if it didn't finish. Changed by the transfer
+    // thread while a transfer runs.
+    private volatile TransferCheckpoint    checkpoint;
+    // A copy of the checkpoint after the last batch, read by the main server thread.
+    private volatile TransferCheckpoint    progress;
+    private volatile boolean               stopping;
+    private Thread                         worker;
+
+    private final Counter         transferred;
+    private final LatencyRecorder batchTime;
+
+    /**
+     * Creates an account transfer service, loading the checkpoint of an unfinished transfer if one exists, and
+     * registers its metrics.
+     *
+     * @param storage           The storage to import accounts to and export them from. Can't be null.
+     * @param dataFolder        The folder that imported and exported files must be in. Can't be null.
+     * @param checkpointPath    The path of the checkpoint file. Can't be null.
+     * @param batchSize         The amount of accounts per batch.
+     * @param accountsPerSecond The maximum amount of accounts transferred per second, or 0 for no limit.
+     * @param mainExecutor      The executor that runs the import listener on the main server thread. Can't be null.
+     * @param importListener    Receives the accounts of every imported batch. Can't be null.
+     * @param metricsRegistry   The registry to register the service's metrics in. Can't be null.
+     * @param logger            The logger to report progress and failures to. Can't be null.
+     *
+     * @throws IOException If unable to read the existing checkpoint.
+     */
+    public AccountTransferService( @NonNull final AccountStorage storage, @NonNull final Path dataFolder,
+                                   @NonNull final Path checkpointPath, final int batchSize,
+                                   final int accountsPerSecond, @NonNull final Executor mainExecutor,
+                                   @NonNull final Consumer< List< Account > > importListener,
+                                   @NonNull final MetricsRegistry metricsRegistry, @NonNull final Logger logger )
+            throws IOException
+    {
+        this.storage           = storage;
+        this.dataFolder        = dataFolder.toAbsolutePath().normalize();
+        this.checkpointPath    = checkpointPath;
+        this.batchSize         = Math.max( 1, batchSize );
+        this.accountsPerSecond = Math.max( 0, accountsPerSecond );
+        this.mainExecutor      = mainExecutor;
+        this.importListener    = importListener;
+        this.logger            = logger;
+        this.checkpoint        = TransferCheckpoint.load( checkpointPath );
+        this.progress          = checkpoint == null ? null : checkpoint.copy();
+
+        transferred = metricsRegistry.counter( "accounts.transferred" );
+        batchTime   = metricsRegistry.latency( "accounts.batch" );
+    }
+
+    /**
+     * Returns the path of a file in the plugin data folder.
+     *
+     * @param fileName The name of the file, relative to the plugin data folder. Can't be null.
+     *
+     * @return The path of the file.
+     *
+     * @throws IOException If the file is outside of the plugin data folder or its format isn't supported.
+     */
+    public final Path resolve( @NonNull final String fileName )
+            throws IOException
+    {
+        final Path path = dataFolder.resolve( fileName ).normalize();
+
+        if ( !path.startsWith( dataFolder ) || path.equals( dataFolder ) )
+        {
+            throw new IOException( "The file '" + fileName + "' isn't in the plugin folder." );
+        }
+
+        if ( AccountFormat.fromFileName( path.getFileName().toString() ) == null )
+        {
+            throw new IOException( "The file '" + fileName + "' must end with .csv or .jsonl." );
+        }
+
+        return path;
+    }
+
+    /**
+     * Starts transferring the accounts of a file, continuing from the checkpoint if the last transfer was of the same
+     * file in the same direction and didn't finish.
+     *
+     * @param direction The direction of the transfer. Can't be null.
+     * @param fileName  The name of the file, relative to the plugin data folder. Can't be null.
+     *
+     * @return A copy of the checkpoint the transfer starts from, which is at position 0 unless the transfer continues
+     *         from an unfinished one.
+     *
+     * @throws IOException           If the file isn't valid, or the imported file doesn't exist.
+     * @throws IllegalStateException If a transfer is already running.
+     */
+    public final TransferCheckpoint start( @NonNull final TransferDirection direction,
+                                           @NonNull final String fileName )
+            throws IOException
+    {
+        if ( isRunning() )
+        {
+            throw new IllegalStateException( "An account transfer is already running." );
+        }
+
+        final Path   path     = resolve( fileName );
+        final String file     = dataFolder.relativize( path ).toString();
+        long         size     = 0L;
+        long         modified = 0L;
+
+        if ( direction == TransferDirection.IMPORT )
+        {
+            if ( !Files.isRegularFile( path ) )
+            {
+                throw new IOException( "The file '" + file + "' doesn't exist." );
+            }
+
+            size     = Files.size( path );
+            modified = Files.getLastModifiedTime( path ).toMillis();
+        }
+
+        if ( !canResume( direction, path, file, size, modified ) )
+        {
+            checkpoint = new TransferCheckpoint();
+            checkpoint.restart( direction, file, size, modified );
+        }
+
+        final TransferCheckpoint transfer = checkpoint;
+        final TransferCheckpoint started  = transfer.copy();
+
+        progress = started;
+        stopping = false;
+        worker   = new Thread( () -> run( transfer, path ), "UniversalEnchant-Accounts" );
+
+        worker.setDaemon( true );
+        worker.setPriority( Thread.MIN_PRIORITY );
+        worker.start();
+
+        return started;
+    }
+
+    private boolean canResume( @NonNull final TransferDirection direction, @NonNull final Path path,
+                               @NonNull final String file, final long size, final long modified )
+            throws IOException
+    {
+        if ( checkpoint == null || !checkpoint.matches( direction, file, size, modified ) )
+        {
+            return false;
+        }
+
+        // An exported file that is shorter than its checkpoint was changed or lost writes, so it is exported again.
+        return direction == TransferDirection.IMPORT || Files.exists( path )
+                                                        && Files.size( path ) >= checkpoint.getPosition();
+    }
+
+    /**
+     * Stops the running transfer after its current batch. It continues from there when it is started again.
+     */
+    public final void stop()
+    {
+        stopping = true;
+
+        synchronized ( throttle )
+        {
+            throttle.notifyAll();
+        }
+    }
+
+    /**
+     * Stops the running transfer, waits for its current batch to finish and passes the imported batches the main
+     * server thread didn't receive yet to the import listener. Call when the plugin disables, before cached player data
+     * is saved, so imported balances aren't saved over.
+     *
+     * @param timeout The maximum time to wait for the transfer thread.
+     * @param unit    The unit of the timeout. Can't be null.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public final void close( final long timeout, @NonNull final TimeUnit unit )
+            throws InterruptedException
+    {
+        stop();
+
+        if ( worker != null )
+        {
+            worker.join( unit.toMillis( timeout ) );
+        }
+
+        deliverImported();
+    }
+
+    /**
+     * Passes every imported batch to the import listener.
+     */
+    private void deliverImported()
+    {
+        List< Account > batch;
+
+        while ( ( batch = imported.poll() ) != null )
+        {
+            importListener.accept( batch );
+        }
+    }
+
+    /**
+     * Returns if a transfer is running.
+     *
+     * @return If a transfer is running.
+     */
+    public final boolean isRunning()
+    {
+        return worker != null && worker.isAlive();
+    }
+
+    /**
+     * Returns the progress of the running transfer, or of the last transfer if it didn't finish.
+     *
+     * @return A copy of the checkpoint of the transfer, or null if every transfer finished.
+     */
+    public final TransferCheckpoint getProgress()
+    {
+        return progress;
+    }
+
+    /**
+     * Runs a transfer and reports how it ended. Runs on the transfer thread.
+     */
+    private void run( @NonNull final TransferCheckpoint transfer, @NonNull final Path path )
+    {
+        final String action   = transfer.getDirection() == TransferDirection.IMPORT ? "import" : "export";
+        final long   start    = System.nanoTime();
+        final long   accounts = transfer.getAccounts();
+
+        getLogger().info( ( transfer.getPosition() > 0L ? "Resuming" : "Starting" ) + " the account " + action
+                          + " of '" + transfer.getFile() + "' at " + describe( transfer ) + "." );
+
+        try
+        {
+            final boolean completed = transfer.getDirection() == TransferDirection.IMPORT
+                                      ? runImport( transfer, path ) : runExport( transfer, path );
+            final long    seconds   = Math.max( 1L, TimeUnit.NANOSECONDS.toSeconds( System.nanoTime() - start ) );
+
+            if ( completed )
+            {
+                Files.deleteIfExists( checkpointPath );
+
+                checkpoint = null;
+                progress   = null;
+
+                getLogger().info( "Completed the account " + action + " of '" + transfer.getFile() + "' with "
+                                  + describe( transfer ) + " at " + ( transfer.getAccounts() - accounts ) / seconds
+                                  + " accounts per second." );
+            }
+            else
+            {
+                getLogger().info( "Stopped the account " + action + " of '" + transfer.getFile() + "' at "
+                                  + describe( transfer ) + "." );
+            }
+        }
+        catch ( final IOException | RuntimeException exception )
+        {
+            getLogger().log( Level.SEVERE, "Unable to " + action + " the accounts of '" + transfer.getFile() + "' at "
+                                           + describe( transfer ) + ", it continues from there when started "
+                                           + "again.", exception );
+        }
+    }
+
+    /**
+     * Imports the accounts of a file from the position of the checkpoint.
+     *
+     * @return If every account was imported, or false if the transfer was stopped.
+     */
+    private boolean runImport( @NonNull final TransferCheckpoint transfer, @NonNull final Path path )
+            throws IOException
+    {
+        final AccountFormat format = AccountFormat.fromFileName( path.getFileName().toString() );
+        final Pacer         pacer  = new Pacer( transfer );
+        List< Account >     batch  = new ArrayList<>( batchSize );
+        long                lines  = 0L;
+
+        try ( final LineReader reader = new LineReader( path, transfer.getPosition() ) )
+        {
+            while ( !stopping )
+            {
+                final String line = reader.readLine();
+
+                if ( line != null )
+                {
+                    lines++;
+
+                    final Account account = parse( format, line, transfer.getLines() + lines );
+
+                    if ( account != null )
+                    {
+                        batch.add( account );
+                    }
+                }
+
+                if ( line == null || batch.size() >= batchSize )
+                {
+                    final long batchStart = System.nanoTime();
+
+                    if ( !batch.isEmpty() )
+                    {
+                        getStorage().saveAccounts( batch );
+
+                        imported.add( batch );
+                        mainExecutor.execute( this::deliverImported );
+                    }
+
+                    transfer.advance( reader.getPosition(), lines, batch.size(), null );
+                    complete( transfer, batch.size(), batchStart, pacer );
+
+                    if ( line == null )
+                    {
+                        return true;
+                    }
+
+                    batch = new ArrayList<>( batchSize );
+                    lines = 0L;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static Account parse( @NonNull final AccountFormat format, @NonNull final String line, final long number )
+            throws IOException
+    {
+        try
+        {
+            return format.parseLine( line );
+        }
+        catch ( final IllegalArgumentException exception )
+        {
+            throw new IOException( "Invalid account on line " + number + ": " + exception.getMessage(), exception );
+        }
+    }
+
+    /**
+     * Exports the accounts of the storage after the last account of the checkpoint, appending them to the file from
+     * the position of the checkpoint.
+     *
+     * @return If every account was exported, or false if the transfer was stopped.
+     */
+    private boolean runExport( @NonNull final TransferCheckpoint transfer, @NonNull final Path path )
+            throws IOException
+    {
+        final AccountFormat format = AccountFormat.fromFileName( path.getFileName().toString() );
+        final Pacer         pacer  = new Pacer( transfer );
+
+        Files.createDirectories( path.getParent() );
+
+        try ( final FileChannel channel = FileChannel.open( path, StandardOpenOption.CREATE, StandardOpenOption.WRITE );
+              final Writer writer = new BufferedWriter( new OutputStreamWriter( Channels.newOutputStream( channel ),
+                                                                                StandardCharsets.UTF_8 ) ) )
+        {
+            // Drops whatever was written after the last saved batch.
+            channel.truncate( transfer.getPosition() );
+            channel.position( transfer.getPosition() );
+
+            if ( transfer.getPosition() == 0L && format.getHeader() != null )
+            {
+                writer.write( format.getHeader() );
+                writer.write( '\n' );
+                writer.flush();
+
+                transfer.advance( channel.position(), 1L, 0L, null );
+            }
+
+            while ( !stopping )
+            {
+                final long            batchStart = System.nanoTime();
+                final List< Account > batch      = getStorage().loadAccounts( transfer.getLastAccount(), batchSize );
+
+                for ( final Account account : batch )
+                {
+                    writer.write( format.format( account ) );
+                    writer.write( '\n' );
+                }
+
+                writer.flush();
+
+                transfer.advance( channel.position(), batch.size(), batch.size(),
+                                  batch.isEmpty() ? null : batch.get( batch.size() - 1 ).getUniqueId() );
+                complete( transfer, batch.size(), batchStart, pacer );
+
+                if ( batch.size() < batchSize )
+                {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Saves the checkpoint and metrics of a transferred batch, reports progress and throttles the transfer.
+     */
+    private void complete( @NonNull final TransferCheckpoint transfer, final int accounts, final long batchStart,
+                           @NonNull final Pacer pacer )
+            throws IOException
+    {
+        transfer.save( checkpointPath );
+
+        progress = transfer.copy();
+
+        transferred.add( accounts );
+        batchTime.recordSince( batchStart );
+        pacer.pace( transfer );
+    }
+
+    private static String describe( @NonNull final TransferCheckpoint transfer )
+    {
+        return String.format( Locale.ROOT, "%,d accounts (%,d lines)", transfer.getAccounts(), transfer.getLines() );
+    }
+
+    /**
+     * Throttles a transfer to the accounts per second and reports its progress periodically.
+     */
+    private final class Pacer
+    {
+
+        private final long start;
+        // The amount of accounts the transfer had transferred when it started.
+        private final long startAccounts;
+        private long       nextReport;
+
+        private Pacer( @NonNull final TransferCheckpoint transfer )
+        {
+            this.start         = System.nanoTime();
+            this.startAccounts = transfer.getAccounts();
+            this.nextReport    = start + REPORT_NANOS;
+        }
+
+        private void pace( @NonNull final TransferCheckpoint transfer )
+        {
+            long now = System.nanoTime();
+
+            if ( now - nextReport >= 0L )
+            {
+                nextReport = now + REPORT_NANOS;
+
+                getLogger().info( "Transferring the accounts of '" + transfer.getFile() + "' at "
+                                  + describe( transfer ) + "." );
+            }
+
+            if ( accountsPerSecond == 0 )
+            {
+                return;
+            }
+
+            final long due = start + TimeUnit.SECONDS.toNanos( transfer.getAccounts() - startAccounts )
+                                     / accountsPerSecond;
+
+            synchronized ( throttle )
+            {
+                while ( !stopping && due - now > 0L )
+                {
+                    try
+                    {
+                        TimeUnit.NANOSECONDS.timedWait( throttle, due - now );
+                    }
+                    catch ( final InterruptedException exception )
+                    {
+                        Thread.currentThread().interrupt();
+                        stopping = true;
+                    }
+
+                    now = System.nanoTime();
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.qhucy.universalenchant.account;
+
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reader of the UTF-8 lines of a file that knows the byte position after every line, so a read can continue from the
+ * middle of a file. Only the buffer and the current line are kept in memory, regardless of the size of the file.
+ *
+ * @author Qhucy
+ */
+final class LineReader
+        implements Closeable
+{
+
+    private static final int    BUFFER_SIZE     = 64 * 1024;
+    // The byte order mark some editors write at the start of UTF-8 files.
+    private static final byte[] BYTE_ORDER_MARK = { ( byte ) 0xEF, ( byte ) 0xBB, ( byte ) 0xBF };
+
+    private final FileChannel channel;
+    private final ByteBuffer  buffer = ByteBuffer.allocate( BUFFER_SIZE );
+    // The bytes of the line being read.
+    private byte[]            line   = new byte[ 256 ];
+    private int               length;
+    // The byte position in the file after the last returned line.
+    private long              position;
+    private boolean           ended;
+
+    /**
+     * Opens a file to read lines from a byte position.
+     *
+     * @param path     The path of the file. Can't be null.
+     * @param position The byte position of the first line.
+     *
+     * @throws IOException If unable to open the file.
+     */
+    LineReader( @NonNull final Path path, final long position )
+            throws IOException
+    {
+        this.channel  = FileChannel.open( path, StandardOpenOption.READ );
+        this.position = position;
+
+        channel.position( position );
+        buffer.flip();
+    }
+
+    /**
+     * Reads the next line without its line break.
+     *
+     * @return The line, or null if the end of the file was reached.
+     *
+     * @throws IOException If unable to read the file.
+     */
+    final String readLine()
+            throws IOException
+    {
+        length = 0;
+
+        long read = 0L;
+
+        while ( true )
+        {
+            if ( !buffer.hasRemaining() )
+            {
+                if ( ended || !fill() )
+                {
+                    if ( read == 0L )
+                    {
+                        return null;
+                    }
+
+                    // The last line has no line break.
+                    position += read;
+
+                    return decode( position - read );
+                }
+            }
+
+            final byte next = buffer.get();
+
+            read++;
+
+            if ( next == '\n' )
+            {
+                position += read;
+
+                return decode( position - read );
+            }
+
+            if ( length == line.length )
+            {
+                line = Arrays.copyOf( line, length << 1 );
+            }
+
+            line[ length++ ] = next;
+        }
+    }
+
+    /**
+     * Returns the byte position in the file after the last returned line.
+     *
+     * @return The byte position.
+     */
+    final long getPosition()
+    {
+        return position;
+    }
+
+    private boolean fill()
+            throws IOException
+    {
+        buffer.clear();
+
+        final int read = channel.read( buffer );
+
+        buffer.flip();
+
+        if ( read <= 0 )
+        {
+            ended = true;
+
+            return false;
+        }
+
+        return true;
+    }
+
+    private String decode( final long start )
+    {
+        int offset = 0;
+        int end    = length;
+
+        if ( start == 0L && startsWithByteOrderMark() )
+        {
+            offset = BYTE_ORDER_MARK.length;
+        }
+
+        if ( end > offset && line[ end - 1 ] == '\r' )
+        {
+            end--;
+        }
+
+        return new String( line, offset, end - offset, StandardCharsets.UTF_8 );
+    }
+
+    private boolean startsWithByteOrderMark()
+    {
+        if ( length < BYTE_ORDER_MARK.length )
+        {
+            return false;
+        }
+
+        for ( int index = 0; index < BYTE_ORDER_MARK.length; index++ )
+        {
+            if ( line[ index ] != BYTE_ORDER_MARK[ index ] )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public final void close()
+            throws IOException
+    {
+        channel.close();
+    }
+
+}
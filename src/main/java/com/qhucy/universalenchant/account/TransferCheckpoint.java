@@ -0,0 +1,211 @@
+package com.qhucy.universalenchant.account;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Class that holds the resumable position and totals of an account transfer, saved to a file in the plugin data folder
+ * after every batch so a stopped or interrupted transfer continues where it stopped.
+ * <p>
+ * Imports continue from the byte position after the last imported line, but only if the imported file still has the
+ * size and modification time it had when the import started. Exports continue after the last exported account, from
+ * the byte position the exported file had after its last batch.
+ *
+ * @author Qhucy
+ * @see AccountTransferService
+ */
+@Getter
+public final class TransferCheckpoint
+{
+
+    private TransferDirection direction;
+    // The name of the file in the plugin data folder.
+    private String            file;
+    // The size and modification time in milliseconds of the imported file when the import started.
+    private long              fileSize;
+    private long              fileModified;
+    // The byte position in the file after the last transferred batch.
+    private long              position;
+    // The amount of lines read or written and accounts transferred so far.
+    private long              lines;
+    private long              accounts;
+    // The unique id of the last exported account, or null if no account was exported yet.
+    private UUID              lastAccount;
+
+    /**
+     * Starts a new transfer from the beginning of a file.
+     *
+     * @param direction    The direction of the transfer. Can't be null.
+     * @param file         The name of the file in the plugin data folder. Can't be null.
+     * @param fileSize     The size of the imported file, or 0 for exports.
+     * @param fileModified The modification time of the imported file, or 0 for exports.
+     */
+    final void restart( @NonNull final TransferDirection direction, @NonNull final String file, final long fileSize,
+                        final long fileModified )
+    {
+        this.direction    = direction;
+        this.file         = file;
+        this.fileSize     = fileSize;
+        this.fileModified = fileModified;
+        this.position     = 0L;
+        this.lines        = 0L;
+        this.accounts     = 0L;
+        this.lastAccount  = null;
+    }
+
+    /**
+     * Returns a copy of the checkpoint, which isn't changed by later batches.
+     *
+     * @return The copy.
+     */
+    final TransferCheckpoint copy()
+    {
+        final TransferCheckpoint copy = new TransferCheckpoint();
+
+        copy.direction    = direction;
+        copy.file         = file;
+        copy.fileSize     = fileSize;
+        copy.fileModified = fileModified;
+        copy.position     = position;
+        copy.lines        = lines;
+        copy.accounts     = accounts;
+        copy.lastAccount  = lastAccount;
+
+        return copy;
+    }
+
+    /**
+     * Returns if the checkpoint is of an unfinished transfer of a file in a direction.
+     *
+     * @param direction    The direction of the transfer. Can't be null.
+     * @param file         The name of the file in the plugin data folder. Can't be null.
+     * @param fileSize     The size of the imported file, or 0 for exports.
+     * @param fileModified The modification time of the imported file, or 0 for exports.
+     *
+     * @return If the transfer can continue from the checkpoint.
+     */
+    final boolean matches( @NonNull final TransferDirection direction, @NonNull final String file,
+                           final long fileSize, final long fileModified )
+    {
+        return direction == this.direction && file.equals( this.file ) && fileSize == this.fileSize
+               && fileModified == this.fileModified;
+    }
+
+    /**
+     * Moves the position past a transferred batch.
+     *
+     * @param position    The byte position in the file after the batch.
+     * @param lines       The amount of lines of the batch.
+     * @param accounts    The amount of accounts of the batch.
+     * @param lastAccount The unique id of the last account of the batch. Can be null.
+     */
+    final void advance( final long position, final long lines, final long accounts, final UUID lastAccount )
+    {
+        this.position = position;
+        this.lines += lines;
+        this.accounts += accounts;
+
+        if ( lastAccount != null )
+        {
+            this.lastAccount = lastAccount;
+        }
+    }
+
+    /**
+     * Loads a checkpoint from a file.
+     *
+     * @param path The path of the checkpoint file. Can't be null.
+     *
+     * @return The loaded checkpoint, or null if the file doesn't exist.
+     *
+     * @throws IOException If unable to read the file or it isn't a valid checkpoint.
+     */
+    public static TransferCheckpoint load( @NonNull final Path path )
+            throws IOException
+    {
+        if ( !Files.exists( path ) )
+        {
+            return null;
+        }
+
+        final Properties properties = new Properties();
+
+        try ( final InputStream inputStream = Files.newInputStream( path ) )
+        {
+            properties.load( inputStream );
+        }
+
+        final TransferCheckpoint checkpoint  = new TransferCheckpoint();
+        final String             lastAccount = properties.getProperty( "last-account" );
+
+        try
+        {
+            checkpoint.direction    = TransferDirection.valueOf(
+                    properties.getProperty( "direction", "" ).toUpperCase( Locale.ROOT ) );
+            checkpoint.file         = properties.getProperty( "file" );
+            checkpoint.fileSize     = Long.parseLong( properties.getProperty( "file-size", "0" ) );
+            checkpoint.fileModified = Long.parseLong( properties.getProperty( "file-modified", "0" ) );
+            checkpoint.position     = Long.parseLong( properties.getProperty( "position", "0" ) );
+            checkpoint.lines        = Long.parseLong( properties.getProperty( "lines", "0" ) );
+            checkpoint.accounts     = Long.parseLong( properties.getProperty( "accounts", "0" ) );
+            checkpoint.lastAccount  = lastAccount == null ? null : UUID.fromString( lastAccount );
+        }
+        catch ( final IllegalArgumentException exception )
+        {
+            throw new IOException( "Invalid account transfer checkpoint '" + path + "'.", exception );
+        }
+
+        if ( checkpoint.file == null )
+        {
+            throw new IOException( "Invalid account transfer checkpoint '" + path + "'." );
+        }
+
+        return checkpoint;
+    }
+
+    /**
+     * Saves the checkpoint to a file, replacing it atomically so a crash never leaves a partial checkpoint.
+     *
+     * @param path The path of the checkpoint file. Can't be null.
+     *
+     * @throws IOException If unable to write the file.
+     */
+    public final void save( @NonNull final Path path )
+            throws IOException
+    {
+        final Properties properties = new Properties();
+
+        properties.setProperty( "direction", direction.name().toLowerCase( Locale.ROOT ) );
+        properties.setProperty( "file", file );
+        properties.setProperty( "file-size", Long.toString( fileSize ) );
+        properties.setProperty( "file-modified", Long.toString( fileModified ) );
+        properties.setProperty( "position", Long.toString( position ) );
+        properties.setProperty( "lines", Long.toString( lines ) );
+        properties.setProperty( "accounts", Long.toString( accounts ) );
+
+        if ( lastAccount != null )
+        {
+            properties.setProperty( "last-account", lastAccount.toString() );
+        }
+
+        final Path temporary = path.resolveSibling( path.getFileName() + ".tmp" );
+
+        try ( final OutputStream outputStream = Files.newOutputStream( temporary ) )
+        {
+            properties.store( outputStream, "UniversalEnchant account transfer checkpoint" );
+        }
+
+        Files.move( temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+
+}
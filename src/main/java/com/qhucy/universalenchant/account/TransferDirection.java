@@ -0,0 +1,14 @@
+package com.qhucy.universalenchant.account;
+
+/**
+ * Enum for whether a transfer moves accounts from a file into storage or from storage into a file.
+ *
+ * @author Qhucy
+ */
+public enum TransferDirection
+{
+
+    IMPORT,
+    EXPORT
+
+}
@@ -0,0 +1,82 @@
+package com.qhucy.universalenchant.block;
+
+import java.util.function.Consumer;
+
+/**
+ * Reads and changes the blocks of a world and drops items for the {@link BlockChangeEngine}.
+ *
+ * @param <P> The type of the players.
+ * @param <W> The type of the worlds.
+ * @param <I> The type of the dropped items.
+ *
+ * @author Qhucy
+ * @see BukkitBlockAccess
+ */
+public interface BlockAccess< P, W, I >
+{
+
+    /**
+     * Returns if a chunk is loaded. Blocks in chunks that aren't loaded are skipped rather than loading the chunk.
+     *
+     * @param world  The world. Can't be null.
+     * @param chunkX The x of the chunk.
+     * @param chunkZ The z of the chunk.
+     *
+     * @return If the chunk is loaded.
+     */
+    boolean isChunkLoaded( final W world, final int chunkX, final int chunkZ );
+
+    /**
+     * Breaks a block in a loaded chunk without physics or dropping its items, passing its drops to a consumer instead.
+     *
+     * @param player    The player that triggered the change. Can't be null.
+     * @param world     The world of the block. Can't be null.
+     * @param position  The packed position of the block.
+     * @param dropItems If the block drops its items.
+     * @param drops     Receives the items the block drops. Can't be null.
+     *
+     * @return If the block was broken, which fails if it was already air or can't be broken without losing what it
+     *         holds, such as the items of a container.
+     */
+    boolean breakBlock( final P player, final W world, final long position, final boolean dropItems,
+                        final Consumer< I > drops );
+
+    /**
+     * Returns if two items only differ in their amount, so they can be merged.
+     *
+     * @param first  The first item. Can't be null.
+     * @param second The second item. Can't be null.
+     *
+     * @return If the items can be merged.
+     */
+    boolean isSimilar( final I first, final I second );
+
+    /**
+     * Returns the amount of an item.
+     *
+     * @param item The item. Can't be null.
+     *
+     * @return The amount.
+     */
+    int getAmount( final I item );
+
+    /**
+     * Drops an amount of an item at a block, in as many stacks as needed.
+     *
+     * @param world    The world. Can't be null.
+     * @param position The packed position of the block.
+     * @param item     The item, whose own amount is ignored. Can't be null.
+     * @param amount   The amount to drop.
+     */
+    void drop( final W world, final long position, final I item, final int amount );
+
+    /**
+     * Drops an amount of experience at a block.
+     *
+     * @param world    The world. Can't be null.
+     * @param position The packed position of the block.
+     * @param amount   The amount of experience.
+     */
+    void dropExperience( final W world, final long position, final int amount );
+
+}
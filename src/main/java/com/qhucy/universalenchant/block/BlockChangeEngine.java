@@ -0,0 +1,370 @@
+package com.qhucy.universalenchant.block;
+
+import com.qhucy.universalenchant.metrics.Counter;
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Class that applies the block changes of multi-block enchantments, such as vein mining, explosions and tunnels, in
+ * batches under a time budget per tick.
+ * <p>
+ * Breaking every block on its own fires physics, drops and events per block, which makes one swing cost a tick spike.
+ * Instead, the blocks of a {@link BlockOperation} are sorted by chunk, checked by the {@link BlockProtection} in one
+ * pass when the operation is submitted, and broken chunk by chunk without physics. Chunks that aren't loaded are
+ * checked once and skipped. The drops and experience of every block are merged and dropped at the origin of the
+ * operation once all of its blocks are broken.
+ * <p>
+ * Operations are applied in the order they were submitted. An operation starts right away if the budget of the current
+ * tick isn't spent, and continues on the next ticks otherwise. At least one block is changed per tick, so operations
+ * always finish.
+ * <p>
+ * Every method is meant to be called from the main server thread.
+ *
+ * @param <P> The type of the players.
+ * @param <W> The type of the worlds.
+ * @param <I> The type of the dropped items.
+ *
+ * @author Qhucy
+ */
+public final class BlockChangeEngine< P, W, I >
+{
+
+    // Reading the clock costs about as much as changing a block in memory, so it is read once every this many blocks.
+    private static final int CLOCK_INTERVAL = 16;
+
+    @Getter( AccessLevel.PRIVATE )
+    private final BlockAccess< P, W, I >  access;
+    @Getter( AccessLevel.PRIVATE )
+    private final BlockProtection< P, W > protection;
+    // The amount of nanoseconds block changes may take per tick.
+    private final long                    budget;
+    // Returns the current time in nanoseconds.
+    private final LongSupplier            clock;
+
+    // Every submitted operation with blocks left to change, in the order they were submitted.
+    private final Queue< Pending > queue = new ArrayDeque<>();
+    private int                    pendingBlocks;
+    // The amount of nanoseconds spent and blocks changed in the current tick.
+    private long                   spentThisTick;
+    private int                    changedThisTick;
+    // The amount of blocks to change before the clock is read again.
+    private int                    untilClock;
+
+    private final Counter operations;
+    private final Counter changed;
+    private final Counter denied;
+    private final Counter skipped;
+    private final Counter drops;
+
+    /**
+     * Creates a block change engine and registers its metrics.
+     *
+     * @param access          Reads and changes blocks. Can't be null.
+     * @param protection      Decides which blocks players may change. Can't be null.
+     * @param budgetMillis    The amount of milliseconds block changes may take per tick.
+     * @param clock           Returns the current time in nanoseconds. Can't be null.
+     * @param metricsRegistry The registry to register the engine's metrics in. Can't be null.
+     */
+    public BlockChangeEngine( @NonNull final BlockAccess< P, W, I > access,
+                              @NonNull final BlockProtection< P, W > protection, final double budgetMillis,
+                              @NonNull final LongSupplier clock, @NonNull final MetricsRegistry metricsRegistry )
+    {
+        this.access     = access;
+        this.protection = protection;
+        this.budget     = ( long ) ( budgetMillis * TimeUnit.MILLISECONDS.toNanos( 1L ) );
+        this.clock      = clock;
+
+        operations = metricsRegistry.counter( "blocks.operations" );
+        changed    = metricsRegistry.counter( "blocks.changed" );
+        denied     = metricsRegistry.counter( "blocks.denied" );
+        skipped    = metricsRegistry.counter( "blocks.skipped" );
+        drops      = metricsRegistry.counter( "blocks.drops" );
+
+        metricsRegistry.gauge( "blocks.pending", () -> pendingBlocks );
+    }
+
+    /**
+     * Submits an operation, dropping the blocks the player may not change, and starts applying it if the budget of the
+     * current tick isn't spent. The operation must not be changed afterwards.
+     *
+     * @param operation The operation. Can't be null.
+     */
+    public final void submit( @NonNull final BlockOperation< P, W > operation )
+    {
+        operations.increment();
+
+        final long[] positions = Arrays.copyOf( operation.getPositions(), operation.getSize() );
+        int          count     = 0;
+
+        Arrays.sort( positions );
+
+        // Sorting groups the blocks by chunk and puts blocks added more than once next to each other.
+        for ( int index = 0; index < positions.length; index++ )
+        {
+            if ( index == 0 || positions[ index ] != positions[ index - 1 ] )
+            {
+                positions[ count++ ] = positions[ index ];
+            }
+        }
+
+        final BitSet deniedPositions = new BitSet( count );
+        final BitSet withoutDrops    = new BitSet( count );
+        final int[]  experience      = new int[ count ];
+
+        getProtection().check( operation.getPlayer(), operation.getWorld(), positions, count, deniedPositions,
+                               withoutDrops, experience );
+
+        if ( !deniedPositions.isEmpty() )
+        {
+            int allowed = 0;
+
+            // Moves the allowed blocks down in place, which never overwrites a block that wasn't moved yet.
+            for ( int index = 0; index < count; index++ )
+            {
+                if ( !deniedPositions.get( index ) )
+                {
+                    positions[ allowed ]  = positions[ index ];
+                    experience[ allowed ] = experience[ index ];
+
+                    withoutDrops.set( allowed++, withoutDrops.get( index ) );
+                }
+            }
+
+            withoutDrops.clear( allowed, count );
+            denied.add( count - allowed );
+
+            count = allowed;
+        }
+
+        if ( count == 0 )
+        {
+            return;
+        }
+
+        queue.add( new Pending( operation, positions, count, withoutDrops, experience ) );
+        pendingBlocks += count;
+
+        apply( false );
+    }
+
+    /**
+     * Applies queued operations until the budget of the tick is spent. Call once per server tick.
+     */
+    public final void tick()
+    {
+        spentThisTick   = 0L;
+        changedThisTick = 0;
+
+        apply( false );
+    }
+
+    /**
+     * Applies every queued operation regardless of the budget. Call when the plugin disables, so no merged drops are
+     * lost.
+     */
+    public final void flush()
+    {
+        apply( true );
+    }
+
+    /**
+     * Returns the amount of blocks of submitted operations that weren't changed or skipped yet.
+     *
+     * @return The amount of pending blocks.
+     */
+    public final int getPendingBlocks()
+    {
+        return pendingBlocks;
+    }
+
+    private void apply( final boolean unbounded )
+    {
+        if ( queue.isEmpty() )
+        {
+            return;
+        }
+
+        if ( !unbounded && changedThisTick > 0 && spentThisTick >= budget )
+        {
+            return;
+        }
+
+        final long start         = clock.getAsLong();
+        final long deadline      = unbounded ? Long.MAX_VALUE : start + budget - spentThisTick;
+        final int  changedBefore = changedThisTick;
+        Pending    pending;
+
+        untilClock = CLOCK_INTERVAL;
+
+        while ( ( pending = queue.peek() ) != null && apply( pending, deadline ) )
+        {
+            queue.poll();
+            pending.dropAll();
+        }
+
+        spentThisTick += clock.getAsLong() - start;
+        changed.add( changedThisTick - changedBefore );
+    }
+
+    /**
+     * Changes the blocks of an operation until the deadline passes.
+     *
+     * @return If every block of the operation was changed.
+     */
+    private boolean apply( @NonNull final Pending pending, final long deadline )
+    {
+        while ( pending.next < pending.count )
+        {
+            pending.applyNext();
+
+            if ( --untilClock <= 0 )
+            {
+                untilClock = CLOCK_INTERVAL;
+
+                if ( changedThisTick > 0 && clock.getAsLong() >= deadline )
+                {
+                    return pending.next == pending.count;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * A submitted operation with its sorted, allowed blocks and the drops and experience merged so far.
+     */
+    private final class Pending
+            implements Consumer< I >
+    {
+
+        private final BlockOperation< P, W > operation;
+        private final long[]                 positions;
+        private final int                    count;
+        // The index of every block that must not drop items.
+        private final BitSet                 withoutDrops;
+        // The experience every block drops, by index.
+        private final int[]                  experience;
+        // The index of the next block to change.
+        private int                          next;
+        // The key of the chunk of the last changed block.
+        private long                         chunkKey = -1L;
+
+        // The distinct items dropped so far and their merged amounts.
+        private final List< I > items   = new ArrayList<>();
+        private int[]           amounts = new int[ 4 ];
+        // The experience dropped so far.
+        private int             droppedExperience;
+
+        private Pending( @NonNull final BlockOperation< P, W > operation, @NonNull final long[] positions,
+                         final int count, @NonNull final BitSet withoutDrops, @NonNull final int[] experience )
+        {
+            this.operation    = operation;
+            this.positions    = positions;
+            this.count        = count;
+            this.withoutDrops = withoutDrops;
+            this.experience   = experience;
+        }
+
+        /**
+         * Changes the next block, or skips every block of its chunk if the chunk isn't loaded.
+         */
+        private void applyNext()
+        {
+            final long position = positions[ next ];
+            final long key      = BlockPositions.getChunkKey( position );
+
+            if ( key != chunkKey )
+            {
+                chunkKey = key;
+
+                if ( !getAccess().isChunkLoaded( operation.getWorld(), BlockPositions.getChunkX( position ),
+                                                 BlockPositions.getChunkZ( position ) ) )
+                {
+                    final int first = next;
+
+                    while ( next < count && BlockPositions.getChunkKey( positions[ next ] ) == key )
+                    {
+                        next++;
+                    }
+
+                    skipped.add( next - first );
+                    pendingBlocks -= next - first;
+
+                    return;
+                }
+            }
+
+            final int index = next++;
+
+            pendingBlocks--;
+
+            if ( getAccess().breakBlock( operation.getPlayer(), operation.getWorld(), position,
+                                         !withoutDrops.get( index ), this ) )
+            {
+                changedThisTick++;
+                droppedExperience += experience[ index ];
+            }
+            else
+            {
+                skipped.increment();
+            }
+        }
+
+        /**
+         * Merges a drop of a changed block into the drops of the operation.
+         */
+        @Override
+        public final void accept( @NonNull final I item )
+        {
+            final int amount = getAccess().getAmount( item );
+
+            for ( int index = 0; index < items.size(); index++ )
+            {
+                if ( getAccess().isSimilar( items.get( index ), item ) )
+                {
+                    amounts[ index ] += amount;
+
+                    return;
+                }
+            }
+
+            if ( items.size() == amounts.length )
+            {
+                amounts = Arrays.copyOf( amounts, amounts.length << 1 );
+            }
+
+            amounts[ items.size() ] = amount;
+            items.add( item );
+        }
+
+        private void dropAll()
+        {
+            for ( int index = 0; index < items.size(); index++ )
+            {
+                getAccess().drop( operation.getWorld(), operation.getOrigin(), items.get( index ), amounts[ index ] );
+            }
+
+            drops.add( items.size() );
+
+            if ( droppedExperience > 0 )
+            {
+                getAccess().dropExperience( operation.getWorld(), operation.getOrigin(), droppedExperience );
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.qhucy.universalenchant.block;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Class that collects the blocks one proc of a multi-block enchantment changes, such as the ores of a vein or the
+ * blocks of a tunnel, to be applied by the {@link BlockChangeEngine}.
+ * <p>
+ * The block the player broke is the origin of the operation. It is broken by the server as usual, and the drops of
+ * every other block are merged and dropped at it.
+ *
+ * @param <P> The type of the players.
+ * @param <W> The type of the worlds.
+ *
+ * @author Qhucy
+ */
+public final class BlockOperation< P, W >
+{
+
+    @Getter
+    private final P      player;
+    @Getter
+    private final W      world;
+    // The packed position of the block the player broke.
+    @Getter
+    private final long   origin;
+    // The packed positions of the blocks to change, in the order they were added.
+    private long[]       positions = new long[ 16 ];
+    @Getter
+    private int          size;
+
+    /**
+     * Creates an empty operation.
+     *
+     * @param player  The player that triggered the operation. Can't be null.
+     * @param world   The world of the blocks. Can't be null.
+     * @param originX The x of the block the player broke.
+     * @param originY The y of the block the player broke.
+     * @param originZ The z of the block the player broke.
+     */
+    public BlockOperation( @NonNull final P player, @NonNull final W world, final int originX, final int originY,
+                           final int originZ )
+    {
+        this.player = player;
+        this.world  = world;
+        this.origin = BlockPositions.pack( originX, originY, originZ );
+    }
+
+    /**
+     * Adds a block to change. Blocks added more than once are only changed once.
+     *
+     * @param x The x of the block.
+     * @param y The y of the block.
+     * @param z The z of the block.
+     */
+    public final void add( final int x, final int y, final int z )
+    {
+        if ( size == positions.length )
+        {
+            positions = Arrays.copyOf( positions, size << 1 );
+        }
+
+        positions[ size++ ] = BlockPositions.pack( x, y, z );
+    }
+
+    /**
+     * Returns the packed positions of the blocks to change. Only the first {@link #getSize()} positions are used.
+     *
+     * @return The packed positions.
+     */
+    final long[] getPositions()
+    {
+        return positions;
+    }
+
+}
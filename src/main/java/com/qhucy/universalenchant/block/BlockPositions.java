@@ -0,0 +1,106 @@
+package com.qhucy.universalenchant.block;
+
+/**
+ * Utility class that packs block positions into longs ordered by chunk, so sorting packed positions groups them by
+ * chunk without a map.
+ * <p>
+ * From the highest bits down, a packed position holds the chunk x (22 bits), the chunk z (22 bits), the y (12 bits) and
+ * the x and z within the chunk (4 bits each), which covers every position within the world border at any height.
+ *
+ * @author Qhucy
+ */
+public final class BlockPositions
+{
+
+    private BlockPositions()
+    {
+    }
+
+    /**
+     * Packs a block position.
+     *
+     * @param x The x of the block.
+     * @param y The y of the block.
+     * @param z The z of the block.
+     *
+     * @return The packed position.
+     */
+    public static long pack( final int x, final int y, final int z )
+    {
+        return ( ( long ) ( x >> 4 ) & 0x3FFFFFL ) << 42 | ( ( long ) ( z >> 4 ) & 0x3FFFFFL ) << 20
+               | ( ( long ) y & 0xFFFL ) << 8 | ( x & 15 ) << 4 | z & 15;
+    }
+
+    /**
+     * Returns the x of a packed position.
+     *
+     * @param position The packed position.
+     *
+     * @return The x of the block.
+     */
+    public static int getX( final long position )
+    {
+        return getChunkX( position ) << 4 | ( int ) ( position >> 4 & 15 );
+    }
+
+    /**
+     * Returns the y of a packed position.
+     *
+     * @param position The packed position.
+     *
+     * @return The y of the block.
+     */
+    public static int getY( final long position )
+    {
+        return ( int ) ( position << 44 >> 52 );
+    }
+
+    /**
+     * Returns the z of a packed position.
+     *
+     * @param position The packed position.
+     *
+     * @return The z of the block.
+     */
+    public static int getZ( final long position )
+    {
+        return getChunkZ( position ) << 4 | ( int ) ( position & 15 );
+    }
+
+    /**
+     * Returns the x of the chunk of a packed position.
+     *
+     * @param position The packed position.
+     *
+     * @return The x of the chunk.
+     */
+    public static int getChunkX( final long position )
+    {
+        return ( int ) ( position >> 42 );
+    }
+
+    /**
+     * Returns the z of the chunk of a packed position.
+     *
+     * @param position The packed position.
+     *
+     * @return The z of the chunk.
+     */
+    public static int getChunkZ( final long position )
+    {
+        return ( int ) ( position << 22 >> 42 );
+    }
+
+    /**
+     * Returns the key of the chunk of a packed position, equal for every position in the same chunk.
+     *
+     * @param position The packed position.
+     *
+     * @return The key of the chunk.
+     */
+    public static long getChunkKey( final long position )
+    {
+        return position >>> 20;
+    }
+
+}
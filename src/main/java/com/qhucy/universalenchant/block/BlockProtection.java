@@ -0,0 +1,34 @@
+package com.qhucy.universalenchant.block;
+
+import java.util.BitSet;
+
+/**
+ * Decides which blocks of an operation a player may change, such as by asking protection plugins.
+ * <p>
+ * Every block of an operation is checked in one pass when the operation is submitted, before any block is changed, so
+ * a check can share work across blocks, such as looking up the protected region of every chunk once.
+ *
+ * @param <P> The type of the players.
+ * @param <W> The type of the worlds.
+ *
+ * @author Qhucy
+ * @see EventBlockProtection
+ */
+public interface BlockProtection< P, W >
+{
+
+    /**
+     * Marks the blocks a player may not change, and how the blocks they may change drop.
+     *
+     * @param player       The player that triggered the operation. Can't be null.
+     * @param world        The world of the blocks. Can't be null.
+     * @param positions    The packed positions of the blocks, sorted by chunk. Can't be null.
+     * @param count        The amount of positions to check.
+     * @param denied       Receives the index of every position the player may not change. Can't be null.
+     * @param withoutDrops Receives the index of every position whose block must not drop items. Can't be null.
+     * @param experience   Receives the experience the block at every position drops, by index. Can't be null.
+     */
+    void check( final P player, final W world, final long[] positions, final int count, final BitSet denied,
+                final BitSet withoutDrops, final int[] experience );
+
+}
@@ -0,0 +1,102 @@
+package com.qhucy.universalenchant.block;
+
+import lombok.NonNull;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.TileState;
+import org.bukkit.entity.ExperienceOrb;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.function.Consumer;
+
+/**
+ * Class that changes the blocks of Bukkit worlds for the {@link BlockChangeEngine}.
+ * <p>
+ * Blocks with a tile entity, such as containers, spawners and signs, are never broken, since clearing them without
+ * physics would delete what they hold rather than dropping it.
+ *
+ * @author Qhucy
+ */
+public final class BukkitBlockAccess
+        implements BlockAccess< Player, World, ItemStack >
+{
+
+    @Override
+    public final boolean isChunkLoaded( @NonNull final World world, final int chunkX, final int chunkZ )
+    {
+        return world.isChunkLoaded( chunkX, chunkZ );
+    }
+
+    @Override
+    public final boolean breakBlock( @NonNull final Player player, @NonNull final World world, final long position,
+                                     final boolean dropItems, @NonNull final Consumer< ItemStack > drops )
+    {
+        final Block block = world.getBlockAt( BlockPositions.getX( position ), BlockPositions.getY( position ),
+                                              BlockPositions.getZ( position ) );
+
+        if ( block.getType().isAir() || block.getState() instanceof TileState )
+        {
+            return false;
+        }
+
+        if ( dropItems )
+        {
+            // Read before the block is cleared, with the tool the player holds now.
+            for ( final ItemStack drop : block.getDrops( player.getInventory().getItemInMainHand(), player ) )
+            {
+                drops.accept( drop );
+            }
+        }
+
+        // Physics would update the neighbours of every block, and most of them are changed by the same operation.
+        block.setType( Material.AIR, false );
+
+        return true;
+    }
+
+    @Override
+    public final boolean isSimilar( @NonNull final ItemStack first, @NonNull final ItemStack second )
+    {
+        return first.isSimilar( second );
+    }
+
+    @Override
+    public final int getAmount( @NonNull final ItemStack item )
+    {
+        return item.getAmount();
+    }
+
+    @Override
+    public final void drop( @NonNull final World world, final long position, @NonNull final ItemStack item,
+                            final int amount )
+    {
+        final Location location  = new Location( world, BlockPositions.getX( position ) + 0.5,
+                                                 BlockPositions.getY( position ) + 0.5,
+                                                 BlockPositions.getZ( position ) + 0.5 );
+        int            remaining = amount;
+
+        while ( remaining > 0 )
+        {
+            final ItemStack stack = item.clone();
+
+            stack.setAmount( Math.min( remaining, item.getMaxStackSize() ) );
+            world.dropItemNaturally( location, stack );
+
+            remaining -= stack.getAmount();
+        }
+    }
+
+    @Override
+    public final void dropExperience( @NonNull final World world, final long position, final int amount )
+    {
+        final Location location = new Location( world, BlockPositions.getX( position ) + 0.5,
+                                                BlockPositions.getY( position ) + 0.5,
+                                                BlockPositions.getZ( position ) + 0.5 );
+
+        world.spawn( location, ExperienceOrb.class, orb -> orb.setExperience( amount ) );
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.qhucy.universalenchant.block;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.plugin.PluginManager;
+
+import java.util.BitSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Class that asks protection plugins if a player may change blocks by calling a {@link ProtectionCheckEvent} for every
+ * block, which every protection plugin receives as a {@link BlockBreakEvent}. A block is denied if its event is
+ * cancelled, and drops no items or a different amount of experience if a listener changed that on its event.
+ * <p>
+ * The events are called in one pass before any block of the operation is changed, and never break the block
+ * themselves. Block break listeners of this plugin must ignore events called while {@link #isChecking()}, so checking
+ * an operation never triggers another one.
+ *
+ * @author Qhucy
+ */
+public final class EventBlockProtection
+        implements BlockProtection< Player, World >
+{
+
+    @Getter( AccessLevel.PRIVATE )
+    private final PluginManager pluginManager;
+    // If the events of an operation are being called.
+    @Getter
+    private boolean             checking;
+
+    /**
+     * Creates a protection check that calls its events through a plugin manager.
+     *
+     * @param pluginManager The plugin manager. Can't be null.
+     */
+    public EventBlockProtection( @NonNull final PluginManager pluginManager )
+    {
+        this.pluginManager = pluginManager;
+    }
+
+    @Override
+    public final void check( @NonNull final Player player, @NonNull final World world, @NonNull final long[] positions,
+                             final int count, @NonNull final BitSet denied, @NonNull final BitSet withoutDrops,
+                             @NonNull final int[] experience )
+    {
+        final boolean silkTouch = player.getInventory().getItemInMainHand().containsEnchantment(
+                Enchantment.SILK_TOUCH );
+
+        checking = true;
+
+        try
+        {
+            for ( int index = 0; index < count; index++ )
+            {
+                final long                 position = positions[ index ];
+                final Block                block    = world.getBlockAt( BlockPositions.getX( position ),
+                                                                        BlockPositions.getY( position ),
+                                                                        BlockPositions.getZ( position ) );
+                final ProtectionCheckEvent event    = new ProtectionCheckEvent(
+                        block, player, silkTouch ? 0 : getExperience( block ) );
+
+                getPluginManager().callEvent( event );
+
+                if ( event.isCancelled() )
+                {
+                    denied.set( index );
+
+                    continue;
+                }
+
+                if ( !event.isDropItems() )
+                {
+                    withoutDrops.set( index );
+                }
+
+                experience[ index ] = Math.max( 0, event.getExpToDrop() );
+            }
+        }
+        finally
+        {
+            checking = false;
+        }
+    }
+
+    /**
+     * Returns the experience the server drops for breaking a block with a tool without silk touch, which the server
+     * otherwise only works out for the block the player broke.
+     */
+    private static int getExperience( @NonNull final Block block )
+    {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        switch ( block.getType() )
+        {
+            case COAL_ORE:
+                return random.nextInt( 0, 3 );
+            case NETHER_GOLD_ORE:
+                return random.nextInt( 0, 2 );
+            case DIAMOND_ORE:
+            case EMERALD_ORE:
+                return random.nextInt( 3, 8 );
+            case LAPIS_ORE:
+            case NETHER_QUARTZ_ORE:
+                return random.nextInt( 2, 6 );
+            case REDSTONE_ORE:
+                return random.nextInt( 1, 6 );
+            default:
+                return 0;
+        }
+    }
+
+}
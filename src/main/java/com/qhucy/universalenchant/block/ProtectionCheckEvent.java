@@ -0,0 +1,36 @@
+package com.qhucy.universalenchant.block;
+
+import lombok.NonNull;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.BlockBreakEvent;
+
+/**
+ * Block break event called by {@link EventBlockProtection} to ask protection plugins if a player may break a block,
+ * before the block is broken or even if it is never broken.
+ * <p>
+ * Protection plugins receive it like any other {@link BlockBreakEvent}, since it shares its handlers. Plugins that
+ * record or reward block breaks, such as logging, jobs or skill plugins, should ignore it and listen for the break of
+ * the block itself instead.
+ *
+ * @author Qhucy
+ */
+public final class ProtectionCheckEvent
+        extends BlockBreakEvent
+{
+
+    /**
+     * Creates a protection check of a block.
+     *
+     * @param block      The block the player would break. Can't be null.
+     * @param player     The player that would break the block. Can't be null.
+     * @param experience The experience the block drops if it isn't changed by a listener.
+     */
+    public ProtectionCheckEvent( @NonNull final Block block, @NonNull final Player player, final int experience )
+    {
+        super( block, player );
+
+        setExpToDrop( experience );
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.qhucy.universalenchant.broadcast;
+
+import com.qhucy.universalenchant.metrics.Counter;
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import com.qhucy.universalenchant.util.MessageManager;
+import lombok.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Class that broadcasts messages to many recipients, rendering every distinct message once.
+ * <p>
+ * Recipients are grouped by the locale they get the message in and by the values of the variables that depend on the
+ * recipient. Every group's message is rendered once and the same string is sent to every recipient in the group, so a
+ * broadcast to hundreds of players costs a handful of renders. Sends are limited per tick, and the rest of a large
+ * broadcast is spread across the following ticks in order.
+ * <p>
+ * The dispatcher is not thread safe and is meant to be used from the main server thread.
+ *
+ * @param <T> The type of the recipients, players on a server.
+ *
+ * @author Qhucy
+ */
+public final class BroadcastDispatcher< T >
+{
+
+    // Returns the locale of a recipient.
+    private final Function< T, String >   locale;
+    // Sends a rendered message to a recipient.
+    private final BiConsumer< T, String > sender;
+    // The maximum amount of messages sent per tick.
+    private final int                     sendsPerTick;
+
+    // Rendered messages waiting for their turn to be sent.
+    private final Queue< Delivery< T > > pending = new ArrayDeque<>();
+    private int                          sentThisTick;
+
+    private final Counter rendered;
+    private final Counter sent;
+
+    /**
+     * Creates a broadcast dispatcher and registers its metrics.
+     *
+     * @param locale          Returns the locale of a recipient. Can't be null.
+     * @param sender          Sends a rendered message to a recipient. Can't be null.
+     * @param sendsPerTick    The maximum amount of messages sent per tick, at least 1.
+     * @param metricsRegistry The registry to register the dispatcher's metrics in. Can't be null.
+     */
+    public BroadcastDispatcher( @NonNull final Function< T, String > locale,
+                                @NonNull final BiConsumer< T, String > sender, final int sendsPerTick,
+                                @NonNull final MetricsRegistry metricsRegistry )
+    {
+        this.locale       = locale;
+        this.sender       = sender;
+        this.sendsPerTick = Math.max( 1, sendsPerTick );
+
+        rendered = metricsRegistry.counter( "broadcast.rendered" );
+        sent     = metricsRegistry.counter( "broadcast.sent" );
+
+        metricsRegistry.gauge( "broadcast.pending", pending::size );
+    }
+
+    /**
+     * Broadcasts a message. Sends start immediately, as far as this tick's limit allows.
+     *
+     * @param message            The message. Can't be null.
+     * @param recipients         The recipients. Can't be null.
+     * @param variables          The variables that are the same for every recipient and their values. Length must be a
+     *                           multiple of two with the format [variable, value, variable, value, ...]. Can't be null.
+     * @param recipientVariables The variables whose values depend on the recipient. Can't be null.
+     */
+    @SafeVarargs
+    public final void broadcast( @NonNull final BroadcastMessage message,
+                                 @NonNull final Collection< ? extends T > recipients, @NonNull final String[] variables,
+                                 @NonNull final RecipientVariable< T >... recipientVariables )
+    {
+        final int                           shared  = variables.length;
+        final Map< List< String >, String > byGroup = new HashMap<>();
+
+        for ( final T recipient : recipients )
+        {
+            // The resolved locale followed by the value of every recipient variable.
+            final String[] group = new String[ recipientVariables.length + 1 ];
+
+            group[ 0 ] = message.resolveLocale( locale.apply( recipient ) );
+
+            for ( int i = 0; i < recipientVariables.length; i++ )
+            {
+                group[ i + 1 ] = recipientVariables[ i ].getValue( recipient );
+            }
+
+            final String text = byGroup.computeIfAbsent( Arrays.asList( group ), key ->
+            {
+                final String[] allVariables = Arrays.copyOf( variables, shared + recipientVariables.length * 2 );
+
+                for ( int i = 0; i < recipientVariables.length; i++ )
+                {
+                    allVariables[ shared + i * 2 ]     = recipientVariables[ i ].getVariable();
+                    allVariables[ shared + i * 2 + 1 ] = group[ i + 1 ];
+                }
+
+                rendered.increment();
+
+                return MessageManager.replaceVariables( message.getTemplate( group[ 0 ] ), allVariables );
+            } );
+
+            pending.add( new Delivery<>( recipient, text ) );
+        }
+
+        send();
+    }
+
+    /**
+     * Sends pending messages of earlier broadcasts, as far as the limit per tick allows. Call once per server tick.
+     */
+    public final void tick()
+    {
+        sentThisTick = 0;
+
+        send();
+    }
+
+    /**
+     * Returns the amount of messages waiting to be sent.
+     *
+     * @return The amount of pending messages.
+     */
+    public final int getPendingCount()
+    {
+        return pending.size();
+    }
+
+    private void send()
+    {
+        while ( sentThisTick < sendsPerTick && !pending.isEmpty() )
+        {
+            final Delivery< T > delivery = pending.poll();
+
+            sentThisTick++;
+            sent.increment();
+            sender.accept( delivery.recipient, delivery.message );
+        }
+    }
+
+    /**
+     * A rendered message waiting to be sent to a recipient.
+     */
+    private static final class Delivery< T >
+    {
+
+        private final T      recipient;
+        private final String message;
+
+        private Delivery( @NonNull final T recipient, @NonNull final String message )
+        {
+            this.recipient = recipient;
+            this.message   = message;
+        }
+
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.qhucy.universalenchant.broadcast;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Class for the colorized template of a message broadcast to many players, with translations by locale.
+ *
+ * @author Qhucy
+ * @see BroadcastDispatcher
+ */
+public final class BroadcastMessage
+{
+
+    // The locale of the default template, used for locales without a translation.
+    public static final String DEFAULT_LOCALE = "";
+
+    @Getter
+    private final String                defaultTemplate;
+    // The translated templates by lower case locale.
+    private final Map< String, String > templates;
+
+    /**
+     * Creates a message without translations.
+     *
+     * @param defaultTemplate The colorized template. Can't be null.
+     */
+    public BroadcastMessage( @NonNull final String defaultTemplate )
+    {
+        this( defaultTemplate, Collections.emptyMap() );
+    }
+
+    /**
+     * Creates a message with translations.
+     *
+     * @param defaultTemplate The colorized template for locales without a translation. Can't be null.
+     * @param templates       The colorized translated templates by locale, such as 'de_de'. Can't be null.
+     */
+    public BroadcastMessage( @NonNull final String defaultTemplate, @NonNull final Map< String, String > templates )
+    {
+        this.defaultTemplate = defaultTemplate;
+        this.templates       = new HashMap<>();
+
+        templates.forEach( ( locale, template ) -> this.templates.put( locale.toLowerCase( Locale.ROOT ), template ) );
+    }
+
+    /**
+     * Returns the locale a recipient gets the message in.
+     *
+     * @param locale The locale of the recipient. Can be null.
+     *
+     * @return The lower case locale if the message is translated to it, {@link #DEFAULT_LOCALE} otherwise.
+     */
+    public final String resolveLocale( final String locale )
+    {
+        if ( locale == null || templates.isEmpty() )
+        {
+            return DEFAULT_LOCALE;
+        }
+
+        final String lowerCase = locale.toLowerCase( Locale.ROOT );
+
+        return templates.containsKey( lowerCase ) ? lowerCase : DEFAULT_LOCALE;
+    }
+
+    /**
+     * Returns the template of a resolved locale.
+     *
+     * @param locale The locale returned by {@link #resolveLocale(String)}. Can't be null.
+     *
+     * @return The template.
+     */
+    public final String getTemplate( @NonNull final String locale )
+    {
+        return templates.getOrDefault( locale, defaultTemplate );
+    }
+
+}
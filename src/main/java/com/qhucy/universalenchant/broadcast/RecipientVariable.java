@@ -0,0 +1,50 @@
+package com.qhucy.universalenchant.broadcast;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.function.Function;
+
+/**
+ * Class for a variable of a broadcast whose value depends on the recipient, such as their team.
+ * <p>
+ * Recipients are grouped by the values of these variables, so they should only have a few distinct values across every
+ * recipient. A variable that differs for every recipient makes the broadcast render once per recipient.
+ *
+ * @param <T> The type of the recipients.
+ *
+ * @author Qhucy
+ */
+public final class RecipientVariable< T >
+{
+
+    // The variable in the template, such as '%team%'.
+    @Getter
+    private final String                variable;
+    private final Function< T, String > value;
+
+    /**
+     * Creates a recipient variable.
+     *
+     * @param variable The variable in the template, such as '%team%'. Can't be null.
+     * @param value    Returns the value of the variable for a recipient. Can't be null.
+     */
+    public RecipientVariable( @NonNull final String variable, @NonNull final Function< T, String > value )
+    {
+        this.variable = variable;
+        this.value    = value;
+    }
+
+    /**
+     * Returns the value of the variable for a recipient.
+     *
+     * @param recipient The recipient. Can't be null.
+     *
+     * @return The value.
+     */
+    public final String getValue( @NonNull final T recipient )
+    {
+        return String.valueOf( value.apply( recipient ) );
+    }
+
+}
@@ -0,0 +1,253 @@
+package com.qhucy.universalenchant.cluster;
+
+import com.qhucy.universalenchant.metrics.Counter;
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import com.qhucy.universalenchant.player.BalanceListener;
+import com.qhucy.universalenchant.player.PlayerData;
+import com.qhucy.universalenchant.player.PlayerDataService;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class that keeps the cached balances of several servers (nodes) sharing one player database coherent, so no node has
+ * to read balances through to the database.
+ * <p>
+ * Every balance change made through {@link PlayerDataService#setBalance(PlayerData, double)} is published to the other
+ * nodes as an update carrying the new balance. Changes made in storage by other means are published as an update
+ * carrying the stored balance by {@link #applyStoredBalance(UUID, double)}, or with {@link #publishInvalidate(UUID)},
+ * which makes the other nodes forget the cached data of quit players and reload the balances of online players from
+ * storage. Every message carries the version of the account after the change, and messages that aren't newer than the
+ * latest change a node knows of are dropped, so messages that arrive late, twice or out of order can't roll a balance
+ * back.
+ * <p>
+ * Versions are hybrid logical clocks: the wall clock in the high bits, so a node that restarted or forgot an account
+ * still publishes newer versions, and a counter in the low bits, so versions keep increasing within a millisecond and
+ * with clocks that are slightly off. The latest version of a bounded amount of recently changed accounts is kept.
+ * <p>
+ * Messages are applied on the main server thread, and every method is meant to be called from it.
+ *
+ * @author Qhucy
+ * @see ClusterTransport
+ */
+public final class BalanceCoherence
+        implements BalanceListener
+{
+
+    // The amount of low bits of a version that count changes within the same millisecond.
+    private static final int COUNTER_BITS = 16;
+
+    // The unique id of this node in the cluster.
+    @Getter
+    private final String            nodeId;
+    @Getter( AccessLevel.PRIVATE )
+    private final PlayerDataService playerDataService;
+    // Runs received messages on the main server thread.
+    private final Executor          mainExecutor;
+    // Returns the current time in milliseconds.
+    private final LongSupplier      clock;
+    @Getter( AccessLevel.PRIVATE )
+    private final Logger            logger;
+
+    // The latest message of every recently changed account, in least recently used order.
+    private final Map< UUID, BalanceMessage > latest;
+    private ClusterTransport                  transport;
+
+    private final Counter published;
+    private final Counter applied;
+    private final Counter dropped;
+    private final Counter malformed;
+
+    /**
+     * Creates the coherence layer of a node and registers its metrics. Nothing is sent until a transport is connected.
+     *
+     * @param nodeId            The unique id of this node in the cluster. Can't be null.
+     * @param playerDataService The service caching the player data of this node. Can't be null.
+     * @param mainExecutor      The executor that runs received messages on the main server thread. Can't be null.
+     * @param clock             Returns the current time in milliseconds. Can't be null.
+     * @param trackedAccounts   The maximum amount of accounts whose latest version is kept.
+     * @param metricsRegistry   The registry to register the layer's metrics in. Can't be null.
+     * @param logger            The logger to report malformed messages to. Can't be null.
+     */
+    public BalanceCoherence( @NonNull final String nodeId, @NonNull final PlayerDataService playerDataService,
+                             @NonNull final Executor mainExecutor, @NonNull final LongSupplier clock,
+                             final int trackedAccounts, @NonNull final MetricsRegistry metricsRegistry,
+                             @NonNull final Logger logger )
+    {
+        this.nodeId            = nodeId;
+        this.playerDataService = playerDataService;
+        this.mainExecutor      = mainExecutor;
+        this.clock             = clock;
+        this.logger            = logger;
+        this.latest            = new LinkedHashMap< UUID, BalanceMessage >( 16, 0.75f, true )
+        {
+            @Override
+            protected boolean removeEldestEntry( final Map.Entry< UUID, BalanceMessage > eldest )
+            {
+                return size() > trackedAccounts;
+            }
+        };
+
+        published = metricsRegistry.counter( "cluster.published" );
+        applied   = metricsRegistry.counter( "cluster.applied" );
+        dropped   = metricsRegistry.counter( "cluster.dropped" );
+        malformed = metricsRegistry.counter( "cluster.malformed" );
+
+        metricsRegistry.gauge( "cluster.tracked-accounts", latest::size );
+    }
+
+    /**
+     * Connects a transport to the cluster, replacing and closing the previous transport.
+     *
+     * @param transport The transport. Can't be null.
+     */
+    public final void connect( @NonNull final ClusterTransport transport )
+    {
+        close();
+
+        this.transport = transport;
+
+        transport.subscribe( this::receive );
+    }
+
+    /**
+     * Closes the connected transport, if any.
+     */
+    public final void close()
+    {
+        if ( transport != null )
+        {
+            transport.close();
+
+            transport = null;
+        }
+    }
+
+    @Override
+    public final void onBalanceChange( @NonNull final UUID uniqueId, final double balance )
+    {
+        publish( BalanceMessageType.UPDATE, uniqueId, balance );
+    }
+
+    /**
+     * Makes the other nodes drop their cached copies of an account that was changed in storage without going through
+     * the player data service, when the stored balance isn't known.
+     *
+     * @param uniqueId The unique id of the player that owns the account. Can't be null.
+     */
+    public final void publishInvalidate( @NonNull final UUID uniqueId )
+    {
+        publish( BalanceMessageType.INVALIDATE, uniqueId, 0.0 );
+    }
+
+    /**
+     * Applies a balance that was written to storage without going through the player data service, such as by a bulk
+     * import. The cached data of this node is updated if the player is cached, so it isn't saved back over the stored
+     * balance, and the stored balance is published to the other nodes either way.
+     *
+     * @param uniqueId The unique id of the player that owns the account. Can't be null.
+     * @param balance  The stored balance.
+     */
+    public final void applyStoredBalance( @NonNull final UUID uniqueId, final double balance )
+    {
+        final PlayerData playerData = getPlayerDataService().getCached( uniqueId );
+
+        if ( playerData == null )
+        {
+            publish( BalanceMessageType.UPDATE, uniqueId, balance );
+        }
+        else
+        {
+            getPlayerDataService().setBalance( playerData, balance );
+        }
+    }
+
+    private void publish( @NonNull final BalanceMessageType type, @NonNull final UUID uniqueId, final double balance )
+    {
+        final BalanceMessage previous = latest.get( uniqueId );
+        final long           version  = Math.max( clock.getAsLong() << COUNTER_BITS,
+                                                  previous == null ? 0L : previous.getVersion() + 1 );
+        final BalanceMessage message  = new BalanceMessage( type, nodeId, uniqueId, version, balance );
+
+        // Recorded even while disconnected, so older messages that arrive later are still dropped.
+        latest.put( uniqueId, message );
+
+        if ( transport != null )
+        {
+            transport.publish( message.encode() );
+            published.increment();
+        }
+    }
+
+    /**
+     * Decodes a message on the thread of the transport and passes it to the main server thread.
+     */
+    private void receive( @NonNull final byte[] encoded )
+    {
+        final BalanceMessage message;
+
+        try
+        {
+            message = BalanceMessage.decode( encoded );
+        }
+        catch ( final IOException exception )
+        {
+            malformed.increment();
+            getLogger().log( Level.WARNING, "Dropped a malformed balance message.", exception );
+
+            return;
+        }
+
+        mainExecutor.execute( () -> apply( message ) );
+    }
+
+    /**
+     * Applies a message from another node to the cached data of this node, unless it is out of order.
+     *
+     * @param message The message. Can't be null.
+     */
+    private void apply( @NonNull final BalanceMessage message )
+    {
+        if ( message.getOrigin().equals( nodeId ) )
+        {
+            return;
+        }
+
+        final BalanceMessage previous = latest.get( message.getUniqueId() );
+
+        if ( previous != null && !message.isNewerThan( previous ) )
+        {
+            dropped.increment();
+
+            return;
+        }
+
+        latest.put( message.getUniqueId(), message );
+        applied.increment();
+
+        if ( message.getType() == BalanceMessageType.INVALIDATE )
+        {
+            getPlayerDataService().invalidate( message.getUniqueId() );
+        }
+        else
+        {
+            final PlayerData playerData = getPlayerDataService().getCached( message.getUniqueId() );
+
+            if ( playerData != null )
+            {
+                // Set directly rather than through the service, so the update isn't published again.
+                playerData.setBalance( message.getBalance() );
+            }
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.qhucy.universalenchant.cluster;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+
+/**
+ * Class for a versioned message about the balance of an account, sent between the nodes of a cluster.
+ * <p>
+ * Messages of one account are ordered by their version, and messages of the same version by the node that sent them,
+ * so every node agrees which of two messages is newer.
+ *
+ * @author Qhucy
+ * @see BalanceCoherence
+ */
+@Getter
+public final class BalanceMessage
+{
+
+    // The version of the encoding, increased whenever it changes.
+    private static final int FORMAT = 1;
+
+    private final BalanceMessageType type;
+    // The node that sent the message.
+    private final String             origin;
+    // The unique id of the player that owns the account.
+    private final UUID               uniqueId;
+    private final long               version;
+    // The new balance of an update, 0 for an invalidation.
+    private final double             balance;
+
+    /**
+     * Creates a message.
+     *
+     * @param type     The type of the message. Can't be null.
+     * @param origin   The node that sends the message. Can't be null.
+     * @param uniqueId The unique id of the player that owns the account. Can't be null.
+     * @param version  The version of the account after the change.
+     * @param balance  The new balance of an update, 0 for an invalidation.
+     */
+    public BalanceMessage( @NonNull final BalanceMessageType type, @NonNull final String origin,
+                           @NonNull final UUID uniqueId, final long version, final double balance )
+    {
+        this.type     = type;
+        this.origin   = origin;
+        this.uniqueId = uniqueId;
+        this.version  = version;
+        this.balance  = balance;
+    }
+
+    /**
+     * Returns if this message is newer than another message of the same account.
+     *
+     * @param other The other message. Can't be null.
+     *
+     * @return If this message has a higher version, or the same version from a node that orders after.
+     */
+    public final boolean isNewerThan( @NonNull final BalanceMessage other )
+    {
+        return version != other.version ? version > other.version : origin.compareTo( other.origin ) > 0;
+    }
+
+    /**
+     * Encodes the message to send it through a {@link ClusterTransport}.
+     *
+     * @return The encoded message.
+     */
+    public final byte[] encode()
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream( 64 );
+
+        try ( final DataOutputStream output = new DataOutputStream( bytes ) )
+        {
+            output.writeByte( FORMAT );
+            output.writeByte( type.ordinal() );
+            output.writeUTF( origin );
+            output.writeLong( uniqueId.getMostSignificantBits() );
+            output.writeLong( uniqueId.getLeastSignificantBits() );
+            output.writeLong( version );
+            output.writeDouble( balance );
+        }
+        catch ( final IOException exception )
+        {
+            // Writing to memory never fails.
+            throw new UncheckedIOException( exception );
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a message received through a {@link ClusterTransport}.
+     *
+     * @param message The encoded message. Can't be null.
+     *
+     * @return The message.
+     *
+     * @throws IOException If the message is malformed or encoded in an unknown format.
+     */
+    public static BalanceMessage decode( @NonNull final byte[] message )
+            throws IOException
+    {
+        try ( final DataInputStream input = new DataInputStream( new ByteArrayInputStream( message ) ) )
+        {
+            final int format = input.readUnsignedByte();
+
+            if ( format != FORMAT )
+            {
+                throw new IOException( "Unknown balance message format " + format + "." );
+            }
+
+            final int                  typeIndex = input.readUnsignedByte();
+            final BalanceMessageType[] types     = BalanceMessageType.values();
+
+            if ( typeIndex >= types.length )
+            {
+                throw new IOException( "Unknown balance message type " + typeIndex + "." );
+            }
+
+            return new BalanceMessage( types[ typeIndex ], input.readUTF(),
+                                       new UUID( input.readLong(), input.readLong() ), input.readLong(),
+                                       input.readDouble() );
+        }
+    }
+
+}
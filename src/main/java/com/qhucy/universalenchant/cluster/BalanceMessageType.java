@@ -0,0 +1,16 @@
+package com.qhucy.universalenchant.cluster;
+
+/**
+ * Enumeration of the types of {@link BalanceMessage}s.
+ *
+ * @author Qhucy
+ */
+public enum BalanceMessageType
+{
+
+    // The account changed in storage, so cached copies must be loaded again.
+    INVALIDATE,
+    // The balance of the account changed to the value carried by the message.
+    UPDATE
+
+}
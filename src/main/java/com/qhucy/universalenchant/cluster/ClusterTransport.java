@@ -0,0 +1,37 @@
+package com.qhucy.universalenchant.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport that carries messages between the servers (nodes) of a cluster sharing one player database, such as a
+ * message broker or a proxy channel.
+ *
+ * @author Qhucy
+ * @see LoopbackNetwork
+ * @see BalanceCoherence
+ */
+public interface ClusterTransport
+{
+
+    /**
+     * Sends a message to every other node. Called from the main server thread, so implementations must not block on
+     * the network.
+     *
+     * @param message The encoded message. Can't be null.
+     */
+    void publish( final byte[] message );
+
+    /**
+     * Sets the receiver of messages published by other nodes, which may be called from any thread. Messages can
+     * arrive out of order or more than once.
+     *
+     * @param receiver The receiver. Can't be null.
+     */
+    void subscribe( final Consumer< byte[] > receiver );
+
+    /**
+     * Stops sending and receiving messages.
+     */
+    void close();
+
+}
@@ -0,0 +1,100 @@
+package com.qhucy.universalenchant.cluster;
+
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Class for an in-process network of {@link ClusterTransport}s, which runs several nodes of a cluster in one process,
+ * such as in tests.
+ * <p>
+ * Every message published by one transport is delivered to every other connected transport through the delivery
+ * executor, so an executor that reorders or repeats tasks simulates an unreliable network.
+ *
+ * @author Qhucy
+ */
+public final class LoopbackNetwork
+{
+
+    // Runs every delivery of a message to a transport.
+    private final Executor                  delivery;
+    private final List< LoopbackTransport > transports = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates an empty network.
+     *
+     * @param delivery The executor that runs every delivery of a message to a transport. Can't be null.
+     */
+    public LoopbackNetwork( @NonNull final Executor delivery )
+    {
+        this.delivery = delivery;
+    }
+
+    /**
+     * Connects a new transport to the network.
+     *
+     * @return The transport.
+     */
+    public final ClusterTransport connect()
+    {
+        final LoopbackTransport transport = new LoopbackTransport();
+
+        transports.add( transport );
+
+        return transport;
+    }
+
+    /**
+     * A transport connected to the network.
+     */
+    private final class LoopbackTransport
+            implements ClusterTransport
+    {
+
+        private volatile Consumer< byte[] > receiver;
+
+        @Override
+        public void publish( @NonNull final byte[] message )
+        {
+            for ( final LoopbackTransport transport : transports )
+            {
+                if ( transport != this )
+                {
+                    // Copied per delivery, like a message read from a socket.
+                    final byte[] copy = message.clone();
+
+                    delivery.execute( () -> transport.receive( copy ) );
+                }
+            }
+        }
+
+        private void receive( @NonNull final byte[] message )
+        {
+            final Consumer< byte[] > current = receiver;
+
+            if ( current != null )
+            {
+                current.accept( message );
+            }
+        }
+
+        @Override
+        public void subscribe( @NonNull final Consumer< byte[] > receiver )
+        {
+            this.receiver = receiver;
+        }
+
+        @Override
+        public void close()
+        {
+            transports.remove( this );
+
+            receiver = null;
+        }
+
+    }
+
+}
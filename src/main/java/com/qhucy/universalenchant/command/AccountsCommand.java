@@ -0,0 +1,152 @@
+package com.qhucy.universalenchant.command;
+
+import com.qhucy.universalenchant.account.AccountTransferService;
+import com.qhucy.universalenchant.account.TransferCheckpoint;
+import com.qhucy.universalenchant.account.TransferDirection;
+import com.qhucy.universalenchant.config.Config;
+import com.qhucy.universalenchant.util.MessageManager;
+import com.qhucy.universalenchant.util.PrefixTrie;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.command.CommandSender;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Sub command that imports currency accounts from a file in the plugin folder, exports them to one, and shows or
+ * stops the running transfer.
+ *
+ * @author Qhucy
+ */
+public final class AccountsCommand
+        extends SubCommand
+{
+
+    private static final PrefixTrie ACTIONS = new PrefixTrie( Arrays.asList( "import", "export", "status", "stop" ) );
+
+    @Getter( AccessLevel.PRIVATE )
+    private final AccountTransferService accountTransferService;
+    @Getter( AccessLevel.PRIVATE )
+    private final Supplier< Config >     config;
+
+    /**
+     * Creates the accounts command.
+     *
+     * @param accountTransferService The service that transfers the accounts. Can't be null.
+     * @param config                 The loaded config, which changes with every reload. Can't be null.
+     */
+    public AccountsCommand( @NonNull final AccountTransferService accountTransferService,
+                            @NonNull final Supplier< Config > config )
+    {
+        super( "accounts", "universalenchant.command.accounts", "<import|export|status|stop> [file]",
+               "Imports or exports currency accounts from a .csv or .jsonl file in the plugin folder." );
+
+        this.accountTransferService = accountTransferService;
+        this.config                 = config;
+    }
+
+    @Override
+    public final boolean execute( @NonNull final CommandSender sender, @NonNull final String[] arguments )
+    {
+        if ( arguments.length == 0 )
+        {
+            return false;
+        }
+
+        switch ( arguments[ 0 ].toLowerCase( Locale.ROOT ) )
+        {
+            case "import":
+                return arguments.length == 2 && start( sender, TransferDirection.IMPORT, arguments[ 1 ] );
+            case "export":
+                return arguments.length == 2 && start( sender, TransferDirection.EXPORT, arguments[ 1 ] );
+            case "status":
+                return arguments.length == 1 && status( sender );
+            case "stop":
+                if ( arguments.length != 1 )
+                {
+                    return false;
+                }
+
+                final Config config = getConfig().get();
+
+                getAccountTransferService().stop();
+                sender.sendMessage( getAccountTransferService().isRunning() ? config.getMessageTransferStopping()
+                                                                            : config.getMessageTransferIdle() );
+
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private boolean start( @NonNull final CommandSender sender, @NonNull final TransferDirection direction,
+                           @NonNull final String file )
+    {
+        final Config config = getConfig().get();
+
+        if ( getAccountTransferService().isRunning() )
+        {
+            sender.sendMessage( config.getMessageTransferRunning() );
+
+            return true;
+        }
+
+        try
+        {
+            final TransferCheckpoint started = getAccountTransferService().start( direction, file );
+
+            sender.sendMessage( format( started.getPosition() > 0L ? config.getMessageTransferResumed()
+                                                                   : config.getMessageTransferStarted(), started ) );
+        }
+        catch ( final IOException exception )
+        {
+            sender.sendMessage( MessageManager.replaceVariables( config.getMessageTransferInvalid(), new String[] {
+                    "%reason%", exception.getMessage()
+            } ) );
+        }
+
+        return true;
+    }
+
+    private boolean status( @NonNull final CommandSender sender )
+    {
+        final TransferCheckpoint progress = getAccountTransferService().getProgress();
+        final Config             config   = getConfig().get();
+
+        if ( progress == null )
+        {
+            sender.sendMessage( config.getMessageTransferIdle() );
+        }
+        else
+        {
+            final String message = getAccountTransferService().isRunning() ? config.getMessageTransferProgress()
+                                                                           : config.getMessageTransferInterrupted();
+
+            sender.sendMessage( format( message, progress ) );
+        }
+
+        return true;
+    }
+
+    private static String format( @NonNull final String message, @NonNull final TransferCheckpoint progress )
+    {
+        return MessageManager.replaceVariables( message, new String[] {
+                "%action%", progress.getDirection().name().toLowerCase( Locale.ROOT ), "%file%", progress.getFile(),
+                "%accounts%", String.format( Locale.ROOT, "%,d", progress.getAccounts() ), "%lines%",
+                String.format( Locale.ROOT, "%,d", progress.getLines() )
+        } );
+    }
+
+    @Override
+    public final List< String > complete( @NonNull final CommandSender sender, @NonNull final String[] arguments )
+    {
+        return arguments.length == 1 ? ACTIONS.complete( arguments[ 0 ] ) : Collections.emptyList();
+    }
+
+}
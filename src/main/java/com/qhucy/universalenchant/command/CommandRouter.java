@@ -0,0 +1,175 @@
+package com.qhucy.universalenchant.command;
+
+import com.qhucy.universalenchant.config.Config;
+import com.qhucy.universalenchant.util.MessageManager;
+import com.qhucy.universalenchant.util.PrefixTrie;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Executor and tab completer of the plugin command, which routes its first argument to a {@link SubCommand} by name
+ * or alias.
+ * <p>
+ * Sub command names are completed from a {@link PrefixTrie}, and every later argument is completed by the sub command.
+ * Senders only see and complete the sub commands they have the permission of.
+ *
+ * @author Qhucy
+ */
+public final class CommandRouter
+        implements CommandExecutor, TabCompleter
+{
+
+    // Every registered sub command in registration order.
+    private final List< SubCommand >        subCommands = new ArrayList<>();
+    // Every sub command by each of its lower case names.
+    private final Map< String, SubCommand > byName      = new HashMap<>();
+    // The names and aliases of every sub command.
+    private PrefixTrie                      names       = PrefixTrie.EMPTY;
+
+    // The loaded config, whose messages are sent.
+    @Getter( AccessLevel.PRIVATE )
+    private final Supplier< Config > config;
+
+    /**
+     * Creates a router without sub commands.
+     *
+     * @param config The loaded config, which changes with every reload. Can't be null.
+     */
+    public CommandRouter( @NonNull final Supplier< Config > config )
+    {
+        this.config = config;
+    }
+
+    /**
+     * Registers a sub command.
+     *
+     * @param subCommand The sub command. Can't be null.
+     *
+     * @throws IllegalArgumentException If a registered sub command has the same name or alias.
+     */
+    public final void register( @NonNull final SubCommand subCommand )
+    {
+        final List< String > subCommandNames = new ArrayList<>( subCommand.getAliases() );
+
+        subCommandNames.add( 0, subCommand.getName() );
+
+        for ( final String name : subCommandNames )
+        {
+            if ( byName.containsKey( name.toLowerCase( Locale.ROOT ) ) )
+            {
+                throw new IllegalArgumentException( "A sub command named '" + name + "' is already registered." );
+            }
+        }
+
+        for ( final String name : subCommandNames )
+        {
+            byName.put( name.toLowerCase( Locale.ROOT ), subCommand );
+        }
+
+        subCommands.add( subCommand );
+        names = new PrefixTrie( byName.keySet() );
+    }
+
+    @Override
+    public final boolean onCommand( @NonNull final CommandSender sender, @NonNull final Command command,
+                                    @NonNull final String label, @NonNull final String[] arguments )
+    {
+        if ( arguments.length == 0 )
+        {
+            sendHelp( sender, label );
+
+            return true;
+        }
+
+        final SubCommand subCommand = byName.get( arguments[ 0 ].toLowerCase( Locale.ROOT ) );
+
+        if ( subCommand == null )
+        {
+            sender.sendMessage( MessageManager.replaceVariables( getConfig().get().getMessageUnknownCommand(),
+                                                                 new String[] { "%command%", arguments[ 0 ] } ) );
+            sendHelp( sender, label );
+        }
+        else if ( !sender.hasPermission( subCommand.getPermission() ) )
+        {
+            sender.sendMessage( getConfig().get().getMessageNoPermission() );
+        }
+        else if ( !subCommand.execute( sender, Arrays.copyOfRange( arguments, 1, arguments.length ) ) )
+        {
+            sender.sendMessage( formatUsage( label, subCommand ) );
+        }
+
+        return true;
+    }
+
+    @Override
+    public final List< String > onTabComplete( @NonNull final CommandSender sender, @NonNull final Command command,
+                                               @NonNull final String label, @NonNull final String[] arguments )
+    {
+        if ( arguments.length <= 1 )
+        {
+            final List< String > matches   = names.complete( arguments.length == 0 ? "" : arguments[ 0 ] );
+            final List< String > permitted = new ArrayList<>( matches.size() );
+
+            for ( final String match : matches )
+            {
+                if ( sender.hasPermission( byName.get( match ).getPermission() ) )
+                {
+                    permitted.add( match );
+                }
+            }
+
+            return permitted;
+        }
+
+        final SubCommand subCommand = byName.get( arguments[ 0 ].toLowerCase( Locale.ROOT ) );
+
+        if ( subCommand == null || !sender.hasPermission( subCommand.getPermission() ) )
+        {
+            return Collections.emptyList();
+        }
+
+        // Copied since Bukkit may sort the completions it is given.
+        return new ArrayList<>( subCommand.complete( sender, Arrays.copyOfRange( arguments, 1, arguments.length ) ) );
+    }
+
+    /**
+     * Sends the usage of every sub command the sender has the permission of.
+     */
+    private void sendHelp( @NonNull final CommandSender sender, @NonNull final String label )
+    {
+        for ( final SubCommand subCommand : subCommands )
+        {
+            if ( sender.hasPermission( subCommand.getPermission() ) )
+            {
+                sender.sendMessage( MessageManager.replaceVariables( getConfig().get().getMessageHelp(), new String[] {
+                        "%usage%", formatUsage( label, subCommand ), "%description%", subCommand.getDescription()
+                } ) );
+            }
+        }
+    }
+
+    /**
+     * Returns the usage of a sub command.
+     */
+    private String formatUsage( @NonNull final String label, @NonNull final SubCommand subCommand )
+    {
+        return MessageManager.replaceVariables( getConfig().get().getMessageUsage(), new String[] {
+                "%label%", label, "%command%", subCommand.getName(), "%usage%", subCommand.getUsage()
+        } ).trim();
+    }
+
+}
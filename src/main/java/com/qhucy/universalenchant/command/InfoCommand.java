@@ -0,0 +1,84 @@
+package com.qhucy.universalenchant.command;
+
+import com.qhucy.universalenchant.config.Config;
+import com.qhucy.universalenchant.enchant.CustomEnchantment;
+import com.qhucy.universalenchant.enchant.EnchantmentRegistry;
+import com.qhucy.universalenchant.util.MessageManager;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.command.CommandSender;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Sub command that shows the definition of an enchantment.
+ *
+ * @author Qhucy
+ */
+public final class InfoCommand
+        extends SubCommand
+{
+
+    @Getter( AccessLevel.PRIVATE )
+    private final EnchantmentRegistry enchantmentRegistry;
+    @Getter( AccessLevel.PRIVATE )
+    private final Supplier< Config >  config;
+
+    /**
+     * Creates the info command.
+     *
+     * @param enchantmentRegistry The registry to look enchantments up in. Can't be null.
+     * @param config              The loaded config, which changes with every reload. Can't be null.
+     */
+    public InfoCommand( @NonNull final EnchantmentRegistry enchantmentRegistry,
+                        @NonNull final Supplier< Config > config )
+    {
+        super( "info", "universalenchant.command.info", "<enchantment>", "Shows the definition of an enchantment.",
+               "i" );
+
+        this.enchantmentRegistry = enchantmentRegistry;
+        this.config              = config;
+    }
+
+    @Override
+    public final boolean execute( @NonNull final CommandSender sender, @NonNull final String[] arguments )
+    {
+        if ( arguments.length != 1 )
+        {
+            return false;
+        }
+
+        final CustomEnchantment enchantment = getEnchantmentRegistry().getNames().resolve( arguments[ 0 ] );
+
+        if ( enchantment == null )
+        {
+            sender.sendMessage( MessageManager.replaceVariables( getConfig().get().getMessageUnknownEnchantment(),
+                                                                 new String[] { "%enchantment%", arguments[ 0 ] } ) );
+
+            return true;
+        }
+
+        final String conflicts = String.join( ", ", enchantment.getConflictKeys() );
+        final String info      = getConfig().get().getMessageEnchantmentInfo();
+
+        sender.sendMessage( MessageManager.replaceVariables( info, new String[] {
+                "%display-name%", enchantment.getDisplayName(), "%key%", enchantment.getKey(), "%max-level%",
+                Integer.toString( enchantment.getMaxLevel() ), "%groups%",
+                enchantment.getApplicableGroups().toString(), "%conflicts%", conflicts.isEmpty() ? "none" : conflicts
+        } ) );
+
+        return true;
+    }
+
+    @Override
+    public final List< String > complete( @NonNull final CommandSender sender, @NonNull final String[] arguments )
+    {
+        return arguments.length == 1 ? getEnchantmentRegistry().getNames().complete( arguments[ 0 ],
+                                                                                     getLocale( sender ) )
+                                     : Collections.emptyList();
+    }
+
+}
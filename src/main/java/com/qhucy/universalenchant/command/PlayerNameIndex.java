@@ -0,0 +1,75 @@
+package com.qhucy.universalenchant.command;
+
+import lombok.NonNull;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Listener that keeps the names of online players sorted for tab completion.
+ * <p>
+ * Players join and quit too often to rebuild a trie every time, so names are kept in a sorted map by their lower case
+ * form instead. Completing a prefix looks up the range of names starting with it, so it takes time proportional to
+ * the amount of matches rather than the amount of online players. The index is meant to be used from the main server
+ * thread.
+ *
+ * @author Qhucy
+ */
+public final class PlayerNameIndex
+        implements Listener
+{
+
+    // The name of every online player by its lower case form.
+    private final NavigableMap< String, String > names = new TreeMap<>();
+
+    /**
+     * Creates an index of players.
+     *
+     * @param onlinePlayers The players that are already online. Can't be null.
+     */
+    public PlayerNameIndex( @NonNull final Collection< ? extends Player > onlinePlayers )
+    {
+        for ( final Player player : onlinePlayers )
+        {
+            names.put( player.getName().toLowerCase( Locale.ROOT ), player.getName() );
+        }
+    }
+
+    /**
+     * Returns the name of every online player starting with a prefix.
+     *
+     * @param prefix The prefix, ignoring case. Can't be null.
+     *
+     * @return The matching names in alphabetical order.
+     */
+    public final List< String > complete( @NonNull final String prefix )
+    {
+        final String lowerCase = prefix.toLowerCase( Locale.ROOT );
+
+        // Every name starting with the prefix sorts between the prefix and the prefix followed by the last character.
+        return new ArrayList<>( names.subMap( lowerCase, true, lowerCase + Character.MAX_VALUE, false ).values() );
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR )
+    public final void onPlayerJoin( @NonNull final PlayerJoinEvent event )
+    {
+        names.put( event.getPlayer().getName().toLowerCase( Locale.ROOT ), event.getPlayer().getName() );
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR )
+    public final void onPlayerQuit( @NonNull final PlayerQuitEvent event )
+    {
+        names.remove( event.getPlayer().getName().toLowerCase( Locale.ROOT ) );
+    }
+
+}
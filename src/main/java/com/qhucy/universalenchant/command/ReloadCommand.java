@@ -0,0 +1,57 @@
+package com.qhucy.universalenchant.command;
+
+import com.qhucy.universalenchant.UniversalEnchant;
+import com.qhucy.universalenchant.config.Config;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.command.CommandSender;
+
+import java.util.function.Supplier;
+
+/**
+ * Sub command that reloads the config files.
+ *
+ * @author Qhucy
+ */
+public final class ReloadCommand
+        extends SubCommand
+{
+
+    @Getter( AccessLevel.PRIVATE )
+    private final UniversalEnchant   plugin;
+    @Getter( AccessLevel.PRIVATE )
+    private final Supplier< Config > config;
+
+    /**
+     * Creates the reload command.
+     *
+     * @param plugin The main instance of the plugin. Can't be null.
+     * @param config The loaded config, which changes with every reload. Can't be null.
+     */
+    public ReloadCommand( @NonNull final UniversalEnchant plugin, @NonNull final Supplier< Config > config )
+    {
+        super( "reload", "universalenchant.command.reload", "", "Reloads the config files.", "rl" );
+
+        this.plugin = plugin;
+        this.config = config;
+    }
+
+    @Override
+    public final boolean execute( @NonNull final CommandSender sender, @NonNull final String[] arguments )
+    {
+        if ( arguments.length != 0 )
+        {
+            return false;
+        }
+
+        // The messages of the reloaded config are sent, or of the previous config if it failed to reload.
+        final boolean reloaded = getPlugin().reloadConfigFiles();
+
+        sender.sendMessage( reloaded ? getConfig().get().getMessageReloaded()
+                                     : getConfig().get().getMessageReloadFailed() );
+
+        return true;
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.qhucy.universalenchant.command;
+
+import com.qhucy.universalenchant.config.Config;
+import com.qhucy.universalenchant.enchant.CustomEnchantment;
+import com.qhucy.universalenchant.enchant.EnchantmentNames;
+import com.qhucy.universalenchant.enchant.EnchantmentRegistry;
+import com.qhucy.universalenchant.player.PlayerData;
+import com.qhucy.universalenchant.player.PlayerDataService;
+import com.qhucy.universalenchant.util.MessageManager;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.Server;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Sub command that sets the level of an enchantment owned by an online player.
+ *
+ * @author Qhucy
+ */
+public final class SetCommand
+        extends SubCommand
+{
+
+    @Getter( AccessLevel.PRIVATE )
+    private final Server              server;
+    @Getter( AccessLevel.PRIVATE )
+    private final EnchantmentRegistry enchantmentRegistry;
+    @Getter( AccessLevel.PRIVATE )
+    private final PlayerDataService   playerDataService;
+    @Getter( AccessLevel.PRIVATE )
+    private final PlayerNameIndex     playerNameIndex;
+    @Getter( AccessLevel.PRIVATE )
+    private final Supplier< Config >  config;
+
+    /**
+     * Creates the set command.
+     *
+     * @param server              The server to find players on. Can't be null.
+     * @param enchantmentRegistry The registry to look enchantments up in. Can't be null.
+     * @param playerDataService   The service holding the data of online players. Can't be null.
+     * @param playerNameIndex     The index to complete player names from. Can't be null.
+     * @param config              The loaded config, which changes with every reload. Can't be null.
+     */
+    public SetCommand( @NonNull final Server server, @NonNull final EnchantmentRegistry enchantmentRegistry,
+                       @NonNull final PlayerDataService playerDataService,
+                       @NonNull final PlayerNameIndex playerNameIndex, @NonNull final Supplier< Config > config )
+    {
+        super( "set", "universalenchant.command.set", "<player> <enchantment> <level>",
+               "Sets the level of an enchantment a player owns, 0 to remove it." );
+
+        this.server              = server;
+        this.enchantmentRegistry = enchantmentRegistry;
+        this.playerDataService   = playerDataService;
+        this.playerNameIndex     = playerNameIndex;
+        this.config              = config;
+    }
+
+    @Override
+    public final boolean execute( @NonNull final CommandSender sender, @NonNull final String[] arguments )
+    {
+        if ( arguments.length != 3 )
+        {
+            return false;
+        }
+
+        final Player player = getServer().getPlayerExact( arguments[ 0 ] );
+
+        if ( player == null )
+        {
+            sender.sendMessage( MessageManager.replaceVariables( getConfig().get().getMessageUnknownPlayer(),
+                                                                 new String[] { "%player%", arguments[ 0 ] } ) );
+
+            return true;
+        }
+
+        final PlayerData playerData = getPlayerDataService().get( player.getUniqueId() );
+
+        if ( playerData == null )
+        {
+            sender.sendMessage( MessageManager.replaceVariables( getConfig().get().getMessagePlayerNotLoaded(),
+                                                                 new String[] { "%player%", player.getName() } ) );
+
+            return true;
+        }
+
+        final CustomEnchantment enchantment = getEnchantmentRegistry().getNames().resolve( arguments[ 1 ] );
+
+        if ( enchantment == null )
+        {
+            sender.sendMessage( MessageManager.replaceVariables( getConfig().get().getMessageUnknownEnchantment(),
+                                                                 new String[] { "%enchantment%", arguments[ 1 ] } ) );
+
+            return true;
+        }
+
+        int level;
+
+        try
+        {
+            level = Integer.parseInt( arguments[ 2 ] );
+        }
+        catch ( final NumberFormatException exception )
+        {
+            level = -1;
+        }
+
+        if ( level < 0 || level > enchantment.getMaxLevel() )
+        {
+            final String maxLevel = Integer.toString( enchantment.getMaxLevel() );
+
+            sender.sendMessage( MessageManager.replaceVariables( getConfig().get().getMessageInvalidLevel(),
+                                                                 new String[] { "%max-level%", maxLevel } ) );
+
+            return true;
+        }
+
+        playerData.setEnchantmentLevel( enchantment.getKey(), level );
+
+        sender.sendMessage( MessageManager.replaceVariables( getConfig().get().getMessageLevelSet(), new String[] {
+                "%enchantment%", enchantment.getDisplayName(), "%player%", player.getName(), "%level%",
+                Integer.toString( level )
+        } ) );
+
+        return true;
+    }
+
+    @Override
+    public final List< String > complete( @NonNull final CommandSender sender, @NonNull final String[] arguments )
+    {
+        final EnchantmentNames names = getEnchantmentRegistry().getNames();
+
+        switch ( arguments.length )
+        {
+            case 1:
+                return getPlayerNameIndex().complete( arguments[ 0 ] );
+            case 2:
+                return names.complete( arguments[ 1 ], getLocale( sender ) );
+            case 3:
+                final CustomEnchantment enchantment = names.resolve( arguments[ 1 ] );
+
+                return enchantment == null ? Collections.emptyList()
+                                           : names.completeLevels( enchantment, arguments[ 2 ] );
+            default:
+                return Collections.emptyList();
+        }
+    }
+
+}
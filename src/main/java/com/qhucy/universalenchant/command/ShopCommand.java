@@ -0,0 +1,78 @@
+package com.qhucy.universalenchant.command;
+
+import com.qhucy.universalenchant.config.Config;
+import com.qhucy.universalenchant.shop.ShopService;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.function.Supplier;
+
+/**
+ * Sub command that opens the enchantment shop.
+ *
+ * @author Qhucy
+ */
+public final class ShopCommand
+        extends SubCommand
+{
+
+    @Getter( AccessLevel.PRIVATE )
+    private final ShopService        shopService;
+    @Getter( AccessLevel.PRIVATE )
+    private final Supplier< Config > config;
+
+    /**
+     * Creates the shop command.
+     *
+     * @param shopService The shop to open. Can't be null.
+     * @param config      The loaded config, which changes with every reload. Can't be null.
+     */
+    public ShopCommand( @NonNull final ShopService shopService, @NonNull final Supplier< Config > config )
+    {
+        super( "shop", "universalenchant.command.shop", "[page]", "Opens the enchantment shop." );
+
+        this.shopService = shopService;
+        this.config      = config;
+    }
+
+    @Override
+    public final boolean execute( @NonNull final CommandSender sender, @NonNull final String[] arguments )
+    {
+        if ( arguments.length > 1 )
+        {
+            return false;
+        }
+
+        if ( !( sender instanceof Player ) )
+        {
+            sender.sendMessage( getConfig().get().getMessagePlayersOnly() );
+
+            return true;
+        }
+
+        int page = 1;
+
+        if ( arguments.length == 1 )
+        {
+            try
+            {
+                page = Integer.parseInt( arguments[ 0 ] );
+            }
+            catch ( final NumberFormatException exception )
+            {
+                return false;
+            }
+        }
+
+        if ( !getShopService().open( ( Player ) sender, page - 1 ) )
+        {
+            sender.sendMessage( getConfig().get().getMessageNotLoaded() );
+        }
+
+        return true;
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.qhucy.universalenchant.command;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Class for a sub command of the plugin command, routed to by the {@link CommandRouter}.
+ *
+ * @author Qhucy
+ */
+@Getter
+public abstract class SubCommand
+{
+
+    private final String         name;
+    private final List< String > aliases;
+    // The permission needed to use and complete the command.
+    private final String         permission;
+    // The arguments of the command after its name, such as '<player> <enchantment>'.
+    private final String         usage;
+    private final String         description;
+
+    /**
+     * Creates a sub command.
+     *
+     * @param name        The name of the command. Can't be null.
+     * @param permission  The permission needed to use the command. Can't be null.
+     * @param usage       The arguments of the command after its name. Can't be null.
+     * @param description The description of the command. Can't be null.
+     * @param aliases     Other names of the command. Can't be null.
+     */
+    protected SubCommand( @NonNull final String name, @NonNull final String permission, @NonNull final String usage,
+                          @NonNull final String description, @NonNull final String... aliases )
+    {
+        this.name        = name;
+        this.permission  = permission;
+        this.usage       = usage;
+        this.description = description;
+        this.aliases     = Collections.unmodifiableList( Arrays.asList( aliases.clone() ) );
+    }
+
+    /**
+     * Runs the command.
+     *
+     * @param sender    The sender of the command. Can't be null.
+     * @param arguments The arguments after the name of the command. Can't be null.
+     *
+     * @return If the arguments were valid. The usage of the command is sent if they weren't.
+     */
+    public abstract boolean execute( @NonNull CommandSender sender, @NonNull String[] arguments );
+
+    /**
+     * Returns the completions of the last argument, which is being typed.
+     *
+     * @param sender    The sender completing the command. Can't be null.
+     * @param arguments The arguments after the name of the command, at least one. Can't be null.
+     *
+     * @return The completions of the last argument. Can be a view that must not be modified.
+     */
+    public List< String > complete( @NonNull final CommandSender sender, @NonNull final String[] arguments )
+    {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns the locale of a command sender, to complete localized names in.
+     *
+     * @param sender The sender. Can't be null.
+     *
+     * @return The locale of the sender, or null if the sender isn't a player.
+     */
+    protected static String getLocale( @NonNull final CommandSender sender )
+    {
+        return sender instanceof Player ? ( ( Player ) sender ).getLocale() : null;
+    }
+
+}
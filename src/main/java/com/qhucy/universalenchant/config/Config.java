@@ -1,15 +1,29 @@
 package com.qhucy.universalenchant.config;
 
 import com.qhucy.universalenchant.UniversalEnchant;
+import com.qhucy.universalenchant.broadcast.BroadcastMessage;
+import com.qhucy.universalenchant.enchant.EnchantmentRegistry;
+import com.qhucy.universalenchant.jfr.ConfigLoadEvent;
+import com.qhucy.universalenchant.jfr.FlightEvents;
+import com.qhucy.universalenchant.player.BackpressurePolicy;
+import com.qhucy.universalenchant.statistics.RollupStorageType;
+import com.qhucy.universalenchant.util.MessageManager;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
+import org.bukkit.Material;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Class that manages configuration (config) variables (vars) from config files.
@@ -22,6 +36,199 @@ public final class Config
     @Getter( AccessLevel.PRIVATE )
     private final UniversalEnchant plugin;
 
+    // If the config files were loaded before, so later loads are reloads.
+    private boolean loaded;
+
+    // Every custom enchantment from the enchantments config, shared with the configs that reload this one.
+    @Getter
+    private final EnchantmentRegistry enchantmentRegistry;
+
+    // The seed for proc rolls, or null to seed them from the system.
+    @Getter
+    private Long procSeed;
+
+    // The maximum amount of entities per world whose positions are re-read by the spatial index every tick.
+    @Getter
+    private int spatialIndexRefreshPerTick;
+
+    // The amount of worker threads that compute off-thread enchantment effects.
+    @Getter
+    private int effectThreads;
+
+    // The maximum amount of ticks between triggering an off-thread effect and applying its result.
+    @Getter
+    private int effectMaxAgeTicks;
+
+    // The amount of milliseconds the block changes of multi-block enchantments may take per tick.
+    @Getter
+    private double blockChangeTickBudget;
+
+    // The amount of milliseconds the item migration may take per tick.
+    @Getter
+    private double migrationTickBudget;
+
+    // The amount of seconds between item migration progress reports.
+    @Getter
+    private int migrationReportInterval;
+
+    // The amount of rows of enchantments on every shop page, above the navigation row.
+    @Getter
+    private int shopRows;
+
+    // The item enchantments are shown as in the shop.
+    @Getter
+    private Material shopMaterial;
+
+    // The colorized texts of the shop.
+    @Getter
+    private String         shopTitle;
+    @Getter
+    private List< String > shopLore;
+    @Getter
+    private String         shopAffordable;
+    @Getter
+    private String         shopUnaffordable;
+    @Getter
+    private String         shopMaxed;
+    @Getter
+    private String         shopBalance;
+    @Getter
+    private String         shopPreviousPage;
+    @Getter
+    private String         shopNextPage;
+    @Getter
+    private String         shopPurchased;
+
+    // The message broadcast when a player buys an enchantment, or null to not broadcast purchases.
+    @Getter
+    private BroadcastMessage shopPurchaseBroadcast;
+
+    // The maximum amount of broadcast messages sent per tick.
+    @Getter
+    private int broadcastSendsPerTick;
+
+    // The unique id of this server in a cluster sharing the player database.
+    @Getter
+    private String clusterNodeId;
+
+    // The maximum amount of accounts whose latest balance version is kept for cluster coherence.
+    @Getter
+    private int clusterTrackedAccounts;
+
+    // The JDBC url, user and password of the player database. The user and password can be null.
+    @Getter
+    private String databaseUrl;
+    @Getter
+    private String databaseUser;
+    @Getter
+    private String databasePassword;
+
+    // The amount of threads that load and save player data.
+    @Getter
+    private int databaseThreads;
+
+    // The maximum amount of players with a queued write to the player database.
+    @Getter
+    private int writeQueueCapacity;
+
+    // What to do with writes for new players while the write queue is full.
+    @Getter
+    private BackpressurePolicy writeQueueBackpressure;
+
+    // The amount of seconds between saves of every online player, or 0 to only save on quit.
+    @Getter
+    private int playerDataAutosaveInterval;
+
+    // The maximum amount of quit players whose data is kept in memory.
+    @Getter
+    private int playerDataRetainedAfterQuit;
+
+    // The amount of accounts per batch of an account import or export.
+    @Getter
+    private int accountBatchSize;
+
+    // The maximum amount of accounts imported or exported per second, or 0 for no limit.
+    @Getter
+    private int accountsPerSecond;
+
+    // The amount of ticks between refreshes of the HUD of every player.
+    @Getter
+    private int hudRefreshInterval;
+
+    // The colorized texts of the HUD. The sidebar title, cooldown line and action bar are null when disabled.
+    @Getter
+    private String         hudSidebarTitle;
+    @Getter
+    private List< String > hudSidebarLines;
+    @Getter
+    private String         hudCooldownLine;
+    @Getter
+    private String         hudActionBar;
+
+    // The amount of seconds between rollups of the enchantment usage statistics, or 0 to not store them.
+    @Getter
+    private int statisticsRollupInterval;
+
+    // Where the rollups of the enchantment usage statistics are stored.
+    @Getter
+    private RollupStorageType statisticsStorage;
+
+    // The amount of counters per row of the damage sketch, and the amount of sources of the most damage to keep.
+    @Getter
+    private int statisticsSketchWidth;
+    @Getter
+    private int statisticsDamageSources;
+
+    // The amount of seconds between reports of every metric to console, or 0 to not report them.
+    @Getter
+    private int metricsReportInterval;
+
+    // The messages of the plugin command, whose variables are replaced when they are sent.
+    @Getter
+    private String messageNoPermission;
+    @Getter
+    private String messageUnknownCommand;
+    @Getter
+    private String messageUsage;
+    @Getter
+    private String messageHelp;
+    @Getter
+    private String messageUnknownPlayer;
+    @Getter
+    private String messagePlayerNotLoaded;
+    @Getter
+    private String messageUnknownEnchantment;
+    @Getter
+    private String messageInvalidLevel;
+    @Getter
+    private String messageLevelSet;
+    @Getter
+    private String messageEnchantmentInfo;
+    @Getter
+    private String messageReloaded;
+    @Getter
+    private String messageReloadFailed;
+    @Getter
+    private String messagePlayersOnly;
+    @Getter
+    private String messageNotLoaded;
+    @Getter
+    private String messageTransferStarted;
+    @Getter
+    private String messageTransferResumed;
+    @Getter
+    private String messageTransferRunning;
+    @Getter
+    private String messageTransferInvalid;
+    @Getter
+    private String messageTransferProgress;
+    @Getter
+    private String messageTransferInterrupted;
+    @Getter
+    private String messageTransferIdle;
+    @Getter
+    private String messageTransferStopping;
+
     /**
      * Loads in all config variables from the config files.
      *
@@ -33,7 +240,31 @@ public final class Config
     public Config( @NonNull final UniversalEnchant plugin )
             throws ConfigLoadException, IOException
     {
-        this.plugin = plugin;
+        this.plugin              = plugin;
+        this.enchantmentRegistry = new EnchantmentRegistry();
+
+        createPluginFolder();
+        createConfigFiles();
+
+        loadConfigFiles();
+    }
+
+    /**
+     * Reloads all config variables from the config files into a new config, which shares the enchantment registry of a
+     * loaded config. The loaded config is never changed, and the registry only once every other config file loaded,
+     * so the loaded config stays fully in use if loading fails.
+     *
+     * @param loadedConfig The loaded config. Can't be null.
+     *
+     * @throws ConfigLoadException If unable to generate the plugin data folder or load fields from config files.
+     * @throws IOException         If unable to modify or load config files.
+     */
+    public Config( @NonNull final Config loadedConfig )
+            throws ConfigLoadException, IOException
+    {
+        this.plugin              = loadedConfig.plugin;
+        this.enchantmentRegistry = loadedConfig.enchantmentRegistry;
+        this.loaded              = true;
 
         createPluginFolder();
         createConfigFiles();
@@ -76,7 +307,10 @@ public final class Config
     private void createConfigFiles()
             throws IOException, ConfigLoadException
     {
-        // None yet!
+        createConfigFile( "config.yml" );
+        createConfigFile( "enchantments.yml" );
+        // Not a config file, but copied along with them so it can be passed to the flight recorder.
+        createConfigFile( FlightEvents.SETTINGS_FILE );
     }
 
     /**
@@ -111,15 +345,48 @@ public final class Config
     }
 
     /**
-     * Loads in all config variables from all the config files.
+     * Loads in all config variables from all the config files. Configs are only loaded while being created, so a config
+     * in use is never left partly loaded.
      *
      * @throws IOException         If unable to load a config file.
      * @throws ConfigLoadException If unable to load a field from one of the configs.
      */
-    public final void loadConfigFiles()
+    private void loadConfigFiles()
+            throws IOException, ConfigLoadException
+    {
+        loadPhase( "config.yml", this::loadMainConfig );
+        loadPhase( "enchantments.yml", this::loadEnchantmentConfig );
+
+        loaded = true;
+    }
+
+    /**
+     * Loads a config file, recorded as a flight recorder event.
+     *
+     * @param configName The name of the config file. Can't be null.
+     * @param phase      Loads the config file. Can't be null.
+     *
+     * @throws IOException         If unable to load the config file.
+     * @throws ConfigLoadException If unable to load a field from the config.
+     */
+    private void loadPhase( @NonNull final String configName, @NonNull final LoadPhase phase )
             throws IOException, ConfigLoadException
     {
-        loadMainConfig();
+        final ConfigLoadEvent event     = new ConfigLoadEvent();
+        boolean               succeeded = false;
+
+        event.begin();
+
+        try
+        {
+            phase.load();
+
+            succeeded = true;
+        }
+        finally
+        {
+            event.record( configName, loaded, succeeded );
+        }
     }
 
     /**
@@ -134,7 +401,240 @@ public final class Config
         final File          configFile    = new File( getPluginFolder(), "config.yml" );
         final ConfigManager configManager = new ConfigManager( configFile );
 
-        // load values here.
+        procSeed                   = configManager.containsField( "proc-seed" ) ? configManager.getLong( "proc-seed" )
+                                                                                : null;
+        spatialIndexRefreshPerTick = configManager.getInt( "spatial-index.refresh-per-tick", 256 );
+
+        effectThreads     = Math.max( 1, configManager.getInt( "effects.threads", 2 ) );
+        effectMaxAgeTicks = Math.max( 1, configManager.getInt( "effects.max-age-ticks", 20 ) );
+
+        blockChangeTickBudget = Math.max( 0.0, configManager.getDouble( "block-changes.tick-budget", 2.0 ) );
+
+        migrationTickBudget     = Math.max( 0.0, configManager.getDouble( "migration.tick-budget", 5.0 ) );
+        migrationReportInterval = Math.max( 1, configManager.getInt( "migration.report-interval", 30 ) );
+
+        shopRows         = Math.max( 1, Math.min( 5, configManager.getInt( "shop.rows", 5 ) ) );
+        shopTitle        = getText( configManager, "shop.title", "&8Enchantment Shop (%page%/%pages%)" );
+        shopLore         = configManager.getStringList( "shop.lore", Collections.emptyList() );
+        shopAffordable   = getText( configManager, "shop.affordable", "&aClick to buy level %level%." );
+        shopUnaffordable = getText( configManager, "shop.unaffordable", "&cYou can't afford level %level%." );
+        shopMaxed        = getText( configManager, "shop.maxed", "&eYou own the highest level." );
+        shopBalance      = getText( configManager, "shop.balance", "&6Balance: &f%balance%" );
+        shopPreviousPage = getText( configManager, "shop.previous-page", "&ePrevious page" );
+        shopNextPage     = getText( configManager, "shop.next-page", "&eNext page" );
+        shopPurchased    = getText( configManager, "shop.purchased",
+                                    "&aBought %enchantment% &alevel %level% for %price%." );
+
+        shopPurchaseBroadcast = getBroadcast( configManager, "shop.purchase-broadcast" );
+        broadcastSendsPerTick = Math.max( 1, configManager.getInt( "broadcast.sends-per-tick", 200 ) );
+
+        final String material = configManager.getRawString( "shop.material", "ENCHANTED_BOOK" );
+
+        shopMaterial = Material.matchMaterial( material );
+
+        if ( shopMaterial == null )
+        {
+            throw new ConfigLoadException( "Unknown shop material '" + material + "'." );
+        }
+
+        clusterNodeId          = configManager.getRawString( "cluster.node-id", UUID.randomUUID().toString() );
+        clusterTrackedAccounts = Math.max( 1, configManager.getInt( "cluster.tracked-accounts", 10000 ) );
+
+        databaseUrl                 = configManager.getRawString( "database.url", "jdbc:sqlite:" + new File(
+                getPluginFolder(), "players.db" ).getAbsolutePath() );
+        databaseUser                = configManager.getRawString( "database.user", null );
+        databasePassword            = configManager.getRawString( "database.password", null );
+        databaseThreads             = Math.max( 1, configManager.getInt( "database.threads", 2 ) );
+        writeQueueCapacity          = Math.max( 1, configManager.getInt( "database.write-queue.capacity", 1000 ) );
+        playerDataAutosaveInterval  = Math.max( 0, configManager.getInt( "player-data.autosave-interval", 300 ) );
+        playerDataRetainedAfterQuit = Math.max( 0, configManager.getInt( "player-data.retained-after-quit", 200 ) );
+
+        final String backpressure = configManager.getRawString( "database.write-queue.backpressure", "block" );
+
+        try
+        {
+            writeQueueBackpressure = BackpressurePolicy.fromName( backpressure );
+        }
+        catch ( final IllegalArgumentException exception )
+        {
+            throw new ConfigLoadException(
+                    "Unknown write queue backpressure '" + backpressure + "', expected block, spill or shed." );
+        }
+
+        accountBatchSize  = Math.max( 1, configManager.getInt( "accounts.batch-size", 1000 ) );
+        accountsPerSecond = Math.max( 0, configManager.getInt( "accounts.accounts-per-second", 20000 ) );
+
+        hudRefreshInterval = Math.max( 1, configManager.getInt( "hud.refresh-interval", 10 ) );
+        hudSidebarTitle    = getOptionalText( configManager, "hud.sidebar.title", "" );
+        hudSidebarLines    = configManager.getStringList( "hud.sidebar.lines", Collections.emptyList() );
+        hudCooldownLine    = getOptionalText( configManager, "hud.sidebar.cooldown",
+                                              "&7%enchantment%&7: &c%seconds%s" );
+        hudActionBar       = getOptionalText( configManager, "hud.action-bar", "" );
+
+        statisticsRollupInterval = Math.max( 0, configManager.getInt( "statistics.rollup-interval", 300 ) );
+        statisticsSketchWidth    = Math.max( 16, configManager.getInt( "statistics.sketch-width", 2048 ) );
+        statisticsDamageSources  = Math.max( 1, configManager.getInt( "statistics.damage-sources", 10 ) );
+
+        final String storage = configManager.getRawString( "statistics.storage", "database" );
+
+        try
+        {
+            statisticsStorage = RollupStorageType.fromName( storage );
+        }
+        catch ( final IllegalArgumentException exception )
+        {
+            throw new ConfigLoadException( "Unknown statistics storage '" + storage + "', expected database or file." );
+        }
+
+        metricsReportInterval = Math.max( 0, configManager.getInt( "metrics.report-interval", 0 ) );
+
+        messageNoPermission       = getText( configManager, "messages.no-permission",
+                                             "&cYou don't have permission to do that." );
+        messageUnknownCommand     = getText( configManager, "messages.unknown-command",
+                                             "&cUnknown command '%command%'." );
+        messageUsage              = getText( configManager, "messages.usage", "&e/%label% %command% %usage%" );
+        messageHelp               = getText( configManager, "messages.help", "%usage% &7- %description%" );
+        messageUnknownPlayer      = getText( configManager, "messages.unknown-player",
+                                             "&cNo player named '%player%' is online." );
+        messagePlayerNotLoaded    = getText( configManager, "messages.player-not-loaded",
+                                             "&cThe data of %player% isn't loaded yet, try again in a moment." );
+        messageUnknownEnchantment = getText( configManager, "messages.unknown-enchantment",
+                                             "&cUnknown enchantment '%enchantment%'." );
+        messageInvalidLevel       = getText( configManager, "messages.invalid-level",
+                                             "&cThe level must be a number from 0 to %max-level%." );
+        messageLevelSet           = getText( configManager, "messages.level-set",
+                                             "&aSet the level of %enchantment% &aof %player% to %level%." );
+        messageReloaded           = getText( configManager, "messages.reloaded", "&aReloaded the config files." );
+        messageReloadFailed       = getText( configManager, "messages.reload-failed",
+                                             "&cUnable to reload the config files, see console for details." );
+        messagePlayersOnly        = getText( configManager, "messages.players-only",
+                                             "&cOnly players can open the shop." );
+        messageNotLoaded          = getText( configManager, "messages.not-loaded",
+                                             "&cYour data isn't loaded yet, try again in a moment." );
+
+        messageTransferStarted     = getText( configManager, "messages.transfer-started",
+                                              "&aStarted the account %action% of '%file%', see console for progress." );
+        messageTransferResumed     = getText( configManager, "messages.transfer-resumed",
+                                              "&aResumed the account %action% of '%file%' at %accounts% accounts, see "
+                                              + "console for progress." );
+        messageTransferRunning     = getText( configManager, "messages.transfer-running",
+                                              "&cAn account transfer is already running, stop it first." );
+        messageTransferInvalid     = getText( configManager, "messages.transfer-invalid", "&c%reason%" );
+        messageTransferProgress    = getText( configManager, "messages.transfer-progress",
+                                              "&aAccount %action% of '%file%': %accounts% accounts, %lines% lines." );
+        messageTransferInterrupted = getText( configManager, "messages.transfer-interrupted",
+                                              "&eThe account %action% of '%file%' stopped at %accounts% accounts, "
+                                              + "start it again to resume." );
+        messageTransferIdle        = getText( configManager, "messages.transfer-idle",
+                                              "&aNo account transfer is running." );
+        messageTransferStopping    = getText( configManager, "messages.transfer-stopping",
+                                              "&aStopping the account transfer after its current batch." );
+
+        // Joined since a message is sent as one text, which clients split into lines.
+        messageEnchantmentInfo = MessageManager.colorize( String.join( "\n", configManager.getStringList(
+                "messages.enchantment-info",
+                Arrays.asList( "%display-name% &7(%key%)", "&7Max level: &f%max-level%", "&7Applies to: &f%groups%",
+                               "&7Conflicts with: &f%conflicts%" ) ) ) );
+    }
+
+    /**
+     * Retrieves a colorized text from a field in config, without replacing variables, which are replaced when the text
+     * is used.
+     *
+     * @param configManager The config manager to read the field from. Can't be null.
+     * @param field         The path of the field. Can't be null.
+     * @param defaultValue  The text used if the field doesn't exist. Can't be null.
+     *
+     * @return The colorized text.
+     */
+    private static String getText( @NonNull final ConfigManager configManager, @NonNull final String field,
+                                   @NonNull final String defaultValue )
+    {
+        return MessageManager.colorize( configManager.getRawString( field, defaultValue ) );
+    }
+
+    /**
+     * Retrieves a colorized text from a field in config like {@link #getText}, or null if the text is empty.
+     *
+     * @param configManager The config manager to read the field from. Can't be null.
+     * @param field         The path of the field. Can't be null.
+     * @param defaultValue  The text used if the field doesn't exist. Can't be null.
+     *
+     * @return The colorized text or null if it is empty.
+     */
+    private static String getOptionalText( @NonNull final ConfigManager configManager, @NonNull final String field,
+                                           @NonNull final String defaultValue )
+    {
+        final String text = getText( configManager, field, defaultValue );
+
+        return text.isEmpty() ? null : text;
+    }
+
+    /**
+     * Retrieves a broadcast message from a field in config, which is either a text or a section of texts by locale with
+     * a 'default' text for every other locale.
+     *
+     * @param configManager The config manager to read the field from. Can't be null.
+     * @param field         The path of the field. Can't be null.
+     *
+     * @return The message or null if the field doesn't exist or its default text is empty.
+     *
+     * @throws ConfigLoadException If the field is neither a text nor a configuration section.
+     */
+    private static BroadcastMessage getBroadcast( @NonNull final ConfigManager configManager,
+                                                  @NonNull final String field )
+            throws ConfigLoadException
+    {
+        if ( !configManager.containsField( field ) )
+        {
+            return null;
+        }
+
+        if ( configManager.fieldIsType( field, String.class ) )
+        {
+            final String template = getText( configManager, field, "" );
+
+            return template.isEmpty() ? null : new BroadcastMessage( template );
+        }
+
+        final String                defaultTemplate = getText( configManager, field + ".default", "" );
+        final Map< String, String > templates       = new HashMap<>();
+
+        for ( final String locale : configManager.getKeys( field ) )
+        {
+            if ( !locale.equals( "default" ) )
+            {
+                templates.put( locale, getText( configManager, field + "." + locale, "" ) );
+            }
+        }
+
+        return defaultTemplate.isEmpty() ? null : new BroadcastMessage( defaultTemplate, templates );
+    }
+
+    /**
+     * Loads in every custom enchantment from the enchantments config file and recompiles their compatibility matrix.
+     *
+     * @throws ConfigLoadException If unable to load an enchantment from the enchantments config.
+     */
+    private void loadEnchantmentConfig()
+            throws ConfigLoadException
+    {
+        final File          configFile    = new File( getPluginFolder(), "enchantments.yml" );
+        final ConfigManager configManager = new ConfigManager( configFile );
+
+        getEnchantmentRegistry().load( configManager );
+    }
+
+    /**
+     * Loads one config file.
+     */
+    @FunctionalInterface
+    private interface LoadPhase
+    {
+
+        void load()
+                throws IOException, ConfigLoadException;
+
     }
 
 }
\ No newline at end of file
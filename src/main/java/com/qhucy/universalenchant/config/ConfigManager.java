@@ -4,12 +4,14 @@ import com.qhucy.universalenchant.util.MessageManager;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Class that manages retrieving values from a configuration (config) file.
@@ -281,6 +283,20 @@ public final class ConfigManager
         return MessageManager.colorize( MessageManager.replaceVariables( stringValue, replacementVariables ) );
     }
 
+    /**
+     * Retrieves a string from a field in config as written, without replacing color codes or variables. Use this for
+     * values such as passwords where an '&' isn't a color code.
+     *
+     * @param field        The field. Can't be null.
+     * @param defaultValue The value to return if the field doesn't exist. Can be null.
+     *
+     * @return The string from the field in config or the default value if the field doesn't exist.
+     */
+    public final String getRawString( @NonNull final String field, final String defaultValue )
+    {
+        return getFileConfiguration().getString( field, defaultValue );
+    }
+
     /**
      * Retrieves a string from a field in config.
      *
@@ -370,71 +386,6 @@ public final class ConfigManager
         }
     }
 
-    /**
-     * Retrieves a string array from a field in config.
-     *
-     * @param field                The field. Can't be null.
-     * @param defaultValue         The value to return if the field doesn't exist. Can be null.
-     * @param replacementVariables The variables in the string to replace with their values. Length must be a multiple
-     *                             of two with the format [variable, value, variable, value, ...]. Can be null.
-     *
-     * @return The string array from the field in config or the default value if the field doesn't exist.
-     */
-    public final String[] getStringArray( @NonNull final String field, final String[] defaultValue,
-                                          final String... replacementVariables )
-    {
-        if ( !fieldIsArrayOfType( field, String.class ) )
-        {
-            return defaultValue;
-        }
-        else
-        {
-            final ArrayList< String > stringArrayList = new ArrayList<>();
-
-            for ( final String line : getFileConfiguration().getStringList( field ) )
-            {
-                stringArrayList.add( MessageManager.colorize(
-                        MessageManager.replaceVariables( line, replacementVariables ) ) );
-            }
-
-            // Converts the string list to an array.
-            return stringArrayList.toArray( new String[ 0 ] );
-        }
-    }
-
-    /**
-     * Retrieves a string array from a field in config.
-     *
-     * @param field                The field. Can't be null.
-     * @param replacementVariables The variables in the string to replace with their values. Length must be a multiple
-     *                             of two with the format [variable, value, variable, value, ...]. Can be null.
-     *
-     * @return The string array from the field in the config file.
-     *
-     * @throws ConfigLoadException If the field doesn't exist.
-     */
-    public final String[] getStringArray( @NonNull final String field, final String... replacementVariables )
-            throws ConfigLoadException
-    {
-        if ( !containsField( field ) )
-        {
-            throw new ConfigLoadException( "Field '" + field + "' doesn't exist in config or is not a string array." );
-        }
-        else
-        {
-            final ArrayList< String > stringArrayList = new ArrayList<>();
-
-            for ( final String line : getFileConfiguration().getStringList( field ) )
-            {
-                stringArrayList.add( MessageManager.colorize(
-                        MessageManager.replaceVariables( line, replacementVariables ) ) );
-            }
-
-            // Converts the string list to an array.
-            return stringArrayList.toArray( new String[ 0 ] );
-        }
-    }
-
     /**
      * Retrieves an integer from a field in config.
      *
@@ -443,7 +394,7 @@ public final class ConfigManager
      *
      * @return The integer from the field in config or the default value if the field doesn't exist.
      */
-    public final int getInt( @Nonnull final String field, final int defaultValue )
+    public final int getInt( @NonNull final String field, final int defaultValue )
     {
         return getFileConfiguration().getInt( field, defaultValue );
     }
@@ -457,7 +408,7 @@ public final class ConfigManager
      *
      * @throws ConfigLoadException If the field doesn't exist.
      */
-    public final int getInt( @Nonnull final String field )
+    public final int getInt( @NonNull final String field )
             throws ConfigLoadException
     {
         if ( !containsField( field ) )
@@ -478,7 +429,7 @@ public final class ConfigManager
      *
      * @return The float from the field in config or the default value if the field doesn't exist.
      */
-    public final float getFloat( @Nonnull final String field, final float defaultValue )
+    public final float getFloat( @NonNull final String field, final float defaultValue )
     {
         return getFileConfiguration().getFloat( field, defaultValue );
     }
@@ -492,7 +443,7 @@ public final class ConfigManager
      *
      * @throws ConfigLoadException If the field doesn't exist.
      */
-    public final float getFloat( @Nonnull final String field )
+    public final float getFloat( @NonNull final String field )
             throws ConfigLoadException
     {
         if ( !containsField( field ) )
@@ -513,7 +464,7 @@ public final class ConfigManager
      *
      * @return The long from the field in config.
      */
-    public final long getLong( @Nonnull final String field, final long defaultValue )
+    public final long getLong( @NonNull final String field, final long defaultValue )
     {
         return getFileConfiguration().getLong( field, defaultValue );
     }
@@ -527,7 +478,7 @@ public final class ConfigManager
      *
      * @throws ConfigLoadException If the field doesn't exist.
      */
-    public final long getLong( @Nonnull final String field )
+    public final long getLong( @NonNull final String field )
             throws ConfigLoadException
     {
         if ( !containsField( field ) )
@@ -548,7 +499,7 @@ public final class ConfigManager
      *
      * @return The double from the field in config or the default value if the field doesn't exist.
      */
-    public final double getDouble( @Nonnull final String field, final double defaultValue )
+    public final double getDouble( @NonNull final String field, final double defaultValue )
     {
         return getFileConfiguration().getDouble( field, defaultValue );
     }
@@ -562,7 +513,7 @@ public final class ConfigManager
      *
      * @throws ConfigLoadException If the field doesn't exist.
      */
-    public final double getDouble( @Nonnull final String field )
+    public final double getDouble( @NonNull final String field )
             throws ConfigLoadException
     {
         if ( !containsField( field ) )
@@ -584,7 +535,7 @@ public final class ConfigManager
      *
      * @throws ConfigLoadException If the field doesn't exist.
      */
-    public final Configuration getSection( @Nonnull final String field )
+    public final ConfigurationSection getSection( @NonNull final String field )
             throws ConfigLoadException
     {
         if ( !containsField( field ) )
@@ -593,7 +544,31 @@ public final class ConfigManager
         }
         else
         {
-            return getFileConfiguration().getSection( field );
+            return getFileConfiguration().getConfigurationSection( field );
+        }
+    }
+
+    /**
+     * Retrieves the keys directly under a configuration section in config, in the order they appear in the file.
+     *
+     * @param field The field of the configuration section. Can't be null.
+     *
+     * @return The keys of the configuration section.
+     *
+     * @throws ConfigLoadException If the field doesn't exist or is not a configuration section.
+     */
+    public final Set< String > getKeys( @NonNull final String field )
+            throws ConfigLoadException
+    {
+        final ConfigurationSection section = getFileConfiguration().getConfigurationSection( field );
+
+        if ( section == null )
+        {
+            throw new ConfigLoadException( "Field '" + field + "' doesn't exist in config or is not a section." );
+        }
+        else
+        {
+            return section.getKeys( false );
         }
     }
 
@@ -0,0 +1,23 @@
+package com.qhucy.universalenchant.cooldown;
+
+import java.util.UUID;
+
+/**
+ * Listener notified when an enchantment cooldown runs out.
+ *
+ * @author Qhucy
+ * @see CooldownService
+ */
+@FunctionalInterface
+public interface CooldownListener
+{
+
+    /**
+     * Called on the main server thread when a cooldown runs out.
+     *
+     * @param player        The unique id of the player.
+     * @param enchantmentId The id of the enchantment.
+     */
+    void onCooldownReady( final UUID player, final int enchantmentId );
+
+}
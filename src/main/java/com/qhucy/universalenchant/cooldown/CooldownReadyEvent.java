@@ -0,0 +1,49 @@
+package com.qhucy.universalenchant.cooldown;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+import java.util.UUID;
+
+/**
+ * Event called on the main server thread when an enchantment cooldown of a player runs out.
+ *
+ * @author Qhucy
+ * @see CooldownService
+ */
+@Getter
+public final class CooldownReadyEvent
+        extends Event
+{
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final UUID player;
+    private final int  enchantmentId;
+
+    /**
+     * Creates the event for a cooldown that ran out.
+     *
+     * @param player        The unique id of the player. Can't be null.
+     * @param enchantmentId The id of the enchantment.
+     */
+    public CooldownReadyEvent( @NonNull final UUID player, final int enchantmentId )
+    {
+        this.player        = player;
+        this.enchantmentId = enchantmentId;
+    }
+
+    @Override
+    public final HandlerList getHandlers()
+    {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList()
+    {
+        return HANDLERS;
+    }
+
+}
@@ -0,0 +1,276 @@
+package com.qhucy.universalenchant.cooldown;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Class that tracks enchantment cooldowns per player on server ticks.
+ * <p>
+ * Each player with an active cooldown holds a primitive array of ready ticks indexed by enchantment id, so checking a
+ * cooldown is one map lookup and one array read. Expiry is driven by a {@link TimingWheel} advanced once per tick,
+ * which clears the cooldown, notifies the {@link CooldownListener} and forgets players once they have no active
+ * cooldowns, so memory only grows with the amount of active cooldowns.
+ * <p>
+ * Enchantment ids are only stable until the enchantments config is reloaded, so {@link #remap(int[])} should be called
+ * on reload. The service is not thread safe and is meant to be used from the main server thread.
+ *
+ * @author Qhucy
+ */
+public final class CooldownService
+{
+
+    // The players with at least one active cooldown.
+    private final Map< UUID, Owner >       owners        = new HashMap<>();
+    private final TimingWheel              timingWheel   = new TimingWheel();
+    // The timer handler, kept in a field so advancing a tick doesn't allocate a lambda.
+    private final TimingWheel.TimerHandler expireHandler = this::expire;
+    // Notified whenever a cooldown runs out. Can be null.
+    private final CooldownListener         cooldownListener;
+
+    /**
+     * Creates a cooldown service.
+     *
+     * @param cooldownListener The listener notified whenever a cooldown runs out. Can be null.
+     */
+    public CooldownService( final CooldownListener cooldownListener )
+    {
+        this.cooldownListener = cooldownListener;
+    }
+
+    /**
+     * Returns the current tick of the service.
+     *
+     * @return The current tick.
+     */
+    public final long getCurrentTick()
+    {
+        return timingWheel.getTick();
+    }
+
+    /**
+     * Returns the amount of active cooldowns.
+     *
+     * @return The amount of active cooldowns.
+     */
+    public final int size()
+    {
+        return timingWheel.getSize();
+    }
+
+    /**
+     * Advances the service by one tick, expiring every cooldown that ran out. Call once per server tick.
+     */
+    public final void tick()
+    {
+        timingWheel.advance( expireHandler );
+    }
+
+    /**
+     * Starts or restarts a cooldown.
+     *
+     * @param player        The unique id of the player. Can't be null.
+     * @param enchantmentId The id of the enchantment.
+     * @param ticks         The length of the cooldown in ticks. Cooldowns of 0 or less clear the cooldown.
+     */
+    public final void start( @NonNull final UUID player, final int enchantmentId, final long ticks )
+    {
+        if ( ticks <= 0 )
+        {
+            clear( player, enchantmentId );
+
+            return;
+        }
+
+        final Owner owner = owners.computeIfAbsent( player, Owner::new );
+
+        owner.ensureCapacity( enchantmentId );
+
+        final long              clampedTicks = Math.min( ticks, TimingWheel.MAX_DELAY );
+        final TimingWheel.Timer timer        = owner.timers[ enchantmentId ];
+
+        if ( timer == null )
+        {
+            owner.timers[ enchantmentId ] = timingWheel.schedule( clampedTicks, owner, enchantmentId );
+            owner.active++;
+        }
+        else
+        {
+            timingWheel.reschedule( timer, clampedTicks );
+        }
+
+        owner.readyTicks[ enchantmentId ] = getCurrentTick() + clampedTicks;
+    }
+
+    /**
+     * Returns if an enchantment is on cooldown for a player.
+     *
+     * @param player        The unique id of the player. Can't be null.
+     * @param enchantmentId The id of the enchantment.
+     *
+     * @return If the enchantment is on cooldown.
+     */
+    public final boolean isOnCooldown( @NonNull final UUID player, final int enchantmentId )
+    {
+        return getRemainingTicks( player, enchantmentId ) > 0;
+    }
+
+    /**
+     * Returns the amount of ticks until an enchantment is off cooldown for a player.
+     *
+     * @param player        The unique id of the player. Can't be null.
+     * @param enchantmentId The id of the enchantment.
+     *
+     * @return The remaining ticks, or 0 if the enchantment isn't on cooldown.
+     */
+    public final long getRemainingTicks( @NonNull final UUID player, final int enchantmentId )
+    {
+        final Owner owner = owners.get( player );
+
+        if ( owner == null || enchantmentId >= owner.readyTicks.length )
+        {
+            return 0;
+        }
+
+        return Math.max( 0L, owner.readyTicks[ enchantmentId ] - getCurrentTick() );
+    }
+
+    /**
+     * Clears a cooldown without notifying the listener.
+     *
+     * @param player        The unique id of the player. Can't be null.
+     * @param enchantmentId The id of the enchantment.
+     */
+    public final void clear( @NonNull final UUID player, final int enchantmentId )
+    {
+        final Owner owner = owners.get( player );
+
+        if ( owner == null || enchantmentId >= owner.timers.length || owner.timers[ enchantmentId ] == null )
+        {
+            return;
+        }
+
+        timingWheel.cancel( owner.timers[ enchantmentId ] );
+        release( owner, enchantmentId );
+    }
+
+    /**
+     * Clears every cooldown without notifying the listener.
+     */
+    public final void clear()
+    {
+        for ( final Owner owner : owners.values().toArray( new Owner[ 0 ] ) )
+        {
+            for ( int enchantmentId = 0; enchantmentId < owner.timers.length; enchantmentId++ )
+            {
+                if ( owner.timers[ enchantmentId ] != null )
+                {
+                    timingWheel.cancel( owner.timers[ enchantmentId ] );
+                    release( owner, enchantmentId );
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves every cooldown to the new id of its enchantment, such as after the enchantments are reloaded, keeping its
+     * remaining ticks. Cooldowns of enchantments that no longer exist are cleared without notifying the listener.
+     *
+     * @param newIds The new id of every enchantment by its old id, or -1 if it no longer exists. Can't be null.
+     */
+    public final void remap( @NonNull final int[] newIds )
+    {
+        final long tick = getCurrentTick();
+
+        for ( final Owner owner : owners.values().toArray( new Owner[ 0 ] ) )
+        {
+            final long[] remainingTicks = new long[ owner.timers.length ];
+
+            // Every cooldown is cleared first, so a cooldown moved to an id can't collide with one still to be moved.
+            for ( int enchantmentId = 0; enchantmentId < owner.timers.length; enchantmentId++ )
+            {
+                if ( owner.timers[ enchantmentId ] != null )
+                {
+                    remainingTicks[ enchantmentId ] = owner.readyTicks[ enchantmentId ] - tick;
+
+                    timingWheel.cancel( owner.timers[ enchantmentId ] );
+                    release( owner, enchantmentId );
+                }
+            }
+
+            for ( int enchantmentId = 0; enchantmentId < remainingTicks.length; enchantmentId++ )
+            {
+                if ( remainingTicks[ enchantmentId ] > 0 && enchantmentId < newIds.length
+                     && newIds[ enchantmentId ] >= 0 )
+                {
+                    start( owner.player, newIds[ enchantmentId ], remainingTicks[ enchantmentId ] );
+                }
+            }
+        }
+    }
+
+    /**
+     * Expires a cooldown whose timer fired.
+     */
+    private void expire( final Object attachment, final int enchantmentId )
+    {
+        final Owner owner = ( Owner ) attachment;
+
+        release( owner, enchantmentId );
+
+        if ( cooldownListener != null )
+        {
+            cooldownListener.onCooldownReady( owner.player, enchantmentId );
+        }
+    }
+
+    /**
+     * Forgets the timer of a cooldown, and the player if it was their last active cooldown.
+     */
+    private void release( @NonNull final Owner owner, final int enchantmentId )
+    {
+        owner.timers[ enchantmentId ]     = null;
+        owner.readyTicks[ enchantmentId ] = 0;
+
+        if ( --owner.active == 0 )
+        {
+            owners.remove( owner.player );
+        }
+    }
+
+    /**
+     * The cooldowns of one player.
+     */
+    private static final class Owner
+    {
+
+        private final UUID          player;
+        // The tick every enchantment is ready again, indexed by enchantment id.
+        private long[]              readyTicks = new long[ 8 ];
+        // The expiry timer of every enchantment on cooldown, indexed by enchantment id.
+        private TimingWheel.Timer[] timers     = new TimingWheel.Timer[ 8 ];
+        // The amount of enchantments on cooldown.
+        private int                 active;
+
+        private Owner( @NonNull final UUID player )
+        {
+            this.player = player;
+        }
+
+        private void ensureCapacity( final int enchantmentId )
+        {
+            if ( enchantmentId >= readyTicks.length )
+            {
+                final int capacity = Math.max( enchantmentId + 1, readyTicks.length << 1 );
+
+                readyTicks = Arrays.copyOf( readyTicks, capacity );
+                timers     = Arrays.copyOf( timers, capacity );
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,241 @@
+package com.qhucy.universalenchant.cooldown;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Hierarchical timing wheel that fires timers on the server tick they are due.
+ * <p>
+ * The wheel has {@value #LEVELS} levels of {@value #SLOTS} slots. Level 0 holds timers due within the next 64 ticks,
+ * and each higher level covers 64 times the range of the level below. Whenever a lower level wraps around, the timers
+ * of the next slot of the level above are cascaded down, so scheduling, cancelling and firing are all O(1) and a tick
+ * with nothing due costs almost nothing. Timer nodes are pooled, so a steady stream of timers doesn't allocate.
+ * <p>
+ * A wheel is not thread safe and is meant to be advanced from the main server thread.
+ *
+ * @author Qhucy
+ */
+public final class TimingWheel
+{
+
+    // The amount of levels.
+    static final int LEVELS = 4;
+    // The base two logarithm of the amount of slots per level.
+    static final int SLOT_BITS = 6;
+    // The amount of slots per level.
+    static final int SLOTS = 1 << SLOT_BITS;
+    // The longest delay a timer can have, about 9.7 days of ticks. Longer delays are clamped.
+    public static final long MAX_DELAY = ( 1L << ( SLOT_BITS * LEVELS ) ) - 1;
+
+    // The sentinel head of the timer list of every slot, indexed by level then slot.
+    private final Timer[][] slots = new Timer[ LEVELS ][ SLOTS ];
+    // Head of the singly linked list of pooled timers.
+    private Timer           freeTimers;
+    // The last tick that was processed.
+    @Getter
+    private long            tick;
+    // The amount of scheduled timers.
+    @Getter
+    private int             size;
+
+    /**
+     * Creates an empty timing wheel at tick 0.
+     */
+    public TimingWheel()
+    {
+        for ( int level = 0; level < LEVELS; level++ )
+        {
+            for ( int slot = 0; slot < SLOTS; slot++ )
+            {
+                final Timer head = new Timer();
+
+                head.previous          = head;
+                head.next              = head;
+                slots[ level ][ slot ] = head;
+            }
+        }
+    }
+
+    /**
+     * Schedules a timer.
+     *
+     * @param delay      The amount of ticks until the timer fires. Delays below 1 fire on the next tick and delays
+     *                   above {@link #MAX_DELAY} are clamped.
+     * @param attachment The object the timer belongs to. Can be null.
+     * @param value      A value identifying the timer for its attachment.
+     *
+     * @return The scheduled timer, which must not be used after it fires or is cancelled.
+     */
+    public final Timer schedule( final long delay, final Object attachment, final int value )
+    {
+        Timer timer = freeTimers;
+
+        if ( timer == null )
+        {
+            timer = new Timer();
+        }
+        else
+        {
+            freeTimers = timer.next;
+        }
+
+        timer.attachment = attachment;
+        timer.value      = value;
+        timer.deadline   = tick + Math.max( 1L, Math.min( delay, MAX_DELAY ) );
+
+        insert( timer );
+        size++;
+
+        return timer;
+    }
+
+    /**
+     * Moves a scheduled timer to a new delay from the current tick.
+     *
+     * @param timer The scheduled timer. Can't be null.
+     * @param delay The new amount of ticks until the timer fires, clamped like {@link #schedule(long, Object, int)}.
+     */
+    public final void reschedule( @NonNull final Timer timer, final long delay )
+    {
+        unlink( timer );
+
+        timer.deadline = tick + Math.max( 1L, Math.min( delay, MAX_DELAY ) );
+
+        insert( timer );
+    }
+
+    /**
+     * Cancels a scheduled timer and returns it to the pool.
+     *
+     * @param timer The scheduled timer. Can't be null.
+     */
+    public final void cancel( @NonNull final Timer timer )
+    {
+        unlink( timer );
+        release( timer );
+        size--;
+    }
+
+    /**
+     * Advances the wheel by one tick and fires every timer due on that tick.
+     *
+     * @param handler The handler called for every fired timer. Can't be null.
+     */
+    public final void advance( @NonNull final TimerHandler handler )
+    {
+        tick++;
+
+        // Cascades the next slot of every level whose lower level just wrapped around.
+        for ( int level = 1; level < LEVELS; level++ )
+        {
+            final int shift = SLOT_BITS * level;
+
+            if ( ( tick & ( ( 1L << shift ) - 1 ) ) != 0 )
+            {
+                break;
+            }
+
+            final Timer head  = slots[ level ][ ( int ) ( tick >>> shift ) & ( SLOTS - 1 ) ];
+            Timer       timer = head.next;
+
+            head.previous = head;
+            head.next     = head;
+
+            while ( timer != head )
+            {
+                final Timer next = timer.next;
+
+                insert( timer );
+                timer = next;
+            }
+        }
+
+        // Takes timers from the head of the slot one at a time, so the handler can safely cancel other due timers.
+        // Timers scheduled by the handler are due on a later tick and never land in this slot.
+        final Timer head = slots[ 0 ][ ( int ) tick & ( SLOTS - 1 ) ];
+        Timer       timer;
+
+        while ( ( timer = head.next ) != head )
+        {
+            unlink( timer );
+            size--;
+
+            handler.onExpire( timer.attachment, timer.value );
+
+            release( timer );
+        }
+    }
+
+    /**
+     * Inserts a timer into the slot its deadline falls in, relative to the current tick.
+     */
+    private void insert( @NonNull final Timer timer )
+    {
+        final long delta = timer.deadline - tick;
+        int        level = 0;
+
+        while ( level < LEVELS - 1 && delta >= 1L << ( SLOT_BITS * ( level + 1 ) ) )
+        {
+            level++;
+        }
+
+        final Timer head = slots[ level ][ ( int ) ( timer.deadline >>> ( SLOT_BITS * level ) ) & ( SLOTS - 1 ) ];
+
+        timer.previous     = head.previous;
+        timer.next         = head;
+        head.previous.next = timer;
+        head.previous      = timer;
+    }
+
+    private static void unlink( @NonNull final Timer timer )
+    {
+        timer.previous.next = timer.next;
+        timer.next.previous = timer.previous;
+        timer.previous      = null;
+        timer.next          = null;
+    }
+
+    private void release( @NonNull final Timer timer )
+    {
+        timer.attachment = null;
+        timer.next       = freeTimers;
+        freeTimers       = timer;
+    }
+
+    /**
+     * Handler for timers firing.
+     */
+    @FunctionalInterface
+    public interface TimerHandler
+    {
+
+        /**
+         * Called when a timer fires.
+         *
+         * @param attachment The object the timer belongs to. Can be null.
+         * @param value      The value identifying the timer for its attachment.
+         */
+        void onExpire( final Object attachment, final int value );
+
+    }
+
+    /**
+     * A scheduled timer, linked into the list of its slot.
+     */
+    public static final class Timer
+    {
+
+        private Object attachment;
+        private int    value;
+        @Getter
+        private long   deadline;
+        private Timer  previous;
+        private Timer  next;
+
+        private Timer()
+        {
+        }
+
+    }
+
+}
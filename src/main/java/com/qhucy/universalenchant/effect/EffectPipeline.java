@@ -0,0 +1,254 @@
+package com.qhucy.universalenchant.effect;
+
+import com.qhucy.universalenchant.enchant.CustomEnchantment;
+import com.qhucy.universalenchant.jfr.EffectExecutionEvent;
+import com.qhucy.universalenchant.metrics.Counter;
+import com.qhucy.universalenchant.metrics.LatencyRecorder;
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class that runs {@link SplitEffect}s of enchantments that opted in to off-thread effects on a worker pool, and
+ * applies their results on the main thread on a later tick.
+ * <p>
+ * Every effect is submitted under a key, such as the player and enchantment that triggered it. A result is discarded
+ * as stale if a newer effect was submitted under the same key, if it took longer than the maximum age to compute, or if
+ * {@link SplitEffect#isStillValid(Object)} says it no longer applies to the world. Effects of enchantments that didn't
+ * opt in are computed and applied immediately on the main thread, so handlers are written the same way either way.
+ * <p>
+ * Every method is meant to be called from the main server thread.
+ *
+ * @author Qhucy
+ * @see CustomEnchantment#isOffThread()
+ */
+public final class EffectPipeline
+{
+
+    // Runs the compute stage of off-thread effects.
+    private final Executor workers;
+    // The maximum amount of ticks between submitting an effect and applying its result.
+    private final int      maxAgeTicks;
+    @Getter( AccessLevel.PRIVATE )
+    private final Logger   logger;
+
+    // The generation of the latest effect submitted under every key with an effect in flight.
+    private final Map< Object, Long >     generations = new HashMap<>();
+    // Results computed by the workers, waiting to be applied on the main thread.
+    private final Queue< Completed< ? > > completed   = new ConcurrentLinkedQueue<>();
+    // The amount of effects submitted to the workers whose results weren't applied or discarded yet.
+    private final AtomicInteger           inFlight    = new AtomicInteger();
+    private long                          currentTick;
+    private long                          nextGeneration;
+
+    private final Counter         inline;
+    private final Counter         applied;
+    private final Counter         stale;
+    private final Counter         failed;
+    private final LatencyRecorder computeTime;
+
+    /**
+     * Creates an effect pipeline and registers its metrics.
+     *
+     * @param workers         The executor that runs the compute stage of off-thread effects. Can't be null.
+     * @param maxAgeTicks     The maximum amount of ticks between submitting an effect and applying its result.
+     * @param metricsRegistry The registry to register the pipeline's metrics in. Can't be null.
+     * @param logger          The logger to report failed effects to. Can't be null.
+     */
+    public EffectPipeline( @NonNull final Executor workers, final int maxAgeTicks,
+                           @NonNull final MetricsRegistry metricsRegistry, @NonNull final Logger logger )
+    {
+        this.workers     = workers;
+        this.maxAgeTicks = Math.max( 1, maxAgeTicks );
+        this.logger      = logger;
+
+        inline      = metricsRegistry.counter( "effects.inline" );
+        applied     = metricsRegistry.counter( "effects.applied" );
+        stale       = metricsRegistry.counter( "effects.stale" );
+        failed      = metricsRegistry.counter( "effects.failed" );
+        computeTime = metricsRegistry.latency( "effects.compute" );
+
+        metricsRegistry.gauge( "effects.in-flight", inFlight::get );
+    }
+
+    /**
+     * Runs an effect of an enchantment, off the main thread if the enchantment opted in and immediately otherwise.
+     *
+     * @param enchantment The enchantment the effect belongs to. Can't be null.
+     * @param key         The key of the effect, such as the player and enchantment that triggered it. A newer effect
+     *                    under an equal key makes older results stale. Can't be null.
+     * @param effect      The effect. Can't be null.
+     * @param snapshot    The immutable snapshot of the inputs, taken on the main thread. Can't be null.
+     * @param <S>         The type of the snapshot.
+     * @param <R>         The type of the result.
+     */
+    public final < S, R > void run( @NonNull final CustomEnchantment enchantment, @NonNull final Object key,
+                                    @NonNull final SplitEffect< S, R > effect, @NonNull final S snapshot )
+    {
+        if ( !enchantment.isOffThread() )
+        {
+            final EffectExecutionEvent event = new EffectExecutionEvent();
+
+            event.begin();
+            inline.increment();
+            effect.apply( snapshot, effect.compute( snapshot ) );
+            event.record( enchantment.getId(), enchantment.getKey(), "inline", key );
+
+            return;
+        }
+
+        final long generation = ++nextGeneration;
+        final long submitTick = currentTick;
+
+        generations.put( key, generation );
+        inFlight.incrementAndGet();
+
+        workers.execute( () ->
+        {
+            final EffectExecutionEvent event = new EffectExecutionEvent();
+            final long                 start = System.nanoTime();
+
+            event.begin();
+
+            try
+            {
+                final R result = effect.compute( snapshot );
+
+                computeTime.recordSince( start );
+                event.record( enchantment.getId(), enchantment.getKey(), "compute", key );
+                completed.add( new Completed<>( enchantment, key, generation, submitTick, effect, snapshot, result,
+                                                false ) );
+            }
+            catch ( final Throwable throwable )
+            {
+                failed.increment();
+                getLogger().log( Level.SEVERE, "Unable to compute an effect of enchantment '" + enchantment.getKey()
+                                               + "'.", throwable );
+
+                // Still passed to the main thread so the key of the effect is forgotten, even after an error.
+                completed.add( new Completed<>( enchantment, key, generation, submitTick, effect, snapshot, null,
+                                                true ) );
+            }
+        } );
+    }
+
+    /**
+     * Applies every result computed since the last tick that isn't stale. Call once per server tick.
+     */
+    public final void tick()
+    {
+        currentTick++;
+
+        Completed< ? > result;
+
+        while ( ( result = completed.poll() ) != null )
+        {
+            inFlight.decrementAndGet();
+
+            final Long latest = generations.get( result.key );
+
+            if ( latest == null || latest != result.generation )
+            {
+                // A newer effect was submitted under the same key.
+                if ( !result.failed )
+                {
+                    stale.increment();
+                }
+
+                continue;
+            }
+
+            generations.remove( result.key );
+
+            if ( result.failed )
+            {
+                continue;
+            }
+
+            if ( currentTick - result.submitTick > maxAgeTicks || !result.isStillValid() )
+            {
+                stale.increment();
+
+                continue;
+            }
+
+            final EffectExecutionEvent event = new EffectExecutionEvent();
+
+            event.begin();
+
+            try
+            {
+                result.apply();
+                applied.increment();
+                event.record( result.enchantment.getId(), result.enchantment.getKey(), "apply", result.key );
+            }
+            catch ( final RuntimeException exception )
+            {
+                failed.increment();
+                getLogger().log( Level.SEVERE, "Unable to apply an effect.", exception );
+            }
+        }
+    }
+
+    /**
+     * Forgets every effect in flight, so their results are discarded. Call when enchantments are reloaded.
+     */
+    public final void invalidateAll()
+    {
+        generations.clear();
+    }
+
+    /**
+     * A result computed by a worker, along with everything needed to check and apply it.
+     */
+    private static final class Completed< S >
+    {
+
+        private final CustomEnchantment        enchantment;
+        private final Object                   key;
+        private final long                     generation;
+        private final long                     submitTick;
+        private final SplitEffect< S, Object > effect;
+        private final S                        snapshot;
+        private final Object                   result;
+        // If computing the result threw.
+        private final boolean                  failed;
+
+        @SuppressWarnings( "unchecked" )
+        private Completed( @NonNull final CustomEnchantment enchantment, @NonNull final Object key,
+                           final long generation, final long submitTick, @NonNull final SplitEffect< S, ? > effect,
+                           @NonNull final S snapshot, final Object result, final boolean failed )
+        {
+            this.enchantment = enchantment;
+            this.key         = key;
+            this.generation  = generation;
+            this.submitTick  = submitTick;
+            this.effect      = ( SplitEffect< S, Object > ) effect;
+            this.snapshot    = snapshot;
+            this.result      = result;
+            this.failed      = failed;
+        }
+
+        private boolean isStillValid()
+        {
+            return effect.isStillValid( snapshot );
+        }
+
+        private void apply()
+        {
+            effect.apply( snapshot, result );
+        }
+
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.qhucy.universalenchant.effect;
+
+/**
+ * A heavy enchantment effect split into a compute stage that may run off the main thread and an apply stage that
+ * always runs on the main thread, such as chain targeting, path tracing, vein mining or loot rolls.
+ * <p>
+ * The handler triggering the effect captures every input on the main thread into an immutable snapshot, such as block
+ * positions and entity ids instead of the blocks and entities themselves, since the Bukkit API must not be used from
+ * worker threads.
+ *
+ * @param <S> The type of the immutable snapshot of the inputs.
+ * @param <R> The type of the computed result.
+ *
+ * @author Qhucy
+ * @see EffectPipeline
+ */
+public interface SplitEffect< S, R >
+{
+
+    /**
+     * Computes the result of the effect. May run on a worker thread, so it must only read the snapshot.
+     *
+     * @param snapshot The snapshot of the inputs. Can't be null.
+     *
+     * @return The result of the effect.
+     */
+    R compute( final S snapshot );
+
+    /**
+     * Returns if a computed result still applies to the world, such as the player still being online and the mined
+     * blocks still being ores. Runs on the main thread right before {@link #apply(Object, Object)}.
+     *
+     * @param snapshot The snapshot of the inputs. Can't be null.
+     *
+     * @return If the result can be applied.
+     */
+    default boolean isStillValid( final S snapshot )
+    {
+        return true;
+    }
+
+    /**
+     * Applies the result of the effect to the world. Runs on the main thread.
+     *
+     * @param snapshot The snapshot of the inputs. Can't be null.
+     * @param result   The computed result.
+     */
+    void apply( final S snapshot, final R result );
+
+}
@@ -0,0 +1,203 @@
+package com.qhucy.universalenchant.enchant;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.List;
+
+/**
+ * Class that holds which custom enchantments conflict with each other and which item groups each can be applied to,
+ * compiled into dense bitsets indexed by enchantment id.
+ * <p>
+ * A set of enchantments on an item is represented as a long array from {@link #newSet()}, so checking a whole item is
+ * a few word-wise ANDs instead of comparing lists of keys from config.
+ *
+ * @author Qhucy
+ * @see EnchantmentRegistry
+ */
+public final class CompatibilityMatrix
+{
+
+    // The amount of enchantments in the matrix.
+    @Getter
+    private final int    size;
+    // The amount of longs needed to hold one bit per enchantment.
+    @Getter
+    private final int    words;
+    // Row-major conflict bitsets. Row i holds a bit for every enchantment that conflicts with enchantment i.
+    private final long[] conflicts;
+    // Row-major applicability bitsets. Row g holds a bit for every enchantment applicable to item group g.
+    private final long[] applicable;
+
+    /**
+     * Compiles the conflicts and applicable item groups of the enchantments into bitsets. Conflicts are made symmetric,
+     * so an enchantment only has to list a conflict on one side.
+     *
+     * @param enchantments The enchantments, where the enchantment at index i has the id i. Can't be null.
+     */
+    CompatibilityMatrix( @NonNull final List< CustomEnchantment > enchantments )
+    {
+        this.size       = enchantments.size();
+        this.words      = Math.max( 1, ( size + 63 ) >>> 6 );
+        this.conflicts  = new long[ size * words ];
+        this.applicable = new long[ ItemGroup.values().length * words ];
+
+        for ( final CustomEnchantment enchantment : enchantments )
+        {
+            final int id = enchantment.getId();
+
+            for ( final ItemGroup itemGroup : enchantment.getApplicableGroups() )
+            {
+                applicable[ itemGroup.ordinal() * words + ( id >>> 6 ) ] |= 1L << id;
+            }
+
+            for ( final CustomEnchantment other : enchantments )
+            {
+                if ( other != enchantment && enchantment.getConflictKeys().contains( other.getKey() ) )
+                {
+                    final int otherId = other.getId();
+
+                    conflicts[ id * words + ( otherId >>> 6 ) ] |= 1L << otherId;
+                    conflicts[ otherId * words + ( id >>> 6 ) ] |= 1L << id;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a new empty enchantment set sized for this matrix.
+     *
+     * @return A new empty enchantment set.
+     */
+    public final long[] newSet()
+    {
+        return new long[ words ];
+    }
+
+    /**
+     * Adds an enchantment to an enchantment set.
+     *
+     * @param set The enchantment set. Can't be null.
+     * @param id  The id of the enchantment.
+     */
+    public static void add( @NonNull final long[] set, final int id )
+    {
+        set[ id >>> 6 ] |= 1L << id;
+    }
+
+    /**
+     * Returns if an enchantment set contains an enchantment.
+     *
+     * @param set The enchantment set. Can't be null.
+     * @param id  The id of the enchantment.
+     *
+     * @return If the enchantment set contains the enchantment.
+     */
+    public static boolean contains( @NonNull final long[] set, final int id )
+    {
+        return ( set[ id >>> 6 ] & ( 1L << id ) ) != 0;
+    }
+
+    /**
+     * Returns if two enchantments conflict with each other.
+     *
+     * @param firstId  The id of the first enchantment.
+     * @param secondId The id of the second enchantment.
+     *
+     * @return If the two enchantments conflict.
+     */
+    public final boolean conflicts( final int firstId, final int secondId )
+    {
+        return ( conflicts[ firstId * words + ( secondId >>> 6 ) ] & ( 1L << secondId ) ) != 0;
+    }
+
+    /**
+     * Returns if an enchantment can be applied to an item group.
+     *
+     * @param id        The id of the enchantment.
+     * @param itemGroup The item group. Can be null for items in no group.
+     *
+     * @return If the enchantment can be applied to the item group.
+     */
+    public final boolean isApplicable( final int id, final ItemGroup itemGroup )
+    {
+        return itemGroup != null && ( applicable[ itemGroup.ordinal() * words + ( id >>> 6 ) ] & ( 1L << id ) ) != 0;
+    }
+
+    /**
+     * Returns if an enchantment can be added to an item that already has a set of enchantments. An enchantment already
+     * in the set can always be re-added, for example when it is upgraded.
+     *
+     * @param set       The enchantments already on the item. Can't be null.
+     * @param id        The id of the enchantment to add.
+     * @param itemGroup The item group of the item. Can be null for items in no group.
+     *
+     * @return If the enchantment can be added to the item.
+     */
+    public final boolean canAdd( @NonNull final long[] set, final int id, final ItemGroup itemGroup )
+    {
+        if ( !isApplicable( id, itemGroup ) )
+        {
+            return false;
+        }
+
+        final int row = id * words;
+
+        for ( int word = 0; word < words; word++ )
+        {
+            if ( ( conflicts[ row + word ] & set[ word ] ) != 0 )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns if every enchantment in a set can be applied to an item group without any of them conflicting.
+     *
+     * @param set       The enchantment set. Can't be null.
+     * @param itemGroup The item group of the item. Can be null for items in no group.
+     *
+     * @return If the whole enchantment set is valid for the item group.
+     */
+    public final boolean isCompatible( @NonNull final long[] set, final ItemGroup itemGroup )
+    {
+        final int groupRow = itemGroup == null ? -1 : itemGroup.ordinal() * words;
+
+        for ( int word = 0; word < words; word++ )
+        {
+            final long groupBits = groupRow < 0 ? 0L : applicable[ groupRow + word ];
+
+            if ( ( set[ word ] & ~groupBits ) != 0 )
+            {
+                return false;
+            }
+        }
+
+        for ( int word = 0; word < words; word++ )
+        {
+            long bits = set[ word ];
+
+            while ( bits != 0 )
+            {
+                final int id  = ( word << 6 ) + Long.numberOfTrailingZeros( bits );
+                final int row = id * words;
+
+                for ( int other = 0; other < words; other++ )
+                {
+                    if ( ( conflicts[ row + other ] & set[ other ] ) != 0 )
+                    {
+                        return false;
+                    }
+                }
+
+                bits &= bits - 1;
+            }
+        }
+
+        return true;
+    }
+
+}
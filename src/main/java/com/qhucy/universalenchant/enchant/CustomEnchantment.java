@@ -0,0 +1,99 @@
+package com.qhucy.universalenchant.enchant;
+
+import com.qhucy.universalenchant.expression.LevelFormula;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class that holds the definition of a custom enchantment loaded from config.
+ *
+ * @author Qhucy
+ * @see EnchantmentRegistry
+ */
+@Getter
+public final class CustomEnchantment
+{
+
+    // The dense identifier of the enchantment, assigned in load order. Only stable until the next reload.
+    private final int                         id;
+    // The unique key of the enchantment in config, used wherever the enchantment is stored.
+    private final String                      key;
+    private final String                      displayName;
+    // Other names of the enchantment for commands.
+    private final Set< String >               aliases;
+    // The names of the enchantment for commands by locale, such as 'de_de'.
+    private final Map< String, String >       localizedNames;
+    private final int                         maxLevel;
+    private final Set< ItemGroup >            applicableGroups;
+    // The keys of the enchantments that can't be on the same item as this enchantment.
+    private final Set< String >               conflictKeys;
+    // The formulas of the enchantment by name, specialized for every level.
+    @Getter( AccessLevel.NONE )
+    private final Map< String, LevelFormula > formulas;
+    // If the heavy effects of the enchantment are computed off the main thread.
+    private final boolean                     offThread;
+
+    /**
+     * Creates the definition of a custom enchantment.
+     *
+     * @param id               The dense identifier of the enchantment. Must be positive or zero.
+     * @param key              The unique key of the enchantment. Can't be null.
+     * @param displayName      The colorized display name of the enchantment. Can't be null.
+     * @param aliases          Other names of the enchantment for commands. Can't be null.
+     * @param localizedNames   The names of the enchantment for commands by locale. Can't be null.
+     * @param maxLevel         The maximum level of the enchantment. Must be positive.
+     * @param applicableGroups The item groups the enchantment can be applied to. Can't be null.
+     * @param conflictKeys     The keys of the enchantments this enchantment conflicts with. Can't be null.
+     * @param formulas         The formulas of the enchantment by name. Can't be null.
+     * @param offThread        If the heavy effects of the enchantment are computed off the main thread.
+     */
+    public CustomEnchantment( final int id, @NonNull final String key, @NonNull final String displayName,
+                              @NonNull final Set< String > aliases, @NonNull final Map< String, String > localizedNames,
+                              final int maxLevel, @NonNull final Set< ItemGroup > applicableGroups,
+                              @NonNull final Set< String > conflictKeys,
+                              @NonNull final Map< String, LevelFormula > formulas, final boolean offThread )
+    {
+        if ( id < 0 )
+        {
+            throw new IllegalArgumentException( "Enchantment id must be positive or zero." );
+        }
+        if ( maxLevel < 1 )
+        {
+            throw new IllegalArgumentException( "Enchantment '" + key + "' must have a max level of at least 1." );
+        }
+
+        this.id               = id;
+        this.key              = key;
+        this.displayName      = displayName;
+        this.aliases          = Collections.unmodifiableSet( new LinkedHashSet<>( aliases ) );
+        this.localizedNames   = Collections.unmodifiableMap( new HashMap<>( localizedNames ) );
+        this.maxLevel         = maxLevel;
+        this.applicableGroups = Collections.unmodifiableSet(
+                applicableGroups.isEmpty() ? EnumSet.noneOf( ItemGroup.class ) : EnumSet.copyOf( applicableGroups ) );
+        this.conflictKeys     = Collections.unmodifiableSet( new LinkedHashSet<>( conflictKeys ) );
+        this.formulas         = new HashMap<>( formulas );
+        this.offThread        = offThread;
+    }
+
+    /**
+     * Returns a formula of the enchantment. Handlers should look formulas up once when config loads rather than on
+     * every hit.
+     *
+     * @param name The name of the formula. Can't be null.
+     *
+     * @return The formula or null if the enchantment has no formula with the name.
+     */
+    public final LevelFormula getFormula( @NonNull final String name )
+    {
+        return formulas.get( name );
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.qhucy.universalenchant.enchant;
+
+import com.qhucy.universalenchant.util.PrefixTrie;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Class that resolves and completes the names of enchantments: their keys, their aliases and their names in every
+ * locale.
+ * <p>
+ * The names are indexed in {@link PrefixTrie}s once when the enchantments load, so completing a name as it is typed
+ * never scans the enchantments. Localized names can contain spaces in config, which are replaced with underscores so
+ * they stay one command argument.
+ *
+ * @author Qhucy
+ * @see EnchantmentRegistry#getNames()
+ */
+public final class EnchantmentNames
+{
+
+    // The keys and aliases of every enchantment.
+    private final PrefixTrie                       names;
+    // The localized names of every enchantment by lower case locale.
+    private final Map< String, PrefixTrie >        localizedNames = new HashMap<>();
+    // Every enchantment by each of its lower case names.
+    private final Map< String, CustomEnchantment > byName         = new HashMap<>();
+    // The levels of every enchantment as text by enchantment id.
+    private final List< List< String > >           levels         = new ArrayList<>();
+
+    /**
+     * Indexes the names of enchantments.
+     *
+     * @param enchantments The enchantments in id order. Can't be null.
+     *
+     * @throws IllegalArgumentException If two enchantments share a name.
+     */
+    EnchantmentNames( @NonNull final List< CustomEnchantment > enchantments )
+    {
+        final List< String >                names          = new ArrayList<>();
+        final Map< String, List< String > > localizedNames = new HashMap<>();
+
+        for ( final CustomEnchantment enchantment : enchantments )
+        {
+            names.add( index( enchantment.getKey(), enchantment ) );
+
+            for ( final String alias : enchantment.getAliases() )
+            {
+                names.add( index( alias, enchantment ) );
+            }
+
+            for ( final Map.Entry< String, String > entry : enchantment.getLocalizedNames().entrySet() )
+            {
+                final String locale = entry.getKey().toLowerCase( Locale.ROOT );
+
+                localizedNames.computeIfAbsent( locale, key -> new ArrayList<>() ).add(
+                        index( entry.getValue(), enchantment ) );
+            }
+
+            final List< String > enchantmentLevels = new ArrayList<>( enchantment.getMaxLevel() );
+
+            for ( int level = 1; level <= enchantment.getMaxLevel(); level++ )
+            {
+                enchantmentLevels.add( Integer.toString( level ) );
+            }
+
+            levels.add( Collections.unmodifiableList( enchantmentLevels ) );
+        }
+
+        this.names = new PrefixTrie( names );
+
+        localizedNames.forEach(
+                ( locale, localized ) -> this.localizedNames.put( locale, new PrefixTrie( localized ) ) );
+    }
+
+    /**
+     * Adds a name of an enchantment to the lookup.
+     *
+     * @return The name as a command argument.
+     */
+    private String index( @NonNull final String name, @NonNull final CustomEnchantment enchantment )
+    {
+        final String            argument = name.trim().replace( ' ', '_' );
+        final CustomEnchantment existing = byName.putIfAbsent( argument.toLowerCase( Locale.ROOT ), enchantment );
+
+        if ( existing != null && existing != enchantment )
+        {
+            throw new IllegalArgumentException(
+                    "Enchantments '" + existing.getKey() + "' and '" + enchantment.getKey() + "' share the name '"
+                    + argument + "'." );
+        }
+
+        return argument;
+    }
+
+    /**
+     * Returns the enchantment with a key, alias or localized name in any locale.
+     *
+     * @param name The name, ignoring case. Can't be null.
+     *
+     * @return The enchantment or null if no enchantment has the name.
+     */
+    public final CustomEnchantment resolve( @NonNull final String name )
+    {
+        return byName.get( name.toLowerCase( Locale.ROOT ) );
+    }
+
+    /**
+     * Returns every key, alias and name in a locale starting with a prefix.
+     *
+     * @param prefix The prefix, ignoring case. Can't be null.
+     * @param locale The locale of the names, such as 'de_de'. Can be null for no localized names.
+     *
+     * @return The matching names.
+     */
+    public final List< String > complete( @NonNull final String prefix, final String locale )
+    {
+        final List< String > matches   = names.complete( prefix );
+        final PrefixTrie     localized = locale == null ? null
+                                                            : localizedNames.get( locale.toLowerCase( Locale.ROOT ) );
+
+        if ( localized == null )
+        {
+            return matches;
+        }
+
+        final List< String > localizedMatches = localized.complete( prefix );
+
+        if ( localizedMatches.isEmpty() )
+        {
+            return matches;
+        }
+
+        final List< String > merged = new ArrayList<>( matches.size() + localizedMatches.size() );
+
+        merged.addAll( localizedMatches );
+        merged.addAll( matches );
+
+        return merged;
+    }
+
+    /**
+     * Returns every level of an enchantment starting with a prefix.
+     *
+     * @param enchantment The enchantment. Can't be null.
+     * @param prefix      The prefix. Can't be null.
+     *
+     * @return The matching levels as text.
+     */
+    public final List< String > completeLevels( @NonNull final CustomEnchantment enchantment,
+                                                @NonNull final String prefix )
+    {
+        final List< String > enchantmentLevels = levels.get( enchantment.getId() );
+
+        if ( prefix.isEmpty() )
+        {
+            return enchantmentLevels;
+        }
+
+        final List< String > matches = new ArrayList<>();
+
+        for ( final String level : enchantmentLevels )
+        {
+            if ( level.startsWith( prefix ) )
+            {
+                matches.add( level );
+            }
+        }
+
+        return matches;
+    }
+
+}
@@ -0,0 +1,270 @@
+package com.qhucy.universalenchant.enchant;
+
+import com.qhucy.universalenchant.config.ConfigLoadException;
+import com.qhucy.universalenchant.config.ConfigManager;
+import com.qhucy.universalenchant.expression.ExpressionParseException;
+import com.qhucy.universalenchant.expression.ExpressionParser;
+import com.qhucy.universalenchant.expression.FormulaVariables;
+import com.qhucy.universalenchant.expression.LevelFormula;
+import com.qhucy.universalenchant.shop.ShopCatalog;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class that holds every custom enchantment loaded from the enchantments config and the tables compiled from them.
+ * <p>
+ * Loading replaces the whole registry at once, so readers on other threads always see a consistent set of
+ * enchantments and matching tables.
+ *
+ * @author Qhucy
+ * @see CompatibilityMatrix
+ * @see ProcTable
+ * @see EnchantmentNames
+ */
+public final class EnchantmentRegistry
+{
+
+    // The formulas that are evaluated without variables other than the level.
+    private static final String[] LEVEL_ONLY_FORMULAS = { ProcTable.CHANCE_FORMULA, ShopCatalog.PRICE_FORMULA };
+
+    // The current immutable contents of the registry, replaced on every load.
+    private volatile Snapshot snapshot = new Snapshot( Collections.emptyList() );
+
+    /**
+     * Loads every enchantment from the enchantments config, assigns them dense ids in file order, compiles their
+     * formulas and recompiles the compatibility matrix, proc table and name index.
+     *
+     * @param configManager The config manager of the enchantments config. Can't be null.
+     *
+     * @throws ConfigLoadException If an enchantment is missing a field, has a malformed formula, references an unknown
+     *                             item group or enchantment or shares a name with another enchantment.
+     */
+    public final void load( @NonNull final ConfigManager configManager )
+            throws ConfigLoadException
+    {
+        final List< CustomEnchantment > enchantments = new ArrayList<>();
+
+        for ( final String key : configManager.getKeys( "enchantments" ) )
+        {
+            final String path = "enchantments." + key + ".";
+
+            final Set< ItemGroup > applicableGroups = EnumSet.noneOf( ItemGroup.class );
+
+            for ( final String groupName : configManager.getStringList( path + "applicable-groups" ) )
+            {
+                try
+                {
+                    applicableGroups.add( ItemGroup.valueOf( groupName.toUpperCase( Locale.ROOT ) ) );
+                }
+                catch ( final IllegalArgumentException exception )
+                {
+                    throw new ConfigLoadException(
+                            "Enchantment '" + key + "' has an unknown applicable group '" + groupName + "'." );
+                }
+            }
+
+            final Set< String > conflictKeys = new LinkedHashSet<>(
+                    configManager.getStringList( path + "conflicts", Collections.emptyList() ) );
+            final int maxLevel = configManager.getInt( path + "max-level" );
+
+            if ( maxLevel < 1 )
+            {
+                throw new ConfigLoadException( "Enchantment '" + key + "' must have a max level of at least 1." );
+            }
+
+            final Map< String, LevelFormula > formulas = new HashMap<>();
+
+            if ( configManager.containsField( path + "formulas" ) )
+            {
+                for ( final String formulaName : configManager.getKeys( path + "formulas" ) )
+                {
+                    final String formula = configManager.getString( path + "formulas." + formulaName );
+
+                    try
+                    {
+                        formulas.put( formulaName, new LevelFormula(
+                                ExpressionParser.parse( formula, FormulaVariables.getNames() ), FormulaVariables.LEVEL,
+                                maxLevel ) );
+                    }
+                    catch ( final ExpressionParseException exception )
+                    {
+                        throw new ConfigLoadException(
+                                "Enchantment '" + key + "' has a malformed formula '" + formulaName + "': "
+                                + exception.getMessage() );
+                    }
+                }
+            }
+
+            for ( final String levelOnlyFormula : LEVEL_ONLY_FORMULAS )
+            {
+                final LevelFormula formula = formulas.get( levelOnlyFormula );
+
+                if ( formula != null && !formula.isLevelOnly() )
+                {
+                    throw new ConfigLoadException(
+                            "Enchantment '" + key + "' has a '" + levelOnlyFormula + "' formula that depends on more "
+                            + "than the level." );
+                }
+            }
+
+            final Set< String >         aliases        = new LinkedHashSet<>(
+                    configManager.getStringList( path + "aliases", Collections.emptyList() ) );
+            final Map< String, String > localizedNames = new HashMap<>();
+
+            if ( configManager.containsField( path + "names" ) )
+            {
+                for ( final String locale : configManager.getKeys( path + "names" ) )
+                {
+                    localizedNames.put( locale, configManager.getRawString( path + "names." + locale, locale ) );
+                }
+            }
+
+            enchantments.add( new CustomEnchantment( enchantments.size(), key,
+                                                     configManager.getString( path + "display-name" ), aliases,
+                                                     localizedNames, maxLevel, applicableGroups, conflictKeys,
+                                                     formulas,
+                                                     configManager.getBoolean( path + "off-thread", false ) ) );
+        }
+
+        final Snapshot loaded;
+
+        try
+        {
+            loaded = new Snapshot( enchantments );
+        }
+        catch ( final IllegalArgumentException exception )
+        {
+            throw new ConfigLoadException( exception.getMessage() );
+        }
+
+        for ( final CustomEnchantment enchantment : enchantments )
+        {
+            for ( final String conflictKey : enchantment.getConflictKeys() )
+            {
+                if ( !loaded.byKey.containsKey( conflictKey ) )
+                {
+                    throw new ConfigLoadException(
+                            "Enchantment '" + enchantment.getKey() + "' conflicts with unknown enchantment '"
+                            + conflictKey + "'." );
+                }
+            }
+        }
+
+        snapshot = loaded;
+    }
+
+    /**
+     * Returns the amount of loaded enchantments.
+     *
+     * @return The amount of loaded enchantments.
+     */
+    public final int size()
+    {
+        return snapshot.enchantments.size();
+    }
+
+    /**
+     * Returns every loaded enchantment in id order.
+     *
+     * @return An unmodifiable list of every loaded enchantment.
+     */
+    public final List< CustomEnchantment > getEnchantments()
+    {
+        return snapshot.enchantments;
+    }
+
+    /**
+     * Returns an enchantment by its id.
+     *
+     * @param id The id of the enchantment.
+     *
+     * @return The enchantment or null if there is no enchantment with the id.
+     */
+    public final CustomEnchantment getById( final int id )
+    {
+        final List< CustomEnchantment > enchantments = snapshot.enchantments;
+
+        return id >= 0 && id < enchantments.size() ? enchantments.get( id ) : null;
+    }
+
+    /**
+     * Returns an enchantment by its key.
+     *
+     * @param key The key of the enchantment. Can't be null.
+     *
+     * @return The enchantment or null if there is no enchantment with the key.
+     */
+    public final CustomEnchantment getByKey( @NonNull final String key )
+    {
+        return snapshot.byKey.get( key );
+    }
+
+    /**
+     * Returns the names of the currently loaded enchantments, for resolving and completing them in commands.
+     *
+     * @return The enchantment names.
+     */
+    public final EnchantmentNames getNames()
+    {
+        return snapshot.names;
+    }
+
+    /**
+     * Returns the compatibility matrix compiled for the currently loaded enchantments.
+     *
+     * @return The compatibility matrix.
+     */
+    public final CompatibilityMatrix getCompatibilityMatrix()
+    {
+        return snapshot.compatibilityMatrix;
+    }
+
+    /**
+     * Returns the proc table precomputed for the currently loaded enchantments.
+     *
+     * @return The proc table.
+     */
+    public final ProcTable getProcTable()
+    {
+        return snapshot.procTable;
+    }
+
+    /**
+     * Immutable contents of the registry for one load.
+     */
+    private static final class Snapshot
+    {
+
+        private final List< CustomEnchantment >        enchantments;
+        private final Map< String, CustomEnchantment > byKey;
+        private final CompatibilityMatrix              compatibilityMatrix;
+        private final ProcTable                        procTable;
+        private final EnchantmentNames                 names;
+
+        private Snapshot( @NonNull final List< CustomEnchantment > enchantments )
+        {
+            this.enchantments = Collections.unmodifiableList( new ArrayList<>( enchantments ) );
+            this.byKey        = new HashMap<>();
+
+            for ( final CustomEnchantment enchantment : enchantments )
+            {
+                byKey.put( enchantment.getKey(), enchantment );
+            }
+
+            this.compatibilityMatrix = new CompatibilityMatrix( this.enchantments );
+            this.procTable           = new ProcTable( this.enchantments );
+            this.names               = new EnchantmentNames( this.enchantments );
+        }
+
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.qhucy.universalenchant.enchant;
+
+import lombok.NonNull;
+import org.bukkit.Material;
+
+/**
+ * Enumeration of the groups of item materials that custom enchantments can be applied to.
+ *
+ * @author Qhucy
+ */
+public enum ItemGroup
+{
+
+    SWORDS( "_SWORD" ),
+    AXES( "_AXE" ),
+    PICKAXES( "_PICKAXE" ),
+    SHOVELS( "_SHOVEL" ),
+    HOES( "_HOE" ),
+    HELMETS( "_HELMET" ),
+    CHESTPLATES( "_CHESTPLATE" ),
+    LEGGINGS( "_LEGGINGS" ),
+    BOOTS( "_BOOTS" ),
+    BOWS( "BOW" ),
+    CROSSBOWS( "CROSSBOW" ),
+    TRIDENTS( "TRIDENT" ),
+    FISHING_RODS( "FISHING_ROD" ),
+    SHIELDS( "SHIELD" ),
+    ELYTRAS( "ELYTRA" );
+
+    // Lookup table from a material's ordinal to its item group, or null if the material is in no group.
+    private static final ItemGroup[] BY_MATERIAL;
+
+    // Builds the lookup table once so that resolving the group of an item never does string comparisons.
+    static
+    {
+        final Material[] materials = Material.values();
+
+        BY_MATERIAL = new ItemGroup[ materials.length ];
+
+        for ( final Material material : materials )
+        {
+            for ( final ItemGroup itemGroup : values() )
+            {
+                if ( itemGroup.matches( material.name() ) )
+                {
+                    BY_MATERIAL[ material.ordinal() ] = itemGroup;
+                    break;
+                }
+            }
+        }
+    }
+
+    // The suffix of the material names in this group. Suffixes without a leading underscore match exactly.
+    private final String suffix;
+
+    ItemGroup( @NonNull final String suffix )
+    {
+        this.suffix = suffix;
+    }
+
+    /**
+     * Returns if a material name belongs to this item group.
+     *
+     * @param materialName The name of the material. Can't be null.
+     *
+     * @return If the material name belongs to this item group.
+     */
+    private boolean matches( @NonNull final String materialName )
+    {
+        return suffix.charAt( 0 ) == '_' ? materialName.endsWith( suffix ) : materialName.equals( suffix );
+    }
+
+    /**
+     * Returns the item group of a material.
+     *
+     * @param material The material. Can't be null.
+     *
+     * @return The item group of the material or null if the material is in no group.
+     */
+    public static ItemGroup fromMaterial( @NonNull final Material material )
+    {
+        return BY_MATERIAL[ material.ordinal() ];
+    }
+
+}
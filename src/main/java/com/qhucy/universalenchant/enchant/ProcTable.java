@@ -0,0 +1,100 @@
+package com.qhucy.universalenchant.enchant;
+
+import com.qhucy.universalenchant.expression.LevelFormula;
+import lombok.NonNull;
+
+import java.util.List;
+
+/**
+ * Class that holds the proc chance of every enchantment at every level, precomputed into unsigned 32-bit integer
+ * thresholds when config loads.
+ * <p>
+ * A proc check compares one random 32-bit integer against a threshold from this table, so no chance is computed and
+ * no doubles are compared per hit. Enchantments without a {@value #CHANCE_FORMULA} formula always proc.
+ *
+ * @author Qhucy
+ * @see EnchantmentRegistry
+ */
+public final class ProcTable
+{
+
+    // The name of the level-only formula that holds the proc chance of an enchantment, from 0 to 1.
+    public static final String CHANCE_FORMULA = "chance";
+
+    // The threshold of a chance of 1, which is larger than every unsigned 32-bit integer.
+    public static final long ALWAYS = 1L << 32;
+
+    // The amount of levels per enchantment row, the highest max level of any enchantment plus one.
+    private final int    stride;
+    // Row-major thresholds, where row i holds the threshold of enchantment i at every level.
+    private final long[] thresholds;
+
+    /**
+     * Precomputes the proc thresholds of the enchantments. Each enchantment's chance formula must only depend on the
+     * level.
+     *
+     * @param enchantments The enchantments, where the enchantment at index i has the id i. Can't be null.
+     */
+    ProcTable( @NonNull final List< CustomEnchantment > enchantments )
+    {
+        int highestLevel = 0;
+
+        for ( final CustomEnchantment enchantment : enchantments )
+        {
+            highestLevel = Math.max( highestLevel, enchantment.getMaxLevel() );
+        }
+
+        this.stride     = highestLevel + 1;
+        this.thresholds = new long[ enchantments.size() * stride ];
+
+        for ( final CustomEnchantment enchantment : enchantments )
+        {
+            final LevelFormula chance = enchantment.getFormula( CHANCE_FORMULA );
+            final int          row    = enchantment.getId() * stride;
+
+            // Level 0 is left at a threshold of 0, so an enchantment that isn't on the item never procs.
+            for ( int level = 1; level < stride; level++ )
+            {
+                thresholds[ row + level ] = chance == null ? ALWAYS : thresholdOf( chance.evaluate( level ) );
+            }
+        }
+    }
+
+    /**
+     * Returns the unsigned 32-bit threshold of a chance.
+     *
+     * @param chance The chance from 0 to 1. Lower and higher chances are clamped.
+     *
+     * @return The threshold that a uniformly random unsigned 32-bit integer is below with the given chance.
+     */
+    public static long thresholdOf( final double chance )
+    {
+        if ( !( chance > 0.0 ) )
+        {
+            return 0L;
+        }
+        else if ( chance >= 1.0 )
+        {
+            return ALWAYS;
+        }
+        else
+        {
+            return ( long ) ( chance * ALWAYS );
+        }
+    }
+
+    /**
+     * Returns the proc threshold of an enchantment at a level. Levels past the enchantment's max level use the
+     * threshold of its max level.
+     *
+     * @param id    The id of the enchantment.
+     * @param level The level of the enchantment. Levels below 1 never proc.
+     *
+     * @return The proc threshold.
+     */
+    public final long getThreshold( final int id, final int level )
+    {
+        return level < 1 ? 0L : thresholds[ id * stride + Math.min( level, stride - 1 ) ];
+    }
+
+}
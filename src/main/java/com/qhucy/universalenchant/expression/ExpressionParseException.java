@@ -0,0 +1,25 @@
+package com.qhucy.universalenchant.expression;
+
+import lombok.NonNull;
+
+/**
+ * Exception thrown when a formula string can't be parsed into an expression.
+ *
+ * @author Qhucy
+ * @see ExpressionParser
+ */
+public final class ExpressionParseException
+        extends Exception
+{
+
+    /**
+     * Sends a message and stacktrace with the reason and cause of the exception.
+     *
+     * @param message The reason why the exception was thrown. Can't be null.
+     */
+    public ExpressionParseException( @NonNull final String message )
+    {
+        super( message );
+    }
+
+}
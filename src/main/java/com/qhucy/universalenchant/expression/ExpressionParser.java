@@ -0,0 +1,353 @@
+package com.qhucy.universalenchant.expression;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Class that parses formula strings from config into compiled expression trees.
+ * <p>
+ * Supports numbers, variables, parentheses, the operators {@code + - * / % ^} and the functions {@code abs}, {@code
+ * sqrt}, {@code floor}, {@code ceil}, {@code round}, {@code log}, {@code exp}, {@code min}, {@code max}, {@code pow}
+ * and {@code clamp}. Any part of a formula that doesn't depend on a variable is folded into a constant while parsing.
+ *
+ * @author Qhucy
+ * @see Formula
+ */
+public final class ExpressionParser
+{
+
+    // The formula being parsed.
+    private final String   formula;
+    // The names of the variables the formula can use, where the index of a name is its slot.
+    private final String[] variableNames;
+    // The index of the next character to read.
+    private int            position;
+
+    private ExpressionParser( @NonNull final String formula, @NonNull final String[] variableNames )
+    {
+        this.formula       = formula;
+        this.variableNames = variableNames;
+    }
+
+    /**
+     * Parses a formula into a compiled formula.
+     *
+     * @param formula       The formula. Can't be null.
+     * @param variableNames The names of the variables the formula can use, where the index of a name is the slot its
+     *                      value is read from when evaluating. Can't be null.
+     *
+     * @return The compiled formula.
+     *
+     * @throws ExpressionParseException If the formula is malformed or uses an unknown variable or function.
+     */
+    public static Formula parse( @NonNull final String formula, @NonNull final String... variableNames )
+            throws ExpressionParseException
+    {
+        final ExpressionParser parser = new ExpressionParser( formula, variableNames.clone() );
+        final Node             root   = parser.parseExpression();
+
+        parser.skipWhitespace();
+
+        if ( parser.position < formula.length() )
+        {
+            throw parser.error( "Unexpected character '" + formula.charAt( parser.position ) + "'" );
+        }
+
+        return new Formula( formula, root, parser.variableNames );
+    }
+
+    /**
+     * Parses additions and subtractions.
+     */
+    private Node parseExpression()
+            throws ExpressionParseException
+    {
+        Node node = parseTerm();
+
+        while ( true )
+        {
+            if ( accept( '+' ) )
+            {
+                node = Node.binary( Node.ADD, node, parseTerm() );
+            }
+            else if ( accept( '-' ) )
+            {
+                node = Node.binary( Node.SUBTRACT, node, parseTerm() );
+            }
+            else
+            {
+                return node;
+            }
+        }
+    }
+
+    /**
+     * Parses multiplications, divisions and modulos.
+     */
+    private Node parseTerm()
+            throws ExpressionParseException
+    {
+        Node node = parseUnary();
+
+        while ( true )
+        {
+            if ( accept( '*' ) )
+            {
+                node = Node.binary( Node.MULTIPLY, node, parseUnary() );
+            }
+            else if ( accept( '/' ) )
+            {
+                node = Node.binary( Node.DIVIDE, node, parseUnary() );
+            }
+            else if ( accept( '%' ) )
+            {
+                node = Node.binary( Node.MODULO, node, parseUnary() );
+            }
+            else
+            {
+                return node;
+            }
+        }
+    }
+
+    /**
+     * Parses unary signs. A sign binds looser than a power, so {@code -2^2} is {@code -(2^2)}.
+     */
+    private Node parseUnary()
+            throws ExpressionParseException
+    {
+        if ( accept( '-' ) )
+        {
+            return Node.unary( Node.NEGATE, parseUnary() );
+        }
+        else if ( accept( '+' ) )
+        {
+            return parseUnary();
+        }
+        else
+        {
+            return parsePower();
+        }
+    }
+
+    /**
+     * Parses right associative powers.
+     */
+    private Node parsePower()
+            throws ExpressionParseException
+    {
+        final Node base = parsePrimary();
+
+        return accept( '^' ) ? Node.binary( Node.POWER, base, parseUnary() ) : base;
+    }
+
+    /**
+     * Parses numbers, variables, function calls and parentheses.
+     */
+    private Node parsePrimary()
+            throws ExpressionParseException
+    {
+        skipWhitespace();
+
+        if ( position >= formula.length() )
+        {
+            throw error( "Unexpected end of formula" );
+        }
+
+        final char character = formula.charAt( position );
+
+        if ( accept( '(' ) )
+        {
+            final Node node = parseExpression();
+
+            expect( ')' );
+
+            return node;
+        }
+        else if ( Character.isDigit( character ) || character == '.' )
+        {
+            return parseNumber();
+        }
+        else if ( Character.isLetter( character ) || character == '_' )
+        {
+            final String name = parseIdentifier();
+
+            if ( accept( '(' ) )
+            {
+                return parseFunction( name );
+            }
+
+            final int slot = Arrays.asList( variableNames ).indexOf( name );
+
+            if ( slot < 0 )
+            {
+                throw error( "Unknown variable '" + name + "'" );
+            }
+
+            return Node.variable( slot );
+        }
+        else
+        {
+            throw error( "Unexpected character '" + character + "'" );
+        }
+    }
+
+    /**
+     * Parses the arguments of a function call after its opening parenthesis.
+     */
+    private Node parseFunction( @NonNull final String name )
+            throws ExpressionParseException
+    {
+        final List< Node > arguments = new ArrayList<>();
+
+        if ( !accept( ')' ) )
+        {
+            do
+            {
+                arguments.add( parseExpression() );
+            }
+            while ( accept( ',' ) );
+
+            expect( ')' );
+        }
+
+        switch ( name )
+        {
+            case "abs":
+                return unaryFunction( name, Node.ABS, arguments );
+            case "sqrt":
+                return unaryFunction( name, Node.SQRT, arguments );
+            case "floor":
+                return unaryFunction( name, Node.FLOOR, arguments );
+            case "ceil":
+                return unaryFunction( name, Node.CEIL, arguments );
+            case "round":
+                return unaryFunction( name, Node.ROUND, arguments );
+            case "log":
+                return unaryFunction( name, Node.LOG, arguments );
+            case "exp":
+                return unaryFunction( name, Node.EXP, arguments );
+            case "min":
+                return binaryFunction( name, Node.MIN, arguments );
+            case "max":
+                return binaryFunction( name, Node.MAX, arguments );
+            case "pow":
+                return binaryFunction( name, Node.POWER, arguments );
+            case "clamp":
+                checkArgumentCount( name, arguments, 3 );
+
+                return Node.clamp( arguments.get( 0 ), arguments.get( 1 ), arguments.get( 2 ) );
+            default:
+                throw error( "Unknown function '" + name + "'" );
+        }
+    }
+
+    private Node unaryFunction( @NonNull final String name, final int operator, @NonNull final List< Node > arguments )
+            throws ExpressionParseException
+    {
+        checkArgumentCount( name, arguments, 1 );
+
+        return Node.unary( operator, arguments.get( 0 ) );
+    }
+
+    private Node binaryFunction( @NonNull final String name, final int operator,
+                                 @NonNull final List< Node > arguments )
+            throws ExpressionParseException
+    {
+        checkArgumentCount( name, arguments, 2 );
+
+        return Node.binary( operator, arguments.get( 0 ), arguments.get( 1 ) );
+    }
+
+    private void checkArgumentCount( @NonNull final String name, @NonNull final List< Node > arguments,
+                                     final int count )
+            throws ExpressionParseException
+    {
+        if ( arguments.size() != count )
+        {
+            throw error( "Function '" + name + "' takes " + count + " argument(s) but got " + arguments.size() );
+        }
+    }
+
+    private Node parseNumber()
+            throws ExpressionParseException
+    {
+        final int start = position;
+
+        while ( position < formula.length() && ( Character.isDigit( formula.charAt( position ) )
+                                                 || formula.charAt( position ) == '.' ) )
+        {
+            position++;
+        }
+
+        try
+        {
+            return Node.constant( Double.parseDouble( formula.substring( start, position ) ) );
+        }
+        catch ( final NumberFormatException exception )
+        {
+            throw error( "Malformed number '" + formula.substring( start, position ) + "'" );
+        }
+    }
+
+    private String parseIdentifier()
+    {
+        final int start = position;
+
+        while ( position < formula.length() && ( Character.isLetterOrDigit( formula.charAt( position ) )
+                                                 || formula.charAt( position ) == '_' ) )
+        {
+            position++;
+        }
+
+        return formula.substring( start, position ).toLowerCase( Locale.ROOT );
+    }
+
+    /**
+     * Consumes a character if it is next after any whitespace.
+     *
+     * @param character The character.
+     *
+     * @return If the character was consumed.
+     */
+    private boolean accept( final char character )
+    {
+        skipWhitespace();
+
+        if ( position < formula.length() && formula.charAt( position ) == character )
+        {
+            position++;
+
+            return true;
+        }
+
+        return false;
+    }
+
+    private void expect( final char character )
+            throws ExpressionParseException
+    {
+        if ( !accept( character ) )
+        {
+            throw error( "Expected '" + character + "'" );
+        }
+    }
+
+    private void skipWhitespace()
+    {
+        while ( position < formula.length() && Character.isWhitespace( formula.charAt( position ) ) )
+        {
+            position++;
+        }
+    }
+
+    private ExpressionParseException error( @NonNull final String message )
+    {
+        return new ExpressionParseException( message + " at position " + position + " in formula '" + formula + "'." );
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.qhucy.universalenchant.expression;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Class that holds a formula from config compiled into an expression tree.
+ * <p>
+ * Evaluating a formula reads its variables from a caller-owned array and allocates nothing, so it is safe to call on
+ * every hit. Callers should reuse one variables array per thread.
+ *
+ * @author Qhucy
+ * @see ExpressionParser
+ * @see LevelFormula
+ */
+public final class Formula
+{
+
+    // The formula string this formula was compiled from.
+    @Getter
+    private final String   source;
+    // The root node of the compiled expression tree.
+    private final Node     root;
+    // The names of the variables, where the index of a name is the slot its value is read from.
+    private final String[] variableNames;
+
+    Formula( @NonNull final String source, @NonNull final Node root, @NonNull final String[] variableNames )
+    {
+        this.source        = source;
+        this.root          = root;
+        this.variableNames = variableNames;
+    }
+
+    /**
+     * Evaluates the formula.
+     *
+     * @param variables The values of the variables, indexed by the slots given when parsing. Can't be null.
+     *
+     * @return The result of the formula.
+     */
+    public final double evaluate( @NonNull final double[] variables )
+    {
+        return root.evaluate( variables );
+    }
+
+    /**
+     * Returns if the formula folded into a constant that doesn't depend on any variable.
+     *
+     * @return If the formula is constant.
+     */
+    public final boolean isConstant()
+    {
+        return root.isConstant();
+    }
+
+    /**
+     * Returns if the formula reads a variable.
+     *
+     * @param slot The slot of the variable.
+     *
+     * @return If the formula reads the variable.
+     */
+    public final boolean uses( final int slot )
+    {
+        return root.uses( slot );
+    }
+
+    /**
+     * Returns the amount of variable slots the formula was parsed with. Variable arrays passed to {@link
+     * #evaluate(double[])} must be at least this long.
+     *
+     * @return The amount of variable slots.
+     */
+    public final int getVariableCount()
+    {
+        return variableNames.length;
+    }
+
+    /**
+     * Returns the root node of the compiled expression tree.
+     *
+     * @return The root node.
+     */
+    final Node getRoot()
+    {
+        return root;
+    }
+
+}
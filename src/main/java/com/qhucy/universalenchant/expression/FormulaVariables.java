@@ -0,0 +1,45 @@
+package com.qhucy.universalenchant.expression;
+
+/**
+ * Class that holds the variables every enchantment formula in config can use and their slots.
+ * <p>
+ * Handlers fill a reused {@code double[]} of {@link #COUNT} values at these slots before evaluating a formula.
+ *
+ * @author Qhucy
+ * @see LevelFormula
+ */
+public final class FormulaVariables
+{
+
+    // The level of the enchantment. Bound per level when config loads, so handlers don't have to set it.
+    public static final int LEVEL      = 0;
+    // The damage of the event that triggered the enchantment.
+    public static final int DAMAGE     = 1;
+    // The current health of the entity holding the enchanted item.
+    public static final int HEALTH     = 2;
+    // The max health of the entity holding the enchanted item.
+    public static final int MAX_HEALTH = 3;
+    // The distance between the entity holding the enchanted item and the target.
+    public static final int DISTANCE   = 4;
+
+    // The name of every variable as written in formulas, indexed by slot.
+    private static final String[] NAMES = { "level", "damage", "health", "max_health", "distance" };
+
+    // The amount of variable slots.
+    public static final int COUNT = NAMES.length;
+
+    private FormulaVariables()
+    {
+    }
+
+    /**
+     * Returns the name of every variable as written in formulas, indexed by slot.
+     *
+     * @return A copy of the variable names.
+     */
+    public static String[] getNames()
+    {
+        return NAMES.clone();
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.qhucy.universalenchant.expression;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Class that holds a formula specialized for every level of an enchantment.
+ * <p>
+ * The level variable is bound and constant-folded once per level when config loads. Formulas that only depend on the
+ * level become a table of constants, and formulas such as {@code damage * (1 + level * 0.15)} become {@code damage *
+ * 1.15} for level 1, so the level is never part of the work done per hit.
+ *
+ * @author Qhucy
+ * @see Formula
+ */
+public final class LevelFormula
+{
+
+    // The formula this was specialized from.
+    @Getter
+    private final Formula  formula;
+    // The highest level with a specialized tree. Lower or higher levels are clamped to 1 and this.
+    @Getter
+    private final int      maxLevel;
+    // The specialized expression tree of every level, indexed by level. Index 0 is unused.
+    private final Node[]   byLevel;
+    // The value of every level if the formula only depends on the level, indexed by level. Otherwise null.
+    private final double[] constants;
+
+    /**
+     * Specializes a formula for every level from 1 to the max level.
+     *
+     * @param formula   The formula. Can't be null.
+     * @param levelSlot The slot of the level variable in the formula.
+     * @param maxLevel  The highest level. Must be positive.
+     */
+    public LevelFormula( @NonNull final Formula formula, final int levelSlot, final int maxLevel )
+    {
+        if ( maxLevel < 1 )
+        {
+            throw new IllegalArgumentException( "Max level must be at least 1." );
+        }
+
+        this.formula  = formula;
+        this.maxLevel = maxLevel;
+        this.byLevel  = new Node[ maxLevel + 1 ];
+
+        boolean constant = true;
+
+        for ( int level = 1; level <= maxLevel; level++ )
+        {
+            byLevel[ level ] = formula.getRoot().bind( levelSlot, level );
+            constant &= byLevel[ level ].isConstant();
+        }
+
+        if ( constant )
+        {
+            this.constants = new double[ maxLevel + 1 ];
+
+            for ( int level = 1; level <= maxLevel; level++ )
+            {
+                constants[ level ] = byLevel[ level ].evaluate( null );
+            }
+        }
+        else
+        {
+            this.constants = null;
+        }
+    }
+
+    /**
+     * Returns if the formula only depends on the level, so {@link #evaluate(int)} can be used.
+     *
+     * @return If the formula only depends on the level.
+     */
+    public final boolean isLevelOnly()
+    {
+        return constants != null;
+    }
+
+    /**
+     * Returns the precomputed value of the formula for a level. Only valid if {@link #isLevelOnly()}.
+     *
+     * @param level The level, clamped between 1 and the max level.
+     *
+     * @return The value of the formula for the level.
+     */
+    public final double evaluate( final int level )
+    {
+        if ( constants == null )
+        {
+            throw new IllegalStateException( "Formula '" + formula.getSource() + "' depends on more than the level." );
+        }
+
+        return constants[ clampLevel( level ) ];
+    }
+
+    /**
+     * Evaluates the formula for a level.
+     *
+     * @param level     The level, clamped between 1 and the max level.
+     * @param variables The values of the other variables, indexed by slot. The level slot is ignored. Can't be null.
+     *
+     * @return The value of the formula for the level.
+     */
+    public final double evaluate( final int level, @NonNull final double[] variables )
+    {
+        final int clampedLevel = clampLevel( level );
+
+        return constants != null ? constants[ clampedLevel ] : byLevel[ clampedLevel ].evaluate( variables );
+    }
+
+    private int clampLevel( final int level )
+    {
+        return level < 1 ? 1 : Math.min( level, maxLevel );
+    }
+
+}
@@ -0,0 +1,380 @@
+package com.qhucy.universalenchant.expression;
+
+import lombok.NonNull;
+
+/**
+ * A node of a compiled expression tree. Evaluating a node only reads primitive variables and never allocates.
+ * <p>
+ * Nodes are built through the static factory methods, which fold any operation on constants into a single constant.
+ *
+ * @author Qhucy
+ * @see ExpressionParser
+ */
+abstract class Node
+{
+
+    // Unary operators and functions.
+    static final int NEGATE = 0;
+    static final int ABS    = 1;
+    static final int SQRT   = 2;
+    static final int FLOOR  = 3;
+    static final int CEIL   = 4;
+    static final int ROUND  = 5;
+    static final int LOG    = 6;
+    static final int EXP    = 7;
+
+    // Binary operators and functions.
+    static final int ADD      = 0;
+    static final int SUBTRACT = 1;
+    static final int MULTIPLY = 2;
+    static final int DIVIDE   = 3;
+    static final int MODULO   = 4;
+    static final int POWER    = 5;
+    static final int MIN      = 6;
+    static final int MAX      = 7;
+
+    /**
+     * Evaluates this node.
+     *
+     * @param variables The values of the variables, indexed by variable slot. Can't be null.
+     *
+     * @return The value of this node.
+     */
+    abstract double evaluate( final double[] variables );
+
+    /**
+     * Returns this node with a variable replaced by a constant value, folding every operation that becomes constant.
+     *
+     * @param slot  The slot of the variable to replace.
+     * @param value The value of the variable.
+     *
+     * @return The node with the variable bound.
+     */
+    abstract Node bind( final int slot, final double value );
+
+    /**
+     * Returns if this node reads a variable.
+     *
+     * @param slot The slot of the variable.
+     *
+     * @return If this node reads the variable.
+     */
+    abstract boolean uses( final int slot );
+
+    /**
+     * Returns if this node is a constant.
+     *
+     * @return If this node is a constant.
+     */
+    boolean isConstant()
+    {
+        return false;
+    }
+
+    /**
+     * Returns a node holding a constant value.
+     *
+     * @param value The constant value.
+     *
+     * @return The constant node.
+     */
+    static Node constant( final double value )
+    {
+        return new Constant( value );
+    }
+
+    /**
+     * Returns a node that reads a variable.
+     *
+     * @param slot The slot of the variable.
+     *
+     * @return The variable node.
+     */
+    static Node variable( final int slot )
+    {
+        return new Variable( slot );
+    }
+
+    /**
+     * Returns a node applying a unary operator, folded into a constant if the operand is constant.
+     *
+     * @param operator The unary operator.
+     * @param operand  The operand. Can't be null.
+     *
+     * @return The unary node.
+     */
+    static Node unary( final int operator, @NonNull final Node operand )
+    {
+        final Node node = new Unary( operator, operand );
+
+        return operand.isConstant() ? constant( node.evaluate( null ) ) : node;
+    }
+
+    /**
+     * Returns a node applying a binary operator, folded into a constant if both operands are constant.
+     *
+     * @param operator The binary operator.
+     * @param left     The left operand. Can't be null.
+     * @param right    The right operand. Can't be null.
+     *
+     * @return The binary node.
+     */
+    static Node binary( final int operator, @NonNull final Node left, @NonNull final Node right )
+    {
+        final Node node = new Binary( operator, left, right );
+
+        return left.isConstant() && right.isConstant() ? constant( node.evaluate( null ) ) : node;
+    }
+
+    /**
+     * Returns a node clamping a value between a minimum and maximum, folded into a constant if every operand is
+     * constant.
+     *
+     * @param value   The value. Can't be null.
+     * @param minimum The minimum. Can't be null.
+     * @param maximum The maximum. Can't be null.
+     *
+     * @return The clamp node.
+     */
+    static Node clamp( @NonNull final Node value, @NonNull final Node minimum, @NonNull final Node maximum )
+    {
+        final Node node = new Clamp( value, minimum, maximum );
+
+        return value.isConstant() && minimum.isConstant() && maximum.isConstant() ? constant( node.evaluate( null ) )
+                                                                                   : node;
+    }
+
+    /**
+     * Node that holds a constant value.
+     */
+    static final class Constant
+            extends Node
+    {
+
+        private final double value;
+
+        private Constant( final double value )
+        {
+            this.value = value;
+        }
+
+        @Override
+        final double evaluate( final double[] variables )
+        {
+            return value;
+        }
+
+        @Override
+        final Node bind( final int slot, final double value )
+        {
+            return this;
+        }
+
+        @Override
+        final boolean uses( final int slot )
+        {
+            return false;
+        }
+
+        @Override
+        final boolean isConstant()
+        {
+            return true;
+        }
+
+    }
+
+    /**
+     * Node that reads a variable.
+     */
+    static final class Variable
+            extends Node
+    {
+
+        private final int slot;
+
+        private Variable( final int slot )
+        {
+            this.slot = slot;
+        }
+
+        @Override
+        final double evaluate( final double[] variables )
+        {
+            return variables[ slot ];
+        }
+
+        @Override
+        final Node bind( final int slot, final double value )
+        {
+            return slot == this.slot ? constant( value ) : this;
+        }
+
+        @Override
+        final boolean uses( final int slot )
+        {
+            return slot == this.slot;
+        }
+
+    }
+
+    /**
+     * Node that applies a unary operator or function.
+     */
+    static final class Unary
+            extends Node
+    {
+
+        private final int  operator;
+        private final Node operand;
+
+        private Unary( final int operator, @NonNull final Node operand )
+        {
+            this.operator = operator;
+            this.operand  = operand;
+        }
+
+        @Override
+        final double evaluate( final double[] variables )
+        {
+            final double value = operand.evaluate( variables );
+
+            switch ( operator )
+            {
+                case NEGATE:
+                    return -value;
+                case ABS:
+                    return Math.abs( value );
+                case SQRT:
+                    return Math.sqrt( value );
+                case FLOOR:
+                    return Math.floor( value );
+                case CEIL:
+                    return Math.ceil( value );
+                case ROUND:
+                    return Math.rint( value );
+                case LOG:
+                    return Math.log( value );
+                case EXP:
+                    return Math.exp( value );
+                default:
+                    throw new IllegalStateException( "Unknown unary operator " + operator + "." );
+            }
+        }
+
+        @Override
+        final Node bind( final int slot, final double value )
+        {
+            return uses( slot ) ? unary( operator, operand.bind( slot, value ) ) : this;
+        }
+
+        @Override
+        final boolean uses( final int slot )
+        {
+            return operand.uses( slot );
+        }
+
+    }
+
+    /**
+     * Node that applies a binary operator or function.
+     */
+    static final class Binary
+            extends Node
+    {
+
+        private final int  operator;
+        private final Node left;
+        private final Node right;
+
+        private Binary( final int operator, @NonNull final Node left, @NonNull final Node right )
+        {
+            this.operator = operator;
+            this.left     = left;
+            this.right    = right;
+        }
+
+        @Override
+        final double evaluate( final double[] variables )
+        {
+            final double leftValue  = left.evaluate( variables );
+            final double rightValue = right.evaluate( variables );
+
+            switch ( operator )
+            {
+                case ADD:
+                    return leftValue + rightValue;
+                case SUBTRACT:
+                    return leftValue - rightValue;
+                case MULTIPLY:
+                    return leftValue * rightValue;
+                case DIVIDE:
+                    return leftValue / rightValue;
+                case MODULO:
+                    return leftValue % rightValue;
+                case POWER:
+                    return Math.pow( leftValue, rightValue );
+                case MIN:
+                    return Math.min( leftValue, rightValue );
+                case MAX:
+                    return Math.max( leftValue, rightValue );
+                default:
+                    throw new IllegalStateException( "Unknown binary operator " + operator + "." );
+            }
+        }
+
+        @Override
+        final Node bind( final int slot, final double value )
+        {
+            return uses( slot ) ? binary( operator, left.bind( slot, value ), right.bind( slot, value ) ) : this;
+        }
+
+        @Override
+        final boolean uses( final int slot )
+        {
+            return left.uses( slot ) || right.uses( slot );
+        }
+
+    }
+
+    /**
+     * Node that clamps a value between a minimum and maximum.
+     */
+    static final class Clamp
+            extends Node
+    {
+
+        private final Node value;
+        private final Node minimum;
+        private final Node maximum;
+
+        private Clamp( @NonNull final Node value, @NonNull final Node minimum, @NonNull final Node maximum )
+        {
+            this.value   = value;
+            this.minimum = minimum;
+            this.maximum = maximum;
+        }
+
+        @Override
+        final double evaluate( final double[] variables )
+        {
+            return Math.max( minimum.evaluate( variables ),
+                             Math.min( maximum.evaluate( variables ), value.evaluate( variables ) ) );
+        }
+
+        @Override
+        final Node bind( final int slot, final double value )
+        {
+            return uses( slot ) ? clamp( this.value.bind( slot, value ), minimum.bind( slot, value ),
+                                         maximum.bind( slot, value ) ) : this;
+        }
+
+        @Override
+        final boolean uses( final int slot )
+        {
+            return value.uses( slot ) || minimum.uses( slot ) || maximum.uses( slot );
+        }
+
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.qhucy.universalenchant.hud;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import org.bukkit.scoreboard.DisplaySlot;
+import org.bukkit.scoreboard.Objective;
+import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.ScoreboardManager;
+import org.bukkit.scoreboard.Team;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * HUD sink that shows sidebars on a scoreboard per player and action bars through chat packets.
+ * <p>
+ * Every row of a sidebar is an invisible entry with a fixed score, whose text is the prefix of a team holding only
+ * that entry. Changing the text of a row then sends one team update, rather than removing the old entry and adding a
+ * new one, which also makes the client redraw the sidebar. The scoreboard a player had before their sidebar was shown
+ * is restored when it is hidden, so the sidebars and teams of other plugins come back.
+ *
+ * @author Qhucy
+ */
+public final class BukkitHudSink
+        implements HudSink< Player >
+{
+
+    private static final String OBJECTIVE   = "ue_hud";
+    private static final String TEAM_PREFIX = "ue_hud_";
+
+    @Getter( AccessLevel.PRIVATE )
+    private final ScoreboardManager      scoreboardManager;
+    // The sidebar objective of every player it is shown to.
+    private final Map< UUID, Objective >  sidebars            = new HashMap<>();
+    // The scoreboard of every player before their sidebar was shown.
+    private final Map< UUID, Scoreboard > previousScoreboards = new HashMap<>();
+
+    /**
+     * Creates a sink for the players of a server.
+     *
+     * @param scoreboardManager The scoreboard manager of the server. Can't be null.
+     */
+    public BukkitHudSink( @NonNull final ScoreboardManager scoreboardManager )
+    {
+        this.scoreboardManager = scoreboardManager;
+    }
+
+    @Override
+    public final void showSidebar( @NonNull final Player viewer, @NonNull final String title )
+    {
+        final Objective shown = sidebars.get( viewer.getUniqueId() );
+
+        if ( shown != null )
+        {
+            shown.setDisplayName( title );
+
+            return;
+        }
+
+        final Scoreboard scoreboard = getScoreboardManager().getNewScoreboard();
+        final Objective  objective  = scoreboard.registerNewObjective( OBJECTIVE, "dummy", title );
+
+        objective.setDisplaySlot( DisplaySlot.SIDEBAR );
+
+        for ( int row = 0; row < HudLayout.MAX_ROWS; row++ )
+        {
+            scoreboard.registerNewTeam( TEAM_PREFIX + row ).addEntry( getEntry( row ) );
+        }
+
+        sidebars.put( viewer.getUniqueId(), objective );
+        previousScoreboards.put( viewer.getUniqueId(), viewer.getScoreboard() );
+        viewer.setScoreboard( scoreboard );
+    }
+
+    @Override
+    public final void setSidebarRow( @NonNull final Player viewer, final int row, @NonNull final String text )
+    {
+        final Objective objective = sidebars.get( viewer.getUniqueId() );
+
+        if ( objective == null )
+        {
+            return;
+        }
+
+        final Team team = objective.getScoreboard().getTeam( TEAM_PREFIX + row );
+
+        if ( team != null )
+        {
+            team.setPrefix( text );
+            // Higher scores are shown higher, and setting an unchanged score sends nothing.
+            objective.getScore( getEntry( row ) ).setScore( HudLayout.MAX_ROWS - row );
+        }
+    }
+
+    @Override
+    public final void removeSidebarRow( @NonNull final Player viewer, final int row )
+    {
+        final Objective objective = sidebars.get( viewer.getUniqueId() );
+
+        if ( objective != null )
+        {
+            objective.getScoreboard().resetScores( getEntry( row ) );
+        }
+    }
+
+    @Override
+    public final void hideSidebar( @NonNull final Player viewer )
+    {
+        final Objective  objective = sidebars.remove( viewer.getUniqueId() );
+        final Scoreboard previous  = previousScoreboards.remove( viewer.getUniqueId() );
+
+        // Left alone if another plugin replaced the scoreboard of the sidebar in the meantime.
+        if ( objective != null && viewer.getScoreboard() == objective.getScoreboard() )
+        {
+            viewer.setScoreboard( previous == null ? getScoreboardManager().getMainScoreboard() : previous );
+        }
+    }
+
+    @Override
+    public final void sendActionBar( @NonNull final Player viewer, @NonNull final String text )
+    {
+        viewer.spigot().sendMessage( ChatMessageType.ACTION_BAR, TextComponent.fromLegacyText( text ) );
+    }
+
+    /**
+     * Forgets the sidebar of a player. Call when the player quits.
+     *
+     * @param viewer The player. Can't be null.
+     */
+    public final void forget( @NonNull final Player viewer )
+    {
+        sidebars.remove( viewer.getUniqueId() );
+        previousScoreboards.remove( viewer.getUniqueId() );
+    }
+
+    /**
+     * Returns the invisible entry of a row, a distinct color code followed by a reset.
+     */
+    private static String getEntry( final int row )
+    {
+        return "" + ChatColor.COLOR_CHAR + Character.forDigit( row, 16 ) + ChatColor.COLOR_CHAR + 'r';
+    }
+
+}
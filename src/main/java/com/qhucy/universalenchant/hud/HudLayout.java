@@ -0,0 +1,59 @@
+package com.qhucy.universalenchant.hud;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Class for what the HUD of every player shows: a sidebar with a title and lines, and an action bar line. Either can
+ * be left out.
+ *
+ * @param <P> The type of the viewers.
+ *
+ * @author Qhucy
+ * @see HudService
+ */
+@Getter
+public final class HudLayout< P >
+{
+
+    // The maximum amount of rows a sidebar can show.
+    public static final int MAX_ROWS = 15;
+
+    // The colorized title of the sidebar, or null to not show a sidebar.
+    private final String               sidebarTitle;
+    // The lines of the sidebar, of which the first visible ones up to the maximum rows are shown.
+    private final List< HudLine< P > > sidebarLines;
+    // The action bar line, or null to not show an action bar.
+    private final HudLine< P >         actionBar;
+
+    /**
+     * Creates a HUD layout.
+     *
+     * @param sidebarTitle The colorized title of the sidebar, or null to not show a sidebar.
+     * @param sidebarLines The lines of the sidebar. Can't be null.
+     * @param actionBar    The action bar line, or null to not show an action bar.
+     */
+    public HudLayout( final String sidebarTitle, @NonNull final List< HudLine< P > > sidebarLines,
+                      final HudLine< P > actionBar )
+    {
+        this.sidebarTitle = sidebarTitle;
+        this.sidebarLines = sidebarTitle == null ? Collections.emptyList()
+                                                 : Collections.unmodifiableList( new ArrayList<>( sidebarLines ) );
+        this.actionBar    = actionBar;
+    }
+
+    /**
+     * Returns if the layout shows nothing.
+     *
+     * @return If the layout is empty.
+     */
+    public final boolean isEmpty()
+    {
+        return sidebarTitle == null && actionBar == null;
+    }
+
+}
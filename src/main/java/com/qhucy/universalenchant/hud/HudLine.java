@@ -0,0 +1,122 @@
+package com.qhucy.universalenchant.hud;
+
+import com.qhucy.universalenchant.util.MessageManager;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Class for a line of a {@link HudLayout}, rendered from a colorized template and the values of its variables.
+ * <p>
+ * Optional lines, such as the cooldown of one enchantment, are hidden while the input of their first variable is 0,
+ * and take no row of the sidebar while hidden.
+ *
+ * @param <P> The type of the viewers.
+ *
+ * @author Qhucy
+ */
+public final class HudLine< P >
+{
+
+    // The colorized template of the line.
+    @Getter
+    private final String             template;
+    // If the line is hidden while the input of its first variable is 0.
+    @Getter
+    private final boolean            optional;
+    private final HudVariable< P >[] variables;
+
+    /**
+     * Creates a HUD line.
+     *
+     * @param template  The colorized template of the line. Can't be null.
+     * @param optional  If the line is hidden while the input of its first variable is 0.
+     * @param variables The variables in the template. Can't be null.
+     */
+    @SafeVarargs
+    public HudLine( @NonNull final String template, final boolean optional,
+                    @NonNull final HudVariable< P >... variables )
+    {
+        if ( optional && variables.length == 0 )
+        {
+            throw new IllegalArgumentException( "Optional lines need a variable to hide them by." );
+        }
+
+        this.template  = template;
+        this.optional  = optional;
+        this.variables = variables.clone();
+    }
+
+    /**
+     * Returns the amount of variables of the line.
+     *
+     * @return The amount of variables.
+     */
+    final int size()
+    {
+        return variables.length;
+    }
+
+    /**
+     * Reads the inputs of a viewer into an array, and returns if any of them changed.
+     *
+     * @param viewer The viewer. Can't be null.
+     * @param inputs The inputs the line was last rendered with, which are replaced. Can't be null.
+     *
+     * @return If an input differs from the one in the array.
+     */
+    final boolean read( @NonNull final P viewer, @NonNull final long[] inputs )
+    {
+        boolean changed = false;
+
+        for ( int index = 0; index < variables.length; index++ )
+        {
+            final long input = variables[ index ].read( viewer );
+
+            if ( input != inputs[ index ] )
+            {
+                inputs[ index ] = input;
+                changed         = true;
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Returns if the line is hidden with some inputs.
+     *
+     * @param inputs The inputs. Can't be null.
+     *
+     * @return If the line is hidden.
+     */
+    final boolean isHidden( @NonNull final long[] inputs )
+    {
+        return optional && inputs[ 0 ] == 0L;
+    }
+
+    /**
+     * Renders the line with some inputs.
+     *
+     * @param inputs The inputs. Can't be null.
+     *
+     * @return The rendered line.
+     */
+    final String render( @NonNull final long[] inputs )
+    {
+        if ( variables.length == 0 )
+        {
+            return template;
+        }
+
+        final String[] replacements = new String[ variables.length * 2 ];
+
+        for ( int index = 0; index < variables.length; index++ )
+        {
+            replacements[ index * 2 ]     = variables[ index ].getName();
+            replacements[ index * 2 + 1 ] = variables[ index ].format( inputs[ index ] );
+        }
+
+        return MessageManager.replaceVariables( template, replacements );
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.qhucy.universalenchant.hud;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Listener that shows the HUD to joining players and forgets it when they quit.
+ *
+ * @author Qhucy
+ */
+public final class HudListener
+        implements Listener
+{
+
+    @Getter( AccessLevel.PRIVATE )
+    private final HudService< Player > hudService;
+    @Getter( AccessLevel.PRIVATE )
+    private final BukkitHudSink        hudSink;
+
+    /**
+     * Creates a listener for a HUD service.
+     *
+     * @param hudService The service that shows the HUD. Can't be null.
+     * @param hudSink    The sink of the service. Can't be null.
+     */
+    public HudListener( @NonNull final HudService< Player > hudService, @NonNull final BukkitHudSink hudSink )
+    {
+        this.hudService = hudService;
+        this.hudSink    = hudSink;
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR )
+    public final void onPlayerJoin( @NonNull final PlayerJoinEvent event )
+    {
+        getHudService().add( event.getPlayer() );
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR )
+    public final void onPlayerQuit( @NonNull final PlayerQuitEvent event )
+    {
+        getHudService().remove( event.getPlayer() );
+        getHudSink().forget( event.getPlayer() );
+    }
+
+}
@@ -0,0 +1,340 @@
+package com.qhucy.universalenchant.hud;
+
+import com.qhucy.universalenchant.metrics.Counter;
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class that keeps the sidebar and action bar HUD of every viewer up to date, such as their balance and the cooldowns
+ * of their enchantments.
+ * <p>
+ * The last inputs, rendered lines and sent rows of every viewer are kept, so a refresh only renders the lines whose
+ * inputs changed and only sends the rows whose text changed to the {@link HudSink}. An unchanged HUD costs reading the
+ * inputs of its lines and nothing else.
+ * <p>
+ * Viewers are refreshed on a shared clock: every viewer is refreshed once per refresh interval, and viewers are spread
+ * evenly over the ticks of the interval, so the cost of a refresh is split across ticks rather than spent at once.
+ * <p>
+ * Every method is meant to be called from the main server thread.
+ *
+ * @param <P> The type of the viewers.
+ *
+ * @author Qhucy
+ */
+public final class HudService< P >
+{
+
+    // The amount of ticks after which an unchanged action bar is sent again, before the client fades it out.
+    private static final int ACTION_BAR_RESEND_TICKS = 40;
+
+    @Getter( AccessLevel.PRIVATE )
+    private final HudSink< P > sink;
+
+    private HudLayout< P >               layout;
+    private final Map< P, Viewer >       viewers = new HashMap<>();
+    // The viewers refreshed on every tick of the refresh interval.
+    private final List< List< Viewer > > buckets;
+    private long                         tick;
+
+    private final Counter refreshed;
+    private final Counter rendered;
+    private final Counter sent;
+
+    /**
+     * Creates a HUD service and registers its metrics.
+     *
+     * @param sink            The sink that shows the HUD to viewers. Can't be null.
+     * @param layout          What the HUD shows. Can't be null.
+     * @param refreshInterval The amount of ticks between refreshes of every viewer.
+     * @param metricsRegistry The registry to register the service's metrics in. Can't be null.
+     */
+    public HudService( @NonNull final HudSink< P > sink, @NonNull final HudLayout< P > layout,
+                       final int refreshInterval, @NonNull final MetricsRegistry metricsRegistry )
+    {
+        this.sink    = sink;
+        this.layout  = layout;
+        this.buckets = new ArrayList<>();
+
+        for ( int bucket = 0; bucket < Math.max( 1, refreshInterval ); bucket++ )
+        {
+            buckets.add( new ArrayList<>() );
+        }
+
+        refreshed = metricsRegistry.counter( "hud.refreshed" );
+        rendered  = metricsRegistry.counter( "hud.rendered" );
+        sent      = metricsRegistry.counter( "hud.sent" );
+
+        metricsRegistry.gauge( "hud.viewers", viewers::size );
+    }
+
+    /**
+     * Replaces what the HUD shows, such as after the config files are reloaded. Every viewer is rendered again on
+     * their next refresh, and sidebars are hidden if the layout has none.
+     *
+     * @param layout The layout. Can't be null.
+     */
+    public final void setLayout( @NonNull final HudLayout< P > layout )
+    {
+        this.layout = layout;
+
+        for ( final Viewer viewer : viewers.values() )
+        {
+            viewer.valid = false;
+        }
+    }
+
+    /**
+     * Starts showing the HUD to a viewer, on their next refresh.
+     *
+     * @param player The viewer. Can't be null.
+     */
+    public final void add( @NonNull final P player )
+    {
+        if ( viewers.containsKey( player ) )
+        {
+            return;
+        }
+
+        int bucket = 0;
+
+        // The emptiest tick of the interval keeps the viewers spread evenly.
+        for ( int index = 1; index < buckets.size(); index++ )
+        {
+            if ( buckets.get( index ).size() < buckets.get( bucket ).size() )
+            {
+                bucket = index;
+            }
+        }
+
+        final Viewer viewer = new Viewer( player, bucket );
+
+        viewers.put( player, viewer );
+        buckets.get( bucket ).add( viewer );
+    }
+
+    /**
+     * Stops showing the HUD to a viewer and forgets their state. Call when the viewer quits.
+     *
+     * @param player The viewer. Can't be null.
+     */
+    public final void remove( @NonNull final P player )
+    {
+        final Viewer viewer = viewers.remove( player );
+
+        if ( viewer != null )
+        {
+            buckets.get( viewer.bucket ).remove( viewer );
+        }
+    }
+
+    /**
+     * Refreshes the viewers of the current tick of the refresh interval. Call once per server tick.
+     */
+    public final void tick()
+    {
+        final List< Viewer > bucket = buckets.get( ( int ) ( tick++ % buckets.size() ) );
+
+        for ( int index = 0; index < bucket.size(); index++ )
+        {
+            bucket.get( index ).refresh();
+        }
+    }
+
+    /**
+     * Returns the amount of viewers.
+     *
+     * @return The amount of viewers.
+     */
+    public final int size()
+    {
+        return viewers.size();
+    }
+
+    /**
+     * The HUD last shown to a viewer.
+     */
+    private final class Viewer
+    {
+
+        private final P   player;
+        private final int bucket;
+        // If the state was created for the current layout.
+        private boolean   valid;
+
+        // The inputs and rendered text of every sidebar line, which is null while the line is hidden.
+        private long[][] lineInputs;
+        private String[] lineTexts;
+        // The text of every sent row of the sidebar, and the amount of sent rows.
+        private String[] rows;
+        private int      rowCount;
+        private boolean  sidebarShown;
+
+        // The inputs, rendered and sent text of the action bar, and the tick it was last sent on.
+        private long[] actionBarInputs;
+        private String actionBarText;
+        private String actionBarSent;
+        private long   actionBarTick;
+
+        private Viewer( @NonNull final P player, final int bucket )
+        {
+            this.player = player;
+            this.bucket = bucket;
+        }
+
+        private void refresh()
+        {
+            if ( !valid )
+            {
+                reset();
+            }
+
+            refreshed.increment();
+            refreshSidebar();
+            refreshActionBar();
+
+            valid = true;
+        }
+
+        /**
+         * Creates the state of the viewer for the current layout, and shows or hides the sidebar to match it.
+         */
+        private void reset()
+        {
+            final List< HudLine< P > > lines = layout.getSidebarLines();
+
+            lineInputs = new long[ lines.size() ][];
+            lineTexts  = new String[ lines.size() ];
+
+            for ( int index = 0; index < lines.size(); index++ )
+            {
+                lineInputs[ index ] = new long[ lines.get( index ).size() ];
+            }
+
+            if ( rows == null )
+            {
+                rows = new String[ HudLayout.MAX_ROWS ];
+            }
+
+            if ( layout.getSidebarTitle() != null )
+            {
+                getSink().showSidebar( player, layout.getSidebarTitle() );
+                sent.increment();
+
+                sidebarShown = true;
+            }
+            else if ( sidebarShown )
+            {
+                getSink().hideSidebar( player );
+                sent.increment();
+
+                sidebarShown = false;
+                rowCount     = 0;
+            }
+
+            actionBarInputs = layout.getActionBar() == null ? null : new long[ layout.getActionBar().size() ];
+            actionBarText   = null;
+        }
+
+        private void refreshSidebar()
+        {
+            if ( !sidebarShown )
+            {
+                return;
+            }
+
+            final List< HudLine< P > > lines = layout.getSidebarLines();
+            int                        row   = 0;
+
+            for ( int index = 0; index < lines.size(); index++ )
+            {
+                final HudLine< P > line   = lines.get( index );
+                final long[]       inputs = lineInputs[ index ];
+
+                // Evaluated first, so the inputs are always read.
+                if ( line.read( player, inputs ) || !valid )
+                {
+                    lineTexts[ index ] = line.isHidden( inputs ) ? null : line.render( inputs );
+
+                    if ( lineTexts[ index ] != null )
+                    {
+                        rendered.increment();
+                    }
+                }
+
+                final String text = lineTexts[ index ];
+
+                // Visible lines past the last row of the sidebar aren't shown.
+                if ( text == null || row == rows.length )
+                {
+                    continue;
+                }
+
+                if ( row >= rowCount || !text.equals( rows[ row ] ) )
+                {
+                    getSink().setSidebarRow( player, row, text );
+                    sent.increment();
+
+                    rows[ row ] = text;
+                }
+
+                row++;
+            }
+
+            for ( int removed = rowCount - 1; removed >= row; removed-- )
+            {
+                getSink().removeSidebarRow( player, removed );
+                sent.increment();
+
+                rows[ removed ] = null;
+            }
+
+            rowCount = row;
+        }
+
+        private void refreshActionBar()
+        {
+            final HudLine< P > line = layout.getActionBar();
+
+            if ( line == null )
+            {
+                return;
+            }
+
+            if ( line.read( player, actionBarInputs ) || !valid )
+            {
+                actionBarText = line.isHidden( actionBarInputs ) ? null : line.render( actionBarInputs );
+
+                if ( actionBarText != null )
+                {
+                    rendered.increment();
+                }
+            }
+
+            if ( actionBarText == null )
+            {
+                // Fades out on its own.
+                actionBarSent = null;
+
+                return;
+            }
+
+            if ( !actionBarText.equals( actionBarSent ) || tick - actionBarTick >= ACTION_BAR_RESEND_TICKS )
+            {
+                getSink().sendActionBar( player, actionBarText );
+                sent.increment();
+
+                actionBarSent = actionBarText;
+                actionBarTick = tick;
+            }
+        }
+
+    }
+
+}
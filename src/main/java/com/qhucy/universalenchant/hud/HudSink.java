@@ -0,0 +1,55 @@
+package com.qhucy.universalenchant.hud;
+
+/**
+ * Sink that shows the rendered HUD entries of the {@link HudService} to players, such as through scoreboards and action
+ * bar packets. Every method is called from the main server thread, and only with entries that changed.
+ *
+ * @param <P> The type of the viewers.
+ *
+ * @author Qhucy
+ * @see BukkitHudSink
+ */
+public interface HudSink< P >
+{
+
+    /**
+     * Shows an empty sidebar to a viewer, or changes the title of the shown sidebar.
+     *
+     * @param viewer The viewer. Can't be null.
+     * @param title  The rendered title. Can't be null.
+     */
+    void showSidebar( final P viewer, final String title );
+
+    /**
+     * Sets the text of a row of the shown sidebar, adding the row if it isn't shown.
+     *
+     * @param viewer The viewer. Can't be null.
+     * @param row    The index of the row, from the top.
+     * @param text   The rendered text. Can't be null.
+     */
+    void setSidebarRow( final P viewer, final int row, final String text );
+
+    /**
+     * Removes a row of the shown sidebar. Rows are removed from the bottom up.
+     *
+     * @param viewer The viewer. Can't be null.
+     * @param row    The index of the row, from the top.
+     */
+    void removeSidebarRow( final P viewer, final int row );
+
+    /**
+     * Hides the sidebar of a viewer.
+     *
+     * @param viewer The viewer. Can't be null.
+     */
+    void hideSidebar( final P viewer );
+
+    /**
+     * Sends an action bar line to a viewer, which fades out after a few seconds unless sent again.
+     *
+     * @param viewer The viewer. Can't be null.
+     * @param text   The rendered text. Can't be null.
+     */
+    void sendActionBar( final P viewer, final String text );
+
+}
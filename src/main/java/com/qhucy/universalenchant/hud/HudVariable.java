@@ -0,0 +1,68 @@
+package com.qhucy.universalenchant.hud;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Class for a variable of a {@link HudLine}, whose value is formatted from a cheap numeric input read from the
+ * viewer, such as a balance in cents or the seconds left on a cooldown. Lines are only rendered again when one of their
+ * inputs changed, so the input must change whenever the formatted value would.
+ *
+ * @param <P> The type of the viewers.
+ *
+ * @author Qhucy
+ */
+public final class HudVariable< P >
+{
+
+    // The variable in the template of a line, such as '%balance%'.
+    @Getter
+    private final String                 name;
+    // Reads the input of a viewer.
+    private final ToLongFunction< P >    input;
+    // Formats an input into the value of the variable.
+    private final LongFunction< String > format;
+
+    /**
+     * Creates a HUD variable.
+     *
+     * @param name   The variable in the template of a line, such as '%balance%'. Can't be null.
+     * @param input  Reads the input of a viewer. Can't be null.
+     * @param format Formats an input into the value of the variable. Can't be null.
+     */
+    public HudVariable( @NonNull final String name, @NonNull final ToLongFunction< P > input,
+                        @NonNull final LongFunction< String > format )
+    {
+        this.name   = name;
+        this.input  = input;
+        this.format = format;
+    }
+
+    /**
+     * Reads the input of a viewer.
+     *
+     * @param viewer The viewer. Can't be null.
+     *
+     * @return The input.
+     */
+    final long read( @NonNull final P viewer )
+    {
+        return input.applyAsLong( viewer );
+    }
+
+    /**
+     * Formats an input into the value of the variable.
+     *
+     * @param value The input.
+     *
+     * @return The value.
+     */
+    final String format( final long value )
+    {
+        return format.apply( value );
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.qhucy.universalenchant.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for loading one config file, on enable or on reload.
+ *
+ * @author Qhucy
+ * @see com.qhucy.universalenchant.config.Config
+ */
+@Name( FlightEvents.PREFIX + "ConfigLoad" )
+@Label( "Config Load" )
+@Category( { FlightEvents.CATEGORY, "Config" } )
+@Description( "Loading of a config file" )
+public final class ConfigLoadEvent
+        extends jdk.jfr.Event
+{
+
+    @Label( "File" )
+    private String  file;
+    @Label( "Reload" )
+    @Description( "If the config was loaded before" )
+    private boolean reload;
+    @Label( "Succeeded" )
+    private boolean succeeded;
+
+    /**
+     * Ends the event and commits it with its fields, which are only filled in if the event is recorded.
+     *
+     * @param file      The name of the config file. Can't be null.
+     * @param reload    If the config was loaded before.
+     * @param succeeded If the config file loaded.
+     */
+    public final void record( final String file, final boolean reload, final boolean succeeded )
+    {
+        end();
+
+        if ( shouldCommit() )
+        {
+            this.file      = file;
+            this.reload    = reload;
+            this.succeeded = succeeded;
+
+            commit();
+        }
+    }
+
+}
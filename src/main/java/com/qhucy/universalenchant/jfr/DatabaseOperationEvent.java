@@ -0,0 +1,52 @@
+package com.qhucy.universalenchant.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.UUID;
+
+/**
+ * Flight recorder event for one operation on the player database.
+ *
+ * @author Qhucy
+ * @see com.qhucy.universalenchant.player.SqlPlayerDataStorage
+ */
+@Name( FlightEvents.PREFIX + "DatabaseOperation" )
+@Label( "Database Operation" )
+@Category( { FlightEvents.CATEGORY, "Database" } )
+@Description( "Load or save of the data of a player or of a batch of accounts" )
+public final class DatabaseOperationEvent
+        extends jdk.jfr.Event
+{
+
+    @Label( "Operation" )
+    private String  operation;
+    @Label( "Player" )
+    private String  player;
+    @Label( "Succeeded" )
+    private boolean succeeded;
+
+    /**
+     * Ends the event and commits it with its fields, which are only filled in if the event is recorded.
+     *
+     * @param operation The name of the operation. Can't be null.
+     * @param player    The unique id of the player, or null for a batch of accounts.
+     * @param succeeded If the operation succeeded.
+     */
+    public final void record( final String operation, final UUID player, final boolean succeeded )
+    {
+        end();
+
+        if ( shouldCommit() )
+        {
+            this.operation = operation;
+            this.player    = player == null ? null : player.toString();
+            this.succeeded = succeeded;
+
+            commit();
+        }
+    }
+
+}
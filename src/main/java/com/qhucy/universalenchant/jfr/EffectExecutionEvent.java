@@ -0,0 +1,59 @@
+package com.qhucy.universalenchant.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one stage of an enchantment effect handler.
+ *
+ * @author Qhucy
+ * @see com.qhucy.universalenchant.effect.EffectPipeline
+ */
+@Name( FlightEvents.PREFIX + "EffectExecution" )
+@Label( "Enchantment Effect" )
+@Category( { FlightEvents.CATEGORY, "Enchantments" } )
+@Description( "Execution of a stage of an enchantment effect handler" )
+@StackTrace( false )
+public final class EffectExecutionEvent
+        extends jdk.jfr.Event
+{
+
+    @Label( "Enchantment Id" )
+    private int    enchantmentId;
+    @Label( "Enchantment" )
+    private String enchantment;
+    @Label( "Stage" )
+    @Description( "Inline, compute or apply" )
+    private String stage;
+    @Label( "Key" )
+    @Description( "The key the effect was submitted under, usually the player that triggered it" )
+    private String key;
+
+    /**
+     * Ends the event and commits it with its fields, which are only filled in if the event is recorded.
+     *
+     * @param enchantmentId The id of the enchantment.
+     * @param enchantment   The key of the enchantment. Can't be null.
+     * @param stage         The stage of the effect. Can't be null.
+     * @param key           The key the effect was submitted under. Can't be null.
+     */
+    public final void record( final int enchantmentId, final String enchantment, final String stage,
+                              final Object key )
+    {
+        end();
+
+        if ( shouldCommit() )
+        {
+            this.enchantmentId = enchantmentId;
+            this.enchantment   = enchantment;
+            this.stage         = stage;
+            this.key           = String.valueOf( key );
+
+            commit();
+        }
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.qhucy.universalenchant.jfr;
+
+/**
+ * Constants shared by the Java Flight Recorder events of the plugin.
+ * <p>
+ * Every event is created, begun and recorded at the site it measures. While no recording is running the events are
+ * disabled, so recording them only checks a flag and their fields are never filled in. The bundled
+ * {@value #SETTINGS_FILE} profile, copied to the plugin data folder, turns on every event, including the high-frequency
+ * ones disabled by default.
+ *
+ * @author Qhucy
+ */
+public final class FlightEvents
+{
+
+    // The prefix of the name of every event.
+    static final String PREFIX = "com.qhucy.universalenchant.";
+
+    // The top level category of every event.
+    static final String CATEGORY = "UniversalEnchant";
+
+    // The name of the bundled settings profile.
+    public static final String SETTINGS_FILE = "universalenchant.jfc";
+
+}
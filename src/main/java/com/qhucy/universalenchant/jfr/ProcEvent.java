@@ -0,0 +1,55 @@
+package com.qhucy.universalenchant.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for the outcome of a proc roll. Disabled unless turned on by a settings profile, since rolls
+ * happen far too often for the default profile.
+ *
+ * @author Qhucy
+ * @see com.qhucy.universalenchant.proc.ProcEngine
+ */
+@Name( FlightEvents.PREFIX + "Proc" )
+@Label( "Enchantment Proc" )
+@Category( { FlightEvents.CATEGORY, "Enchantments" } )
+@Description( "Outcome of a proc roll of an enchantment" )
+@Enabled( false )
+@StackTrace( false )
+public final class ProcEvent
+        extends jdk.jfr.Event
+{
+
+    @Label( "Enchantment Id" )
+    private int     enchantmentId;
+    @Label( "Level" )
+    private int     level;
+    @Label( "Procced" )
+    private boolean procced;
+
+    /**
+     * Ends the event and commits it with its fields, which are only filled in if the event is recorded.
+     *
+     * @param enchantmentId The id of the enchantment.
+     * @param level         The level of the enchantment.
+     * @param procced       If the enchantment procced.
+     */
+    public final void record( final int enchantmentId, final int level, final boolean procced )
+    {
+        end();
+
+        if ( shouldCommit() )
+        {
+            this.enchantmentId = enchantmentId;
+            this.level         = level;
+            this.procced       = procced;
+
+            commit();
+        }
+    }
+
+}
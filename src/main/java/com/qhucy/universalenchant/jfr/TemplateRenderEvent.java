@@ -0,0 +1,53 @@
+package com.qhucy.universalenchant.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for rendering a message template. Disabled unless turned on by a settings profile, since
+ * messages are rendered far too often for the default profile.
+ *
+ * @author Qhucy
+ * @see com.qhucy.universalenchant.util.MessageManager
+ */
+@Name( FlightEvents.PREFIX + "TemplateRender" )
+@Label( "Template Render" )
+@Category( { FlightEvents.CATEGORY, "Messages" } )
+@Description( "Rendering of a message template" )
+@Enabled( false )
+@StackTrace( false )
+public final class TemplateRenderEvent
+        extends jdk.jfr.Event
+{
+
+    @Label( "Template Length" )
+    @DataAmount( DataAmount.BYTES )
+    private int templateLength;
+    @Label( "Variables" )
+    private int variables;
+
+    /**
+     * Ends the event and commits it with its fields, which are only filled in if the event is recorded.
+     *
+     * @param templateLength The length of the template.
+     * @param variables      The amount of variables replaced in the template.
+     */
+    public final void record( final int templateLength, final int variables )
+    {
+        end();
+
+        if ( shouldCommit() )
+        {
+            this.templateLength = templateLength;
+            this.variables      = variables;
+
+            commit();
+        }
+    }
+
+}
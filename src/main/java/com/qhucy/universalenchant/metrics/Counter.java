@@ -0,0 +1,48 @@
+package com.qhucy.universalenchant.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe counter that can be incremented from any thread without contention.
+ *
+ * @author Qhucy
+ * @see MetricsRegistry
+ */
+public final class Counter
+{
+
+    private final LongAdder count = new LongAdder();
+
+    Counter()
+    {
+    }
+
+    /**
+     * Increments the counter by one.
+     */
+    public final void increment()
+    {
+        count.increment();
+    }
+
+    /**
+     * Increments the counter.
+     *
+     * @param amount The amount to add.
+     */
+    public final void add( final long amount )
+    {
+        count.add( amount );
+    }
+
+    /**
+     * Returns the current count.
+     *
+     * @return The current count.
+     */
+    public final long get()
+    {
+        return count.sum();
+    }
+
+}
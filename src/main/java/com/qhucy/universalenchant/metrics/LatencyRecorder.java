@@ -0,0 +1,88 @@
+package com.qhucy.universalenchant.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe recorder of durations that keeps their count, total and maximum.
+ *
+ * @author Qhucy
+ * @see MetricsRegistry
+ */
+public final class LatencyRecorder
+{
+
+    private final LongAdder       count      = new LongAdder();
+    private final LongAdder       totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos   = new LongAccumulator( Math::max, 0L );
+
+    LatencyRecorder()
+    {
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public final void record( final long nanos )
+    {
+        count.increment();
+        totalNanos.add( nanos );
+        maxNanos.accumulate( nanos );
+    }
+
+    /**
+     * Records the duration since a start time from {@link System#nanoTime()}.
+     *
+     * @param startNanos The start time in nanoseconds.
+     */
+    public final void recordSince( final long startNanos )
+    {
+        record( System.nanoTime() - startNanos );
+    }
+
+    /**
+     * Returns the amount of recorded durations.
+     *
+     * @return The amount of recorded durations.
+     */
+    public final long getCount()
+    {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of every recorded duration.
+     *
+     * @return The total duration in nanoseconds.
+     */
+    public final long getTotalNanos()
+    {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Returns the average recorded duration.
+     *
+     * @return The average duration in milliseconds, or 0 if nothing was recorded.
+     */
+    public final double getAverageMillis()
+    {
+        final long recorded = getCount();
+
+        return recorded == 0 ? 0.0 : ( double ) getTotalNanos() / recorded / TimeUnit.MILLISECONDS.toNanos( 1 );
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     *
+     * @return The longest duration in milliseconds.
+     */
+    public final double getMaxMillis()
+    {
+        return ( double ) maxNanos.get() / TimeUnit.MILLISECONDS.toNanos( 1 );
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.qhucy.universalenchant.metrics;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Class that holds every named metric of the plugin, so subsystems can expose their counters, gauges and latencies in
+ * one place.
+ * <p>
+ * Metrics are created once by name and then updated without locking from any thread. The registry is reported to
+ * console periodically if a report interval is configured.
+ *
+ * @author Qhucy
+ */
+public final class MetricsRegistry
+{
+
+    private final Map< String, Counter >         counters  = new ConcurrentSkipListMap<>();
+    private final Map< String, DoubleSupplier >  gauges    = new ConcurrentSkipListMap<>();
+    private final Map< String, LatencyRecorder > latencies = new ConcurrentSkipListMap<>();
+
+    /**
+     * Returns the counter with a name, creating it if it doesn't exist.
+     *
+     * @param name The name of the counter. Can't be null.
+     *
+     * @return The counter.
+     */
+    public final Counter counter( @NonNull final String name )
+    {
+        return counters.computeIfAbsent( name, key -> new Counter() );
+    }
+
+    /**
+     * Returns the latency recorder with a name, creating it if it doesn't exist.
+     *
+     * @param name The name of the latency recorder. Can't be null.
+     *
+     * @return The latency recorder.
+     */
+    public final LatencyRecorder latency( @NonNull final String name )
+    {
+        return latencies.computeIfAbsent( name, key -> new LatencyRecorder() );
+    }
+
+    /**
+     * Registers a gauge that is sampled whenever the metrics are reported, replacing any gauge with the same name.
+     *
+     * @param name  The name of the gauge. Can't be null.
+     * @param gauge The supplier of the gauge's current value. Must be thread safe. Can't be null.
+     */
+    public final void gauge( @NonNull final String name, @NonNull final DoubleSupplier gauge )
+    {
+        gauges.put( name, gauge );
+    }
+
+    /**
+     * Returns a line for every metric, sorted by name within counters, gauges and latencies.
+     *
+     * @return The report lines.
+     */
+    public final List< String > report()
+    {
+        final List< String > lines = new ArrayList<>();
+
+        counters.forEach( ( name, counter ) -> lines.add( name + ": " + counter.get() ) );
+        gauges.forEach( ( name, gauge ) -> lines.add( name + ": " + String.format( "%.2f", gauge.getAsDouble() ) ) );
+        latencies.forEach( ( name, latency ) -> lines.add(
+                name + ": " + latency.getCount() + " samples, " + String.format( "avg %.2fms, max %.2fms",
+                                                                                 latency.getAverageMillis(),
+                                                                                 latency.getMaxMillis() ) ) );
+
+        return lines;
+    }
+
+}
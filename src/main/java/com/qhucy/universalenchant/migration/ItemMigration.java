@@ -0,0 +1,35 @@
+package com.qhucy.universalenchant.migration;
+
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * Interface for a change to how enchantments are stored on items, such as renumbered enchantment ids or a new
+ * encoding, that rewrites items stored in the old format.
+ * <p>
+ * Migrations run on every item in loaded and saved chunks and in player inventories, possibly more than once, so they
+ * must recognize items that don't need them and leave them alone.
+ *
+ * @author Qhucy
+ * @see ItemMigrator
+ */
+public interface ItemMigration
+{
+
+    /**
+     * Returns the version items are at once this migration ran. Migrations run in order of their versions, and a world
+     * sweep runs whenever a migration newer than the last completed sweep is registered.
+     *
+     * @return The version of the migration.
+     */
+    int getVersion();
+
+    /**
+     * Migrates an item if it is stored in the old format. Runs on the main server thread.
+     *
+     * @param item The item. Can't be null.
+     *
+     * @return The migrated item or null if the item doesn't need this migration.
+     */
+    ItemStack migrate( ItemStack item );
+
+}
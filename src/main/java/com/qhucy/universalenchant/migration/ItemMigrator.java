@@ -0,0 +1,180 @@
+package com.qhucy.universalenchant.migration;
+
+import lombok.NonNull;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Container;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.BlockStateMeta;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Class that holds every registered {@link ItemMigration} and runs them on items, inventories and the contents of
+ * shulker boxes.
+ * <p>
+ * The migrator is not thread safe and is meant to be used from the main server thread.
+ *
+ * @author Qhucy
+ */
+public final class ItemMigrator
+{
+
+    // Every registered migration in order of their versions.
+    private final List< ItemMigration > migrations = new ArrayList<>();
+
+    // The amount of items scanned and migrated since the migrator was created.
+    private long scanned;
+    private long migrated;
+
+    /**
+     * Registers a migration.
+     *
+     * @param migration The migration. Can't be null.
+     */
+    public final void register( @NonNull final ItemMigration migration )
+    {
+        migrations.add( migration );
+        migrations.sort( Comparator.comparingInt( ItemMigration::getVersion ) );
+    }
+
+    /**
+     * Returns if any migration is registered.
+     *
+     * @return If any migration is registered.
+     */
+    public final boolean hasMigrations()
+    {
+        return !migrations.isEmpty();
+    }
+
+    /**
+     * Returns the version of the newest registered migration.
+     *
+     * @return The newest version or 0 if no migration is registered.
+     */
+    public final int getLatestVersion()
+    {
+        return migrations.isEmpty() ? 0 : migrations.get( migrations.size() - 1 ).getVersion();
+    }
+
+    /**
+     * Runs every migration on an item, including the items inside of it if it is a shulker box.
+     *
+     * @param item The item. Can be null.
+     *
+     * @return The migrated item or null if no migration changed the item.
+     */
+    public final ItemStack migrate( final ItemStack item )
+    {
+        if ( item == null || migrations.isEmpty() )
+        {
+            return null;
+        }
+
+        scanned++;
+
+        ItemStack current = item;
+        boolean   changed = false;
+
+        for ( final ItemMigration migration : migrations )
+        {
+            final ItemStack result = migration.migrate( current );
+
+            if ( result != null )
+            {
+                current = result;
+                changed = true;
+            }
+        }
+
+        // Reading the meta of an item copies it, so only shulker boxes are checked for contents.
+        if ( current.getType().name().endsWith( "SHULKER_BOX" ) && current.hasItemMeta() )
+        {
+            final ItemMeta itemMeta = current.getItemMeta();
+
+            if ( itemMeta instanceof BlockStateMeta && ( ( BlockStateMeta ) itemMeta ).hasBlockState() )
+            {
+                final BlockStateMeta blockStateMeta = ( BlockStateMeta ) itemMeta;
+                final BlockState     blockState     = blockStateMeta.getBlockState();
+
+                if ( blockState instanceof Container && migrate( ( ( Container ) blockState )
+                                                                         .getSnapshotInventory() ) > 0 )
+                {
+                    if ( !changed )
+                    {
+                        current = current.clone();
+                    }
+
+                    blockStateMeta.setBlockState( blockState );
+                    current.setItemMeta( blockStateMeta );
+
+                    changed = true;
+                }
+            }
+        }
+
+        if ( changed )
+        {
+            migrated++;
+        }
+
+        return changed ? current : null;
+    }
+
+    /**
+     * Runs every migration on every item of an inventory, replacing the items that changed.
+     *
+     * @param inventory The inventory. Can't be null.
+     *
+     * @return The amount of items that changed.
+     */
+    public final int migrate( @NonNull final Inventory inventory )
+    {
+        if ( migrations.isEmpty() )
+        {
+            return 0;
+        }
+
+        final ItemStack[] contents = inventory.getContents();
+        int               changed  = 0;
+
+        for ( int slot = 0; slot < contents.length; slot++ )
+        {
+            final ItemStack result = migrate( contents[ slot ] );
+
+            if ( result != null )
+            {
+                inventory.setItem( slot, result );
+
+                changed++;
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Returns the amount of items scanned since the migrator was created.
+     *
+     * @return The amount of items scanned.
+     */
+    public final long getScanned()
+    {
+        return scanned;
+    }
+
+    /**
+     * Returns the amount of items migrated since the migrator was created.
+     *
+     * @return The amount of items migrated.
+     */
+    public final long getMigrated()
+    {
+        return migrated;
+    }
+
+}
@@ -0,0 +1,202 @@
+package com.qhucy.universalenchant.migration;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Class that holds the resumable position and totals of a world item migration sweep, saved to a file in the plugin
+ * data folder so a sweep continues where it stopped after a restart.
+ * <p>
+ * The position is stored by world and region file name rather than by index, so worlds and regions added or removed
+ * between restarts don't shift it.
+ *
+ * @author Qhucy
+ * @see WorldMigrationJob
+ */
+@Getter
+public final class MigrationCheckpoint
+{
+
+    // The version of the last completed sweep.
+    private int            completedVersion;
+    // The version the current sweep migrates items to.
+    private int            targetVersion;
+    private MigrationPhase phase = MigrationPhase.COMPLETE;
+    // The world, region file and chunk index in the region the sweep continues from. The world and region can be null.
+    private String         world;
+    private String         region;
+    private int            chunk;
+    // The totals of the current sweep.
+    private long           chunks;
+    private long           containers;
+    private long           items;
+
+    /**
+     * Starts a new sweep to a version from the first chunk of the first world.
+     *
+     * @param version The version the sweep migrates items to.
+     */
+    public final void restart( final int version )
+    {
+        targetVersion = version;
+        phase         = MigrationPhase.WORLDS;
+        world         = null;
+        region        = null;
+        chunk         = 0;
+        chunks        = 0;
+        containers    = 0;
+        items         = 0;
+    }
+
+    /**
+     * Moves the sweep to another phase, starting from its beginning.
+     *
+     * @param phase The phase. Can't be null.
+     */
+    final void moveTo( @NonNull final MigrationPhase phase )
+    {
+        this.phase = phase;
+        world      = null;
+        region     = null;
+        chunk      = 0;
+
+        if ( phase == MigrationPhase.COMPLETE )
+        {
+            completedVersion = targetVersion;
+        }
+    }
+
+    /**
+     * Moves the position of the sweep.
+     *
+     * @param world  The name of the world. Can be null.
+     * @param region The name of the region file. Can be null.
+     * @param chunk  The index of the next chunk in the region.
+     */
+    final void moveTo( final String world, final String region, final int chunk )
+    {
+        this.world  = world;
+        this.region = region;
+        this.chunk  = chunk;
+    }
+
+    /**
+     * Adds a swept chunk to the totals.
+     *
+     * @param containers The amount of containers in the chunk.
+     * @param items      The amount of items migrated in the chunk.
+     */
+    final void addChunk( final int containers, final int items )
+    {
+        this.chunks++;
+        this.containers += containers;
+        this.items += items;
+    }
+
+    /**
+     * Adds items migrated outside of chunks to the totals.
+     *
+     * @param items The amount of items migrated.
+     */
+    final void addItems( final int items )
+    {
+        this.items += items;
+    }
+
+    /**
+     * Loads a checkpoint from a file.
+     *
+     * @param path The path of the checkpoint file. Can't be null.
+     *
+     * @return The loaded checkpoint, or an empty checkpoint if the file doesn't exist.
+     *
+     * @throws IOException If unable to read the file or it isn't a valid checkpoint.
+     */
+    public static MigrationCheckpoint load( @NonNull final Path path )
+            throws IOException
+    {
+        final MigrationCheckpoint checkpoint = new MigrationCheckpoint();
+
+        if ( !Files.exists( path ) )
+        {
+            return checkpoint;
+        }
+
+        final Properties properties = new Properties();
+
+        try ( final InputStream inputStream = Files.newInputStream( path ) )
+        {
+            properties.load( inputStream );
+        }
+
+        try
+        {
+            checkpoint.completedVersion = Integer.parseInt( properties.getProperty( "completed-version", "0" ) );
+            checkpoint.targetVersion    = Integer.parseInt( properties.getProperty( "target-version", "0" ) );
+            checkpoint.phase            = MigrationPhase.valueOf(
+                    properties.getProperty( "phase", "complete" ).toUpperCase( Locale.ROOT ) );
+            checkpoint.world            = properties.getProperty( "world" );
+            checkpoint.region           = properties.getProperty( "region" );
+            checkpoint.chunk            = Integer.parseInt( properties.getProperty( "chunk", "0" ) );
+            checkpoint.chunks           = Long.parseLong( properties.getProperty( "chunks", "0" ) );
+            checkpoint.containers       = Long.parseLong( properties.getProperty( "containers", "0" ) );
+            checkpoint.items            = Long.parseLong( properties.getProperty( "items", "0" ) );
+        }
+        catch ( final IllegalArgumentException exception )
+        {
+            throw new IOException( "Invalid migration checkpoint '" + path + "'.", exception );
+        }
+
+        return checkpoint;
+    }
+
+    /**
+     * Saves the checkpoint to a file, replacing it atomically so a crash never leaves a partial checkpoint.
+     *
+     * @param path The path of the checkpoint file. Can't be null.
+     *
+     * @throws IOException If unable to write the file.
+     */
+    public final void save( @NonNull final Path path )
+            throws IOException
+    {
+        final Properties properties = new Properties();
+
+        properties.setProperty( "completed-version", Integer.toString( completedVersion ) );
+        properties.setProperty( "target-version", Integer.toString( targetVersion ) );
+        properties.setProperty( "phase", phase.name().toLowerCase( Locale.ROOT ) );
+        properties.setProperty( "chunk", Integer.toString( chunk ) );
+        properties.setProperty( "chunks", Long.toString( chunks ) );
+        properties.setProperty( "containers", Long.toString( containers ) );
+        properties.setProperty( "items", Long.toString( items ) );
+
+        if ( world != null )
+        {
+            properties.setProperty( "world", world );
+        }
+
+        if ( region != null )
+        {
+            properties.setProperty( "region", region );
+        }
+
+        final Path temporary = path.resolveSibling( path.getFileName() + ".tmp" );
+
+        try ( final OutputStream outputStream = Files.newOutputStream( temporary ) )
+        {
+            properties.store( outputStream, "UniversalEnchant item migration checkpoint" );
+        }
+
+        Files.move( temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+
+}
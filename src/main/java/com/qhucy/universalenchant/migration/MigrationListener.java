@@ -0,0 +1,49 @@
+package com.qhucy.universalenchant.migration;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+
+/**
+ * Listener that migrates the inventory and ender chest of joining players, since the inventories of offline players
+ * can't be reached by the {@link WorldMigrationJob}.
+ * <p>
+ * Players are migrated at lowest priority, before other plugins read their items.
+ *
+ * @author Qhucy
+ */
+public final class MigrationListener
+        implements Listener
+{
+
+    @Getter( AccessLevel.PRIVATE )
+    private final ItemMigrator itemMigrator;
+
+    /**
+     * Creates a listener for an item migrator.
+     *
+     * @param itemMigrator The migrator to run on joining players. Can't be null.
+     */
+    public MigrationListener( @NonNull final ItemMigrator itemMigrator )
+    {
+        this.itemMigrator = itemMigrator;
+    }
+
+    @EventHandler( priority = EventPriority.LOWEST )
+    public final void onPlayerJoin( @NonNull final PlayerJoinEvent event )
+    {
+        if ( getItemMigrator().hasMigrations() )
+        {
+            final Player player = event.getPlayer();
+
+            getItemMigrator().migrate( player.getInventory() );
+            getItemMigrator().migrate( player.getEnderChest() );
+        }
+    }
+
+}
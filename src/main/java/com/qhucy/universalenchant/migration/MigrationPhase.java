@@ -0,0 +1,19 @@
+package com.qhucy.universalenchant.migration;
+
+/**
+ * Enumeration of the phases of a world item migration sweep, in the order they run.
+ *
+ * @author Qhucy
+ * @see WorldMigrationJob
+ */
+public enum MigrationPhase
+{
+
+    // Sweeps the containers and item entities of every saved chunk of every world.
+    WORLDS,
+    // Sweeps the inventories and ender chests of every online player.
+    PLAYERS,
+    // Every item was migrated.
+    COMPLETE
+
+}
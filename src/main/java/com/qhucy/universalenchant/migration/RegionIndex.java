@@ -0,0 +1,166 @@
+package com.qhucy.universalenchant.migration;
+
+import lombok.NonNull;
+import org.bukkit.World;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Class that contains static utility methods for finding the saved chunks of a world from the headers of its region
+ * files, without loading the chunks.
+ * <p>
+ * A region file holds 32 by 32 chunks and starts with a table of 1024 four byte locations, one per chunk, which are
+ * zero for chunks that were never saved.
+ *
+ * @author Qhucy
+ */
+public final class RegionIndex
+{
+
+    // The amount of chunks along each side of a region.
+    public static final int REGION_SIZE = 32;
+
+    // The amount of chunks in a region.
+    public static final int CHUNKS = REGION_SIZE * REGION_SIZE;
+
+    /**
+     * Returns the folder holding the region files of a world.
+     *
+     * @param world The world. Can't be null.
+     *
+     * @return The region folder, which may not exist.
+     */
+    public static File getRegionFolder( @NonNull final World world )
+    {
+        switch ( world.getEnvironment() )
+        {
+            case NETHER:
+                return new File( world.getWorldFolder(), "DIM-1" + File.separator + "region" );
+            case THE_END:
+                return new File( world.getWorldFolder(), "DIM1" + File.separator + "region" );
+            default:
+                return new File( world.getWorldFolder(), "region" );
+        }
+    }
+
+    /**
+     * Returns the names of every region file in a region folder, sorted.
+     *
+     * @param regionFolder The region folder. Can't be null.
+     *
+     * @return The sorted names of the region files, empty if the folder doesn't exist.
+     */
+    public static String[] listRegions( @NonNull final File regionFolder )
+    {
+        final String[] regions = regionFolder.list( ( folder, name ) -> parseRegion( name ) != null );
+
+        if ( regions == null )
+        {
+            return new String[ 0 ];
+        }
+
+        Arrays.sort( regions );
+
+        return regions;
+    }
+
+    /**
+     * Returns the coordinates of the region of a region file from its name, in the format 'r.x.z.mca'.
+     *
+     * @param name The name of the region file. Can't be null.
+     *
+     * @return The x and z coordinates of the region or null if the name isn't a region file name.
+     */
+    public static int[] parseRegion( @NonNull final String name )
+    {
+        final String[] parts = name.split( "\\." );
+
+        if ( parts.length != 4 || !parts[ 0 ].equals( "r" ) || !parts[ 3 ].equals( "mca" ) )
+        {
+            return null;
+        }
+
+        try
+        {
+            return new int[] { Integer.parseInt( parts[ 1 ] ), Integer.parseInt( parts[ 2 ] ) };
+        }
+        catch ( final NumberFormatException exception )
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Reads which chunks of a region file were saved from its location table.
+     *
+     * @param regionFile The region file. Can't be null.
+     *
+     * @return The saved chunks by their index in the region, empty if the file is shorter than its location table.
+     *
+     * @throws IOException If unable to read the region file.
+     */
+    public static BitSet readChunks( @NonNull final File regionFile )
+            throws IOException
+    {
+        final BitSet chunks = new BitSet( CHUNKS );
+
+        if ( regionFile.length() < CHUNKS * 4L )
+        {
+            // Empty or truncated, so no chunk can be read from it.
+            return chunks;
+        }
+
+        final byte[] locations = new byte[ CHUNKS * 4 ];
+
+        try ( final InputStream inputStream = Files.newInputStream( regionFile.toPath() ) )
+        {
+            new DataInputStream( inputStream ).readFully( locations );
+        }
+
+        final ByteBuffer buffer = ByteBuffer.wrap( locations );
+
+        for ( int index = 0; index < CHUNKS; index++ )
+        {
+            if ( buffer.getInt() != 0 )
+            {
+                chunks.set( index );
+            }
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Returns the x coordinate of a chunk from its region and its index in the region.
+     *
+     * @param regionX The x coordinate of the region.
+     * @param index   The index of the chunk in the region.
+     *
+     * @return The x coordinate of the chunk.
+     */
+    public static int chunkX( final int regionX, final int index )
+    {
+        return regionX * REGION_SIZE + index % REGION_SIZE;
+    }
+
+    /**
+     * Returns the z coordinate of a chunk from its region and its index in the region.
+     *
+     * @param regionZ The z coordinate of the region.
+     * @param index   The index of the chunk in the region.
+     *
+     * @return The z coordinate of the chunk.
+     */
+    public static int chunkZ( final int regionZ, final int index )
+    {
+        return regionZ * REGION_SIZE + index / REGION_SIZE;
+    }
+
+}
@@ -0,0 +1,518 @@
+package com.qhucy.universalenchant.migration;
+
+import com.qhucy.universalenchant.metrics.Counter;
+import com.qhucy.universalenchant.metrics.LatencyRecorder;
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.Chunk;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Container;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.ItemFrame;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class that sweeps every item stored in the worlds and in player inventories through the {@link ItemMigrator}
+ * incrementally, a few chunks per tick under a time budget, so a format change never freezes the server.
+ * <p>
+ * Saved chunks are found from the headers of region files, so chunks that aren't loaded are swept too: they are
+ * loaded, swept and unloaded again one at a time. The containers, dropped items, item frames and storage entities of
+ * every chunk are migrated, followed by the inventories and ender chests of online players. Players that are offline
+ * during the sweep are migrated by the {@link MigrationListener} when they join.
+ * <p>
+ * The position of the sweep is saved to a {@link MigrationCheckpoint} after every region and when the plugin disables,
+ * so a restart continues where the sweep stopped. Progress and throughput are logged periodically.
+ * <p>
+ * Every method is meant to be called from the main server thread.
+ *
+ * @author Qhucy
+ */
+public final class WorldMigrationJob
+{
+
+    @Getter( AccessLevel.PRIVATE )
+    private final Server       server;
+    @Getter( AccessLevel.PRIVATE )
+    private final ItemMigrator itemMigrator;
+    private final Path         checkpointPath;
+    // The amount of nanoseconds the sweep may take per tick.
+    private final long         budget;
+    // The amount of nanoseconds between progress reports.
+    private final long         reportInterval;
+    @Getter( AccessLevel.PRIVATE )
+    private final Logger       logger;
+
+    @Getter
+    private final MigrationCheckpoint checkpoint;
+    @Getter
+    private boolean                   running;
+
+    // The worlds of the sweep sorted by name, and the index of the world being swept.
+    private List< World > worlds;
+    private int           worldIndex;
+    // The sorted region files of the world being swept, or null if the world wasn't opened yet.
+    private String[]      regions;
+    private int           regionIndex;
+    // The coordinates and saved chunks of the region being swept, or null if the region wasn't opened yet.
+    private int[]         regionCoordinates;
+    private BitSet        regionChunks;
+    private int           chunkIndex;
+    // The region and chunk to resume from once the world of the checkpoint is opened.
+    private String        resumeRegion;
+    private int           resumeChunk;
+
+    // The online players of the sweep and the index of the next one.
+    private List< Player > players;
+    private int            playerIndex;
+
+    // When the sweep started or resumed, how many chunks it swept since and how long it worked.
+    private long sessionStart;
+    private long sessionChunks;
+    private long sessionWork;
+    private long nextReport;
+
+    private final Counter         chunkCounter;
+    private final Counter         itemCounter;
+    private final LatencyRecorder chunkTime;
+
+    /**
+     * Creates a world migration job, loading its checkpoint if one exists, and registers its metrics.
+     *
+     * @param server          The server whose worlds and players are swept. Can't be null.
+     * @param itemMigrator    The migrator with every registered migration. Can't be null.
+     * @param checkpointPath  The path of the checkpoint file. Can't be null.
+     * @param budgetMillis    The amount of milliseconds the sweep may take per tick.
+     * @param reportSeconds   The amount of seconds between progress reports.
+     * @param metricsRegistry The registry to register the job's metrics in. Can't be null.
+     * @param logger          The logger to report progress to. Can't be null.
+     *
+     * @throws IOException If unable to read the existing checkpoint.
+     */
+    public WorldMigrationJob( @NonNull final Server server, @NonNull final ItemMigrator itemMigrator,
+                              @NonNull final Path checkpointPath, final double budgetMillis, final int reportSeconds,
+                              @NonNull final MetricsRegistry metricsRegistry, @NonNull final Logger logger )
+            throws IOException
+    {
+        this.server         = server;
+        this.itemMigrator   = itemMigrator;
+        this.checkpointPath = checkpointPath;
+        this.budget         = ( long ) ( budgetMillis * TimeUnit.MILLISECONDS.toNanos( 1L ) );
+        this.reportInterval = TimeUnit.SECONDS.toNanos( Math.max( 1, reportSeconds ) );
+        this.logger         = logger;
+        this.checkpoint     = MigrationCheckpoint.load( checkpointPath );
+
+        chunkCounter = metricsRegistry.counter( "migration.chunks" );
+        itemCounter  = metricsRegistry.counter( "migration.items" );
+        chunkTime    = metricsRegistry.latency( "migration.chunk" );
+    }
+
+    /**
+     * Starts a sweep if a migration newer than the last completed sweep is registered, continuing from the checkpoint
+     * if it was interrupted while sweeping to the same version.
+     *
+     * @return If a sweep started.
+     */
+    public final boolean start()
+    {
+        final int latestVersion = getItemMigrator().getLatestVersion();
+
+        if ( running || latestVersion <= checkpoint.getCompletedVersion() )
+        {
+            return false;
+        }
+
+        final boolean resuming = checkpoint.getPhase() != MigrationPhase.COMPLETE
+                                 && checkpoint.getTargetVersion() == latestVersion;
+
+        if ( !resuming )
+        {
+            checkpoint.restart( latestVersion );
+        }
+
+        worlds = new ArrayList<>( getServer().getWorlds() );
+        worlds.sort( Comparator.comparing( World::getName ) );
+
+        worldIndex   = 0;
+        regions      = null;
+        resumeRegion = checkpoint.getRegion();
+        resumeChunk  = checkpoint.getChunk();
+
+        if ( checkpoint.getWorld() != null )
+        {
+            while ( worldIndex < worlds.size() && worlds.get( worldIndex ).getName().compareTo(
+                    checkpoint.getWorld() ) < 0 )
+            {
+                worldIndex++;
+            }
+        }
+
+        if ( checkpoint.getPhase() == MigrationPhase.PLAYERS )
+        {
+            enterPlayers();
+        }
+
+        running       = true;
+        sessionStart  = System.nanoTime();
+        sessionChunks = 0;
+        sessionWork   = 0;
+        nextReport    = sessionStart + reportInterval;
+
+        getLogger().info( ( resuming ? "Resuming" : "Starting" ) + " the item migration to version " + latestVersion
+                          + " at " + describePosition() + "." );
+
+        return true;
+    }
+
+    /**
+     * Sweeps chunks and players until the tick budget runs out. Call once per server tick.
+     */
+    public final void tick()
+    {
+        if ( !running )
+        {
+            return;
+        }
+
+        final long start    = System.nanoTime();
+        final long deadline = start + budget;
+
+        do
+        {
+            if ( checkpoint.getPhase() == MigrationPhase.WORLDS )
+            {
+                stepWorlds();
+            }
+            else if ( checkpoint.getPhase() == MigrationPhase.PLAYERS )
+            {
+                stepPlayers();
+            }
+            else
+            {
+                complete();
+
+                return;
+            }
+        }
+        while ( System.nanoTime() < deadline );
+
+        final long now = System.nanoTime();
+
+        sessionWork += now - start;
+
+        if ( now >= nextReport )
+        {
+            nextReport = now + reportInterval;
+
+            getLogger().info( "Migrating items to version " + checkpoint.getTargetVersion() + " at "
+                              + describePosition() + ": " + describeTotals() + "." );
+        }
+    }
+
+    /**
+     * Saves the checkpoint so the sweep continues from its current position on the next start. Call when the plugin
+     * disables.
+     */
+    public final void stop()
+    {
+        if ( running )
+        {
+            running = false;
+
+            saveCheckpoint();
+        }
+    }
+
+    /**
+     * Sweeps the next chunk of the worlds phase, or moves on to the next region, world or phase.
+     */
+    private void stepWorlds()
+    {
+        if ( worldIndex >= worlds.size() )
+        {
+            enterPlayers();
+
+            return;
+        }
+
+        final World world = worlds.get( worldIndex );
+
+        if ( regions == null )
+        {
+            openWorld( world );
+        }
+
+        if ( regionIndex >= regions.length )
+        {
+            worldIndex++;
+            regions = null;
+
+            checkpoint.moveTo( worldIndex < worlds.size() ? worlds.get( worldIndex ).getName() : null, null, 0 );
+            saveCheckpoint();
+
+            return;
+        }
+
+        final File regionFile = new File( RegionIndex.getRegionFolder( world ), regions[ regionIndex ] );
+
+        if ( regionChunks == null )
+        {
+            regionCoordinates = RegionIndex.parseRegion( regions[ regionIndex ] );
+
+            try
+            {
+                regionChunks = RegionIndex.readChunks( regionFile );
+            }
+            catch ( final IOException exception )
+            {
+                getLogger().log( Level.WARNING, "Unable to read region file '" + regionFile
+                                                + "', skipping it in the item migration.", exception );
+
+                regionChunks = new BitSet();
+            }
+        }
+
+        chunkIndex = regionChunks.nextSetBit( chunkIndex );
+
+        if ( chunkIndex < 0 )
+        {
+            regionIndex++;
+            regionChunks = null;
+            chunkIndex   = 0;
+
+            checkpoint.moveTo( world.getName(), regionIndex < regions.length ? regions[ regionIndex ] : null, 0 );
+            saveCheckpoint();
+
+            return;
+        }
+
+        try
+        {
+            sweepChunk( world, RegionIndex.chunkX( regionCoordinates[ 0 ], chunkIndex ),
+                        RegionIndex.chunkZ( regionCoordinates[ 1 ], chunkIndex ) );
+        }
+        catch ( final RuntimeException exception )
+        {
+            // Skipped, so one broken chunk can't stall the sweep.
+            getLogger().log( Level.SEVERE, "Unable to migrate the items of chunk " + chunkIndex + " of region file '"
+                                           + regionFile + "'.", exception );
+        }
+
+        chunkIndex++;
+
+        checkpoint.moveTo( world.getName(), regions[ regionIndex ], chunkIndex );
+    }
+
+    /**
+     * Lists the region files of a world, resuming from the checkpoint if it was interrupted in this world.
+     */
+    private void openWorld( @NonNull final World world )
+    {
+        regions      = RegionIndex.listRegions( RegionIndex.getRegionFolder( world ) );
+        regionIndex  = 0;
+        regionChunks = null;
+        chunkIndex   = 0;
+
+        if ( world.getName().equals( checkpoint.getWorld() ) && resumeRegion != null )
+        {
+            final int index = Arrays.binarySearch( regions, resumeRegion );
+
+            // A region that was removed since is skipped.
+            regionIndex = index >= 0 ? index : -index - 1;
+            chunkIndex  = index >= 0 ? resumeChunk : 0;
+        }
+
+        resumeRegion = null;
+
+        checkpoint.moveTo( world.getName(), regionIndex < regions.length ? regions[ regionIndex ] : null, chunkIndex );
+    }
+
+    /**
+     * Migrates the items of every container, dropped item, item frame and storage entity in a chunk, loading the chunk
+     * for the sweep if it isn't loaded.
+     */
+    private void sweepChunk( @NonNull final World world, final int chunkX, final int chunkZ )
+    {
+        final long    start      = System.nanoTime();
+        final boolean loaded     = world.isChunkLoaded( chunkX, chunkZ );
+        final Chunk   chunk      = world.getChunkAt( chunkX, chunkZ );
+        int           containers = 0;
+        int           items      = 0;
+
+        for ( final BlockState blockState : chunk.getTileEntities() )
+        {
+            if ( blockState instanceof Container )
+            {
+                containers++;
+                items += getItemMigrator().migrate( ( ( Container ) blockState ).getInventory() );
+            }
+        }
+
+        for ( final Entity entity : chunk.getEntities() )
+        {
+            if ( entity instanceof Item )
+            {
+                final ItemStack migrated = getItemMigrator().migrate( ( ( Item ) entity ).getItemStack() );
+
+                if ( migrated != null )
+                {
+                    ( ( Item ) entity ).setItemStack( migrated );
+                    items++;
+                }
+            }
+            else if ( entity instanceof ItemFrame )
+            {
+                final ItemStack migrated = getItemMigrator().migrate( ( ( ItemFrame ) entity ).getItem() );
+
+                if ( migrated != null )
+                {
+                    ( ( ItemFrame ) entity ).setItem( migrated, false );
+                    items++;
+                }
+            }
+            else if ( entity instanceof InventoryHolder && !( entity instanceof HumanEntity ) )
+            {
+                // Storage minecarts, donkeys and other entities with an inventory. Players are swept separately.
+                containers++;
+                items += getItemMigrator().migrate( ( ( InventoryHolder ) entity ).getInventory() );
+            }
+        }
+
+        if ( !loaded )
+        {
+            world.unloadChunk( chunkX, chunkZ, true );
+        }
+
+        checkpoint.addChunk( containers, items );
+        chunkCounter.increment();
+        itemCounter.add( items );
+        chunkTime.recordSince( start );
+
+        sessionChunks++;
+    }
+
+    /**
+     * Starts the players phase from the players online now.
+     */
+    private void enterPlayers()
+    {
+        if ( checkpoint.getPhase() != MigrationPhase.PLAYERS )
+        {
+            checkpoint.moveTo( MigrationPhase.PLAYERS );
+            saveCheckpoint();
+        }
+
+        players     = new ArrayList<>( getServer().getOnlinePlayers() );
+        playerIndex = 0;
+    }
+
+    /**
+     * Migrates the inventory and ender chest of the next online player, or completes the sweep.
+     */
+    private void stepPlayers()
+    {
+        if ( playerIndex >= players.size() )
+        {
+            checkpoint.moveTo( MigrationPhase.COMPLETE );
+
+            return;
+        }
+
+        final Player player = players.get( playerIndex++ );
+
+        if ( player.isOnline() )
+        {
+            final int items = getItemMigrator().migrate( player.getInventory() ) + getItemMigrator().migrate(
+                    player.getEnderChest() );
+
+            checkpoint.addItems( items );
+            itemCounter.add( items );
+        }
+    }
+
+    /**
+     * Records the completed sweep and reports its totals.
+     */
+    private void complete()
+    {
+        running = false;
+        players = null;
+        worlds  = null;
+
+        saveCheckpoint();
+
+        getLogger().info( "Completed the item migration to version " + checkpoint.getCompletedVersion() + ": "
+                          + describeTotals() + "." );
+    }
+
+    /**
+     * Saves the checkpoint, logging instead of failing if unable to, since the sweep can still continue.
+     */
+    private void saveCheckpoint()
+    {
+        try
+        {
+            checkpoint.save( checkpointPath );
+        }
+        catch ( final IOException exception )
+        {
+            getLogger().log( Level.WARNING, "Unable to save the item migration checkpoint.", exception );
+        }
+    }
+
+    /**
+     * Returns a description of the current position of the sweep.
+     */
+    private String describePosition()
+    {
+        if ( checkpoint.getPhase() == MigrationPhase.PLAYERS )
+        {
+            return "online players";
+        }
+
+        if ( worldIndex >= worlds.size() )
+        {
+            return "the end of the worlds";
+        }
+
+        final String world = "world '" + worlds.get( worldIndex ).getName() + "' (" + ( worldIndex + 1 ) + "/"
+                             + worlds.size() + ")";
+
+        return regions == null ? world : world + ", region " + Math.min( regionIndex + 1, regions.length ) + "/"
+                                         + regions.length;
+    }
+
+    /**
+     * Returns a description of the totals and throughput of the sweep.
+     */
+    private String describeTotals()
+    {
+        final double elapsedSeconds = ( System.nanoTime() - sessionStart ) / 1.0e9;
+        final double workSeconds    = sessionWork / 1.0e9;
+
+        return String.format( "%d chunks, %d containers and %d items migrated, %.1f chunks/s (%.1f chunks per second "
+                              + "of tick time)", checkpoint.getChunks(), checkpoint.getContainers(),
+                              checkpoint.getItems(), elapsedSeconds > 0 ? sessionChunks / elapsedSeconds : 0.0,
+                              workSeconds > 0 ? sessionChunks / workSeconds : 0.0 );
+    }
+
+}
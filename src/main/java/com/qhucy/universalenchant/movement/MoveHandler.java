@@ -0,0 +1,26 @@
+package com.qhucy.universalenchant.movement;
+
+import org.bukkit.Location;
+
+/**
+ * Handler for sampled movement, such as an enchantment that reacts to the blocks a player walks on.
+ *
+ * @param <T> The type of the movers, players on a server.
+ *
+ * @author Qhucy
+ * @see MoveSampler
+ */
+@FunctionalInterface
+public interface MoveHandler< T >
+{
+
+    /**
+     * Called with the coalesced movement of one mover during the last tick.
+     *
+     * @param mover The mover. Can't be null.
+     * @param from  The position before the first move of the tick. Reused, so it must not be kept. Can't be null.
+     * @param to    The position after the last move of the tick. Reused, so it must not be kept. Can't be null.
+     */
+    void onMove( final T mover, final Location from, final Location to );
+
+}
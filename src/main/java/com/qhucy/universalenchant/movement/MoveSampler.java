@@ -0,0 +1,206 @@
+package com.qhucy.universalenchant.movement;
+
+import com.qhucy.universalenchant.metrics.Counter;
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import lombok.NonNull;
+import org.bukkit.Location;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Class that samples and coalesces the move events of players before movement enchantments handle them.
+ * <p>
+ * Move events fire many times per tick per player, mostly for head rotation or movement within the same block. Every
+ * move is first filtered without any lookup or allocation: moves that only rotate the head are dropped, and so are
+ * moves within the same block unless a {@link MoveTrigger#TICK} handler is registered. The remaining moves of a player
+ * are coalesced into one sample, and once per tick every sampled player is passed to the handlers, so handlers run at
+ * most once per tick per player no matter how many events fired.
+ * <p>
+ * The sampler is not thread safe and is meant to be used from the main server thread.
+ *
+ * @param <T> The type of the movers, players on a server.
+ *
+ * @author Qhucy
+ * @see MovementListener
+ */
+public final class MoveSampler< T >
+{
+
+    // The handlers of every trigger.
+    private final List< MoveHandler< T > > blockHandlers = new ArrayList<>();
+    private final List< MoveHandler< T > > tickHandlers  = new ArrayList<>();
+
+    // The reusable sample of every mover that moved since joining, by unique id.
+    private final Map< UUID, Sample< T > > samples = new HashMap<>();
+    // The samples with moves since the last tick.
+    private final List< Sample< T > >      dirty   = new ArrayList<>();
+
+    private final Counter coalesced;
+    private final Counter dispatched;
+
+    /**
+     * Creates a move sampler and registers its metrics.
+     *
+     * @param metricsRegistry The registry to register the sampler's metrics in. Can't be null.
+     */
+    public MoveSampler( @NonNull final MetricsRegistry metricsRegistry )
+    {
+        coalesced  = metricsRegistry.counter( "movement.coalesced" );
+        dispatched = metricsRegistry.counter( "movement.samples" );
+    }
+
+    /**
+     * Registers a handler for sampled movement.
+     *
+     * @param trigger How often the handler is called. Can't be null.
+     * @param handler The handler. Can't be null.
+     */
+    public final void register( @NonNull final MoveTrigger trigger, @NonNull final MoveHandler< T > handler )
+    {
+        ( trigger == MoveTrigger.BLOCK ? blockHandlers : tickHandlers ).add( handler );
+    }
+
+    /**
+     * Removes a registered handler.
+     *
+     * @param handler The handler. Can't be null.
+     */
+    public final void unregister( @NonNull final MoveHandler< T > handler )
+    {
+        blockHandlers.remove( handler );
+        tickHandlers.remove( handler );
+    }
+
+    /**
+     * Offers a move of a mover to be sampled.
+     *
+     * @param uniqueId The unique id of the mover. Can't be null.
+     * @param mover    The mover. Can't be null.
+     * @param from     The position before the move. Can't be null.
+     * @param to       The position after the move. Can't be null.
+     */
+    public final void offer( @NonNull final UUID uniqueId, @NonNull final T mover, @NonNull final Location from,
+                             @NonNull final Location to )
+    {
+        if ( from.getX() == to.getX() && from.getY() == to.getY() && from.getZ() == to.getZ() )
+        {
+            // Only the head rotated.
+            return;
+        }
+
+        final boolean blockChanged = from.getBlockX() != to.getBlockX() || from.getBlockY() != to.getBlockY()
+                                     || from.getBlockZ() != to.getBlockZ() || from.getWorld() != to.getWorld();
+
+        if ( blockChanged ? blockHandlers.isEmpty() && tickHandlers.isEmpty() : tickHandlers.isEmpty() )
+        {
+            return;
+        }
+
+        final Sample< T > sample = samples.computeIfAbsent( uniqueId, key -> new Sample<>() );
+
+        if ( sample.dirty )
+        {
+            coalesced.increment();
+        }
+        else
+        {
+            sample.dirty = true;
+            sample.mover = mover;
+
+            copy( from, sample.from );
+            dirty.add( sample );
+        }
+
+        copy( to, sample.to );
+        sample.blockChanged |= blockChanged;
+    }
+
+    /**
+     * Forgets a mover, such as a player that quit.
+     *
+     * @param uniqueId The unique id of the mover. Can't be null.
+     */
+    public final void remove( @NonNull final UUID uniqueId )
+    {
+        final Sample< T > sample = samples.remove( uniqueId );
+
+        if ( sample != null && sample.dirty )
+        {
+            dirty.remove( sample );
+        }
+    }
+
+    /**
+     * Passes the coalesced movement of every mover that moved since the last tick to the handlers. Call once per
+     * server tick.
+     */
+    public final void tick()
+    {
+        try
+        {
+            for ( final Sample< T > sample : dirty )
+            {
+                dispatched.increment();
+
+                if ( sample.blockChanged )
+                {
+                    for ( final MoveHandler< T > handler : blockHandlers )
+                    {
+                        handler.onMove( sample.mover, sample.from, sample.to );
+                    }
+                }
+
+                for ( final MoveHandler< T > handler : tickHandlers )
+                {
+                    handler.onMove( sample.mover, sample.from, sample.to );
+                }
+            }
+        }
+        finally
+        {
+            // Samples are reset even if a handler threw, so one broken handler can't replay movement every tick.
+            for ( final Sample< T > sample : dirty )
+            {
+                sample.dirty        = false;
+                sample.blockChanged = false;
+                sample.mover        = null;
+            }
+
+            dirty.clear();
+        }
+    }
+
+    /**
+     * Copies a position into a reused location.
+     */
+    private static void copy( @NonNull final Location source, @NonNull final Location target )
+    {
+        target.setWorld( source.getWorld() );
+        target.setX( source.getX() );
+        target.setY( source.getY() );
+        target.setZ( source.getZ() );
+        target.setYaw( source.getYaw() );
+        target.setPitch( source.getPitch() );
+    }
+
+    /**
+     * The coalesced movement of one mover during the current tick.
+     */
+    private static final class Sample< T >
+    {
+
+        private final Location from = new Location( null, 0, 0, 0 );
+        private final Location to   = new Location( null, 0, 0, 0 );
+        private T              mover;
+        // If the mover had moves since the last tick.
+        private boolean        dirty;
+        // If any of those moves entered another block.
+        private boolean        blockChanged;
+
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.qhucy.universalenchant.movement;
+
+/**
+ * Enumeration of how often a {@link MoveHandler} is called for a moving player.
+ *
+ * @author Qhucy
+ */
+public enum MoveTrigger
+{
+
+    // At most once per tick, only on ticks where the player entered another block.
+    BLOCK,
+    // At most once per tick, on every tick where the player changed position.
+    TICK
+
+}
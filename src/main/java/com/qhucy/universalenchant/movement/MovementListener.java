@@ -0,0 +1,53 @@
+package com.qhucy.universalenchant.movement;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Listener that feeds the moves of players into a {@link MoveSampler}.
+ * <p>
+ * Moves are offered at monitor priority, once other plugins decided if the move happens and where it ends.
+ *
+ * @author Qhucy
+ */
+public final class MovementListener
+        implements Listener
+{
+
+    @Getter( AccessLevel.PRIVATE )
+    private final MoveSampler< Player > moveSampler;
+
+    /**
+     * Creates a listener for a move sampler.
+     *
+     * @param moveSampler The move sampler to feed. Can't be null.
+     */
+    public MovementListener( @NonNull final MoveSampler< Player > moveSampler )
+    {
+        this.moveSampler = moveSampler;
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR, ignoreCancelled = true )
+    public final void onPlayerMove( @NonNull final PlayerMoveEvent event )
+    {
+        if ( event.getTo() != null )
+        {
+            getMoveSampler().offer( event.getPlayer().getUniqueId(), event.getPlayer(), event.getFrom(),
+                                    event.getTo() );
+        }
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR )
+    public final void onPlayerQuit( @NonNull final PlayerQuitEvent event )
+    {
+        getMoveSampler().remove( event.getPlayer().getUniqueId() );
+    }
+
+}
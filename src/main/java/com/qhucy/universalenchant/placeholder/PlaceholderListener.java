@@ -0,0 +1,40 @@
+package com.qhucy.universalenchant.placeholder;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Listener that forgets the memoized placeholder values of players that quit.
+ *
+ * @author Qhucy
+ */
+public final class PlaceholderListener
+        implements Listener
+{
+
+    @Getter( AccessLevel.PRIVATE )
+    private final PlaceholderResolver< Player > placeholderResolver;
+
+    /**
+     * Creates a listener for a placeholder resolver.
+     *
+     * @param placeholderResolver The resolver. Can't be null.
+     */
+    public PlaceholderListener( @NonNull final PlaceholderResolver< Player > placeholderResolver )
+    {
+        this.placeholderResolver = placeholderResolver;
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR )
+    public final void onPlayerQuit( @NonNull final PlayerQuitEvent event )
+    {
+        getPlaceholderResolver().forget( event.getPlayer() );
+    }
+
+}
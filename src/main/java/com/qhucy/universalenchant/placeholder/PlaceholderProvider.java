@@ -0,0 +1,25 @@
+package com.qhucy.universalenchant.placeholder;
+
+/**
+ * Provider of the value of a placeholder for a player, such as their balance or rank. Other plugins register providers
+ * with the {@link PlaceholderResolver} to use their own placeholders in the texts of this plugin.
+ *
+ * @param <P> The type of the players.
+ *
+ * @author Qhucy
+ */
+@FunctionalInterface
+public interface PlaceholderProvider< P >
+{
+
+    /**
+     * Returns the value of the placeholder for a player. Called on the main server thread, at most once per player per
+     * tick, and only when a rendered text contains the placeholder.
+     *
+     * @param player The player.
+     *
+     * @return The value, or null for an empty value.
+     */
+    String resolve( final P player );
+
+}
@@ -0,0 +1,391 @@
+package com.qhucy.universalenchant.placeholder;
+
+import com.qhucy.universalenchant.jfr.TemplateRenderEvent;
+import com.qhucy.universalenchant.metrics.Counter;
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class that renders texts containing placeholders, such as {@code %balance%}, for a player.
+ * <p>
+ * Placeholders are resolved lazily by their {@link PlaceholderProvider}, only when a rendered text contains them. Every
+ * value is memoized per player until the next tick, so rendering the 20 lines of a lore or a GUI resolves each of
+ * their placeholders once. Values that change within a tick, such as a balance after a purchase, are resolved again
+ * after the player is invalidated.
+ * <p>
+ * Texts are split into literals and placeholders once and cached, so rendering never searches a text for every
+ * variable like {@link com.qhucy.universalenchant.util.MessageManager#replaceVariables(String, String[])} does. Texts
+ * are rendered in one pass, and placeholders without a provider are kept as they are.
+ * <p>
+ * Every method is meant to be called from the main server thread.
+ *
+ * @param <P> The type of the players.
+ *
+ * @author Qhucy
+ */
+public final class PlaceholderResolver< P >
+{
+
+    // The maximum amount of parsed texts, after which the cache starts over.
+    private static final int MAX_TEMPLATES = 512;
+
+    // The providers by index, and the index of every placeholder.
+    private final List< PlaceholderProvider< P > > providers = new ArrayList<>();
+    private final Map< String, Integer >           indexes   = new HashMap<>();
+
+    private final Map< String, Template > templates = new HashMap<>();
+    private final Map< P, Memo >          memos     = new HashMap<>();
+    private long                          tick;
+
+    private final Counter resolved;
+    private final Counter memoized;
+
+    /**
+     * Creates a placeholder resolver and registers its metrics.
+     *
+     * @param metricsRegistry The registry to register the resolver's metrics in. Can't be null.
+     */
+    public PlaceholderResolver( @NonNull final MetricsRegistry metricsRegistry )
+    {
+        resolved = metricsRegistry.counter( "placeholders.resolved" );
+        memoized = metricsRegistry.counter( "placeholders.memoized" );
+
+        metricsRegistry.gauge( "placeholders.players", memos::size );
+    }
+
+    /**
+     * Registers the provider of a placeholder, replacing any provider of the same placeholder.
+     *
+     * @param placeholder The placeholder, such as '%balance%'. Can't be null.
+     * @param provider    The provider of its values. Can't be null.
+     *
+     * @throws IllegalArgumentException If the placeholder isn't a name between percent signs.
+     */
+    public final void register( @NonNull final String placeholder, @NonNull final PlaceholderProvider< P > provider )
+    {
+        if ( placeholder.length() < 3 || !isPlaceholder( placeholder, 0, placeholder.length() - 1 ) )
+        {
+            throw new IllegalArgumentException( "Placeholders are a name between percent signs, such as '%balance%'." );
+        }
+
+        final Integer index = indexes.get( placeholder );
+
+        if ( index != null )
+        {
+            providers.set( index, provider );
+            // Values memoized from the replaced provider are stale.
+            memos.clear();
+
+            return;
+        }
+
+        indexes.put( placeholder, providers.size() );
+        providers.add( provider );
+        // Texts parsed before the placeholder existed kept it as a literal.
+        templates.clear();
+    }
+
+    /**
+     * Renders a text for a player.
+     *
+     * @param text   The text. Can't be null.
+     * @param player The player. Can't be null.
+     *
+     * @return The text with its placeholders replaced by their values.
+     */
+    public final String render( @NonNull final String text, @NonNull final P player )
+    {
+        return render( text, player, null );
+    }
+
+    /**
+     * Renders a text for a player, with variables that only apply to this text, such as the level of an offer.
+     * Variables take precedence over placeholders of the same name.
+     *
+     * @param text      The text. Can't be null.
+     * @param player    The player. Can't be null.
+     * @param variables The variables in the format [variable, value, variable, value, ...]. Can be null.
+     *
+     * @return The text with its variables and placeholders replaced by their values.
+     */
+    public final String render( @NonNull final String text, @NonNull final P player, final String[] variables )
+    {
+        final Template template = getTemplate( text );
+
+        if ( template.placeholders.length == 0 )
+        {
+            return text;
+        }
+
+        final TemplateRenderEvent event = new TemplateRenderEvent();
+
+        event.begin();
+
+        final StringBuilder builder = new StringBuilder( text.length() + 16 * template.placeholders.length );
+        Memo                memo    = null;
+
+        for ( int index = 0; index < template.placeholders.length; index++ )
+        {
+            final String placeholder = template.placeholders[ index ];
+            String       value       = getVariable( variables, placeholder );
+
+            if ( value == null && template.providers[ index ] >= 0 )
+            {
+                if ( memo == null )
+                {
+                    memo = getMemo( player );
+                }
+
+                value = resolve( memo, player, template.providers[ index ] );
+            }
+
+            builder.append( template.literals[ index ] ).append( value == null ? placeholder : value );
+        }
+
+        event.record( text.length(), template.placeholders.length );
+
+        return builder.append( template.literals[ template.placeholders.length ] ).toString();
+    }
+
+    /**
+     * Renders lines for a player, such as a lore, resolving each of their placeholders once.
+     *
+     * @param lines     The lines. Can't be null.
+     * @param player    The player. Can't be null.
+     * @param variables The variables that apply to every line, as in {@link #render(String, Object, String[])}. Can
+     *                  be null.
+     *
+     * @return The rendered lines.
+     */
+    public final List< String > render( @NonNull final List< String > lines, @NonNull final P player,
+                                        final String[] variables )
+    {
+        final List< String > rendered = new ArrayList<>( lines.size() );
+
+        for ( final String line : lines )
+        {
+            rendered.add( render( line, player, variables ) );
+        }
+
+        return rendered;
+    }
+
+    /**
+     * Forgets the values memoized for a player this tick, such as after their balance changed.
+     *
+     * @param player The player. Can't be null.
+     */
+    public final void invalidate( @NonNull final P player )
+    {
+        final Memo memo = memos.get( player );
+
+        if ( memo != null )
+        {
+            memo.tick = -1L;
+        }
+    }
+
+    /**
+     * Forgets a player. Call when the player quits.
+     *
+     * @param player The player. Can't be null.
+     */
+    public final void forget( @NonNull final P player )
+    {
+        memos.remove( player );
+    }
+
+    /**
+     * Starts the next tick, after which every value is resolved again. Call once per server tick.
+     */
+    public final void tick()
+    {
+        tick++;
+    }
+
+    private Template getTemplate( @NonNull final String text )
+    {
+        Template template = templates.get( text );
+
+        if ( template == null )
+        {
+            if ( templates.size() == MAX_TEMPLATES )
+            {
+                templates.clear();
+            }
+
+            template = parse( text );
+            templates.put( text, template );
+        }
+
+        return template;
+    }
+
+    private Memo getMemo( @NonNull final P player )
+    {
+        final Memo memo = memos.computeIfAbsent( player, key -> new Memo() );
+
+        if ( memo.tick != tick || memo.values.length != providers.size() )
+        {
+            if ( memo.values.length != providers.size() )
+            {
+                memo.values = new String[ providers.size() ];
+            }
+            else
+            {
+                Arrays.fill( memo.values, null );
+            }
+
+            memo.tick = tick;
+        }
+
+        return memo;
+    }
+
+    private String resolve( @NonNull final Memo memo, @NonNull final P player, final int provider )
+    {
+        String value = memo.values[ provider ];
+
+        if ( value != null )
+        {
+            memoized.increment();
+
+            return value;
+        }
+
+        value = providers.get( provider ).resolve( player );
+        value = value == null ? "" : value;
+
+        memo.values[ provider ] = value;
+        resolved.increment();
+
+        return value;
+    }
+
+    /**
+     * Returns the value of a variable, or null if it isn't one of the variables.
+     */
+    private static String getVariable( final String[] variables, @NonNull final String placeholder )
+    {
+        if ( variables != null )
+        {
+            for ( int index = 0; index + 1 < variables.length; index += 2 )
+            {
+                if ( placeholder.equals( variables[ index ] ) )
+                {
+                    return variables[ index + 1 ];
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Splits a text into the literals between its placeholders and its placeholders.
+     */
+    private Template parse( @NonNull final String text )
+    {
+        final List< String > literals     = new ArrayList<>();
+        final List< String > placeholders = new ArrayList<>();
+        int                  literal      = 0;
+        int                  start        = text.indexOf( '%' );
+
+        while ( start >= 0 )
+        {
+            final int end = text.indexOf( '%', start + 1 );
+
+            if ( end < 0 )
+            {
+                break;
+            }
+
+            if ( isPlaceholder( text, start, end ) )
+            {
+                literals.add( text.substring( literal, start ) );
+                placeholders.add( text.substring( start, end + 1 ) );
+
+                literal = end + 1;
+                start   = text.indexOf( '%', literal );
+            }
+            else
+            {
+                // The closing sign can open the next placeholder, such as in '100%%balance%'.
+                start = end;
+            }
+        }
+
+        literals.add( text.substring( literal ) );
+
+        final int[] indexes = new int[ placeholders.size() ];
+
+        for ( int index = 0; index < indexes.length; index++ )
+        {
+            indexes[ index ] = this.indexes.getOrDefault( placeholders.get( index ), -1 );
+        }
+
+        return new Template( literals.toArray( new String[ 0 ] ), placeholders.toArray( new String[ 0 ] ), indexes );
+    }
+
+    /**
+     * Returns if the percent signs at two indexes of a text enclose a name, made of letters, digits, '-', '_' and '.'.
+     */
+    private static boolean isPlaceholder( @NonNull final String text, final int start, final int end )
+    {
+        if ( end - start < 2 || text.charAt( start ) != '%' || text.charAt( end ) != '%' )
+        {
+            return false;
+        }
+
+        for ( int index = start + 1; index < end; index++ )
+        {
+            final char character = text.charAt( index );
+
+            if ( !Character.isLetterOrDigit( character ) && character != '-' && character != '_' && character != '.' )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * A parsed text: the literals around its placeholders, one more than the placeholders, and the index of the
+     * provider of every placeholder, or -1 if it has none.
+     */
+    private static final class Template
+    {
+
+        private final String[] literals;
+        private final String[] placeholders;
+        private final int[]    providers;
+
+        private Template( @NonNull final String[] literals, @NonNull final String[] placeholders,
+                          @NonNull final int[] providers )
+        {
+            this.literals     = literals;
+            this.placeholders = placeholders;
+            this.providers    = providers;
+        }
+
+    }
+
+    /**
+     * The values of the placeholders of one player, memoized for one tick.
+     */
+    private static final class Memo
+    {
+
+        private long     tick   = -1L;
+        private String[] values = new String[ 0 ];
+
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.qhucy.universalenchant.player;
+
+import lombok.NonNull;
+
+import java.util.Locale;
+
+/**
+ * Enumeration of what the {@link PlayerDataWriteQueue} does with a write for a new player while it is full.
+ *
+ * @author Qhucy
+ */
+public enum BackpressurePolicy
+{
+
+    // Blocks the caller until there is room. The main server thread is never blocked and spills instead.
+    BLOCK,
+    // Appends the write to the local journal, which is written to the database once the queue has room again.
+    SPILL,
+    // Drops low priority writes and spills every other write.
+    SHED;
+
+    /**
+     * Returns the policy with a name from config.
+     *
+     * @param name The name of the policy, ignoring case. Can't be null.
+     *
+     * @return The policy.
+     *
+     * @throws IllegalArgumentException If no policy has the name.
+     */
+    public static BackpressurePolicy fromName( @NonNull final String name )
+    {
+        return valueOf( name.trim().toUpperCase( Locale.ROOT ) );
+    }
+
+}
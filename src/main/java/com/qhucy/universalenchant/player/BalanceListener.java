@@ -0,0 +1,23 @@
+package com.qhucy.universalenchant.player;
+
+import java.util.UUID;
+
+/**
+ * Listener notified when the balance of a player is changed through the {@link PlayerDataService}.
+ *
+ * @author Qhucy
+ * @see PlayerDataService#setBalance(PlayerData, double)
+ */
+@FunctionalInterface
+public interface BalanceListener
+{
+
+    /**
+     * Called on the main server thread after the balance of a player changed.
+     *
+     * @param uniqueId The unique id of the player.
+     * @param balance  The new balance.
+     */
+    void onBalanceChange( final UUID uniqueId, final double balance );
+
+}
@@ -0,0 +1,129 @@
+package com.qhucy.universalenchant.player;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Class that holds the persistent data of a player: their currency balance and the levels of the enchantments they
+ * own.
+ * <p>
+ * Player data is read and changed on the main server thread while saves copy it from the database threads, so every
+ * method is synchronized.
+ *
+ * @author Qhucy
+ * @see PlayerDataService
+ */
+public final class PlayerData
+{
+
+    @Getter
+    private final UUID                   uniqueId;
+    private double                       balance;
+    // Incremented by every balance change, so changes made while the balance is reloaded can be detected.
+    private long                         balanceVersion;
+    // The level of every owned enchantment by enchantment key.
+    private final Map< String, Integer > enchantmentLevels;
+
+    /**
+     * Creates the data of a player.
+     *
+     * @param uniqueId          The unique id of the player. Can't be null.
+     * @param balance           The currency balance of the player.
+     * @param enchantmentLevels The level of every owned enchantment by enchantment key. Can't be null.
+     */
+    public PlayerData( @NonNull final UUID uniqueId, final double balance,
+                       @NonNull final Map< String, Integer > enchantmentLevels )
+    {
+        this.uniqueId          = uniqueId;
+        this.balance           = balance;
+        this.enchantmentLevels = new HashMap<>( enchantmentLevels );
+    }
+
+    /**
+     * Returns the currency balance of the player.
+     *
+     * @return The currency balance.
+     */
+    public final synchronized double getBalance()
+    {
+        return balance;
+    }
+
+    /**
+     * Sets the currency balance of the player.
+     *
+     * @param balance The new currency balance.
+     */
+    public final synchronized void setBalance( final double balance )
+    {
+        this.balance = balance;
+
+        balanceVersion++;
+    }
+
+    /**
+     * Returns the version of the currency balance, which changes with every balance change.
+     *
+     * @return The version of the currency balance.
+     */
+    public final synchronized long getBalanceVersion()
+    {
+        return balanceVersion;
+    }
+
+    /**
+     * Returns the level of an owned enchantment.
+     *
+     * @param enchantmentKey The key of the enchantment. Can't be null.
+     *
+     * @return The level of the enchantment or 0 if the player doesn't own it.
+     */
+    public final synchronized int getEnchantmentLevel( @NonNull final String enchantmentKey )
+    {
+        return enchantmentLevels.getOrDefault( enchantmentKey, 0 );
+    }
+
+    /**
+     * Sets the level of an owned enchantment.
+     *
+     * @param enchantmentKey The key of the enchantment. Can't be null.
+     * @param level          The level of the enchantment. Levels of 0 or less remove the enchantment.
+     */
+    public final synchronized void setEnchantmentLevel( @NonNull final String enchantmentKey, final int level )
+    {
+        if ( level <= 0 )
+        {
+            enchantmentLevels.remove( enchantmentKey );
+        }
+        else
+        {
+            enchantmentLevels.put( enchantmentKey, level );
+        }
+    }
+
+    /**
+     * Returns a copy of the level of every owned enchantment.
+     *
+     * @return An unmodifiable copy of the enchantment levels by enchantment key.
+     */
+    public final synchronized Map< String, Integer > getEnchantmentLevels()
+    {
+        return Collections.unmodifiableMap( new HashMap<>( enchantmentLevels ) );
+    }
+
+    /**
+     * Returns a consistent copy of this data, for saving while the original keeps changing.
+     *
+     * @return A copy of this data.
+     */
+    public final synchronized PlayerData copy()
+    {
+        return new PlayerData( uniqueId, balance, enchantmentLevels );
+    }
+
+}
@@ -0,0 +1,434 @@
+package com.qhucy.universalenchant.player;
+
+import lombok.NonNull;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Append-only file in the plugin folder that holds player data writes the {@link PlayerDataWriteQueue} had no room
+ * for or failed to write, so they survive until the database catches up, even across restarts.
+ * <p>
+ * Every line holds either the full data of one player or, as a tombstone, only the unique id of a player whose data
+ * was removed, and a later line for a player supersedes earlier ones. The latest data of every player is kept in
+ * memory, so reads and changes never touch the file: changes are buffered as lines and only written by
+ * {@link #write(Flush)}, which compacts the file once it holds more superseded lines than live ones. Data drained
+ * back into the queue stays in the journal until it is saved, so a crash never loses a write that is only queued.
+ * <p>
+ * A crash while appending can cut the last line off. It is dropped with a warning rather than parsed, since a cut off
+ * balance could still parse as a different number.
+ * <p>
+ * The journal is not thread safe. Its data is only used under the lock of its write queue, and {@link #write(Flush)}
+ * and {@link #close()} are only called by one thread at a time, outside of that lock.
+ *
+ * @author Qhucy
+ */
+final class PlayerDataJournal
+{
+
+    private final Path                    path;
+    // The latest data of every player in the journal, in the order the players were first written.
+    private final Map< UUID, PlayerData > latest    = new LinkedHashMap<>();
+    // The players whose latest data was drained into the queue and hasn't been saved yet.
+    private final Set< UUID >             queued    = new HashSet<>();
+    // The lines of changes that haven't been written to the file yet.
+    private final List< String >          unwritten = new ArrayList<>();
+    // The amount of lines in the file, including superseded lines and tombstones.
+    private int                           fileLines;
+    // If the file has to be rewritten from the latest data, since a write failed part way.
+    private boolean                       stale;
+    // Appends to the file between compactions, or null if not open.
+    private BufferedWriter                writer;
+
+    /**
+     * Opens a journal, reading the data in it if it exists and truncating a cut off last line.
+     *
+     * @param path   The path of the journal file. Can't be null.
+     * @param logger The logger to report a cut off last line to. Can't be null.
+     *
+     * @throws IOException If unable to read or truncate the existing journal.
+     */
+    PlayerDataJournal( @NonNull final Path path, @NonNull final Logger logger )
+            throws IOException
+    {
+        this.path = path;
+
+        if ( Files.exists( path ) )
+        {
+            final byte[] bytes = Files.readAllBytes( path );
+            int          end   = bytes.length;
+
+            if ( end > 0 && bytes[ end - 1 ] != '\n' )
+            {
+                while ( end > 0 && bytes[ end - 1 ] != '\n' )
+                {
+                    end--;
+                }
+
+                logger.warning( "Dropped the cut off last line of the player data journal." );
+
+                try ( final FileChannel channel = FileChannel.open( path, StandardOpenOption.WRITE ) )
+                {
+                    channel.truncate( end );
+                }
+            }
+
+            for ( final String line : new String( bytes, 0, end, StandardCharsets.UTF_8 ).split( "\r?\n" ) )
+            {
+                if ( line.isEmpty() )
+                {
+                    continue;
+                }
+
+                if ( line.indexOf( '\t' ) < 0 )
+                {
+                    latest.remove( parseTombstone( line ) );
+                }
+                else
+                {
+                    final PlayerData playerData = parse( line );
+
+                    latest.put( playerData.getUniqueId(), playerData );
+                }
+
+                fileLines++;
+            }
+        }
+    }
+
+    /**
+     * Returns the amount of players with data in the journal.
+     *
+     * @return The amount of players with data in the journal.
+     */
+    final int size()
+    {
+        return latest.size();
+    }
+
+    /**
+     * Returns if a player has data in the journal that hasn't been drained into the queue.
+     *
+     * @param uniqueId The unique id of the player. Can't be null.
+     *
+     * @return If the player has data in the journal that isn't queued.
+     */
+    final boolean contains( @NonNull final UUID uniqueId )
+    {
+        return latest.containsKey( uniqueId ) && !queued.contains( uniqueId );
+    }
+
+    /**
+     * Returns if the journal has changes that haven't been taken to be written to the file yet.
+     *
+     * @return If the journal has unwritten changes.
+     */
+    final boolean hasUnwritten()
+    {
+        return !unwritten.isEmpty();
+    }
+
+    /**
+     * Appends the data of a player, superseding any earlier data of the player.
+     *
+     * @param playerData The data of the player. Can't be null.
+     */
+    final void append( @NonNull final PlayerData playerData )
+    {
+        latest.put( playerData.getUniqueId(), playerData );
+        queued.remove( playerData.getUniqueId() );
+        unwritten.add( format( playerData ) );
+    }
+
+    /**
+     * Returns the latest data of a player in the journal that hasn't been drained into the queue.
+     *
+     * @param uniqueId The unique id of the player. Can't be null.
+     *
+     * @return The data of the player or null if the player has no data in the journal that isn't queued.
+     */
+    final PlayerData find( @NonNull final UUID uniqueId )
+    {
+        return queued.contains( uniqueId ) ? null : latest.get( uniqueId );
+    }
+
+    /**
+     * Removes the data of a player with a tombstone, once newer data of the player is queued. Data drained into the
+     * queue is kept until it is saved.
+     *
+     * @param uniqueId The unique id of the player. Can't be null.
+     */
+    final void remove( @NonNull final UUID uniqueId )
+    {
+        if ( !queued.contains( uniqueId ) && latest.remove( uniqueId ) != null )
+        {
+            unwritten.add( uniqueId.toString() );
+        }
+    }
+
+    /**
+     * Returns the latest data of up to a maximum amount of players that isn't queued yet, oldest first, and marks it
+     * as queued. The data stays in the journal until {@link #saved(UUID)} or {@link #release(UUID)}.
+     *
+     * @param maximum The maximum amount of players.
+     *
+     * @return The drained data.
+     */
+    final List< PlayerData > drain( final int maximum )
+    {
+        final List< PlayerData > drained = new ArrayList<>();
+
+        for ( final PlayerData playerData : latest.values() )
+        {
+            if ( drained.size() == maximum )
+            {
+                break;
+            }
+
+            if ( queued.add( playerData.getUniqueId() ) )
+            {
+                drained.add( playerData );
+            }
+        }
+
+        return drained;
+    }
+
+    /**
+     * Removes the drained data of a player with a tombstone, after the data or newer data of the player was saved.
+     *
+     * @param uniqueId The unique id of the player. Can't be null.
+     */
+    final void saved( @NonNull final UUID uniqueId )
+    {
+        if ( queued.remove( uniqueId ) )
+        {
+            latest.remove( uniqueId );
+            unwritten.add( uniqueId.toString() );
+        }
+    }
+
+    /**
+     * Makes the drained data of a player drainable again, after its write was dropped from the queue.
+     *
+     * @param uniqueId The unique id of the player. Can't be null.
+     */
+    final void release( @NonNull final UUID uniqueId )
+    {
+        queued.remove( uniqueId );
+    }
+
+    /**
+     * Takes the changes that haven't been written to the file yet, to be written by {@link #write(Flush)}.
+     *
+     * @return The changes to write or null if the file is up to date.
+     */
+    final Flush takeFlush()
+    {
+        if ( unwritten.isEmpty() && !stale )
+        {
+            return null;
+        }
+
+        final Flush flush;
+
+        if ( stale || fileLines + unwritten.size() - latest.size() > latest.size() )
+        {
+            final List< String > lines = new ArrayList<>( latest.size() );
+
+            for ( final PlayerData playerData : latest.values() )
+            {
+                lines.add( format( playerData ) );
+            }
+
+            flush     = new Flush( lines, true );
+            fileLines = lines.size();
+        }
+        else
+        {
+            flush = new Flush( new ArrayList<>( unwritten ), false );
+            fileLines += unwritten.size();
+        }
+
+        unwritten.clear();
+        stale = false;
+
+        return flush;
+    }
+
+    /**
+     * Marks the file to be rewritten by the next flush, after the given flush failed to be written.
+     */
+    final void flushFailed()
+    {
+        stale = true;
+    }
+
+    /**
+     * Writes changes taken by {@link #takeFlush()} to the file, appending them or replacing the file with them if it
+     * is compacted, and deleting the file once it is empty.
+     *
+     * @param flush The changes to write. Can't be null.
+     *
+     * @throws IOException If unable to write the file.
+     */
+    final void write( @NonNull final Flush flush )
+            throws IOException
+    {
+        try
+        {
+            if ( !flush.compacted )
+            {
+                if ( writer == null )
+                {
+                    writer = Files.newBufferedWriter( path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                                                      StandardOpenOption.APPEND );
+                }
+
+                for ( final String line : flush.lines )
+                {
+                    writer.write( line );
+                    writer.newLine();
+                }
+
+                writer.flush();
+
+                return;
+            }
+
+            close();
+
+            if ( flush.lines.isEmpty() )
+            {
+                Files.deleteIfExists( path );
+
+                return;
+            }
+
+            final Path compacted = path.resolveSibling( path.getFileName() + ".tmp" );
+
+            Files.write( compacted, flush.lines, StandardCharsets.UTF_8 );
+            Files.move( compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        catch ( final IOException exception )
+        {
+            close();
+
+            throw exception;
+        }
+    }
+
+    /**
+     * Closes the file until the next write.
+     *
+     * @throws IOException If unable to close the file.
+     */
+    final void close()
+            throws IOException
+    {
+        if ( writer != null )
+        {
+            final BufferedWriter closing = writer;
+
+            writer = null;
+            closing.close();
+        }
+    }
+
+    /**
+     * Formats player data as a tab separated line of the unique id, the balance and every enchantment as key=level.
+     */
+    private static String format( @NonNull final PlayerData playerData )
+    {
+        final StringBuilder line = new StringBuilder();
+
+        line.append( playerData.getUniqueId() ).append( '\t' ).append( playerData.getBalance() );
+
+        for ( final Map.Entry< String, Integer > entry : playerData.getEnchantmentLevels().entrySet() )
+        {
+            line.append( '\t' ).append( entry.getKey() ).append( '=' ).append( entry.getValue() );
+        }
+
+        return line.toString();
+    }
+
+    /**
+     * Parses a line written by {@link #format(PlayerData)}.
+     */
+    private static PlayerData parse( @NonNull final String line )
+            throws IOException
+    {
+        final String[] parts = line.split( "\t" );
+
+        try
+        {
+            final Map< String, Integer > enchantmentLevels = new HashMap<>();
+
+            for ( int i = 2; i < parts.length; i++ )
+            {
+                final int separator = parts[ i ].lastIndexOf( '=' );
+
+                enchantmentLevels.put( parts[ i ].substring( 0, separator ),
+                                       Integer.parseInt( parts[ i ].substring( separator + 1 ) ) );
+            }
+
+            return new PlayerData( UUID.fromString( parts[ 0 ] ), Double.parseDouble( parts[ 1 ] ),
+                                   enchantmentLevels );
+        }
+        catch ( final IllegalArgumentException | IndexOutOfBoundsException exception )
+        {
+            throw new IOException( "Malformed player data journal line: " + line, exception );
+        }
+    }
+
+    /**
+     * Parses the unique id of a tombstone line.
+     */
+    private static UUID parseTombstone( @NonNull final String line )
+            throws IOException
+    {
+        try
+        {
+            return UUID.fromString( line );
+        }
+        catch ( final IllegalArgumentException exception )
+        {
+            throw new IOException( "Malformed player data journal line: " + line, exception );
+        }
+    }
+
+    /**
+     * Lines taken from the journal to be written to its file.
+     */
+    static final class Flush
+    {
+
+        private final List< String > lines;
+        // If the lines replace the file rather than being appended to it.
+        private final boolean        compacted;
+
+        private Flush( @NonNull final List< String > lines, final boolean compacted )
+        {
+            this.lines     = Collections.unmodifiableList( lines );
+            this.compacted = compacted;
+        }
+
+    }
+
+}
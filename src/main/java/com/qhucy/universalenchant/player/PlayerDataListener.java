@@ -0,0 +1,78 @@
+package com.qhucy.universalenchant.player;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Listener that drives the {@link PlayerDataService} through the login, join and quit of players.
+ * <p>
+ * Data is prefetched as early as possible in the asynchronous pre-login, and forgotten again at monitor priority if
+ * another plugin denies the login.
+ *
+ * @author Qhucy
+ */
+public final class PlayerDataListener
+        implements Listener
+{
+
+    @Getter( AccessLevel.PRIVATE )
+    private final PlayerDataService playerDataService;
+
+    /**
+     * Creates a listener for a player data service.
+     *
+     * @param playerDataService The player data service to drive. Can't be null.
+     */
+    public PlayerDataListener( @NonNull final PlayerDataService playerDataService )
+    {
+        this.playerDataService = playerDataService;
+    }
+
+    @EventHandler( priority = EventPriority.LOWEST )
+    public final void onAsyncPlayerPreLogin( @NonNull final AsyncPlayerPreLoginEvent event )
+    {
+        if ( event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED )
+        {
+            getPlayerDataService().prefetch( event.getUniqueId() );
+        }
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR )
+    public final void onAsyncPlayerPreLoginResult( @NonNull final AsyncPlayerPreLoginEvent event )
+    {
+        if ( event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED )
+        {
+            getPlayerDataService().cancelPrefetch( event.getUniqueId() );
+        }
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR )
+    public final void onPlayerLogin( @NonNull final PlayerLoginEvent event )
+    {
+        if ( event.getResult() != PlayerLoginEvent.Result.ALLOWED )
+        {
+            getPlayerDataService().cancelPrefetch( event.getPlayer().getUniqueId() );
+        }
+    }
+
+    @EventHandler( priority = EventPriority.LOWEST )
+    public final void onPlayerJoin( @NonNull final PlayerJoinEvent event )
+    {
+        getPlayerDataService().onJoin( event.getPlayer().getUniqueId() );
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR )
+    public final void onPlayerQuit( @NonNull final PlayerQuitEvent event )
+    {
+        getPlayerDataService().onQuit( event.getPlayer().getUniqueId() );
+    }
+
+}
@@ -0,0 +1,389 @@
+package com.qhucy.universalenchant.player;
+
+import com.qhucy.universalenchant.metrics.Counter;
+import com.qhucy.universalenchant.metrics.LatencyRecorder;
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class that loads, caches and saves the {@link PlayerData} of players without blocking the main server thread.
+ * <p>
+ * Loading starts while a player is still logging in ({@link #prefetch(UUID)}), so by the time they join their data is
+ * usually ready and joining costs no database round trip. Loads that are still running when the player joins finish on
+ * the main thread through a callback. After a player quits their data is queued on the {@link PlayerDataWriteQueue}
+ * and kept in a bounded least recently used cache, so players that reconnect shortly after don't hit the database at
+ * all. Loads read a player's latest write that hasn't reached the database yet first, so a reconnect never reads stale
+ * data.
+ * <p>
+ * Data that failed to load is never saved, so a database outage can't overwrite a player's data with empty data.
+ * <p>
+ * {@link #prefetch(UUID)} and {@link #cancelPrefetch(UUID)} are safe to call from any thread, every other method is
+ * meant to be called from the main server thread.
+ *
+ * @author Qhucy
+ */
+public final class PlayerDataService
+{
+
+    @Getter( AccessLevel.PRIVATE )
+    private final PlayerDataStorage    storage;
+    @Getter( AccessLevel.PRIVATE )
+    private final PlayerDataWriteQueue writeQueue;
+    // Runs database loads off the main server thread.
+    private final Executor             ioExecutor;
+    // Runs callbacks on the main server thread.
+    private final Executor             mainExecutor;
+    @Getter( AccessLevel.PRIVATE )
+    private final Logger               logger;
+
+    // The load of every player that is logging in or online.
+    private final Map< UUID, CompletableFuture< PlayerData > > loads            = new ConcurrentHashMap<>();
+    // The loaded data of every online player.
+    private final Map< UUID, PlayerData >                      online           = new ConcurrentHashMap<>();
+    // The data of recently quit players in least recently used order.
+    private final Map< UUID, PlayerData >                      retained;
+    // Notified of every balance change made through the service.
+    private final List< BalanceListener >                      balanceListeners = new ArrayList<>();
+
+    private final Counter         prefetchHits;
+    private final Counter         prefetchMisses;
+    private final Counter         retainedHits;
+    private final Counter         loadFailures;
+    private final LatencyRecorder joinToReady;
+
+    /**
+     * Creates a player data service and registers its metrics.
+     *
+     * @param storage          The storage player data is loaded from. Can't be null.
+     * @param writeQueue       The queue player data is saved through. Can't be null.
+     * @param ioExecutor       The executor that runs database loads off the main server thread. Can't be null.
+     * @param mainExecutor     The executor that runs callbacks on the main server thread. Can't be null.
+     * @param metricsRegistry  The registry to register the service's metrics in. Can't be null.
+     * @param retainedCapacity The maximum amount of quit players whose data is kept in memory.
+     * @param logger           The logger to report failed loads to. Can't be null.
+     */
+    public PlayerDataService( @NonNull final PlayerDataStorage storage, @NonNull final PlayerDataWriteQueue writeQueue,
+                              @NonNull final Executor ioExecutor, @NonNull final Executor mainExecutor,
+                              @NonNull final MetricsRegistry metricsRegistry, final int retainedCapacity,
+                              @NonNull final Logger logger )
+    {
+        this.storage      = storage;
+        this.writeQueue   = writeQueue;
+        this.ioExecutor   = ioExecutor;
+        this.mainExecutor = mainExecutor;
+        this.logger       = logger;
+        this.retained     = Collections.synchronizedMap( new LinkedHashMap< UUID, PlayerData >( 16, 0.75f, true )
+        {
+            @Override
+            protected boolean removeEldestEntry( final Map.Entry< UUID, PlayerData > eldest )
+            {
+                return size() > retainedCapacity;
+            }
+        } );
+
+        prefetchHits   = metricsRegistry.counter( "player-data.prefetch.hits" );
+        prefetchMisses = metricsRegistry.counter( "player-data.prefetch.misses" );
+        retainedHits   = metricsRegistry.counter( "player-data.retained.hits" );
+        loadFailures   = metricsRegistry.counter( "player-data.load.failures" );
+        joinToReady    = metricsRegistry.latency( "player-data.join-to-ready" );
+
+        metricsRegistry.gauge( "player-data.prefetch.hit-rate", this::getPrefetchHitRate );
+        metricsRegistry.gauge( "player-data.online", online::size );
+        metricsRegistry.gauge( "player-data.retained", retained::size );
+    }
+
+    /**
+     * Starts loading the data of a player that is logging in, unless it is already loading or cached.
+     *
+     * @param uniqueId The unique id of the player. Can't be null.
+     */
+    public final void prefetch( @NonNull final UUID uniqueId )
+    {
+        loads.computeIfAbsent( uniqueId, key ->
+        {
+            final PlayerData retainedData = retained.remove( key );
+
+            if ( retainedData != null )
+            {
+                retainedHits.increment();
+
+                return CompletableFuture.completedFuture( retainedData );
+            }
+
+            return CompletableFuture.supplyAsync( () -> load( key ), ioExecutor );
+        } );
+    }
+
+    /**
+     * Forgets the prefetched data of a player whose login was denied. Data that finished loading is kept in the
+     * retained cache in case the player tries again.
+     *
+     * @param uniqueId The unique id of the player. Can't be null.
+     */
+    public final void cancelPrefetch( @NonNull final UUID uniqueId )
+    {
+        if ( online.containsKey( uniqueId ) )
+        {
+            // The player is already online from another login.
+            return;
+        }
+
+        final CompletableFuture< PlayerData > load = loads.remove( uniqueId );
+
+        if ( load != null && load.isDone() && !load.isCompletedExceptionally() )
+        {
+            retained.put( uniqueId, load.join() );
+        }
+    }
+
+    /**
+     * Makes the data of a joining player ready, immediately if it was prefetched or otherwise as soon as it finishes
+     * loading.
+     *
+     * @param uniqueId The unique id of the player. Can't be null.
+     */
+    public final void onJoin( @NonNull final UUID uniqueId )
+    {
+        final long start = System.nanoTime();
+
+        // Players online before the plugin enabled never logged in, so their data is fetched now.
+        prefetch( uniqueId );
+
+        final CompletableFuture< PlayerData > load = loads.get( uniqueId );
+
+        if ( load.isDone() )
+        {
+            prefetchHits.increment();
+
+            ready( uniqueId, load, start );
+        }
+        else
+        {
+            prefetchMisses.increment();
+
+            load.whenCompleteAsync( ( playerData, throwable ) -> ready( uniqueId, load, start ), mainExecutor );
+        }
+    }
+
+    /**
+     * Puts the data of a player online once it finished loading, unless the player quit in the meantime.
+     */
+    private void ready( @NonNull final UUID uniqueId, @NonNull final CompletableFuture< PlayerData > load,
+                        final long start )
+    {
+        if ( loads.get( uniqueId ) != load )
+        {
+            return;
+        }
+
+        if ( load.isCompletedExceptionally() )
+        {
+            // Keeps the failed load so the player's data is never saved until they rejoin.
+            return;
+        }
+
+        online.put( uniqueId, load.join() );
+        joinToReady.recordSince( start );
+    }
+
+    /**
+     * Queues the data of a quitting player to be saved and keeps it in the retained cache.
+     *
+     * @param uniqueId The unique id of the player. Can't be null.
+     */
+    public final void onQuit( @NonNull final UUID uniqueId )
+    {
+        loads.remove( uniqueId );
+
+        final PlayerData playerData = online.remove( uniqueId );
+
+        if ( playerData != null )
+        {
+            getWriteQueue().submit( playerData.copy(), WritePriority.NORMAL );
+            retained.put( uniqueId, playerData );
+        }
+    }
+
+    /**
+     * Queues the data of every online player to be saved.
+     *
+     * @param priority The priority of the writes, low for periodic autosaves. Can't be null.
+     */
+    public final void saveAll( @NonNull final WritePriority priority )
+    {
+        for ( final PlayerData playerData : online.values() )
+        {
+            getWriteQueue().submit( playerData.copy(), priority );
+        }
+    }
+
+    /**
+     * Returns the data of an online player.
+     *
+     * @param uniqueId The unique id of the player. Can't be null.
+     *
+     * @return The data of the player or null if it isn't ready yet or failed to load.
+     */
+    public final PlayerData get( @NonNull final UUID uniqueId )
+    {
+        return online.get( uniqueId );
+    }
+
+    /**
+     * Returns the cached data of a player, whether they are online or quit recently.
+     *
+     * @param uniqueId The unique id of the player. Can't be null.
+     *
+     * @return The data of the player or null if it isn't cached.
+     */
+    public final PlayerData getCached( @NonNull final UUID uniqueId )
+    {
+        final PlayerData playerData = online.get( uniqueId );
+
+        return playerData == null ? retained.get( uniqueId ) : playerData;
+    }
+
+    /**
+     * Drops the cached data of a player whose data was changed in storage by another server. The data of a player that
+     * quit is forgotten, so it is loaded from storage the next time they join, and the balance of an online player is
+     * reloaded from storage in the background, so the stale balance is never saved back over the stored one. Balance
+     * changes made while it reloads are newer than the stored balance, so they are kept.
+     *
+     * @param uniqueId The unique id of the player. Can't be null.
+     *
+     * @return If cached data was forgotten or is being reloaded.
+     */
+    public final boolean invalidate( @NonNull final UUID uniqueId )
+    {
+        final boolean    forgotten  = retained.remove( uniqueId ) != null;
+        final PlayerData playerData = online.get( uniqueId );
+
+        if ( playerData == null )
+        {
+            return forgotten;
+        }
+
+        final long version = playerData.getBalanceVersion();
+
+        CompletableFuture.supplyAsync( () -> loadStored( uniqueId ), ioExecutor ).whenCompleteAsync(
+                ( stored, throwable ) ->
+                {
+                    // Skipped if the player quit or rejoined in the meantime, since their data was replaced, or if
+                    // the balance changed, since the change is newer than the stored balance.
+                    if ( throwable == null && online.get( uniqueId ) == playerData
+                         && playerData.getBalanceVersion() == version )
+                    {
+                        playerData.setBalance( stored.getBalance() );
+                    }
+                }, mainExecutor );
+
+        return true;
+    }
+
+    /**
+     * Registers a listener notified of every balance change made through {@link #setBalance(PlayerData, double)}.
+     *
+     * @param listener The listener. Can't be null.
+     */
+    public final void addBalanceListener( @NonNull final BalanceListener listener )
+    {
+        balanceListeners.add( listener );
+    }
+
+    /**
+     * Sets the balance of a player and notifies the balance listeners. Use this rather than
+     * {@link PlayerData#setBalance(double)} for every change made on this server.
+     *
+     * @param playerData The data of the player. Can't be null.
+     * @param balance    The new balance.
+     */
+    public final void setBalance( @NonNull final PlayerData playerData, final double balance )
+    {
+        playerData.setBalance( balance );
+
+        for ( final BalanceListener listener : balanceListeners )
+        {
+            listener.onBalanceChange( playerData.getUniqueId(), balance );
+        }
+    }
+
+    /**
+     * Returns if the data of an online player is ready.
+     *
+     * @param uniqueId The unique id of the player. Can't be null.
+     *
+     * @return If the data of the player is ready.
+     */
+    public final boolean isReady( @NonNull final UUID uniqueId )
+    {
+        return online.containsKey( uniqueId );
+    }
+
+    /**
+     * Returns the share of joins whose data was already loaded.
+     *
+     * @return The prefetch hit rate between 0 and 1, or 0 if nobody joined yet.
+     */
+    public final double getPrefetchHitRate()
+    {
+        final long hits  = prefetchHits.get();
+        final long total = hits + prefetchMisses.get();
+
+        return total == 0 ? 0.0 : ( double ) hits / total;
+    }
+
+    /**
+     * Loads the data of a player from storage, ignoring their unwritten writes. Runs on a database thread.
+     */
+    private PlayerData loadStored( @NonNull final UUID uniqueId )
+    {
+        try
+        {
+            return getStorage().load( uniqueId );
+        }
+        catch ( final IOException exception )
+        {
+            loadFailures.increment();
+            getLogger().log( Level.SEVERE, "Unable to reload the data of player " + uniqueId + ".", exception );
+
+            throw new CompletionException( exception );
+        }
+    }
+
+    /**
+     * Loads the data of a player from their latest unwritten write or from storage. Runs on a database thread.
+     */
+    private PlayerData load( @NonNull final UUID uniqueId )
+    {
+        try
+        {
+            final PlayerData unwritten = getWriteQueue().getLatest( uniqueId );
+
+            return unwritten == null ? getStorage().load( uniqueId ) : unwritten.copy();
+        }
+        catch ( final IOException exception )
+        {
+            loadFailures.increment();
+            getLogger().log( Level.SEVERE, "Unable to load the data of player " + uniqueId + ".", exception );
+
+            throw new CompletionException( exception );
+        }
+    }
+
+}
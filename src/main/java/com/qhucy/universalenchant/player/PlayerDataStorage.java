@@ -0,0 +1,43 @@
+package com.qhucy.universalenchant.player;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Storage that player data is loaded from and saved to. Implementations are called from the database threads, never
+ * from the main server thread.
+ *
+ * @author Qhucy
+ * @see PlayerDataService
+ */
+public interface PlayerDataStorage
+{
+
+    /**
+     * Loads the data of a player, or creates empty data if the player has none stored.
+     *
+     * @param uniqueId The unique id of the player. Can't be null.
+     *
+     * @return The data of the player.
+     *
+     * @throws IOException If unable to read from the storage.
+     */
+    PlayerData load( final UUID uniqueId )
+            throws IOException;
+
+    /**
+     * Saves the data of a player.
+     *
+     * @param playerData The data of the player. Can't be null.
+     *
+     * @throws IOException If unable to write to the storage.
+     */
+    void save( final PlayerData playerData )
+            throws IOException;
+
+    /**
+     * Closes every connection to the storage.
+     */
+    void close();
+
+}
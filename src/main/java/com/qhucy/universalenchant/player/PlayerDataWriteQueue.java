@@ -0,0 +1,594 @@
+package com.qhucy.universalenchant.player;
+
+import com.qhucy.universalenchant.metrics.Counter;
+import com.qhucy.universalenchant.metrics.LatencyRecorder;
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded queue of player data writes, written to the {@link PlayerDataStorage} one at a time by a writer thread.
+ * <p>
+ * Writes are coalesced per player, so a player with a pending write only ever has their latest data queued and the
+ * queue holds at most one write per player up to its capacity. Once full, writes for new players are handled by the
+ * {@link BackpressurePolicy}: async callers can be blocked until there is room, writes can be spilled to a local
+ * {@link PlayerDataJournal}, and low priority writes can be shed. Writes that fail are spilled too, and the writer
+ * moves journaled writes back into the queue whenever it has room and the database is reachable, so a slow or
+ * unavailable database never grows the heap without bound and never loses a normal priority write. Only the writer
+ * thread writes the journal to its file, so submitting a write never waits on the file system.
+ * <p>
+ * {@link #getLatest(UUID)} returns the newest data of a player that hasn't reached the database yet, so loads never
+ * read stale data while a write is queued, in flight or journaled.
+ *
+ * @author Qhucy
+ */
+public final class PlayerDataWriteQueue
+{
+
+    // How long the writer waits after a failed write before moving journaled writes back into the queue.
+    private static final long RETRY_NANOS = TimeUnit.SECONDS.toNanos( 5L );
+
+    @Getter( AccessLevel.PRIVATE )
+    private final PlayerDataStorage  storage;
+    private final PlayerDataJournal  journal;
+    // The maximum amount of players with a queued write.
+    private final int                capacity;
+    private final BackpressurePolicy backpressurePolicy;
+    // Returns if the calling thread is the main server thread, which is never blocked.
+    private final BooleanSupplier    mainThread;
+    @Getter( AccessLevel.PRIVATE )
+    private final Logger             logger;
+
+    private final ReentrantLock lock     = new ReentrantLock();
+    private final Condition     notEmpty = lock.newCondition();
+    private final Condition     notFull  = lock.newCondition();
+    // Held while writing the journal to its file, so changes reach the file in the order they were taken.
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // The queued write of every player, oldest first.
+    private final Map< UUID, PendingWrite > pending = new LinkedHashMap<>();
+    // The data being written by the writer thread, or null.
+    private PlayerData                      inFlight;
+    // The earliest time journaled writes are moved back into the queue, pushed back whenever a write fails.
+    private long                            nextRefill;
+    private boolean                         closed;
+    private Thread                          writer;
+
+    // Sizes read by the metrics gauges without taking the lock.
+    private volatile int depth;
+    private volatile int journaled;
+
+    private final Counter         coalesced;
+    private final Counter         spilled;
+    private final Counter         shed;
+    private final Counter         written;
+    private final Counter         failures;
+    private final LatencyRecorder backpressure;
+
+    /**
+     * Creates a write queue and registers its metrics. Call {@link #start()} to start writing.
+     *
+     * @param storage            The storage to write to. Can't be null.
+     * @param journalPath        The path of the local journal file. Can't be null.
+     * @param capacity           The maximum amount of players with a queued write.
+     * @param backpressurePolicy What to do with writes for new players while the queue is full. Can't be null.
+     * @param mainThread         Returns if the calling thread is the main server thread. Can't be null.
+     * @param metricsRegistry    The registry to register the queue's metrics in. Can't be null.
+     * @param logger             The logger to report failed writes to. Can't be null.
+     *
+     * @throws IOException If unable to read the existing journal.
+     */
+    public PlayerDataWriteQueue( @NonNull final PlayerDataStorage storage, @NonNull final Path journalPath,
+                                 final int capacity, @NonNull final BackpressurePolicy backpressurePolicy,
+                                 @NonNull final BooleanSupplier mainThread,
+                                 @NonNull final MetricsRegistry metricsRegistry, @NonNull final Logger logger )
+            throws IOException
+    {
+        this.storage            = storage;
+        this.journal            = new PlayerDataJournal( journalPath, logger );
+        this.capacity           = Math.max( 1, capacity );
+        this.backpressurePolicy = backpressurePolicy;
+        this.mainThread         = mainThread;
+        this.logger             = logger;
+        this.journaled          = journal.size();
+        this.nextRefill         = System.nanoTime();
+
+        coalesced    = metricsRegistry.counter( "player-data.write-queue.coalesced" );
+        spilled      = metricsRegistry.counter( "player-data.write-queue.spilled" );
+        shed         = metricsRegistry.counter( "player-data.write-queue.shed" );
+        written      = metricsRegistry.counter( "player-data.write-queue.written" );
+        failures     = metricsRegistry.counter( "player-data.save.failures" );
+        backpressure = metricsRegistry.latency( "player-data.write-queue.backpressure" );
+
+        metricsRegistry.gauge( "player-data.write-queue.depth", () -> depth );
+        metricsRegistry.gauge( "player-data.write-queue.journaled", () -> journaled );
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    public final void start()
+    {
+        writer = new Thread( this::run, "UniversalEnchant-Writer" );
+
+        writer.setDaemon( true );
+        writer.start();
+    }
+
+    /**
+     * Queues the latest data of a player to be written, replacing any write of the player still queued.
+     *
+     * @param playerData The data of the player, which must not be changed afterwards. Can't be null.
+     * @param priority   The priority of the write. Can't be null.
+     */
+    public final void submit( @NonNull final PlayerData playerData, @NonNull final WritePriority priority )
+    {
+        final UUID uniqueId = playerData.getUniqueId();
+
+        lock.lock();
+
+        try
+        {
+            while ( true )
+            {
+                final PendingWrite existing = pending.get( uniqueId );
+
+                if ( existing != null )
+                {
+                    existing.playerData = playerData;
+
+                    if ( priority == WritePriority.NORMAL )
+                    {
+                        existing.priority = WritePriority.NORMAL;
+                    }
+
+                    coalesced.increment();
+
+                    return;
+                }
+
+                if ( closed )
+                {
+                    spill( playerData );
+
+                    return;
+                }
+
+                if ( pending.size() < capacity )
+                {
+                    break;
+                }
+
+                if ( backpressurePolicy == BackpressurePolicy.SHED )
+                {
+                    if ( priority == WritePriority.LOW )
+                    {
+                        shed.increment();
+
+                        return;
+                    }
+
+                    // Makes room for the normal priority write by shedding the oldest low priority write.
+                    if ( shedLowPriority() )
+                    {
+                        break;
+                    }
+                }
+
+                if ( backpressurePolicy != BackpressurePolicy.BLOCK || mainThread.getAsBoolean() )
+                {
+                    spill( playerData );
+
+                    return;
+                }
+
+                final long start = System.nanoTime();
+
+                notFull.awaitUninterruptibly();
+                backpressure.recordSince( start );
+            }
+
+            enqueue( playerData, priority );
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the newest data of a player that hasn't been written to the database yet.
+     *
+     * @param uniqueId The unique id of the player. Can't be null.
+     *
+     * @return The data of the player or null if every write of the player has been written.
+     */
+    public final PlayerData getLatest( @NonNull final UUID uniqueId )
+    {
+        lock.lock();
+
+        try
+        {
+            final PendingWrite pendingWrite = pending.get( uniqueId );
+
+            if ( pendingWrite != null )
+            {
+                return pendingWrite.playerData;
+            }
+
+            // Journaled data is newer than data in flight, since it was spilled while the write was running.
+            final PlayerData journaledData = journal.find( uniqueId );
+
+            if ( journaledData != null )
+            {
+                return journaledData;
+            }
+
+            return inFlight != null && inFlight.getUniqueId().equals( uniqueId ) ? inFlight : null;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the amount of players with a queued write.
+     *
+     * @return The queue depth.
+     */
+    public final int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Stops accepting writes into the queue, waits for the writer thread to write everything still queued and
+     * spills whatever it couldn't write in time to the journal.
+     *
+     * @param timeout The maximum time to wait for the writer thread.
+     * @param unit    The unit of the timeout. Can't be null.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public final void close( final long timeout, @NonNull final TimeUnit unit )
+            throws InterruptedException
+    {
+        lock.lock();
+
+        try
+        {
+            closed = true;
+
+            notEmpty.signalAll();
+            notFull.signalAll();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        if ( writer != null )
+        {
+            writer.join( unit.toMillis( timeout ) );
+        }
+
+        lock.lock();
+
+        try
+        {
+            for ( final PendingWrite pendingWrite : pending.values() )
+            {
+                spill( pendingWrite.playerData );
+            }
+
+            pending.clear();
+            depth = 0;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        flushJournal();
+        flushLock.lock();
+
+        try
+        {
+            journal.close();
+        }
+        catch ( final IOException exception )
+        {
+            getLogger().log( Level.WARNING, "Unable to close the player data journal.", exception );
+        }
+        finally
+        {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes queued data until the queue is closed and empty. Runs on the writer thread.
+     */
+    private void run()
+    {
+        while ( true )
+        {
+            flushJournal();
+
+            if ( writeNext() )
+            {
+                continue;
+            }
+
+            lock.lock();
+
+            try
+            {
+                if ( closed && pending.isEmpty() )
+                {
+                    return;
+                }
+
+                // Changes spilled since the last flush are written right away rather than after waiting.
+                if ( pending.isEmpty() && !journal.hasUnwritten() )
+                {
+                    notEmpty.await( RETRY_NANOS, TimeUnit.NANOSECONDS );
+                }
+            }
+            catch ( final InterruptedException exception )
+            {
+                return;
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes the oldest queued write, first moving journaled writes back into the queue if it is empty.
+     *
+     * @return If a write was attempted.
+     */
+    final boolean writeNext()
+    {
+        final PlayerData playerData;
+
+        lock.lock();
+
+        try
+        {
+            if ( pending.isEmpty() )
+            {
+                refill();
+            }
+
+            final Iterator< PendingWrite > iterator = pending.values().iterator();
+
+            if ( !iterator.hasNext() )
+            {
+                return false;
+            }
+
+            playerData = iterator.next().playerData;
+            inFlight   = playerData;
+
+            iterator.remove();
+            depth = pending.size();
+            notFull.signal();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        IOException failure = null;
+
+        try
+        {
+            getStorage().save( playerData );
+            written.increment();
+        }
+        catch ( final IOException exception )
+        {
+            failure = exception;
+        }
+
+        lock.lock();
+
+        try
+        {
+            inFlight = null;
+
+            if ( failure == null )
+            {
+                // Journaled data drained into the queue is only dropped from the journal once it is saved.
+                journal.saved( playerData.getUniqueId() );
+
+                journaled = journal.size();
+            }
+            else
+            {
+                failures.increment();
+                nextRefill = System.nanoTime() + RETRY_NANOS;
+
+                getLogger().log( Level.SEVERE, "Unable to save the data of player " + playerData.getUniqueId() + ".",
+                                 failure );
+
+                // Newer data queued or spilled while the write was running supersedes the failed write.
+                if ( !pending.containsKey( playerData.getUniqueId() ) && !journal.contains(
+                        playerData.getUniqueId() ) )
+                {
+                    spill( playerData );
+                }
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        return true;
+    }
+
+    /**
+     * Writes the changes to the journal since the last flush to its file. Runs on the writer thread.
+     */
+    final void flushJournal()
+    {
+        flushLock.lock();
+
+        try
+        {
+            final PlayerDataJournal.Flush flush;
+
+            lock.lock();
+
+            try
+            {
+                flush = journal.takeFlush();
+            }
+            finally
+            {
+                lock.unlock();
+            }
+
+            if ( flush == null )
+            {
+                return;
+            }
+
+            try
+            {
+                journal.write( flush );
+            }
+            catch ( final IOException exception )
+            {
+                getLogger().log( Level.SEVERE, "Unable to write the player data journal.", exception );
+
+                lock.lock();
+
+                try
+                {
+                    journal.flushFailed();
+                }
+                finally
+                {
+                    lock.unlock();
+                }
+            }
+        }
+        finally
+        {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Moves journaled writes back into the empty queue, unless the queue is closed or a write failed recently.
+     */
+    private void refill()
+    {
+        if ( closed || journaled == 0 || System.nanoTime() - nextRefill < 0 )
+        {
+            return;
+        }
+
+        for ( final PlayerData playerData : journal.drain( capacity - pending.size() ) )
+        {
+            pending.put( playerData.getUniqueId(), new PendingWrite( playerData, WritePriority.NORMAL ) );
+        }
+
+        depth     = pending.size();
+        journaled = journal.size();
+    }
+
+    /**
+     * Adds a write for a player without a queued write, dropping any older journaled data of the player.
+     */
+    private void enqueue( @NonNull final PlayerData playerData, @NonNull final WritePriority priority )
+    {
+        journal.remove( playerData.getUniqueId() );
+        pending.put( playerData.getUniqueId(), new PendingWrite( playerData, priority ) );
+
+        depth     = pending.size();
+        journaled = journal.size();
+
+        notEmpty.signal();
+    }
+
+    /**
+     * Drops the oldest queued low priority write.
+     *
+     * @return If a write was dropped.
+     */
+    private boolean shedLowPriority()
+    {
+        final Iterator< Map.Entry< UUID, PendingWrite > > iterator = pending.entrySet().iterator();
+
+        while ( iterator.hasNext() )
+        {
+            final Map.Entry< UUID, PendingWrite > entry = iterator.next();
+
+            if ( entry.getValue().priority == WritePriority.LOW )
+            {
+                iterator.remove();
+                journal.release( entry.getKey() );
+                shed.increment();
+
+                depth = pending.size();
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Appends a write to the journal and wakes the writer thread to write it to the file.
+     */
+    private void spill( @NonNull final PlayerData playerData )
+    {
+        journal.append( playerData );
+        spilled.increment();
+
+        journaled = journal.size();
+
+        notEmpty.signal();
+    }
+
+    /**
+     * A queued write of one player.
+     */
+    private static final class PendingWrite
+    {
+
+        private PlayerData    playerData;
+        private WritePriority priority;
+
+        private PendingWrite( @NonNull final PlayerData playerData, @NonNull final WritePriority priority )
+        {
+            this.playerData = playerData;
+            this.priority   = priority;
+        }
+
+    }
+
+}
@@ -0,0 +1,466 @@
+package com.qhucy.universalenchant.player;
+
+import com.qhucy.universalenchant.account.Account;
+import com.qhucy.universalenchant.account.AccountStorage;
+import com.qhucy.universalenchant.jfr.DatabaseOperationEvent;
+import com.qhucy.universalenchant.statistics.RollupStorage;
+import com.qhucy.universalenchant.statistics.UsageRollup;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Player data storage backed by a JDBC database. The statements are portable between MySQL and SQLite, whose drivers
+ * are both bundled with Spigot.
+ * <p>
+ * Every database thread keeps its own connection. Validating a connection costs a round trip, so it is only validated
+ * after an operation on it failed or after it was idle for a while, and closed and re-opened if it is no longer
+ * valid. The balances are also imported and exported in bulk as an {@link AccountStorage}, and enchantment usage
+ * rollups are kept as a {@link RollupStorage}.
+ *
+ * @author Qhucy
+ */
+public final class SqlPlayerDataStorage
+        implements PlayerDataStorage, AccountStorage, RollupStorage
+{
+
+    private static final String CREATE_PLAYERS_TABLE      =
+            "CREATE TABLE IF NOT EXISTS ue_players (uuid CHAR(36) NOT NULL PRIMARY KEY, balance DOUBLE NOT NULL)";
+    private static final String CREATE_ENCHANTMENTS_TABLE =
+            "CREATE TABLE IF NOT EXISTS ue_player_enchantments (uuid CHAR(36) NOT NULL, enchantment VARCHAR(64) NOT "
+            + "NULL, level INT NOT NULL, PRIMARY KEY (uuid, enchantment))";
+    private static final String SELECT_PLAYER             = "SELECT balance FROM ue_players WHERE uuid = ?";
+    private static final String SELECT_ENCHANTMENTS       =
+            "SELECT enchantment, level FROM ue_player_enchantments WHERE uuid = ?";
+    private static final String REPLACE_PLAYER            = "REPLACE INTO ue_players (uuid, balance) VALUES (?, ?)";
+    private static final String DELETE_ENCHANTMENTS       = "DELETE FROM ue_player_enchantments WHERE uuid = ?";
+    private static final String INSERT_ENCHANTMENT        =
+            "INSERT INTO ue_player_enchantments (uuid, enchantment, level) VALUES (?, ?, ?)";
+    private static final String SELECT_ACCOUNTS           =
+            "SELECT uuid, balance FROM ue_players WHERE uuid > ? ORDER BY uuid LIMIT ?";
+    private static final String CREATE_ROLLUPS_TABLE      =
+            "CREATE TABLE IF NOT EXISTS ue_usage_rollups (started BIGINT NOT NULL, ended BIGINT NOT NULL, record TEXT "
+            + "NOT NULL)";
+    private static final String INSERT_ROLLUP             =
+            "INSERT INTO ue_usage_rollups (started, ended, record) VALUES (?, ?, ?)";
+
+    // How long a connection may be idle before it is validated again, since databases close idle connections.
+    private static final long IDLE_NANOS = TimeUnit.SECONDS.toNanos( 30L );
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    // The connection of every database thread.
+    private final ThreadLocal< ThreadConnection > connection  = new ThreadLocal<>();
+    // Every open connection, so they can all be closed on shutdown.
+    private final List< Connection >              connections = new ArrayList<>();
+
+    /**
+     * Creates a storage for a JDBC database and creates its tables if they don't exist.
+     *
+     * @param url      The JDBC url of the database. Can't be null.
+     * @param user     The user to connect as. Can be null.
+     * @param password The password of the user. Can be null.
+     *
+     * @throws IOException If unable to connect to the database or create the tables.
+     */
+    public SqlPlayerDataStorage( @NonNull final String url, final String user, final String password )
+            throws IOException
+    {
+        this.url      = url;
+        this.user     = user;
+        this.password = password;
+
+        try ( final Statement statement = getConnection().createStatement() )
+        {
+            statement.executeUpdate( CREATE_PLAYERS_TABLE );
+            statement.executeUpdate( CREATE_ENCHANTMENTS_TABLE );
+            statement.executeUpdate( CREATE_ROLLUPS_TABLE );
+        }
+        catch ( final SQLException exception )
+        {
+            throw new IOException( "Unable to create the player data tables.", exception );
+        }
+    }
+
+    /**
+     * Returns the connection of the current thread, opening it if it isn't open and replacing it if it failed or was
+     * idle and is no longer valid.
+     *
+     * @return The connection of the current thread.
+     *
+     * @throws SQLException If unable to connect to the database.
+     */
+    private Connection getConnection()
+            throws SQLException
+    {
+        ThreadConnection current = connection.get();
+
+        if ( current != null && ( current.failed || System.nanoTime() - current.lastUsed > IDLE_NANOS )
+             && !current.connection.isValid( 1 ) )
+        {
+            discard( current );
+
+            current = null;
+        }
+
+        if ( current == null )
+        {
+            current = new ThreadConnection( DriverManager.getConnection( url, user, password ) );
+
+            connection.set( current );
+
+            synchronized ( connections )
+            {
+                connections.add( current.connection );
+            }
+        }
+
+        return current.connection;
+    }
+
+    /**
+     * Records the outcome of an operation on the connection of the current thread, so it is validated before its next
+     * use if the operation failed.
+     */
+    private void release( final boolean succeeded )
+    {
+        final ThreadConnection current = connection.get();
+
+        if ( current != null )
+        {
+            current.lastUsed = System.nanoTime();
+            current.failed   = !succeeded;
+        }
+    }
+
+    /**
+     * Closes a connection that is no longer valid and forgets it.
+     */
+    private void discard( @NonNull final ThreadConnection stale )
+    {
+        connection.remove();
+
+        synchronized ( connections )
+        {
+            connections.remove( stale.connection );
+        }
+
+        try
+        {
+            stale.connection.close();
+        }
+        catch ( final SQLException ignored )
+        {
+            // The connection is being discarded either way.
+        }
+    }
+
+    @Override
+    public final PlayerData load( @NonNull final UUID uniqueId )
+            throws IOException
+    {
+        final DatabaseOperationEvent event     = new DatabaseOperationEvent();
+        boolean                      succeeded = false;
+
+        event.begin();
+
+        try
+        {
+            final Connection connection = getConnection();
+            double           balance    = 0.0;
+
+            try ( final PreparedStatement statement = connection.prepareStatement( SELECT_PLAYER ) )
+            {
+                statement.setString( 1, uniqueId.toString() );
+
+                try ( final ResultSet resultSet = statement.executeQuery() )
+                {
+                    if ( resultSet.next() )
+                    {
+                        balance = resultSet.getDouble( 1 );
+                    }
+                }
+            }
+
+            final Map< String, Integer > enchantmentLevels = new HashMap<>();
+
+            try ( final PreparedStatement statement = connection.prepareStatement( SELECT_ENCHANTMENTS ) )
+            {
+                statement.setString( 1, uniqueId.toString() );
+
+                try ( final ResultSet resultSet = statement.executeQuery() )
+                {
+                    while ( resultSet.next() )
+                    {
+                        enchantmentLevels.put( resultSet.getString( 1 ), resultSet.getInt( 2 ) );
+                    }
+                }
+            }
+
+            succeeded = true;
+
+            return new PlayerData( uniqueId, balance, enchantmentLevels );
+        }
+        catch ( final SQLException exception )
+        {
+            throw new IOException( "Unable to load the data of player " + uniqueId + ".", exception );
+        }
+        finally
+        {
+            release( succeeded );
+            event.record( "load", uniqueId, succeeded );
+        }
+    }
+
+    @Override
+    public final void save( @NonNull final PlayerData playerData )
+            throws IOException
+    {
+        final PlayerData             snapshot  = playerData.copy();
+        final String                 uniqueId  = snapshot.getUniqueId().toString();
+        final DatabaseOperationEvent event     = new DatabaseOperationEvent();
+        boolean                      succeeded = false;
+
+        event.begin();
+
+        try
+        {
+            final Connection connection = getConnection();
+
+            connection.setAutoCommit( false );
+
+            try
+            {
+                try ( final PreparedStatement statement = connection.prepareStatement( REPLACE_PLAYER ) )
+                {
+                    statement.setString( 1, uniqueId );
+                    statement.setDouble( 2, snapshot.getBalance() );
+                    statement.executeUpdate();
+                }
+
+                try ( final PreparedStatement statement = connection.prepareStatement( DELETE_ENCHANTMENTS ) )
+                {
+                    statement.setString( 1, uniqueId );
+                    statement.executeUpdate();
+                }
+
+                try ( final PreparedStatement statement = connection.prepareStatement( INSERT_ENCHANTMENT ) )
+                {
+                    for ( final Map.Entry< String, Integer > entry : snapshot.getEnchantmentLevels().entrySet() )
+                    {
+                        statement.setString( 1, uniqueId );
+                        statement.setString( 2, entry.getKey() );
+                        statement.setInt( 3, entry.getValue() );
+                        statement.addBatch();
+                    }
+
+                    statement.executeBatch();
+                }
+
+                connection.commit();
+
+                succeeded = true;
+            }
+            catch ( final SQLException exception )
+            {
+                connection.rollback();
+
+                throw exception;
+            }
+            finally
+            {
+                connection.setAutoCommit( true );
+            }
+        }
+        catch ( final SQLException exception )
+        {
+            throw new IOException( "Unable to save the data of player " + uniqueId + ".", exception );
+        }
+        finally
+        {
+            release( succeeded );
+            event.record( "save", snapshot.getUniqueId(), succeeded );
+        }
+    }
+
+    @Override
+    public final void saveAccounts( @NonNull final List< Account > accounts )
+            throws IOException
+    {
+        if ( accounts.isEmpty() )
+        {
+            return;
+        }
+
+        final DatabaseOperationEvent event     = new DatabaseOperationEvent();
+        boolean                      succeeded = false;
+
+        event.begin();
+
+        try
+        {
+            final Connection connection = getConnection();
+
+            connection.setAutoCommit( false );
+
+            // Only the balances are replaced, so the enchantments of existing players are kept.
+            try ( final PreparedStatement statement = connection.prepareStatement( REPLACE_PLAYER ) )
+            {
+                for ( final Account account : accounts )
+                {
+                    statement.setString( 1, account.getUniqueId().toString() );
+                    statement.setDouble( 2, account.getBalance() );
+                    statement.addBatch();
+                }
+
+                statement.executeBatch();
+                connection.commit();
+
+                succeeded = true;
+            }
+            catch ( final SQLException exception )
+            {
+                connection.rollback();
+
+                throw exception;
+            }
+            finally
+            {
+                connection.setAutoCommit( true );
+            }
+        }
+        catch ( final SQLException exception )
+        {
+            throw new IOException( "Unable to save a batch of " + accounts.size() + " accounts.", exception );
+        }
+        finally
+        {
+            release( succeeded );
+            event.record( "save-accounts", null, succeeded );
+        }
+    }
+
+    @Override
+    public final List< Account > loadAccounts( final UUID after, final int limit )
+            throws IOException
+    {
+        final DatabaseOperationEvent event     = new DatabaseOperationEvent();
+        final List< Account >        accounts  = new ArrayList<>( limit );
+        boolean                      succeeded = false;
+
+        event.begin();
+
+        try ( final PreparedStatement statement = getConnection().prepareStatement( SELECT_ACCOUNTS ) )
+        {
+            // Every unique id sorts after the empty string.
+            statement.setString( 1, after == null ? "" : after.toString() );
+            statement.setInt( 2, limit );
+
+            try ( final ResultSet resultSet = statement.executeQuery() )
+            {
+                while ( resultSet.next() )
+                {
+                    accounts.add( new Account( UUID.fromString( resultSet.getString( 1 ) ),
+                                               resultSet.getDouble( 2 ) ) );
+                }
+            }
+
+            succeeded = true;
+
+            return accounts;
+        }
+        catch ( final SQLException | IllegalArgumentException exception )
+        {
+            throw new IOException( "Unable to load the accounts after " + after + ".", exception );
+        }
+        finally
+        {
+            release( succeeded );
+            event.record( "load-accounts", null, succeeded );
+        }
+    }
+
+    @Override
+    public final void saveRollup( @NonNull final UsageRollup rollup )
+            throws IOException
+    {
+        final DatabaseOperationEvent event     = new DatabaseOperationEvent();
+        boolean                      succeeded = false;
+
+        event.begin();
+
+        try ( final PreparedStatement statement = getConnection().prepareStatement( INSERT_ROLLUP ) )
+        {
+            statement.setLong( 1, rollup.getStart() );
+            statement.setLong( 2, rollup.getEnd() );
+            statement.setString( 3, rollup.toJson() );
+            statement.executeUpdate();
+
+            succeeded = true;
+        }
+        catch ( final SQLException exception )
+        {
+            throw new IOException( "Unable to save the usage rollup ending at " + rollup.getEnd() + ".", exception );
+        }
+        finally
+        {
+            release( succeeded );
+            event.record( "save-rollup", null, succeeded );
+        }
+    }
+
+    @Override
+    public final void close()
+    {
+        synchronized ( connections )
+        {
+            for ( final Connection opened : connections )
+            {
+                try
+                {
+                    opened.close();
+                }
+                catch ( final SQLException ignored )
+                {
+                    // The connection is being discarded either way.
+                }
+            }
+
+            connections.clear();
+        }
+    }
+
+    /**
+     * The connection of a database thread.
+     */
+    private static final class ThreadConnection
+    {
+
+        private final Connection connection;
+        // The time the connection was last used at in nanoseconds.
+        private long             lastUsed = System.nanoTime();
+        // If the last operation on the connection failed, which may have been caused by the connection.
+        private boolean          failed;
+
+        private ThreadConnection( @NonNull final Connection connection )
+        {
+            this.connection = connection;
+        }
+
+    }
+
+}
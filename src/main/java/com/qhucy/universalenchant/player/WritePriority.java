@@ -0,0 +1,16 @@
+package com.qhucy.universalenchant.player;
+
+/**
+ * Enumeration of the priorities of writes to the {@link PlayerDataWriteQueue}.
+ *
+ * @author Qhucy
+ */
+public enum WritePriority
+{
+
+    // Writes that must never be lost, such as the save of a quitting player.
+    NORMAL,
+    // Writes that a later write supersedes anyway, such as periodic autosaves, which may be shed under backpressure.
+    LOW
+
+}
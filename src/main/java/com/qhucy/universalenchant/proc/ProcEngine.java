@@ -0,0 +1,142 @@
+package com.qhucy.universalenchant.proc;
+
+import com.qhucy.universalenchant.enchant.EnchantmentRegistry;
+import com.qhucy.universalenchant.enchant.ProcTable;
+import com.qhucy.universalenchant.jfr.ProcEvent;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.SplittableRandom;
+
+/**
+ * Class that decides if enchantments proc, using a splittable random generator per thread and the proc thresholds
+ * precomputed in the {@link ProcTable}.
+ * <p>
+ * A proc check is one random integer and one compare, and threads never contend on a shared generator. When seeded,
+ * every thread's generator is split from the seed in the order threads first roll, so the rolls of a single thread
+ * (such as the main server thread) are reproducible for debugging and balancing tests.
+ *
+ * @author Qhucy
+ */
+public final class ProcEngine
+{
+
+    @Getter( AccessLevel.PRIVATE )
+    private final EnchantmentRegistry enchantmentRegistry;
+
+    // The generator every thread's generator is split from.
+    private SplittableRandom rootRandom;
+    // Incremented whenever the root generator is replaced, so threads re-split their generators.
+    private volatile int     generation;
+
+    // The generator of each thread, along with the generation it was split from.
+    private final ThreadLocal< ThreadRandom > threadRandom = ThreadLocal.withInitial( ThreadRandom::new );
+
+    /**
+     * Creates a proc engine seeded from the system.
+     *
+     * @param enchantmentRegistry The registry holding the proc table. Can't be null.
+     */
+    public ProcEngine( @NonNull final EnchantmentRegistry enchantmentRegistry )
+    {
+        this.enchantmentRegistry = enchantmentRegistry;
+        this.rootRandom          = new SplittableRandom();
+    }
+
+    /**
+     * Creates a deterministic proc engine.
+     *
+     * @param enchantmentRegistry The registry holding the proc table. Can't be null.
+     * @param seed                The seed of the root generator.
+     */
+    public ProcEngine( @NonNull final EnchantmentRegistry enchantmentRegistry, final long seed )
+    {
+        this.enchantmentRegistry = enchantmentRegistry;
+        this.rootRandom          = new SplittableRandom( seed );
+    }
+
+    /**
+     * Replaces the root generator with a seeded one. Every thread re-splits its generator on its next roll.
+     *
+     * @param seed The seed of the root generator.
+     */
+    public final synchronized void reseed( final long seed )
+    {
+        rootRandom = new SplittableRandom( seed );
+        generation++;
+    }
+
+    /**
+     * Returns if an enchantment procs.
+     *
+     * @param id    The id of the enchantment.
+     * @param level The level of the enchantment.
+     *
+     * @return If the enchantment procs.
+     */
+    public final boolean roll( final int id, final int level )
+    {
+        final ProcEvent event = new ProcEvent();
+
+        event.begin();
+
+        final boolean procced = roll( getEnchantmentRegistry().getProcTable().getThreshold( id, level ) );
+
+        event.record( id, level, procced );
+
+        return procced;
+    }
+
+    /**
+     * Returns if a proc with a precomputed threshold happens.
+     *
+     * @param threshold The threshold from {@link ProcTable#thresholdOf(double)}.
+     *
+     * @return If the proc happens.
+     */
+    public final boolean roll( final long threshold )
+    {
+        return ( nextInt() & 0xFFFFFFFFL ) < threshold;
+    }
+
+    /**
+     * Returns a uniformly random integer from the current thread's generator.
+     *
+     * @return A random integer.
+     */
+    public final int nextInt()
+    {
+        final ThreadRandom random = threadRandom.get();
+
+        if ( random.generation != generation || random.random == null )
+        {
+            split( random );
+        }
+
+        return random.random.nextInt();
+    }
+
+    /**
+     * Splits a new generator for a thread from the root generator.
+     *
+     * @param random The thread's generator holder. Can't be null.
+     */
+    private synchronized void split( @NonNull final ThreadRandom random )
+    {
+        random.random     = rootRandom.split();
+        random.generation = generation;
+    }
+
+    /**
+     * The generator of one thread.
+     */
+    private static final class ThreadRandom
+    {
+
+        private SplittableRandom random;
+        private int              generation;
+
+    }
+
+}
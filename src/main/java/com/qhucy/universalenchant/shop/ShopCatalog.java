@@ -0,0 +1,134 @@
+package com.qhucy.universalenchant.shop;
+
+import com.qhucy.universalenchant.enchant.CustomEnchantment;
+import com.qhucy.universalenchant.expression.LevelFormula;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Class for the immutable list of every offer in the shop, split into pages.
+ * <p>
+ * Every enchantment with a {@value #PRICE_FORMULA} formula is sold, in config order. Pages are rendered per locale, but
+ * only locales that an enchantment has a name in render differently, so every other locale shares the default pages.
+ *
+ * @author Qhucy
+ * @see ShopService
+ */
+public final class ShopCatalog
+{
+
+    // The formula of the price of every level of an enchantment.
+    public static final String PRICE_FORMULA = "price";
+
+    // The locale of pages for locales without localized names.
+    public static final String DEFAULT_LOCALE = "";
+
+    private final List< ShopOffer > offers;
+    // The amount of offers per page.
+    @Getter
+    private final int               pageSize;
+    // Every lower case locale an offered enchantment has a name in.
+    private final Set< String >     locales = new HashSet<>();
+
+    /**
+     * Creates the catalog of a list of enchantments.
+     *
+     * @param enchantments The enchantments, in the order they are offered. Can't be null.
+     * @param pageSize     The amount of offers per page, at least 1.
+     */
+    public ShopCatalog( @NonNull final List< CustomEnchantment > enchantments, final int pageSize )
+    {
+        if ( pageSize < 1 )
+        {
+            throw new IllegalArgumentException( "The page size must be at least 1." );
+        }
+
+        final List< ShopOffer > offers = new ArrayList<>();
+
+        for ( final CustomEnchantment enchantment : enchantments )
+        {
+            final LevelFormula price = enchantment.getFormula( PRICE_FORMULA );
+
+            if ( price == null )
+            {
+                continue;
+            }
+
+            offers.add( new ShopOffer( enchantment, price ) );
+
+            for ( final String locale : enchantment.getLocalizedNames().keySet() )
+            {
+                locales.add( locale.toLowerCase( Locale.ROOT ) );
+            }
+        }
+
+        this.offers   = Collections.unmodifiableList( offers );
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Returns the amount of offers.
+     *
+     * @return The amount of offers.
+     */
+    public final int size()
+    {
+        return offers.size();
+    }
+
+    /**
+     * Returns the amount of pages, at least 1 so an empty shop still opens.
+     *
+     * @return The amount of pages.
+     */
+    public final int getPageCount()
+    {
+        return Math.max( 1, ( offers.size() + pageSize - 1 ) / pageSize );
+    }
+
+    /**
+     * Returns the offers on a page.
+     *
+     * @param page The index of the page, from 0 to the amount of pages.
+     *
+     * @return The offers on the page, in slot order. Can't be modified.
+     */
+    public final List< ShopOffer > getOffers( final int page )
+    {
+        if ( page < 0 || page >= getPageCount() )
+        {
+            throw new IndexOutOfBoundsException( "Page " + page + " of " + getPageCount() + "." );
+        }
+
+        final int start = page * pageSize;
+
+        return offers.subList( Math.min( start, offers.size() ), Math.min( start + pageSize, offers.size() ) );
+    }
+
+    /**
+     * Returns the locale the pages of a viewer are rendered in.
+     *
+     * @param locale The locale of the viewer. Can be null.
+     *
+     * @return The lower case locale if an offered enchantment has a name in it, {@link #DEFAULT_LOCALE} otherwise.
+     */
+    public final String resolveLocale( final String locale )
+    {
+        if ( locale == null )
+        {
+            return DEFAULT_LOCALE;
+        }
+
+        final String lowerCase = locale.toLowerCase( Locale.ROOT );
+
+        return locales.contains( lowerCase ) ? lowerCase : DEFAULT_LOCALE;
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.qhucy.universalenchant.shop;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.inventory.InventoryHolder;
+
+/**
+ * Listener that passes clicks in shop views to the {@link ShopService} and keeps items from being taken out of them.
+ *
+ * @author Qhucy
+ */
+public final class ShopListener
+        implements Listener
+{
+
+    @Getter( AccessLevel.PRIVATE )
+    private final ShopService shopService;
+
+    /**
+     * Creates a listener for a shop.
+     *
+     * @param shopService The shop. Can't be null.
+     */
+    public ShopListener( @NonNull final ShopService shopService )
+    {
+        this.shopService = shopService;
+    }
+
+    @EventHandler( priority = EventPriority.LOW )
+    public final void onInventoryClick( @NonNull final InventoryClickEvent event )
+    {
+        final InventoryHolder holder = event.getInventory().getHolder();
+
+        if ( !( holder instanceof ShopView ) )
+        {
+            return;
+        }
+
+        // Cancelled for clicks in the bottom inventory too, so shift clicks can't move items into the shop.
+        event.setCancelled( true );
+
+        if ( event.getWhoClicked() instanceof Player && event.getRawSlot() >= 0
+             && event.getRawSlot() < event.getInventory().getSize() )
+        {
+            getShopService().click( ( Player ) event.getWhoClicked(), ( ShopView ) holder, event.getRawSlot() );
+        }
+    }
+
+    @EventHandler( priority = EventPriority.LOW )
+    public final void onInventoryDrag( @NonNull final InventoryDragEvent event )
+    {
+        if ( event.getInventory().getHolder() instanceof ShopView )
+        {
+            event.setCancelled( true );
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.qhucy.universalenchant.shop;
+
+import com.qhucy.universalenchant.enchant.CustomEnchantment;
+import com.qhucy.universalenchant.expression.LevelFormula;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Class for an enchantment sold in the shop, along with the price of every level.
+ * <p>
+ * What a viewer sees of an offer only depends on the next level they can buy and if they can afford it, so it is packed
+ * into a small state. Every state of an offer is rendered once and shared by every viewer in that state.
+ *
+ * @author Qhucy
+ */
+public final class ShopOffer
+{
+
+    // The state of an offer whose highest level is already owned.
+    public static final int MAXED = 0;
+
+    @Getter
+    private final CustomEnchantment enchantment;
+    // The price of every level, indexed by level. Index 0 is unused.
+    private final double[]          prices;
+
+    /**
+     * Creates an offer.
+     *
+     * @param enchantment The enchantment sold. Can't be null.
+     * @param price       The price formula of the enchantment, which only depends on the level. Can't be null.
+     */
+    ShopOffer( @NonNull final CustomEnchantment enchantment, @NonNull final LevelFormula price )
+    {
+        this.enchantment = enchantment;
+        this.prices      = new double[ enchantment.getMaxLevel() + 1 ];
+
+        for ( int level = 1; level < prices.length; level++ )
+        {
+            prices[ level ] = Math.max( 0.0, price.evaluate( level ) );
+        }
+    }
+
+    /**
+     * Returns the price of a level.
+     *
+     * @param level The level, from 1 to the max level of the enchantment.
+     *
+     * @return The price of the level.
+     */
+    public final double getPrice( final int level )
+    {
+        return prices[ level ];
+    }
+
+    /**
+     * Returns the state of the offer for a viewer.
+     *
+     * @param ownedLevel The level of the enchantment the viewer owns, 0 if none.
+     * @param balance    The balance of the viewer.
+     *
+     * @return {@link #MAXED} if the viewer owns the highest level, or the next level and if the viewer can afford it.
+     */
+    public final int getState( final int ownedLevel, final double balance )
+    {
+        final int nextLevel = Math.max( 1, ownedLevel + 1 );
+
+        if ( nextLevel >= prices.length )
+        {
+            return MAXED;
+        }
+
+        return nextLevel << 1 | ( balance >= prices[ nextLevel ] ? 1 : 0 );
+    }
+
+    /**
+     * Returns the amount of states of the offer, which every state is below.
+     *
+     * @return The amount of states.
+     */
+    public final int getStateCount()
+    {
+        return prices.length << 1;
+    }
+
+    /**
+     * Returns the next level of a state.
+     *
+     * @param state The state, other than {@link #MAXED}.
+     *
+     * @return The next level the viewer can buy.
+     */
+    public static int getLevel( final int state )
+    {
+        return state >>> 1;
+    }
+
+    /**
+     * Returns if a state can be bought.
+     *
+     * @param state The state.
+     *
+     * @return If the viewer can afford the next level.
+     */
+    public static boolean isAffordable( final int state )
+    {
+        return ( state & 1 ) == 1;
+    }
+
+}
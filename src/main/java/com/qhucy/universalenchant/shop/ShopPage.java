@@ -0,0 +1,176 @@
+package com.qhucy.universalenchant.shop;
+
+import com.qhucy.universalenchant.metrics.Counter;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.List;
+
+/**
+ * Class for a shop page rendered in one locale and shared by every viewer in that locale.
+ * <p>
+ * The page holds the items every viewer sees, such as the navigation, and renders every state of its offers the first
+ * time a viewer is in that state. Views only pick the rendered items that match their viewer, so opening a page never
+ * renders text. Inventories copy the items they are given, so the rendered items are never modified.
+ *
+ * @author Qhucy
+ * @see ShopView
+ */
+final class ShopPage
+{
+
+    @Getter
+    private final int               index;
+    @Getter
+    private final String            title;
+    @Getter( AccessLevel.PRIVATE )
+    private final ShopRenderer      renderer;
+    private final String            locale;
+    @Getter
+    private final List< ShopOffer > offers;
+    // The items every viewer sees, by slot.
+    private final ItemStack[]       contents;
+    // The rendered items of every offer by state. States that weren't needed yet are null.
+    private final ItemStack[][]     states;
+    @Getter
+    private final int               balanceSlot;
+    private final Counter           rendered;
+
+    /**
+     * Renders a page.
+     *
+     * @param renderer The renderer of the page's texts. Can't be null.
+     * @param catalog  The catalog of the shop. Can't be null.
+     * @param locale   The locale of the page. Can't be null.
+     * @param index    The index of the page.
+     * @param rendered Counts every rendered offer state. Can't be null.
+     */
+    ShopPage( @NonNull final ShopRenderer renderer, @NonNull final ShopCatalog catalog, @NonNull final String locale,
+              final int index, @NonNull final Counter rendered )
+    {
+        this.index       = index;
+        this.title       = renderer.renderTitle( index, catalog.getPageCount() );
+        this.renderer    = renderer;
+        this.locale      = locale;
+        this.offers      = catalog.getOffers( index );
+        this.contents    = new ItemStack[ catalog.getPageSize() + 9 ];
+        this.states      = new ItemStack[ offers.size() ][];
+        this.balanceSlot = catalog.getPageSize() + 4;
+        this.rendered    = rendered;
+
+        for ( int offer = 0; offer < offers.size(); offer++ )
+        {
+            states[ offer ] = new ItemStack[ offers.get( offer ).getStateCount() ];
+        }
+
+        if ( hasPrevious() )
+        {
+            contents[ getPreviousSlot() ] = renderer.renderNavigation( false );
+        }
+
+        if ( index < catalog.getPageCount() - 1 )
+        {
+            contents[ getNextSlot() ] = renderer.renderNavigation( true );
+        }
+    }
+
+    /**
+     * Returns the items every viewer sees, by slot. The array must not be modified.
+     *
+     * @return The shared contents of the page.
+     */
+    final ItemStack[] getContents()
+    {
+        return contents;
+    }
+
+    /**
+     * Returns the size of the inventory of the page.
+     *
+     * @return The amount of slots.
+     */
+    final int size()
+    {
+        return contents.length;
+    }
+
+    /**
+     * Returns the item of an offer in a state, rendering it if no viewer was in the state before.
+     *
+     * @param offer The index of the offer on the page, which is also its slot.
+     * @param state The state of the offer.
+     *
+     * @return The item of the offer. Must not be modified.
+     */
+    final ItemStack getItem( final int offer, final int state )
+    {
+        ItemStack itemStack = states[ offer ][ state ];
+
+        if ( itemStack == null )
+        {
+            itemStack = getRenderer().renderOffer( offers.get( offer ), locale, state );
+
+            states[ offer ][ state ] = itemStack;
+            rendered.increment();
+        }
+
+        return itemStack;
+    }
+
+    /**
+     * Returns the text of the balance item, whose placeholders are rendered per viewer.
+     *
+     * @return The text of the balance item.
+     */
+    final String getBalanceTemplate()
+    {
+        return getRenderer().getBalanceTemplate();
+    }
+
+    /**
+     * Renders the item showing the balance of a viewer, the only item rendered per viewer.
+     *
+     * @param text The text of the balance item rendered for the viewer. Can't be null.
+     *
+     * @return The balance item.
+     */
+    final ItemStack renderBalance( @NonNull final String text )
+    {
+        return getRenderer().renderBalance( text );
+    }
+
+    /**
+     * Returns if the page has a previous page.
+     *
+     * @return If the page isn't the first page.
+     */
+    final boolean hasPrevious()
+    {
+        return index > 0;
+    }
+
+    /**
+     * Returns if a slot holds an item that opens another page.
+     *
+     * @param slot The slot.
+     *
+     * @return If the slot opens the previous or next page.
+     */
+    final boolean isNavigation( final int slot )
+    {
+        return ( slot == getPreviousSlot() || slot == getNextSlot() ) && contents[ slot ] != null;
+    }
+
+    final int getPreviousSlot()
+    {
+        return contents.length - 9;
+    }
+
+    final int getNextSlot()
+    {
+        return contents.length - 1;
+    }
+
+}
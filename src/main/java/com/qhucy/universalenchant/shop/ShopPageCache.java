@@ -0,0 +1,97 @@
+package com.qhucy.universalenchant.shop;
+
+import com.qhucy.universalenchant.metrics.Counter;
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Class that renders every page of the shop once per locale and shares it between every viewer.
+ * <p>
+ * Pages are rendered the first time a viewer in their locale opens them and kept until {@link #invalidate(int)}, which
+ * is only called when the config is reloaded or prices change. Every invalidation increases the version, so views of
+ * pages rendered before it can tell they are outdated.
+ * <p>
+ * The cache is not thread safe and is meant to be used from the main server thread.
+ *
+ * @param <P> The type of the rendered pages.
+ *
+ * @author Qhucy
+ */
+public final class ShopPageCache< P >
+{
+
+    // Renders a page from its locale and index.
+    private final BiFunction< String, Integer, P > renderer;
+
+    // The rendered pages of every locale, indexed by page. Pages that weren't opened yet are null.
+    private final Map< String, Object[] > pages = new HashMap<>();
+    private int                           pageCount;
+    // Increased by every invalidation.
+    @Getter
+    private long                          version;
+
+    private final Counter rendered;
+
+    /**
+     * Creates an empty page cache and registers its metrics.
+     *
+     * @param renderer        Renders a page from its locale and index. Can't be null.
+     * @param pageCount       The amount of pages.
+     * @param metricsRegistry The registry to register the cache's metrics in. Can't be null.
+     */
+    public ShopPageCache( @NonNull final BiFunction< String, Integer, P > renderer, final int pageCount,
+                          @NonNull final MetricsRegistry metricsRegistry )
+    {
+        this.renderer  = renderer;
+        this.pageCount = pageCount;
+
+        rendered = metricsRegistry.counter( "shop.pages.rendered" );
+    }
+
+    /**
+     * Returns a page, rendering it if it wasn't rendered in its locale since the last invalidation.
+     *
+     * @param locale The locale of the page. Can't be null.
+     * @param page   The index of the page, from 0 to the amount of pages.
+     *
+     * @return The rendered page.
+     */
+    @SuppressWarnings( "unchecked" )
+    public final P get( @NonNull final String locale, final int page )
+    {
+        if ( page < 0 || page >= pageCount )
+        {
+            throw new IndexOutOfBoundsException( "Page " + page + " of " + pageCount + "." );
+        }
+
+        final Object[] localePages = pages.computeIfAbsent( locale, key -> new Object[ pageCount ] );
+
+        if ( localePages[ page ] == null )
+        {
+            localePages[ page ] = renderer.apply( locale, page );
+
+            rendered.increment();
+        }
+
+        return ( P ) localePages[ page ];
+    }
+
+    /**
+     * Discards every rendered page, so pages are rendered again the next time they are opened.
+     *
+     * @param pageCount The new amount of pages.
+     */
+    public final void invalidate( final int pageCount )
+    {
+        pages.clear();
+
+        this.pageCount = pageCount;
+        version++;
+    }
+
+}
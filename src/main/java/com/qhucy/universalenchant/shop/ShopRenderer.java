@@ -0,0 +1,227 @@
+package com.qhucy.universalenchant.shop;
+
+import com.qhucy.universalenchant.broadcast.BroadcastMessage;
+import com.qhucy.universalenchant.config.Config;
+import com.qhucy.universalenchant.enchant.CustomEnchantment;
+import com.qhucy.universalenchant.util.MessageManager;
+import lombok.NonNull;
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Class that renders the items and titles of shop pages from the texts in config.
+ *
+ * @author Qhucy
+ * @see ShopPage
+ */
+public final class ShopRenderer
+{
+
+    private final Material         material;
+    private final String           title;
+    private final List< String >   lore;
+    private final String           affordable;
+    private final String           unaffordable;
+    private final String           maxed;
+    private final String           balance;
+    private final String           previousPage;
+    private final String           nextPage;
+    private final String           purchased;
+    // Broadcast when a player buys an enchantment, or null to not broadcast purchases.
+    private final BroadcastMessage purchaseBroadcast;
+
+    /**
+     * Creates a renderer from the shop texts in config.
+     *
+     * @param config The loaded config. Can't be null.
+     */
+    public ShopRenderer( @NonNull final Config config )
+    {
+        this.material          = config.getShopMaterial();
+        this.title             = config.getShopTitle();
+        this.lore              = config.getShopLore();
+        this.affordable        = config.getShopAffordable();
+        this.unaffordable      = config.getShopUnaffordable();
+        this.maxed             = config.getShopMaxed();
+        this.balance           = config.getShopBalance();
+        this.previousPage      = config.getShopPreviousPage();
+        this.nextPage          = config.getShopNextPage();
+        this.purchased         = config.getShopPurchased();
+        this.purchaseBroadcast = config.getShopPurchaseBroadcast();
+    }
+
+    /**
+     * Renders the title of a page.
+     *
+     * @param page  The index of the page.
+     * @param pages The amount of pages.
+     *
+     * @return The title of the page.
+     */
+    final String renderTitle( final int page, final int pages )
+    {
+        return MessageManager.replaceVariables( title, new String[] {
+                "%page%", Integer.toString( page + 1 ), "%pages%", Integer.toString( pages )
+        } );
+    }
+
+    /**
+     * Renders an offer in one of its states.
+     *
+     * @param offer  The offer. Can't be null.
+     * @param locale The locale of the page. Can't be null.
+     * @param state  The state of the offer.
+     *
+     * @return The item of the offer in the state.
+     */
+    final ItemStack renderOffer( @NonNull final ShopOffer offer, @NonNull final String locale, final int state )
+    {
+        final CustomEnchantment enchantment = offer.getEnchantment();
+        final int               level       = state == ShopOffer.MAXED ? enchantment.getMaxLevel()
+                                                                        : ShopOffer.getLevel( state );
+        final String[]          variables   = {
+                "%level%", Integer.toString( level ), "%max-level%", Integer.toString( enchantment.getMaxLevel() ),
+                "%price%", formatAmount( offer.getPrice( level ) )
+        };
+        final List< String >    lines       = new ArrayList<>( lore.size() + 1 );
+
+        for ( final String line : lore )
+        {
+            lines.add( MessageManager.replaceVariables( line, variables ) );
+        }
+
+        if ( state == ShopOffer.MAXED )
+        {
+            lines.add( maxed );
+        }
+        else
+        {
+            lines.add( MessageManager.replaceVariables( ShopOffer.isAffordable( state ) ? affordable : unaffordable,
+                                                        variables ) );
+        }
+
+        return createItem( material, getName( enchantment, locale ), lines );
+    }
+
+    /**
+     * Returns the text of the balance item, whose placeholders such as %balance% are rendered per viewer.
+     *
+     * @return The text of the balance item.
+     */
+    final String getBalanceTemplate()
+    {
+        return balance;
+    }
+
+    /**
+     * Renders the item showing the balance of a viewer.
+     *
+     * @param text The text of the balance item rendered for the viewer. Can't be null.
+     *
+     * @return The balance item.
+     */
+    final ItemStack renderBalance( @NonNull final String text )
+    {
+        return createItem( Material.SUNFLOWER, text, Collections.emptyList() );
+    }
+
+    /**
+     * Renders the item that opens the previous or next page.
+     *
+     * @param next If the item opens the next page rather than the previous one.
+     *
+     * @return The navigation item.
+     */
+    final ItemStack renderNavigation( final boolean next )
+    {
+        return createItem( Material.ARROW, next ? nextPage : previousPage, Collections.emptyList() );
+    }
+
+    /**
+     * Renders the message sent to a player who bought an enchantment.
+     *
+     * @param enchantment The bought enchantment. Can't be null.
+     * @param level       The bought level.
+     * @param price       The price paid.
+     *
+     * @return The message.
+     */
+    final String renderPurchased( @NonNull final CustomEnchantment enchantment, final int level, final double price )
+    {
+        return MessageManager.replaceVariables( purchased, new String[] {
+                "%enchantment%", enchantment.getDisplayName(), "%level%", Integer.toString( level ), "%price%",
+                formatAmount( price )
+        } );
+    }
+
+    /**
+     * Returns the message broadcast when a player buys an enchantment.
+     *
+     * @return The message or null if purchases aren't broadcast.
+     */
+    final BroadcastMessage getPurchaseBroadcast()
+    {
+        return purchaseBroadcast;
+    }
+
+    /**
+     * Formats an amount of currency.
+     *
+     * @param amount The amount.
+     *
+     * @return The amount with two decimals and grouped thousands.
+     */
+    public static String formatAmount( final double amount )
+    {
+        return String.format( Locale.ROOT, "%,.2f", amount );
+    }
+
+    /**
+     * Returns the name of an enchantment in a locale, in the colors of its display name.
+     *
+     * @param enchantment The enchantment. Can't be null.
+     * @param locale      The locale resolved by the {@link ShopCatalog}. Can't be null.
+     *
+     * @return The localized name, or the display name if the enchantment has no name in the locale.
+     */
+    static String getName( @NonNull final CustomEnchantment enchantment, @NonNull final String locale )
+    {
+        if ( !locale.equals( ShopCatalog.DEFAULT_LOCALE ) )
+        {
+            for ( final Map.Entry< String, String > entry : enchantment.getLocalizedNames().entrySet() )
+            {
+                if ( entry.getKey().equalsIgnoreCase( locale ) )
+                {
+                    return ChatColor.getLastColors( enchantment.getDisplayName() ) + entry.getValue();
+                }
+            }
+        }
+
+        return enchantment.getDisplayName();
+    }
+
+    private static ItemStack createItem( @NonNull final Material material, @NonNull final String name,
+                                         @NonNull final List< String > lore )
+    {
+        final ItemStack itemStack = new ItemStack( material );
+        final ItemMeta  itemMeta  = itemStack.getItemMeta();
+
+        if ( itemMeta != null )
+        {
+            itemMeta.setDisplayName( name );
+            itemMeta.setLore( lore );
+            itemStack.setItemMeta( itemMeta );
+        }
+
+        return itemStack;
+    }
+
+}
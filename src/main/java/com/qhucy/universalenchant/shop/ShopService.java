@@ -0,0 +1,282 @@
+package com.qhucy.universalenchant.shop;
+
+import com.qhucy.universalenchant.broadcast.BroadcastDispatcher;
+import com.qhucy.universalenchant.broadcast.BroadcastMessage;
+import com.qhucy.universalenchant.broadcast.RecipientVariable;
+import com.qhucy.universalenchant.enchant.CustomEnchantment;
+import com.qhucy.universalenchant.enchant.EnchantmentRegistry;
+import com.qhucy.universalenchant.metrics.Counter;
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import com.qhucy.universalenchant.placeholder.PlaceholderResolver;
+import com.qhucy.universalenchant.player.PlayerData;
+import com.qhucy.universalenchant.player.PlayerDataService;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Class that opens the enchantment shop and sells enchantments from it.
+ * <p>
+ * Pages are rendered once per locale by the {@link ShopPageCache} and shared by every viewer, and every viewer gets a
+ * {@link ShopView} that only overlays their balance and what they can afford. Pages are only rendered again after
+ * {@link #reload(ShopRenderer, int)} or {@link #invalidate()}, and open shops are then reopened with the new pages.
+ * <p>
+ * Every method is meant to be called from the main server thread.
+ *
+ * @author Qhucy
+ */
+public final class ShopService
+{
+
+    @Getter( AccessLevel.PRIVATE )
+    private final Server                        server;
+    @Getter( AccessLevel.PRIVATE )
+    private final EnchantmentRegistry           enchantmentRegistry;
+    @Getter( AccessLevel.PRIVATE )
+    private final PlayerDataService             playerDataService;
+    // Broadcasts purchases to every player.
+    @Getter( AccessLevel.PRIVATE )
+    private final BroadcastDispatcher< Player > broadcastDispatcher;
+    // Renders the balance item of every viewer.
+    @Getter( AccessLevel.PRIVATE )
+    private final PlaceholderResolver< Player > placeholderResolver;
+    // Runs tasks on the main server thread on the next tick.
+    @Getter( AccessLevel.PRIVATE )
+    private final Executor                      mainExecutor;
+
+    private ShopRenderer                    renderer;
+    private ShopCatalog                     catalog;
+    private final ShopPageCache< ShopPage > pages;
+
+    private final Counter opened;
+    private final Counter purchased;
+    private final Counter variantsRendered;
+
+    /**
+     * Creates the shop and registers its metrics.
+     *
+     * @param server              The server of the viewers. Can't be null.
+     * @param enchantmentRegistry The registry of the enchantments to sell. Can't be null.
+     * @param playerDataService   The service holding the data of online players. Can't be null.
+     * @param broadcastDispatcher The dispatcher that broadcasts purchases. Can't be null.
+     * @param placeholderResolver The resolver of the placeholders of viewers. Can't be null.
+     * @param renderer            The renderer of the shop texts. Can't be null.
+     * @param rows                The amount of rows of offers on every page.
+     * @param mainExecutor        The executor that runs tasks on the main server thread on the next tick. Can't be
+     *                            null.
+     * @param metricsRegistry     The registry to register the shop's metrics in. Can't be null.
+     */
+    public ShopService( @NonNull final Server server, @NonNull final EnchantmentRegistry enchantmentRegistry,
+                        @NonNull final PlayerDataService playerDataService,
+                        @NonNull final BroadcastDispatcher< Player > broadcastDispatcher,
+                        @NonNull final PlaceholderResolver< Player > placeholderResolver,
+                        @NonNull final ShopRenderer renderer, final int rows, @NonNull final Executor mainExecutor,
+                        @NonNull final MetricsRegistry metricsRegistry )
+    {
+        this.server              = server;
+        this.enchantmentRegistry = enchantmentRegistry;
+        this.playerDataService   = playerDataService;
+        this.broadcastDispatcher = broadcastDispatcher;
+        this.placeholderResolver = placeholderResolver;
+        this.mainExecutor        = mainExecutor;
+        this.renderer            = renderer;
+        this.catalog             = new ShopCatalog( enchantmentRegistry.getEnchantments(), rows * 9 );
+        this.pages               = new ShopPageCache<>( this::renderPage, catalog.getPageCount(), metricsRegistry );
+
+        opened           = metricsRegistry.counter( "shop.opened" );
+        purchased        = metricsRegistry.counter( "shop.purchased" );
+        variantsRendered = metricsRegistry.counter( "shop.offers.rendered" );
+    }
+
+    private ShopPage renderPage( @NonNull final String locale, final int page )
+    {
+        return new ShopPage( renderer, catalog, locale, page, variantsRendered );
+    }
+
+    /**
+     * Returns the amount of pages of the shop.
+     *
+     * @return The amount of pages.
+     */
+    public final int getPageCount()
+    {
+        return catalog.getPageCount();
+    }
+
+    /**
+     * Applies reloaded shop texts and enchantments, and renders every page again the next time it is opened. Call
+     * after the config files are reloaded.
+     *
+     * @param renderer The renderer of the reloaded shop texts. Can't be null.
+     * @param rows     The amount of rows of offers on every page.
+     */
+    public final void reload( @NonNull final ShopRenderer renderer, final int rows )
+    {
+        this.renderer = renderer;
+
+        rebuild( rows * 9 );
+    }
+
+    /**
+     * Recomputes every price and renders every page again the next time it is opened. Call when prices change.
+     */
+    public final void invalidate()
+    {
+        rebuild( catalog.getPageSize() );
+    }
+
+    private void rebuild( final int pageSize )
+    {
+        catalog = new ShopCatalog( getEnchantmentRegistry().getEnchantments(), pageSize );
+        pages.invalidate( catalog.getPageCount() );
+
+        // Open shops show outdated pages, and could sell at outdated prices.
+        for ( final Player player : getServer().getOnlinePlayers() )
+        {
+            final InventoryHolder holder = player.getOpenInventory().getTopInventory().getHolder();
+
+            if ( holder instanceof ShopView )
+            {
+                open( player, ( ( ShopView ) holder ).getPageIndex() );
+            }
+        }
+    }
+
+    /**
+     * Opens a page of the shop for a player.
+     *
+     * @param player The player. Can't be null.
+     * @param page   The index of the page, clamped to the pages of the shop.
+     *
+     * @return If the page was opened, which fails while the data of the player is still loading.
+     */
+    public final boolean open( @NonNull final Player player, final int page )
+    {
+        final PlayerData playerData = getPlayerDataService().get( player.getUniqueId() );
+
+        if ( playerData == null )
+        {
+            return false;
+        }
+
+        final ShopPage  shopPage  = pages.get( catalog.resolveLocale( player.getLocale() ),
+                                               Math.max( 0, Math.min( page, catalog.getPageCount() - 1 ) ) );
+        final ShopView  view      = new ShopView( shopPage, pages.getVersion() );
+        final Inventory inventory = getServer().createInventory( view, shopPage.size(), shopPage.getTitle() );
+
+        inventory.setContents( shopPage.getContents() );
+        view.attach( inventory );
+        refresh( player, view, playerData );
+        player.openInventory( inventory );
+        opened.increment();
+
+        return true;
+    }
+
+    /**
+     * Handles a click of a player in a slot of their shop view: buys the next level of an offer or opens another page.
+     * Pages are opened on the next tick, since Bukkit doesn't allow opening inventories while handling a click.
+     *
+     * @param player The player. Can't be null.
+     * @param view   The open view of the player. Can't be null.
+     * @param slot   The clicked slot of the view.
+     */
+    public final void click( @NonNull final Player player, @NonNull final ShopView view, final int slot )
+    {
+        final ShopPage page = view.getPage();
+
+        if ( view.getVersion() != pages.getVersion() )
+        {
+            // The view outlived an invalidation, so its prices can't be trusted.
+            openLater( player, view, page.getIndex() );
+
+            return;
+        }
+
+        if ( page.isNavigation( slot ) )
+        {
+            openLater( player, view, slot == page.getNextSlot() ? page.getIndex() + 1 : page.getIndex() - 1 );
+
+            return;
+        }
+
+        final PlayerData playerData = getPlayerDataService().get( player.getUniqueId() );
+
+        if ( playerData == null || slot < 0 || slot >= page.getOffers().size() )
+        {
+            return;
+        }
+
+        final ShopOffer         offer       = page.getOffers().get( slot );
+        final CustomEnchantment enchantment = offer.getEnchantment();
+        final int               state       = offer.getState( playerData.getEnchantmentLevel( enchantment.getKey() ),
+                                                              playerData.getBalance() );
+
+        if ( state != ShopOffer.MAXED && ShopOffer.isAffordable( state ) )
+        {
+            final int    level = ShopOffer.getLevel( state );
+            final double price = offer.getPrice( level );
+
+            getPlayerDataService().setBalance( playerData, playerData.getBalance() - price );
+            playerData.setEnchantmentLevel( enchantment.getKey(), level );
+            purchased.increment();
+
+            player.sendMessage( renderer.renderPurchased( enchantment, level, price ) );
+            broadcastPurchase( player, enchantment, level );
+        }
+
+        // The balance could also have changed elsewhere since the view was opened.
+        refresh( player, view, playerData );
+    }
+
+    /**
+     * Opens a page of the shop for a player on the next tick, unless the player closed the view in the meantime.
+     */
+    private void openLater( @NonNull final Player player, @NonNull final ShopView view, final int page )
+    {
+        getMainExecutor().execute( () ->
+        {
+            if ( player.getOpenInventory().getTopInventory().getHolder() == view )
+            {
+                open( player, page );
+            }
+        } );
+    }
+
+    /**
+     * Refreshes the view of a player, with the balance item rendered through their placeholders.
+     */
+    private void refresh( @NonNull final Player player, @NonNull final ShopView view,
+                          @NonNull final PlayerData playerData )
+    {
+        view.refresh( playerData, getPlaceholderResolver().render( view.getPage().getBalanceTemplate(), player ) );
+    }
+
+    /**
+     * Broadcasts a purchase to every player, with the name of the enchantment in the locale of every player.
+     */
+    private void broadcastPurchase( @NonNull final Player player, @NonNull final CustomEnchantment enchantment,
+                                    final int level )
+    {
+        final BroadcastMessage message = renderer.getPurchaseBroadcast();
+
+        if ( message == null )
+        {
+            return;
+        }
+
+        final ShopCatalog purchaseCatalog = catalog;
+
+        getBroadcastDispatcher().broadcast( message, getServer().getOnlinePlayers(), new String[] {
+                "%player%", player.getName(), "%level%", Integer.toString( level )
+        }, new RecipientVariable<>( "%enchantment%", recipient -> ShopRenderer.getName(
+                enchantment, purchaseCatalog.resolveLocale( recipient.getLocale() ) ) ) );
+    }
+
+}
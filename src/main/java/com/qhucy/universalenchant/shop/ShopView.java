@@ -0,0 +1,109 @@
+package com.qhucy.universalenchant.shop;
+
+import com.qhucy.universalenchant.player.PlayerData;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+
+import java.util.Arrays;
+
+/**
+ * Class for a shop page opened by one viewer, which overlays the fields that differ per viewer on the shared page.
+ * <p>
+ * Only the state of every offer and the balance differ between viewers. The view remembers what it shows, so a
+ * refresh only replaces the slots whose state changed, such as after a purchase.
+ *
+ * @author Qhucy
+ * @see ShopService
+ */
+public final class ShopView
+        implements InventoryHolder
+{
+
+    @Getter( AccessLevel.PACKAGE )
+    private final ShopPage page;
+    // The version of the page cache the page was rendered in.
+    @Getter( AccessLevel.PACKAGE )
+    private final long     version;
+    private Inventory      inventory;
+
+    // The state shown for every offer, -1 before the first refresh.
+    private final int[] shownStates;
+    // The text of the balance item shown, null before the first refresh.
+    private String      shownBalance;
+
+    /**
+     * Creates the view of a page.
+     *
+     * @param page    The page. Can't be null.
+     * @param version The version of the page cache the page was rendered in.
+     */
+    ShopView( @NonNull final ShopPage page, final long version )
+    {
+        this.page        = page;
+        this.version     = version;
+        this.shownStates = new int[ page.getOffers().size() ];
+
+        Arrays.fill( shownStates, -1 );
+    }
+
+    /**
+     * Sets the inventory of the view, created with the view as its holder.
+     *
+     * @param inventory The inventory, holding the shared contents of the page. Can't be null.
+     */
+    final void attach( @NonNull final Inventory inventory )
+    {
+        this.inventory = inventory;
+    }
+
+    @Override
+    public final Inventory getInventory()
+    {
+        return inventory;
+    }
+
+    /**
+     * Returns the index of the page of the view.
+     *
+     * @return The index of the page.
+     */
+    public final int getPageIndex()
+    {
+        return page.getIndex();
+    }
+
+    /**
+     * Overlays the state of every offer and the balance of the viewer on the page, replacing only slots that changed
+     * since the last refresh.
+     *
+     * @param playerData  The data of the viewer. Can't be null.
+     * @param balanceText The text of the balance item rendered for the viewer. Can't be null.
+     */
+    final void refresh( @NonNull final PlayerData playerData, @NonNull final String balanceText )
+    {
+        final double balance = playerData.getBalance();
+
+        for ( int offer = 0; offer < shownStates.length; offer++ )
+        {
+            final ShopOffer shopOffer = page.getOffers().get( offer );
+            final int       state     = shopOffer.getState(
+                    playerData.getEnchantmentLevel( shopOffer.getEnchantment().getKey() ), balance );
+
+            if ( state != shownStates[ offer ] )
+            {
+                shownStates[ offer ] = state;
+                inventory.setItem( offer, page.getItem( offer, state ) );
+            }
+        }
+
+        if ( !balanceText.equals( shownBalance ) )
+        {
+            shownBalance = balanceText;
+            inventory.setItem( page.getBalanceSlot(), page.renderBalance( balanceText ) );
+        }
+    }
+
+}
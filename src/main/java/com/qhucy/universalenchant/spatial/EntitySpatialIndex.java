@@ -0,0 +1,224 @@
+package com.qhucy.universalenchant.spatial;
+
+import lombok.NonNull;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.LivingEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Class that indexes the living entities of every world in a {@link SpatialGrid}, so area of effect enchantments can
+ * find nearby entities without {@code World.getNearbyEntities} scanning chunk entity lists and allocating collections
+ * on every proc.
+ * <p>
+ * The index is updated incrementally by the {@link SpatialIndexListener} and by {@link #refresh(int)}, which re-reads
+ * the positions of a bounded amount of entities every tick since Bukkit has no event for mobs moving. Positions of mobs
+ * can therefore be a few ticks old, so handlers that need exact positions should re-check the entities they find. Only
+ * use the index from the main server thread.
+ *
+ * @author Qhucy
+ */
+public final class EntitySpatialIndex
+{
+
+    // The base two logarithm of the side length of a cell, so cells are 8 blocks wide.
+    private static final int CELL_SHIFT = 3;
+
+    // The grid of every world by the world's unique id.
+    private final Map< UUID, WorldGrid > worldGrids      = new HashMap<>();
+    // Reused location that entity positions are read into.
+    private final Location               scratchLocation = new Location( null, 0, 0, 0 );
+    // Reused list of entities found in another world while refreshing, tracked again once the refresh is done.
+    private final List< LivingEntity >   changedWorlds   = new ArrayList<>();
+
+    /**
+     * Tracks every living entity already in a world.
+     *
+     * @param world The world. Can't be null.
+     */
+    public final void trackWorld( @NonNull final World world )
+    {
+        for ( final LivingEntity livingEntity : world.getLivingEntities() )
+        {
+            track( livingEntity );
+        }
+    }
+
+    /**
+     * Stops tracking every entity in a world.
+     *
+     * @param world The world. Can't be null.
+     */
+    public final void untrackWorld( @NonNull final World world )
+    {
+        worldGrids.remove( world.getUID() );
+    }
+
+    /**
+     * Tracks a living entity at its current position, or moves it if it is already tracked.
+     *
+     * @param livingEntity The living entity. Can't be null.
+     */
+    public final void track( @NonNull final LivingEntity livingEntity )
+    {
+        final Location location = livingEntity.getLocation( scratchLocation );
+
+        moveTo( livingEntity, location );
+    }
+
+    /**
+     * Moves a living entity to a location, tracking it if it isn't tracked and moving it between worlds if needed.
+     *
+     * @param livingEntity The living entity. Can't be null.
+     * @param location     The new location of the entity. Can't be null.
+     */
+    public final void moveTo( @NonNull final LivingEntity livingEntity, @NonNull final Location location )
+    {
+        final World world = location.getWorld();
+
+        if ( world == null )
+        {
+            return;
+        }
+
+        final WorldGrid worldGrid = worldGrids.computeIfAbsent( world.getUID(), uid -> new WorldGrid() );
+        final int       id        = livingEntity.getEntityId();
+
+        if ( !worldGrid.grid.move( id, location.getX(), location.getY(), location.getZ() ) )
+        {
+            // The entity is new or changed worlds.
+            untrack( livingEntity );
+            worldGrid.grid.put( id, livingEntity, location.getX(), location.getY(), location.getZ() );
+        }
+    }
+
+    /**
+     * Stops tracking a living entity.
+     *
+     * @param livingEntity The living entity. Can't be null.
+     */
+    public final void untrack( @NonNull final LivingEntity livingEntity )
+    {
+        final int id = livingEntity.getEntityId();
+
+        for ( final WorldGrid worldGrid : worldGrids.values() )
+        {
+            if ( worldGrid.grid.remove( id ) )
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Finds every tracked living entity within a radius of a location.
+     *
+     * @param center The center of the query. Can't be null.
+     * @param radius The radius in blocks.
+     * @param buffer The buffer to write the entities into. It is cleared first. Can't be null.
+     *
+     * @return The amount of entities found.
+     */
+    public final int query( @NonNull final Location center, final double radius,
+                            @NonNull final QueryBuffer< LivingEntity > buffer )
+    {
+        final World     world     = center.getWorld();
+        final WorldGrid worldGrid = world == null ? null : worldGrids.get( world.getUID() );
+
+        if ( worldGrid == null )
+        {
+            buffer.clear();
+
+            return 0;
+        }
+
+        return worldGrid.grid.query( center.getX(), center.getY(), center.getZ(), radius, buffer );
+    }
+
+    /**
+     * Re-reads the positions of a bounded amount of tracked entities, continuing round-robin from the last refresh.
+     * Entities that are no longer valid are untracked.
+     *
+     * @param budget The maximum amount of entities to refresh in each world.
+     */
+    public final void refresh( final int budget )
+    {
+        for ( final WorldGrid worldGrid : worldGrids.values() )
+        {
+            final SpatialGrid< LivingEntity > grid = worldGrid.grid;
+
+            for ( int i = 0; i < budget && grid.size() > 0; i++ )
+            {
+                if ( worldGrid.cursor >= grid.size() )
+                {
+                    worldGrid.cursor = 0;
+                }
+
+                final LivingEntity livingEntity = grid.getAt( worldGrid.cursor );
+
+                if ( !livingEntity.isValid() )
+                {
+                    // Removing swaps the last entity into the cursor, so the cursor stays in place.
+                    grid.remove( livingEntity.getEntityId() );
+
+                    continue;
+                }
+
+                final Location location = livingEntity.getLocation( scratchLocation );
+
+                if ( location.getWorld() != null && worldGrids.get( location.getWorld().getUID() ) == worldGrid )
+                {
+                    grid.move( livingEntity.getEntityId(), location.getX(), location.getY(), location.getZ() );
+
+                    worldGrid.cursor++;
+                }
+                else
+                {
+                    grid.remove( livingEntity.getEntityId() );
+                    changedWorlds.add( livingEntity );
+                }
+            }
+        }
+
+        for ( final LivingEntity livingEntity : changedWorlds )
+        {
+            track( livingEntity );
+        }
+
+        changedWorlds.clear();
+    }
+
+    /**
+     * Returns the amount of tracked entities across every world.
+     *
+     * @return The amount of tracked entities.
+     */
+    public final int size()
+    {
+        int size = 0;
+
+        for ( final WorldGrid worldGrid : worldGrids.values() )
+        {
+            size += worldGrid.grid.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * The grid of one world and its refresh cursor.
+     */
+    private static final class WorldGrid
+    {
+
+        private final SpatialGrid< LivingEntity > grid = new SpatialGrid<>( CELL_SHIFT );
+        private int                               cursor;
+
+    }
+
+}
@@ -0,0 +1,173 @@
+package com.qhucy.universalenchant.spatial;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from primitive long keys to objects, so lookups never box their keys.
+ *
+ * @param <V> The type of the values.
+ *
+ * @author Qhucy
+ */
+final class LongObjectMap< V >
+{
+
+    private long[]   keys;
+    private Object[] values;
+    private int      size;
+    // The size at which the tables grow, kept at three quarters of their length.
+    private int      resizeAt;
+
+    LongObjectMap()
+    {
+        allocate( 64 );
+    }
+
+    private void allocate( final int capacity )
+    {
+        this.keys     = new long[ capacity ];
+        this.values   = new Object[ capacity ];
+        this.resizeAt = capacity - ( capacity >>> 2 );
+    }
+
+    /**
+     * Spreads the bits of a key so that neighbouring keys don't cluster.
+     */
+    private static int hash( final long key )
+    {
+        final long mixed = key * 0x9E3779B97F4A7C15L;
+
+        return ( int ) ( mixed ^ ( mixed >>> 32 ) );
+    }
+
+    private int indexOf( final long key )
+    {
+        final int mask  = keys.length - 1;
+        int       index = hash( key ) & mask;
+
+        while ( values[ index ] != null )
+        {
+            if ( keys[ index ] == key )
+            {
+                return index;
+            }
+
+            index = ( index + 1 ) & mask;
+        }
+
+        return -1;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    final V get( final long key )
+    {
+        final int index = indexOf( key );
+
+        return index < 0 ? null : ( V ) values[ index ];
+    }
+
+    /**
+     * Puts a value into the map.
+     *
+     * @param key   The key.
+     * @param value The value. Can't be null.
+     */
+    final void put( final long key, final V value )
+    {
+        if ( value == null )
+        {
+            throw new IllegalArgumentException( "Values can't be null." );
+        }
+
+        final int mask  = keys.length - 1;
+        int       index = hash( key ) & mask;
+
+        while ( values[ index ] != null )
+        {
+            if ( keys[ index ] == key )
+            {
+                values[ index ] = value;
+
+                return;
+            }
+
+            index = ( index + 1 ) & mask;
+        }
+
+        keys[ index ]   = key;
+        values[ index ] = value;
+
+        if ( ++size >= resizeAt )
+        {
+            rehash( keys.length << 1 );
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    final V remove( final long key )
+    {
+        int index = indexOf( key );
+
+        if ( index < 0 )
+        {
+            return null;
+        }
+
+        final V   removed = ( V ) values[ index ];
+        final int mask    = keys.length - 1;
+
+        values[ index ] = null;
+        size--;
+
+        // Shifts back every following entry of the probe run, so lookups never stop early at the removed slot.
+        int next = ( index + 1 ) & mask;
+
+        while ( values[ next ] != null )
+        {
+            final int home = hash( keys[ next ] ) & mask;
+
+            if ( ( ( next - home ) & mask ) >= ( ( next - index ) & mask ) )
+            {
+                keys[ index ]   = keys[ next ];
+                values[ index ] = values[ next ];
+                values[ next ]  = null;
+                index           = next;
+            }
+
+            next = ( next + 1 ) & mask;
+        }
+
+        return removed;
+    }
+
+    final int size()
+    {
+        return size;
+    }
+
+    final void clear()
+    {
+        Arrays.fill( values, null );
+        size = 0;
+    }
+
+    private void rehash( final int capacity )
+    {
+        final long[]   oldKeys   = keys;
+        final Object[] oldValues = values;
+
+        allocate( capacity );
+        size = 0;
+
+        for ( int i = 0; i < oldKeys.length; i++ )
+        {
+            if ( oldValues[ i ] != null )
+            {
+                @SuppressWarnings( "unchecked" ) final V value = ( V ) oldValues[ i ];
+
+                put( oldKeys[ i ], value );
+            }
+        }
+    }
+
+}
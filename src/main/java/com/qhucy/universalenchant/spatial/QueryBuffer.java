@@ -0,0 +1,82 @@
+package com.qhucy.universalenchant.spatial;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffer that spatial queries write their results into, so a query allocates nothing once the buffer has
+ * grown to fit its largest result.
+ * <p>
+ * A buffer is not thread safe. Callers should keep one buffer per thread or per enchantment handler.
+ *
+ * @param <T> The type of the results.
+ *
+ * @author Qhucy
+ * @see SpatialGrid
+ */
+public final class QueryBuffer< T >
+{
+
+    private Object[] elements;
+    private int      size;
+
+    /**
+     * Creates an empty query buffer.
+     */
+    public QueryBuffer()
+    {
+        this.elements = new Object[ 16 ];
+    }
+
+    /**
+     * Returns the amount of results in the buffer.
+     *
+     * @return The amount of results.
+     */
+    public final int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns a result from the buffer.
+     *
+     * @param index The index of the result, less than {@link #size()}.
+     *
+     * @return The result.
+     */
+    @SuppressWarnings( "unchecked" )
+    public final T get( final int index )
+    {
+        if ( index >= size )
+        {
+            throw new IndexOutOfBoundsException( "Index " + index + " is out of bounds for size " + size + "." );
+        }
+
+        return ( T ) elements[ index ];
+    }
+
+    /**
+     * Removes every result from the buffer, releasing their references.
+     */
+    public final void clear()
+    {
+        Arrays.fill( elements, 0, size, null );
+        size = 0;
+    }
+
+    /**
+     * Adds a result to the buffer.
+     *
+     * @param element The result.
+     */
+    final void add( final T element )
+    {
+        if ( size == elements.length )
+        {
+            elements = Arrays.copyOf( elements, size << 1 );
+        }
+
+        elements[ size++ ] = element;
+    }
+
+}
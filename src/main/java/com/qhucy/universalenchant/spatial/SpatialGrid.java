@@ -0,0 +1,375 @@
+package com.qhucy.universalenchant.spatial;
+
+import lombok.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Uniform grid of cubic cells that indexes values by position for fast radius queries.
+ * <p>
+ * Values are tracked by a unique integer id and moved incrementally, so a value only changes cells when it crosses a
+ * cell border. Queries only visit the cells overlapping the query sphere and write into a reusable {@link
+ * QueryBuffer}. A grid is not thread safe and is meant to be used from the main server thread.
+ *
+ * @param <T> The type of the indexed values.
+ *
+ * @author Qhucy
+ * @see EntitySpatialIndex
+ */
+public final class SpatialGrid< T >
+{
+
+    // The base two logarithm of the side length of a cell in blocks.
+    private final int                    cellShift;
+    // Every non-empty cell by its packed cell coordinates.
+    private final LongObjectMap< Cell >  cells     = new LongObjectMap<>();
+    // Every tracked entry by its id.
+    private final LongObjectMap< Entry > entries   = new LongObjectMap<>();
+    // Empty cells kept for reuse, so values moving back and forth across a border don't allocate.
+    private final ArrayDeque< Cell >     freeCells = new ArrayDeque<>();
+    // Every tracked entry packed densely, used to visit entries round-robin.
+    private Entry[]                      dense     = new Entry[ 64 ];
+    private int                          size;
+
+    /**
+     * Creates an empty spatial grid.
+     *
+     * @param cellShift The base two logarithm of the side length of a cell in blocks, from 0 to 8.
+     */
+    public SpatialGrid( final int cellShift )
+    {
+        if ( cellShift < 0 || cellShift > 8 )
+        {
+            throw new IllegalArgumentException( "Cell shift must be from 0 to 8." );
+        }
+
+        this.cellShift = cellShift;
+    }
+
+    /**
+     * Returns the amount of tracked values.
+     *
+     * @return The amount of tracked values.
+     */
+    public final int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the amount of non-empty cells.
+     *
+     * @return The amount of non-empty cells.
+     */
+    public final int getCellCount()
+    {
+        return cells.size();
+    }
+
+    /**
+     * Returns if a value is tracked.
+     *
+     * @param id The id of the value.
+     *
+     * @return If the value is tracked.
+     */
+    public final boolean contains( final int id )
+    {
+        return entries.get( id ) != null;
+    }
+
+    /**
+     * Returns the tracked value at a dense index. Dense indexes change when values are removed, so this is only meant
+     * for visiting every value round-robin.
+     *
+     * @param index The dense index, less than {@link #size()}.
+     *
+     * @return The value.
+     */
+    @SuppressWarnings( "unchecked" )
+    public final T getAt( final int index )
+    {
+        if ( index >= size )
+        {
+            throw new IndexOutOfBoundsException( "Index " + index + " is out of bounds for size " + size + "." );
+        }
+
+        return ( T ) dense[ index ].value;
+    }
+
+    /**
+     * Tracks a value at a position, or moves it if it is already tracked.
+     *
+     * @param id    The unique id of the value.
+     * @param value The value. Can't be null.
+     * @param x     The x coordinate.
+     * @param y     The y coordinate.
+     * @param z     The z coordinate.
+     */
+    public final void put( final int id, @NonNull final T value, final double x, final double y, final double z )
+    {
+        Entry entry = entries.get( id );
+
+        if ( entry == null )
+        {
+            entry = new Entry( value );
+
+            entries.put( id, entry );
+
+            if ( size == dense.length )
+            {
+                dense = Arrays.copyOf( dense, size << 1 );
+            }
+
+            entry.denseIndex = size;
+            dense[ size++ ]  = entry;
+
+            place( entry, x, y, z );
+        }
+        else
+        {
+            entry.value = value;
+
+            move( entry, x, y, z );
+        }
+    }
+
+    /**
+     * Moves a tracked value. Does nothing if the value isn't tracked.
+     *
+     * @param id The id of the value.
+     * @param x  The new x coordinate.
+     * @param y  The new y coordinate.
+     * @param z  The new z coordinate.
+     *
+     * @return If the value is tracked.
+     */
+    public final boolean move( final int id, final double x, final double y, final double z )
+    {
+        final Entry entry = entries.get( id );
+
+        if ( entry == null )
+        {
+            return false;
+        }
+
+        move( entry, x, y, z );
+
+        return true;
+    }
+
+    /**
+     * Stops tracking a value.
+     *
+     * @param id The id of the value.
+     *
+     * @return If the value was tracked.
+     */
+    public final boolean remove( final int id )
+    {
+        final Entry entry = entries.remove( id );
+
+        if ( entry == null )
+        {
+            return false;
+        }
+
+        unplace( entry );
+
+        final Entry last = dense[ --size ];
+
+        dense[ entry.denseIndex ] = last;
+        last.denseIndex           = entry.denseIndex;
+        dense[ size ]             = null;
+
+        return true;
+    }
+
+    /**
+     * Stops tracking every value.
+     */
+    public final void clear()
+    {
+        cells.clear();
+        entries.clear();
+        freeCells.clear();
+        Arrays.fill( dense, 0, size, null );
+        size = 0;
+    }
+
+    /**
+     * Finds every value within a radius of a position.
+     *
+     * @param x      The x coordinate of the center.
+     * @param y      The y coordinate of the center.
+     * @param z      The z coordinate of the center.
+     * @param radius The radius in blocks.
+     * @param buffer The buffer to write the values into. It is cleared first. Can't be null.
+     *
+     * @return The amount of values found.
+     */
+    @SuppressWarnings( "unchecked" )
+    public final int query( final double x, final double y, final double z, final double radius,
+                            @NonNull final QueryBuffer< T > buffer )
+    {
+        buffer.clear();
+
+        final double radiusSquared = radius * radius;
+        final int    minX          = cellOf( x - radius );
+        final int    maxX          = cellOf( x + radius );
+        final int    minY          = cellOf( y - radius );
+        final int    maxY          = cellOf( y + radius );
+        final int    minZ          = cellOf( z - radius );
+        final int    maxZ          = cellOf( z + radius );
+
+        for ( int cellX = minX; cellX <= maxX; cellX++ )
+        {
+            for ( int cellY = minY; cellY <= maxY; cellY++ )
+            {
+                for ( int cellZ = minZ; cellZ <= maxZ; cellZ++ )
+                {
+                    final Cell cell = cells.get( pack( cellX, cellY, cellZ ) );
+
+                    if ( cell == null )
+                    {
+                        continue;
+                    }
+
+                    for ( int i = 0; i < cell.size; i++ )
+                    {
+                        final Entry  entry = cell.entries[ i ];
+                        final double dx    = entry.x - x;
+                        final double dy    = entry.y - y;
+                        final double dz    = entry.z - z;
+
+                        if ( dx * dx + dy * dy + dz * dz <= radiusSquared )
+                        {
+                            buffer.add( ( T ) entry.value );
+                        }
+                    }
+                }
+            }
+        }
+
+        return buffer.size();
+    }
+
+    private int cellOf( final double coordinate )
+    {
+        return ( int ) Math.floor( coordinate ) >> cellShift;
+    }
+
+    /**
+     * Packs cell coordinates into a single key, 21 bits per axis.
+     */
+    private static long pack( final int cellX, final int cellY, final int cellZ )
+    {
+        return ( ( cellX & 0x1FFFFFL ) << 42 ) | ( ( cellY & 0x1FFFFFL ) << 21 ) | ( cellZ & 0x1FFFFFL );
+    }
+
+    private void move( @NonNull final Entry entry, final double x, final double y, final double z )
+    {
+        final long cellKey = pack( cellOf( x ), cellOf( y ), cellOf( z ) );
+
+        if ( cellKey == entry.cellKey )
+        {
+            entry.x = x;
+            entry.y = y;
+            entry.z = z;
+        }
+        else
+        {
+            unplace( entry );
+            place( entry, x, y, z );
+        }
+    }
+
+    private void place( @NonNull final Entry entry, final double x, final double y, final double z )
+    {
+        final long cellKey = pack( cellOf( x ), cellOf( y ), cellOf( z ) );
+        Cell       cell    = cells.get( cellKey );
+
+        if ( cell == null )
+        {
+            cell = freeCells.isEmpty() ? new Cell() : freeCells.pop();
+
+            cells.put( cellKey, cell );
+        }
+
+        entry.x       = x;
+        entry.y       = y;
+        entry.z       = z;
+        entry.cellKey = cellKey;
+
+        cell.add( entry );
+    }
+
+    private void unplace( @NonNull final Entry entry )
+    {
+        final Cell cell = cells.get( entry.cellKey );
+
+        cell.remove( entry );
+
+        if ( cell.size == 0 )
+        {
+            cells.remove( entry.cellKey );
+            freeCells.push( cell );
+        }
+    }
+
+    /**
+     * A tracked value and its position.
+     */
+    private static final class Entry
+    {
+
+        private Object value;
+        private double x;
+        private double y;
+        private double z;
+        private long   cellKey;
+        // The index of this entry in its cell.
+        private int    cellIndex;
+        // The index of this entry in the dense array.
+        private int    denseIndex;
+
+        private Entry( @NonNull final Object value )
+        {
+            this.value = value;
+        }
+
+    }
+
+    /**
+     * The entries inside one cell.
+     */
+    private static final class Cell
+    {
+
+        private Entry[] entries = new Entry[ 8 ];
+        private int     size;
+
+        private void add( @NonNull final Entry entry )
+        {
+            if ( size == entries.length )
+            {
+                entries = Arrays.copyOf( entries, size << 1 );
+            }
+
+            entry.cellIndex   = size;
+            entries[ size++ ] = entry;
+        }
+
+        private void remove( @NonNull final Entry entry )
+        {
+            final Entry last = entries[ --size ];
+
+            entries[ entry.cellIndex ] = last;
+            last.cellIndex             = entry.cellIndex;
+            entries[ size ]            = null;
+        }
+
+    }
+
+}
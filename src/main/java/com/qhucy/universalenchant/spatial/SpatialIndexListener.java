@@ -0,0 +1,137 @@
+package com.qhucy.universalenchant.spatial;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.EntitySpawnEvent;
+import org.bukkit.event.entity.EntityTeleportEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Listener that keeps the {@link EntitySpatialIndex} up to date as living entities spawn, move and despawn.
+ * <p>
+ * Every handler runs at monitor priority after other plugins have decided the outcome of the event.
+ *
+ * @author Qhucy
+ */
+public final class SpatialIndexListener
+        implements Listener
+{
+
+    @Getter( AccessLevel.PRIVATE )
+    private final EntitySpatialIndex entitySpatialIndex;
+
+    /**
+     * Creates a listener for a spatial index.
+     *
+     * @param entitySpatialIndex The spatial index to keep up to date. Can't be null.
+     */
+    public SpatialIndexListener( @NonNull final EntitySpatialIndex entitySpatialIndex )
+    {
+        this.entitySpatialIndex = entitySpatialIndex;
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR, ignoreCancelled = true )
+    public final void onEntitySpawn( @NonNull final EntitySpawnEvent event )
+    {
+        if ( event.getEntity() instanceof LivingEntity )
+        {
+            getEntitySpatialIndex().moveTo( ( LivingEntity ) event.getEntity(), event.getLocation() );
+        }
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR )
+    public final void onEntityDeath( @NonNull final EntityDeathEvent event )
+    {
+        getEntitySpatialIndex().untrack( event.getEntity() );
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR, ignoreCancelled = true )
+    public final void onEntityTeleport( @NonNull final EntityTeleportEvent event )
+    {
+        if ( event.getEntity() instanceof LivingEntity && event.getTo() != null )
+        {
+            getEntitySpatialIndex().moveTo( ( LivingEntity ) event.getEntity(), event.getTo() );
+        }
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR )
+    public final void onPlayerJoin( @NonNull final PlayerJoinEvent event )
+    {
+        getEntitySpatialIndex().track( event.getPlayer() );
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR )
+    public final void onPlayerQuit( @NonNull final PlayerQuitEvent event )
+    {
+        getEntitySpatialIndex().untrack( event.getPlayer() );
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR, ignoreCancelled = true )
+    public final void onPlayerMove( @NonNull final PlayerMoveEvent event )
+    {
+        if ( event.getTo() != null )
+        {
+            getEntitySpatialIndex().moveTo( event.getPlayer(), event.getTo() );
+        }
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR, ignoreCancelled = true )
+    public final void onPlayerTeleport( @NonNull final PlayerTeleportEvent event )
+    {
+        if ( event.getTo() != null )
+        {
+            getEntitySpatialIndex().moveTo( event.getPlayer(), event.getTo() );
+        }
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR )
+    public final void onChunkLoad( @NonNull final ChunkLoadEvent event )
+    {
+        for ( final Entity entity : event.getChunk().getEntities() )
+        {
+            if ( entity instanceof LivingEntity )
+            {
+                getEntitySpatialIndex().track( ( LivingEntity ) entity );
+            }
+        }
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR )
+    public final void onChunkUnload( @NonNull final ChunkUnloadEvent event )
+    {
+        for ( final Entity entity : event.getChunk().getEntities() )
+        {
+            if ( entity instanceof LivingEntity )
+            {
+                getEntitySpatialIndex().untrack( ( LivingEntity ) entity );
+            }
+        }
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR )
+    public final void onWorldLoad( @NonNull final WorldLoadEvent event )
+    {
+        getEntitySpatialIndex().trackWorld( event.getWorld() );
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR, ignoreCancelled = true )
+    public final void onWorldUnload( @NonNull final WorldUnloadEvent event )
+    {
+        getEntitySpatialIndex().untrackWorld( event.getWorld() );
+    }
+
+}
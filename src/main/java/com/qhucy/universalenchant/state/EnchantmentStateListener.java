@@ -0,0 +1,49 @@
+package com.qhucy.universalenchant.state;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Listener that gives joining players a slot in the {@link EnchantmentStateStore} and releases it when they quit.
+ * <p>
+ * Slots are given at lowest priority so other handlers of the join can already use them, and released at monitor
+ * priority so other handlers of the quit can still read them.
+ *
+ * @author Qhucy
+ */
+public final class EnchantmentStateListener
+        implements Listener
+{
+
+    @Getter( AccessLevel.PRIVATE )
+    private final EnchantmentStateStore enchantmentStateStore;
+
+    /**
+     * Creates a listener for a state store.
+     *
+     * @param enchantmentStateStore The state store to give slots in. Can't be null.
+     */
+    public EnchantmentStateListener( @NonNull final EnchantmentStateStore enchantmentStateStore )
+    {
+        this.enchantmentStateStore = enchantmentStateStore;
+    }
+
+    @EventHandler( priority = EventPriority.LOWEST )
+    public final void onPlayerJoin( @NonNull final PlayerJoinEvent event )
+    {
+        getEnchantmentStateStore().allocate( event.getPlayer().getUniqueId() );
+    }
+
+    @EventHandler( priority = EventPriority.MONITOR )
+    public final void onPlayerQuit( @NonNull final PlayerQuitEvent event )
+    {
+        getEnchantmentStateStore().release( event.getPlayer().getUniqueId() );
+    }
+
+}
@@ -0,0 +1,358 @@
+package com.qhucy.universalenchant.state;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Class that holds the runtime state of every enchantment for every online player, such as stacks, charges, the tick
+ * of the last proc and combo counters.
+ * <p>
+ * Every online player is given a dense slot on join, and each kind of state is one primitive array indexed by slot
+ * and enchantment id, so the store holds no boxed values or per-player objects and the garbage collector never has to
+ * scan it. Slots of quit players are cleared and reused by the next joining player, so the arrays only grow with the
+ * peak amount of online players. Callers are expected to look up a player's slot once and pass it to the accessors.
+ * <p>
+ * Enchantment ids are only stable until the enchantments config is reloaded, so {@link #remap(int[], int)} should be
+ * called on reload. The store is not thread safe and is meant to be used from the main server thread.
+ *
+ * @author Qhucy
+ * @see EnchantmentStateListener
+ */
+public final class EnchantmentStateStore
+{
+
+    // The bytes of state per player and enchantment: stacks, charges, combo and the last proc tick.
+    private static final int BYTES_PER_ENTRY = Integer.BYTES * 3 + Long.BYTES;
+
+    // The slot of every player with a slot.
+    private final Map< UUID, Integer > slots     = new HashMap<>();
+    // The stack of released slots, reused before new slots are taken.
+    private int[]                      freeSlots = new int[ 16 ];
+    private int                        freeCount;
+    // The amount of slots ever taken, so slots below it are either in use or free.
+    private int                        slotCount;
+    // The amount of slots the arrays have room for.
+    private int                        slotCapacity;
+    // The amount of enchantments per slot.
+    private int                        enchantmentCount;
+
+    // The state columns, indexed by slot * enchantmentCount + enchantment id.
+    private int[]  stacks;
+    private int[]  charges;
+    private int[]  combos;
+    private long[] lastProcTicks;
+
+    /**
+     * Creates an empty state store.
+     *
+     * @param enchantmentCount The amount of enchantments.
+     * @param slotCapacity     The amount of players to make room for up front.
+     */
+    public EnchantmentStateStore( final int enchantmentCount, final int slotCapacity )
+    {
+        this.slotCapacity = Math.max( 1, slotCapacity );
+
+        reset( enchantmentCount );
+    }
+
+    /**
+     * Clears the state of every player and resizes the store for a new amount of enchantments. Players keep their
+     * slots.
+     *
+     * @param enchantmentCount The new amount of enchantments.
+     */
+    public final void reset( final int enchantmentCount )
+    {
+        if ( enchantmentCount < 0 )
+        {
+            throw new IllegalArgumentException( "Enchantment count can't be negative." );
+        }
+
+        this.enchantmentCount = enchantmentCount;
+
+        final int length = slotCapacity * enchantmentCount;
+
+        stacks        = new int[ length ];
+        charges       = new int[ length ];
+        combos        = new int[ length ];
+        lastProcTicks = new long[ length ];
+    }
+
+    /**
+     * Moves the state of every player to the new id of its enchantment and resizes the store for a new amount of
+     * enchantments, such as after the enchantments are reloaded. The state of enchantments that no longer exist is
+     * dropped, and new enchantments start without state. Players keep their slots.
+     *
+     * @param newIds           The new id of every enchantment by its old id, or -1 if it no longer exists. Can't be
+     *                         null.
+     * @param enchantmentCount The new amount of enchantments.
+     */
+    public final void remap( @NonNull final int[] newIds, final int enchantmentCount )
+    {
+        final int    previousCount         = this.enchantmentCount;
+        final int[]  previousStacks        = stacks;
+        final int[]  previousCharges       = charges;
+        final int[]  previousCombos        = combos;
+        final long[] previousLastProcTicks = lastProcTicks;
+
+        reset( enchantmentCount );
+
+        for ( int enchantmentId = 0; enchantmentId < Math.min( previousCount, newIds.length ); enchantmentId++ )
+        {
+            final int newId = newIds[ enchantmentId ];
+
+            if ( newId < 0 || newId >= enchantmentCount )
+            {
+                continue;
+            }
+
+            for ( int slot = 0; slot < slotCount; slot++ )
+            {
+                final int from = slot * previousCount + enchantmentId;
+                final int to   = slot * enchantmentCount + newId;
+
+                stacks[ to ]        = previousStacks[ from ];
+                charges[ to ]       = previousCharges[ from ];
+                combos[ to ]        = previousCombos[ from ];
+                lastProcTicks[ to ] = previousLastProcTicks[ from ];
+            }
+        }
+    }
+
+    /**
+     * Gives a player a slot, reusing a released slot if there is one.
+     *
+     * @param player The unique id of the player. Can't be null.
+     *
+     * @return The slot of the player, which is the same slot if the player already has one.
+     */
+    public final int allocate( @NonNull final UUID player )
+    {
+        final Integer existing = slots.get( player );
+
+        if ( existing != null )
+        {
+            return existing;
+        }
+
+        final int slot;
+
+        if ( freeCount > 0 )
+        {
+            slot = freeSlots[ --freeCount ];
+        }
+        else
+        {
+            slot = slotCount++;
+
+            if ( slot >= slotCapacity )
+            {
+                grow();
+            }
+        }
+
+        slots.put( player, slot );
+
+        return slot;
+    }
+
+    /**
+     * Clears the state of a player and releases their slot for reuse.
+     *
+     * @param player The unique id of the player. Can't be null.
+     */
+    public final void release( @NonNull final UUID player )
+    {
+        final Integer slot = slots.remove( player );
+
+        if ( slot == null )
+        {
+            return;
+        }
+
+        final int from = slot * enchantmentCount;
+        final int to   = from + enchantmentCount;
+
+        Arrays.fill( stacks, from, to, 0 );
+        Arrays.fill( charges, from, to, 0 );
+        Arrays.fill( combos, from, to, 0 );
+        Arrays.fill( lastProcTicks, from, to, 0L );
+
+        if ( freeCount == freeSlots.length )
+        {
+            freeSlots = Arrays.copyOf( freeSlots, freeCount << 1 );
+        }
+
+        freeSlots[ freeCount++ ] = slot;
+    }
+
+    /**
+     * Returns the slot of a player.
+     *
+     * @param player The unique id of the player. Can't be null.
+     *
+     * @return The slot of the player or -1 if the player has no slot.
+     */
+    public final int getSlot( @NonNull final UUID player )
+    {
+        final Integer slot = slots.get( player );
+
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Returns the amount of players with a slot.
+     *
+     * @return The amount of players with a slot.
+     */
+    public final int size()
+    {
+        return slots.size();
+    }
+
+    /**
+     * Returns the approximate amount of bytes the state columns and slot bookkeeping take up.
+     *
+     * @return The memory footprint in bytes.
+     */
+    public final long getMemoryFootprint()
+    {
+        // Every map entry holds a node, a boxed slot and the player's unique id.
+        final long slotBytes = slots.size() * 80L + freeSlots.length * ( long ) Integer.BYTES;
+
+        return ( long ) slotCapacity * enchantmentCount * BYTES_PER_ENTRY + slotBytes;
+    }
+
+    /**
+     * Returns the stacks of a player's enchantment.
+     *
+     * @param slot          The slot of the player.
+     * @param enchantmentId The id of the enchantment.
+     *
+     * @return The stacks.
+     */
+    public final int getStacks( final int slot, final int enchantmentId )
+    {
+        return stacks[ index( slot, enchantmentId ) ];
+    }
+
+    /**
+     * Sets the stacks of a player's enchantment.
+     *
+     * @param slot          The slot of the player.
+     * @param enchantmentId The id of the enchantment.
+     * @param value         The new stacks.
+     */
+    public final void setStacks( final int slot, final int enchantmentId, final int value )
+    {
+        stacks[ index( slot, enchantmentId ) ] = value;
+    }
+
+    /**
+     * Returns the charges of a player's enchantment.
+     *
+     * @param slot          The slot of the player.
+     * @param enchantmentId The id of the enchantment.
+     *
+     * @return The charges.
+     */
+    public final int getCharges( final int slot, final int enchantmentId )
+    {
+        return charges[ index( slot, enchantmentId ) ];
+    }
+
+    /**
+     * Sets the charges of a player's enchantment.
+     *
+     * @param slot          The slot of the player.
+     * @param enchantmentId The id of the enchantment.
+     * @param value         The new charges.
+     */
+    public final void setCharges( final int slot, final int enchantmentId, final int value )
+    {
+        charges[ index( slot, enchantmentId ) ] = value;
+    }
+
+    /**
+     * Returns the combo counter of a player's enchantment.
+     *
+     * @param slot          The slot of the player.
+     * @param enchantmentId The id of the enchantment.
+     *
+     * @return The combo counter.
+     */
+    public final int getCombo( final int slot, final int enchantmentId )
+    {
+        return combos[ index( slot, enchantmentId ) ];
+    }
+
+    /**
+     * Sets the combo counter of a player's enchantment.
+     *
+     * @param slot          The slot of the player.
+     * @param enchantmentId The id of the enchantment.
+     * @param value         The new combo counter.
+     */
+    public final void setCombo( final int slot, final int enchantmentId, final int value )
+    {
+        combos[ index( slot, enchantmentId ) ] = value;
+    }
+
+    /**
+     * Returns the tick of the last proc of a player's enchantment.
+     *
+     * @param slot          The slot of the player.
+     * @param enchantmentId The id of the enchantment.
+     *
+     * @return The tick of the last proc.
+     */
+    public final long getLastProcTick( final int slot, final int enchantmentId )
+    {
+        return lastProcTicks[ index( slot, enchantmentId ) ];
+    }
+
+    /**
+     * Sets the tick of the last proc of a player's enchantment.
+     *
+     * @param slot          The slot of the player.
+     * @param enchantmentId The id of the enchantment.
+     * @param tick          The new tick of the last proc.
+     */
+    public final void setLastProcTick( final int slot, final int enchantmentId, final long tick )
+    {
+        lastProcTicks[ index( slot, enchantmentId ) ] = tick;
+    }
+
+    /**
+     * Returns the index of a player's enchantment in the state columns.
+     */
+    private int index( final int slot, final int enchantmentId )
+    {
+        if ( slot < 0 || slot >= slotCount || enchantmentId < 0 || enchantmentId >= enchantmentCount )
+        {
+            throw new IndexOutOfBoundsException( "No state for slot " + slot + " and enchantment " + enchantmentId );
+        }
+
+        return slot * enchantmentCount + enchantmentId;
+    }
+
+    /**
+     * Doubles the amount of slots the state columns have room for.
+     */
+    private void grow()
+    {
+        slotCapacity <<= 1;
+
+        final int length = slotCapacity * enchantmentCount;
+
+        stacks        = Arrays.copyOf( stacks, length );
+        charges       = Arrays.copyOf( charges, length );
+        combos        = Arrays.copyOf( combos, length );
+        lastProcTicks = Arrays.copyOf( lastProcTicks, length );
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.qhucy.universalenchant.statistics;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Rollup storage that appends every rollup as a line of JSON to a file per day (UTC) in a folder, such as
+ * {@code usage-2021-06-01.jsonl}.
+ *
+ * @author Qhucy
+ */
+public final class FileRollupStorage
+        implements RollupStorage
+{
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ISO_LOCAL_DATE.withZone( ZoneOffset.UTC );
+
+    private final Path folder;
+
+    /**
+     * Creates a storage that writes to a folder, which is created when the first rollup is stored.
+     *
+     * @param folder The folder. Can't be null.
+     */
+    public FileRollupStorage( @NonNull final Path folder )
+    {
+        this.folder = folder;
+    }
+
+    @Override
+    public final void saveRollup( @NonNull final UsageRollup rollup )
+            throws IOException
+    {
+        final Path file = folder.resolve( "usage-" + DAY.format( Instant.ofEpochMilli( rollup.getEnd() ) ) + ".jsonl" );
+
+        Files.createDirectories( folder );
+        Files.write( file, ( rollup.toJson() + "\n" ).getBytes( StandardCharsets.UTF_8 ), StandardOpenOption.CREATE,
+                     StandardOpenOption.APPEND );
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.qhucy.universalenchant.statistics;
+
+import lombok.NonNull;
+
+import java.util.UUID;
+
+/**
+ * Utility class for the 64 bit hashes the sketches are fed with, whose bits are all evenly mixed.
+ *
+ * @author Qhucy
+ */
+final class Hashing
+{
+
+    private Hashing()
+    {
+    }
+
+    /**
+     * Returns the hash of a unique id.
+     *
+     * @param uniqueId The unique id. Can't be null.
+     *
+     * @return The hash.
+     */
+    static long hash( @NonNull final UUID uniqueId )
+    {
+        return mix( uniqueId.getMostSignificantBits() ^ mix( uniqueId.getLeastSignificantBits() ) );
+    }
+
+    /**
+     * Returns the hash of a string.
+     *
+     * @param key The string. Can't be null.
+     *
+     * @return The hash.
+     */
+    static long hash( @NonNull final String key )
+    {
+        long hash = 0xCBF29CE484222325L;
+
+        for ( int index = 0; index < key.length(); index++ )
+        {
+            hash = ( hash ^ key.charAt( index ) ) * 0x100000001B3L;
+        }
+
+        return mix( hash );
+    }
+
+    /**
+     * Mixes the bits of a value, so every input bit affects every output bit.
+     *
+     * @param value The value.
+     *
+     * @return The mixed value.
+     */
+    static long mix( long value )
+    {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+
+        return value;
+    }
+
+}
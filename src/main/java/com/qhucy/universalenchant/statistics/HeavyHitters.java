@@ -0,0 +1,155 @@
+package com.qhucy.universalenchant.statistics;
+
+import lombok.NonNull;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class that finds the keys with the highest totals, such as the sources of the most damage, in fixed memory however
+ * many distinct keys it sees.
+ * <p>
+ * Totals are kept in a count-min sketch: every key adds to one counter in each of four rows, and its total is
+ * estimated as the lowest of its counters, which overestimates by at most a small share of the grand total when other
+ * keys collide with it. Only a fixed amount of candidate keys is remembered. A new key replaces the candidate with the
+ * lowest estimate once its own estimate is higher, so keys with a high total always become candidates.
+ * <p>
+ * Counters are added to without locking from any thread. Threads adding new keys at the same time can briefly remember
+ * a few candidates more than the capacity.
+ *
+ * @author Qhucy
+ */
+public final class HeavyHitters
+{
+
+    private static final int DEPTH = 4;
+
+    private final int             width;
+    private final AtomicLongArray counters;
+    private final int             capacity;
+    private final Set< String >   candidates = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a heavy hitter sketch.
+     *
+     * @param width    The amount of counters per row, rounded up to a power of two. More counters collide less.
+     * @param capacity The amount of keys with the highest totals to find.
+     */
+    public HeavyHitters( final int width, final int capacity )
+    {
+        this.width    = Integer.highestOneBit( Math.max( 2, width ) - 1 ) << 1;
+        this.counters = new AtomicLongArray( DEPTH * this.width );
+        this.capacity = Math.max( 1, capacity );
+    }
+
+    /**
+     * Adds an amount to the total of a key.
+     *
+     * @param key    The key. Can't be null.
+     * @param amount The amount to add, which must not be negative.
+     */
+    public final void add( @NonNull final String key, final long amount )
+    {
+        final long hash     = Hashing.hash( key );
+        long       estimate = Long.MAX_VALUE;
+
+        for ( int row = 0; row < DEPTH; row++ )
+        {
+            estimate = Math.min( estimate, counters.addAndGet( index( hash, row ), amount ) );
+        }
+
+        if ( candidates.contains( key ) )
+        {
+            return;
+        }
+
+        if ( candidates.size() < capacity )
+        {
+            candidates.add( key );
+
+            return;
+        }
+
+        String lowest         = null;
+        long   lowestEstimate = Long.MAX_VALUE;
+
+        for ( final String candidate : candidates )
+        {
+            final long candidateEstimate = estimate( candidate );
+
+            if ( candidateEstimate < lowestEstimate )
+            {
+                lowest         = candidate;
+                lowestEstimate = candidateEstimate;
+            }
+        }
+
+        // Only the thread that removed the lowest candidate replaces it.
+        if ( estimate > lowestEstimate && candidates.remove( lowest ) )
+        {
+            candidates.add( key );
+        }
+    }
+
+    /**
+     * Returns the estimated total of a key, which is never lower than its real total.
+     *
+     * @param key The key. Can't be null.
+     *
+     * @return The estimated total.
+     */
+    public final long estimate( @NonNull final String key )
+    {
+        final long hash     = Hashing.hash( key );
+        long       estimate = Long.MAX_VALUE;
+
+        for ( int row = 0; row < DEPTH; row++ )
+        {
+            estimate = Math.min( estimate, counters.get( index( hash, row ) ) );
+        }
+
+        return estimate;
+    }
+
+    /**
+     * Returns the keys with the highest estimated totals, highest first.
+     *
+     * @return The keys and their estimated totals, in iteration order.
+     */
+    public final Map< String, Long > top()
+    {
+        final List< Map.Entry< String, Long > > entries = new ArrayList<>();
+
+        for ( final String candidate : candidates )
+        {
+            entries.add( new AbstractMap.SimpleImmutableEntry<>( candidate, estimate( candidate ) ) );
+        }
+
+        entries.sort( Collections.reverseOrder( Map.Entry.comparingByValue() ) );
+
+        final Map< String, Long > top = new LinkedHashMap<>();
+
+        for ( int index = 0; index < Math.min( capacity, entries.size() ); index++ )
+        {
+            top.put( entries.get( index ).getKey(), entries.get( index ).getValue() );
+        }
+
+        return top;
+    }
+
+    /**
+     * Returns the index of the counter of a hash in a row, taking different bits of the hash for every row.
+     */
+    private int index( final long hash, final int row )
+    {
+        return row * width + ( int ) ( Hashing.mix( hash + row * 0x9E3779B97F4A7C15L ) & ( width - 1 ) );
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.qhucy.universalenchant.statistics;
+
+import java.io.IOException;
+
+/**
+ * Interface for where {@link UsageRollup} records are kept, such as the player database or a local file.
+ *
+ * @author Qhucy
+ */
+public interface RollupStorage
+{
+
+    /**
+     * Stores a rollup. Called off the main server thread.
+     *
+     * @param rollup The rollup. Can't be null.
+     *
+     * @throws IOException If unable to store the rollup.
+     */
+    void saveRollup( final UsageRollup rollup )
+            throws IOException;
+
+}
@@ -0,0 +1,34 @@
+package com.qhucy.universalenchant.statistics;
+
+import lombok.NonNull;
+
+import java.util.Locale;
+
+/**
+ * Enumeration of where {@link UsageRollup} records are stored.
+ *
+ * @author Qhucy
+ */
+public enum RollupStorageType
+{
+
+    // In a table of the player database.
+    DATABASE,
+    // In a file per day in the plugin folder.
+    FILE;
+
+    /**
+     * Returns the storage type with a name from config.
+     *
+     * @param name The name of the storage type, ignoring case. Can't be null.
+     *
+     * @return The storage type.
+     *
+     * @throws IllegalArgumentException If no storage type has the name.
+     */
+    public static RollupStorageType fromName( @NonNull final String name )
+    {
+        return valueOf( name.trim().toUpperCase( Locale.ROOT ) );
+    }
+
+}
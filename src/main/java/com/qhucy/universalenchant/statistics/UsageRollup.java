@@ -0,0 +1,158 @@
+package com.qhucy.universalenchant.statistics;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Immutable record of the enchantment usage of one rollup period, compact enough to store every few minutes.
+ * <p>
+ * Besides the estimates, the record keeps the compressed registers of the period's {@link HyperLogLog}, so the distinct
+ * players of any span of periods, such as a week, can be estimated later by merging the registers of its records.
+ *
+ * @author Qhucy
+ */
+@Getter
+public final class UsageRollup
+{
+
+    // The epoch milliseconds the period started and ended at.
+    private final long                  start;
+    private final long                  end;
+    // The amount of procs of every enchantment that procced, by enchantment key.
+    private final Map< String, Long >   procs;
+    // The estimated distinct players that procced an enchantment during the period and during its day (UTC).
+    private final long                  uniquePlayers;
+    private final long                  uniquePlayersToday;
+    // The registers of the sketch of the period's distinct players.
+    @Getter( AccessLevel.NONE )
+    private final byte[]                players;
+    // The sources of the most damage and their estimated damage, highest first.
+    private final Map< String, Double > damageSources;
+
+    UsageRollup( final long start, final long end, @NonNull final Map< String, Long > procs,
+                 final long uniquePlayers, final long uniquePlayersToday, @NonNull final byte[] players,
+                 @NonNull final Map< String, Double > damageSources )
+    {
+        this.start              = start;
+        this.end                = end;
+        this.procs              = Collections.unmodifiableMap( new LinkedHashMap<>( procs ) );
+        this.uniquePlayers      = uniquePlayers;
+        this.uniquePlayersToday = uniquePlayersToday;
+        this.players            = players.clone();
+        this.damageSources      = Collections.unmodifiableMap( new LinkedHashMap<>( damageSources ) );
+    }
+
+    /**
+     * Returns the registers of the sketch of the period's distinct players.
+     *
+     * @return A copy of the registers.
+     */
+    public final byte[] getPlayers()
+    {
+        return players.clone();
+    }
+
+    /**
+     * Returns the record as a line of JSON, whose player registers are deflated and encoded as base64.
+     *
+     * @return The line of JSON.
+     */
+    public final String toJson()
+    {
+        final StringBuilder builder = new StringBuilder( 256 );
+
+        builder.append( "{\"start\":" ).append( start ).append( ",\"end\":" ).append( end ).append( ",\"procs\":{" );
+
+        appendEntries( builder, procs );
+        builder.append( "},\"unique-players\":" ).append( uniquePlayers ).append( ",\"unique-players-today\":" )
+               .append( uniquePlayersToday ).append( ",\"players\":\"" ).append( compress( players ) )
+               .append( "\",\"damage-sources\":{" );
+        appendEntries( builder, damageSources );
+
+        return builder.append( "}}" ).toString();
+    }
+
+    private static void appendEntries( @NonNull final StringBuilder builder, @NonNull final Map< String, ? > entries )
+    {
+        boolean first = true;
+
+        for ( final Map.Entry< String, ? > entry : entries.entrySet() )
+        {
+            if ( !first )
+            {
+                builder.append( ',' );
+            }
+
+            appendString( builder, entry.getKey() );
+            builder.append( ':' );
+
+            if ( entry.getValue() instanceof Double )
+            {
+                builder.append( String.format( Locale.ROOT, "%.2f", ( Double ) entry.getValue() ) );
+            }
+            else
+            {
+                builder.append( entry.getValue() );
+            }
+
+            first = false;
+        }
+    }
+
+    private static void appendString( @NonNull final StringBuilder builder, @NonNull final String value )
+    {
+        builder.append( '"' );
+
+        for ( int index = 0; index < value.length(); index++ )
+        {
+            final char character = value.charAt( index );
+
+            if ( character == '"' || character == '\\' )
+            {
+                builder.append( '\\' ).append( character );
+            }
+            else if ( character < 0x20 )
+            {
+                builder.append( String.format( Locale.ROOT, "\\u%04x", ( int ) character ) );
+            }
+            else
+            {
+                builder.append( character );
+            }
+        }
+
+        builder.append( '"' );
+    }
+
+    /**
+     * Deflates and encodes registers, which are mostly zero unless many players were seen.
+     */
+    private static String compress( @NonNull final byte[] registers )
+    {
+        final Deflater              deflater = new Deflater( Deflater.BEST_COMPRESSION );
+        final ByteArrayOutputStream output   = new ByteArrayOutputStream( 128 );
+        final byte[]                buffer   = new byte[ 512 ];
+
+        deflater.setInput( registers );
+        deflater.finish();
+
+        while ( !deflater.finished() )
+        {
+            output.write( buffer, 0, deflater.deflate( buffer ) );
+        }
+
+        deflater.end();
+
+        return Base64.getEncoder().encodeToString( output.toByteArray() );
+    }
+
+}
@@ -0,0 +1,199 @@
+package com.qhucy.universalenchant.statistics;
+
+import com.qhucy.universalenchant.metrics.Counter;
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Class that aggregates enchantment usage in memory, such as proc counts, distinct players and the sources of the most
+ * damage, and rolls it up into a compact {@link UsageRollup} every period instead of storing every event.
+ * <p>
+ * Events are recorded without locking from any thread: procs are counted in an array indexed by enchantment id,
+ * distinct players in a {@link HyperLogLog} and damage in {@link HeavyHitters}. Memory stays fixed however many events
+ * are recorded. A rollup swaps the aggregates for empty ones and reads the old ones, so an event recorded by another
+ * thread while the aggregates are swapped can land in the old aggregates after they were read, and isn't counted.
+ * <p>
+ * Rollups are made from one thread at a time, such as the main server thread.
+ *
+ * @author Qhucy
+ */
+public final class UsageStatistics
+{
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis( 1L );
+
+    private final int          sketchWidth;
+    private final int          damageSources;
+    // The current epoch milliseconds.
+    private final LongSupplier clock;
+
+    private volatile Period      current;
+    // The distinct players of previous periods of the current day (UTC).
+    private volatile HyperLogLog today = new HyperLogLog();
+    private long                 day;
+
+    private final Counter events;
+    private final Counter rollups;
+
+    /**
+     * Creates usage statistics and registers their metrics.
+     *
+     * @param enchantmentKeys The keys of the enchantments by id. Can't be null.
+     * @param sketchWidth     The amount of counters per row of the damage sketch.
+     * @param damageSources   The amount of sources of the most damage to keep.
+     * @param clock           The current epoch milliseconds. Can't be null.
+     * @param metricsRegistry The registry to register the metrics in. Can't be null.
+     */
+    public UsageStatistics( @NonNull final List< String > enchantmentKeys, final int sketchWidth,
+                            final int damageSources, @NonNull final LongSupplier clock,
+                            @NonNull final MetricsRegistry metricsRegistry )
+    {
+        this.sketchWidth   = sketchWidth;
+        this.damageSources = damageSources;
+        this.clock         = clock;
+        this.current       = new Period( enchantmentKeys );
+        this.day           = Math.floorDiv( current.start, DAY_MILLIS );
+
+        events  = metricsRegistry.counter( "statistics.events" );
+        rollups = metricsRegistry.counter( "statistics.rollups" );
+
+        metricsRegistry.gauge( "statistics.unique-players-today", this::getUniquePlayersToday );
+    }
+
+    /**
+     * Records a proc of an enchantment by a player.
+     *
+     * @param player        The unique id of the player. Can't be null.
+     * @param enchantmentId The id of the enchantment.
+     */
+    public final void recordProc( @NonNull final UUID player, final int enchantmentId )
+    {
+        final Period period = current;
+
+        if ( enchantmentId >= 0 && enchantmentId < period.procs.length() )
+        {
+            period.procs.incrementAndGet( enchantmentId );
+        }
+
+        period.players.add( player );
+        events.increment();
+    }
+
+    /**
+     * Records damage dealt by a source, such as the key of an enchantment.
+     *
+     * @param source The source of the damage. Can't be null.
+     * @param damage The damage, which is ignored unless positive.
+     */
+    public final void recordDamage( @NonNull final String source, final double damage )
+    {
+        if ( damage > 0.0 )
+        {
+            // Kept in hundredths, so small amounts of damage still add up.
+            current.damage.add( source, Math.round( damage * 100.0 ) );
+            events.increment();
+        }
+    }
+
+    /**
+     * Returns the estimated distinct players that procced an enchantment today (UTC).
+     *
+     * @return The estimated amount of players.
+     */
+    public final long getUniquePlayersToday()
+    {
+        final HyperLogLog players = new HyperLogLog();
+
+        players.merge( today );
+        players.merge( current.players );
+
+        return players.estimate();
+    }
+
+    /**
+     * Ends the current period and returns its rollup.
+     *
+     * @return The rollup.
+     */
+    public final synchronized UsageRollup rollup()
+    {
+        return rollup( current.keys );
+    }
+
+    /**
+     * Ends the current period and returns its rollup, and starts counting procs by new enchantment ids, such as after
+     * the enchantments are reloaded.
+     *
+     * @param enchantmentKeys The keys of the enchantments by id. Can't be null.
+     *
+     * @return The rollup.
+     */
+    public final synchronized UsageRollup rollup( @NonNull final List< String > enchantmentKeys )
+    {
+        final Period period = current;
+
+        current = new Period( enchantmentKeys );
+
+        final long end    = current.start;
+        final long endDay = Math.floorDiv( end, DAY_MILLIS );
+
+        // A period spanning midnight counts towards the day it ended on.
+        if ( endDay != day )
+        {
+            day   = endDay;
+            today = new HyperLogLog();
+        }
+
+        today.merge( period.players );
+        rollups.increment();
+
+        final Map< String, Long > procs = new LinkedHashMap<>();
+
+        for ( int id = 0; id < period.keys.size(); id++ )
+        {
+            final long count = period.procs.get( id );
+
+            if ( count > 0L )
+            {
+                procs.put( period.keys.get( id ), count );
+            }
+        }
+
+        final Map< String, Double > damage = new LinkedHashMap<>();
+
+        period.damage.top().forEach( ( source, hundredths ) -> damage.put( source, hundredths / 100.0 ) );
+
+        return new UsageRollup( period.start, end, procs, period.players.estimate(), today.estimate(),
+                                period.players.toByteArray(), damage );
+    }
+
+    /**
+     * The aggregates of one rollup period.
+     */
+    private final class Period
+    {
+
+        private final long            start   = clock.getAsLong();
+        private final List< String >  keys;
+        private final AtomicLongArray procs;
+        private final HyperLogLog     players = new HyperLogLog();
+        private final HeavyHitters    damage  = new HeavyHitters( sketchWidth, damageSources );
+
+        private Period( @NonNull final List< String > keys )
+        {
+            this.keys  = new ArrayList<>( keys );
+            this.procs = new AtomicLongArray( keys.size() );
+        }
+
+    }
+
+}
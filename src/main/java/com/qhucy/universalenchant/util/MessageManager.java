@@ -1,5 +1,6 @@
 package com.qhucy.universalenchant.util;
 
+import com.qhucy.universalenchant.jfr.TemplateRenderEvent;
 import lombok.NonNull;
 import org.bukkit.ChatColor;
 
@@ -87,6 +88,11 @@ public final class MessageManager
         {
             if ( replacementVariables != null && replacementVariables.length > 1 && replacementVariables.length % 2 == 0 )
             {
+                final TemplateRenderEvent event          = new TemplateRenderEvent();
+                final int                 templateLength = message.length();
+
+                event.begin();
+
                 for ( int i = 0; i < replacementVariables.length; i += 2 )
                 {
                     final String variable = replacementVariables[ i ];
@@ -94,6 +100,8 @@ public final class MessageManager
 
                     message = message.replace( variable, value );
                 }
+
+                event.record( templateLength, replacementVariables.length / 2 );
             }
 
             return message;
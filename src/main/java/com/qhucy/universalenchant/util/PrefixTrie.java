@@ -0,0 +1,160 @@
+package com.qhucy.universalenchant.util;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable prefix trie of words for case-insensitive tab completion.
+ * <p>
+ * The words are sorted once when the trie is built, so every word starting with the prefix of a node is in one range
+ * of the sorted words, and every node stores that range. Completing a prefix walks one node per character of the
+ * prefix and returns a view of its range, so it takes time proportional to the prefix and never scans or lowercases
+ * the words.
+ *
+ * @author Qhucy
+ */
+public final class PrefixTrie
+{
+
+    // Trie with no words.
+    public static final PrefixTrie EMPTY = new PrefixTrie( Collections.emptyList() );
+
+    // Every word in order of its lower case form, in its original case.
+    private final List< String > words;
+    private final Node           root;
+
+    /**
+     * Builds a trie of words. Words that only differ by case are kept once.
+     *
+     * @param words The words. Can't be null.
+     */
+    public PrefixTrie( @NonNull final Collection< String > words )
+    {
+        final Map< String, String > sorted = new TreeMap<>();
+
+        for ( final String word : words )
+        {
+            sorted.putIfAbsent( word.toLowerCase( Locale.ROOT ), word );
+        }
+
+        final String[] lowerCase = sorted.keySet().toArray( new String[ 0 ] );
+
+        this.words = Collections.unmodifiableList( Arrays.asList( sorted.values().toArray( new String[ 0 ] ) ) );
+        this.root  = build( lowerCase, 0, 0, lowerCase.length );
+    }
+
+    /**
+     * Builds the node of the words in a range that share a prefix of a length.
+     *
+     * @param lowerCase The sorted lower case words. Can't be null.
+     * @param depth     The length of the shared prefix.
+     * @param start     The start of the range, inclusive.
+     * @param end       The end of the range, exclusive.
+     *
+     * @return The node.
+     */
+    private static Node build( @NonNull final String[] lowerCase, final int depth, final int start, final int end )
+    {
+        // Words that end at this node sort before every longer word with the same prefix.
+        int first = start;
+
+        while ( first < end && lowerCase[ first ].length() == depth )
+        {
+            first++;
+        }
+
+        int childCount = 0;
+
+        for ( int index = first; index < end; index++ )
+        {
+            if ( index == first || lowerCase[ index ].charAt( depth ) != lowerCase[ index - 1 ].charAt( depth ) )
+            {
+                childCount++;
+            }
+        }
+
+        final Node node       = new Node( start, end, childCount );
+        int        child      = 0;
+        int        childStart = first;
+
+        for ( int index = first + 1; index <= end; index++ )
+        {
+            if ( index == end || lowerCase[ index ].charAt( depth ) != lowerCase[ childStart ].charAt( depth ) )
+            {
+                node.keys[ child ]     = lowerCase[ childStart ].charAt( depth );
+                node.children[ child ] = build( lowerCase, depth + 1, childStart, index );
+
+                child++;
+                childStart = index;
+            }
+        }
+
+        return node;
+    }
+
+    /**
+     * Returns every word starting with a prefix, ignoring case.
+     *
+     * @param prefix The prefix. Can't be null.
+     *
+     * @return An unmodifiable view of the words starting with the prefix in alphabetical order.
+     */
+    public final List< String > complete( @NonNull final String prefix )
+    {
+        Node node = root;
+
+        for ( int index = 0; index < prefix.length() && node != null; index++ )
+        {
+            node = node.child( Character.toLowerCase( prefix.charAt( index ) ) );
+        }
+
+        return node == null ? Collections.emptyList() : words.subList( node.start, node.end );
+    }
+
+    /**
+     * Returns the amount of words in the trie.
+     *
+     * @return The amount of words.
+     */
+    public final int size()
+    {
+        return words.size();
+    }
+
+    /**
+     * Node of the trie, holding the range of the words starting with its prefix.
+     */
+    private static final class Node
+    {
+
+        private final int    start;
+        private final int    end;
+        // The next characters of the prefix in ascending order, and the node of each.
+        private final char[] keys;
+        private final Node[] children;
+
+        private Node( final int start, final int end, final int childCount )
+        {
+            this.start    = start;
+            this.end      = end;
+            this.keys     = new char[ childCount ];
+            this.children = new Node[ childCount ];
+        }
+
+        private Node child( final char key )
+        {
+            final int index = Arrays.binarySearch( keys, key );
+
+            return index < 0 ? null : children[ index ];
+        }
+
+    }
+
+}
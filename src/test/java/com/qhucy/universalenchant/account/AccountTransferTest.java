@@ -0,0 +1,287 @@
+package com.qhucy.universalenchant.account;
+
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "AccountTransfer Testing" )
+final class AccountTransferTest
+{
+
+    private static final int BATCH_SIZE = 100;
+    private static final int ACCOUNTS   = 250;
+
+    private Path                    folder;
+    private MemoryStorage           storage;
+    private List< List< Account > > imported;
+    private AccountTransferService  service;
+
+    @BeforeEach
+    void setUp()
+            throws IOException
+    {
+        folder   = Files.createTempDirectory( "accounts" );
+        storage  = new MemoryStorage();
+        imported = Collections.synchronizedList( new ArrayList<>() );
+        service  = createService();
+    }
+
+    private AccountTransferService createService()
+            throws IOException
+    {
+        return new AccountTransferService( storage, folder, folder.resolve( "accounts.checkpoint" ), BATCH_SIZE, 0,
+                                           Runnable::run, imported::add, new MetricsRegistry(),
+                                           Logger.getLogger( "AccountTransferTest" ) );
+    }
+
+    private void await()
+            throws InterruptedException
+    {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos( 10L );
+
+        while ( service.isRunning() && System.nanoTime() < deadline )
+        {
+            Thread.sleep( 1L );
+        }
+
+        assertFalse( service.isRunning() );
+    }
+
+    private static UUID uniqueId( final int index )
+    {
+        return new UUID( 0x1234L, index );
+    }
+
+    private void writeCsv( final String name )
+            throws IOException
+    {
+        final List< String > lines = new ArrayList<>();
+
+        lines.add( "uuid,balance" );
+
+        for ( int index = 0; index < ACCOUNTS; index++ )
+        {
+            lines.add( uniqueId( index ) + "," + index * 1.5 );
+        }
+
+        Files.write( folder.resolve( name ), lines, StandardCharsets.UTF_8 );
+    }
+
+    @Test
+    @DisplayName( "Lines Parse In Both Formats" )
+    void formats()
+    {
+        final UUID    uniqueId = uniqueId( 7 );
+        final Account account  = new Account( uniqueId, 12.5 );
+
+        for ( final AccountFormat format : AccountFormat.values() )
+        {
+            final Account parsed = format.parseLine( format.format( account ) );
+
+            assertEquals( uniqueId, parsed.getUniqueId() );
+            assertEquals( 12.5, parsed.getBalance() );
+            assertNull( format.parseLine( "  " ) );
+        }
+
+        assertNull( AccountFormat.CSV.parseLine( "uuid,balance" ) );
+        assertEquals( 3.0, AccountFormat.CSV.parseLine( "\"" + uniqueId + "\", 3" ).getBalance() );
+        assertEquals( 4.0, AccountFormat.JSON_LINES.parseLine(
+                "{ \"name\": \"Qhucy\", \"balance\": 4, \"uuid\": \"" + uniqueId + "\", \"admin\": true }" )
+                                                   .getBalance() );
+        assertThrows( IllegalArgumentException.class, () -> AccountFormat.CSV.parseLine( uniqueId + ",NaN" ) );
+        assertThrows( IllegalArgumentException.class, () -> AccountFormat.CSV.parseLine( "Qhucy,3" ) );
+        assertThrows( IllegalArgumentException.class, () -> AccountFormat.JSON_LINES.parseLine(
+                "{\"uuid\":\"" + uniqueId + "\",\"balance\":{\"amount\":3}}" ) );
+        assertThrows( IllegalArgumentException.class, () -> AccountFormat.JSON_LINES.parseLine(
+                "{\"uuid\":\"" + uniqueId + "\"}" ) );
+        assertEquals( AccountFormat.JSON_LINES, AccountFormat.fromFileName( "Accounts.JSONL" ) );
+        assertNull( AccountFormat.fromFileName( "accounts.txt" ) );
+    }
+
+    @Test
+    @DisplayName( "Files Outside Of The Plugin Folder Are Rejected" )
+    void resolve()
+            throws IOException
+    {
+        assertEquals( folder.resolve( "exports/accounts.csv" ).toAbsolutePath(),
+                      service.resolve( "exports/accounts.csv" ) );
+        assertThrows( IOException.class, () -> service.resolve( "../accounts.csv" ) );
+        assertThrows( IOException.class, () -> service.resolve( "accounts.checkpoint" ) );
+        assertThrows( IOException.class, () -> service.start( TransferDirection.IMPORT, "missing.csv" ) );
+    }
+
+    @Test
+    @DisplayName( "Imports Are Written In Batches" )
+    void importAccounts()
+            throws IOException, InterruptedException
+    {
+        writeCsv( "accounts.csv" );
+
+        assertEquals( 0L, service.start( TransferDirection.IMPORT, "accounts.csv" ).getPosition() );
+
+        await();
+
+        assertEquals( ACCOUNTS, storage.accounts.size() );
+        assertEquals( 3, storage.saves );
+        assertEquals( 3, imported.size() );
+        assertEquals( 12.0, storage.accounts.get( uniqueId( 8 ).toString() ).getBalance() );
+        assertNull( service.getProgress() );
+        assertFalse( Files.exists( folder.resolve( "accounts.checkpoint" ) ) );
+    }
+
+    @Test
+    @DisplayName( "Failed Imports Resume After The Last Batch" )
+    void resumeImport()
+            throws IOException, InterruptedException
+    {
+        writeCsv( "accounts.csv" );
+        storage.failAfter = 1;
+        service.start( TransferDirection.IMPORT, "accounts.csv" );
+
+        await();
+
+        assertEquals( BATCH_SIZE, storage.accounts.size() );
+        assertEquals( BATCH_SIZE, service.getProgress().getAccounts() );
+
+        // The checkpoint survives a restart.
+        storage.failAfter = Integer.MAX_VALUE;
+        service           = createService();
+
+        final TransferCheckpoint resumed = service.start( TransferDirection.IMPORT, "accounts.csv" );
+
+        await();
+
+        assertTrue( resumed.getPosition() > 0L );
+        assertEquals( BATCH_SIZE + 1, resumed.getLines() );
+        assertEquals( ACCOUNTS, storage.accounts.size() );
+        // Only the batches after the checkpoint were written again.
+        assertEquals( 3, storage.saves );
+        assertEquals( 3, imported.size() );
+    }
+
+    @Test
+    @DisplayName( "Exports Page Through Storage And Resume Without Duplicates" )
+    void export()
+            throws IOException, InterruptedException
+    {
+        for ( int index = 0; index < ACCOUNTS; index++ )
+        {
+            storage.accounts.put( uniqueId( index ).toString(), new Account( uniqueId( index ), index ) );
+        }
+
+        storage.failAfter = 1;
+        service.start( TransferDirection.EXPORT, "accounts.jsonl" );
+
+        await();
+
+        assertEquals( BATCH_SIZE, Files.readAllLines( folder.resolve( "accounts.jsonl" ) ).size() );
+
+        // Lines written after the checkpoint are dropped when the export resumes.
+        Files.write( folder.resolve( "accounts.jsonl" ), "{\"uuid\":".getBytes( StandardCharsets.UTF_8 ),
+                     StandardOpenOption.APPEND );
+        storage.failAfter = Integer.MAX_VALUE;
+
+        assertTrue( service.start( TransferDirection.EXPORT, "accounts.jsonl" ).getPosition() > 0L );
+
+        await();
+
+        final List< String > lines = Files.readAllLines( folder.resolve( "accounts.jsonl" ) );
+
+        assertEquals( ACCOUNTS, lines.size() );
+
+        String previous = "";
+
+        for ( final String line : lines )
+        {
+            final Account account = AccountFormat.JSON_LINES.parseLine( line );
+
+            assertTrue( account.getUniqueId().toString().compareTo( previous ) > 0 );
+            assertEquals( storage.accounts.get( account.getUniqueId().toString() ).getBalance(),
+                          account.getBalance() );
+
+            previous = account.getUniqueId().toString();
+        }
+    }
+
+    /**
+     * Storage of accounts in memory, sorted by unique id like the database, that fails once a number of batches were
+     * transferred.
+     */
+    private static final class MemoryStorage
+            implements AccountStorage
+    {
+
+        private final Map< String, Account > accounts  = Collections.synchronizedMap( new TreeMap<>() );
+        private volatile int                 failAfter = Integer.MAX_VALUE;
+        private volatile int                 saves;
+        private volatile int                 loads;
+
+        @Override
+        public final void saveAccounts( final List< Account > batch )
+                throws IOException
+        {
+            if ( saves >= failAfter )
+            {
+                throw new IOException( "The database is unavailable." );
+            }
+
+            saves++;
+
+            for ( final Account account : batch )
+            {
+                accounts.put( account.getUniqueId().toString(), account );
+            }
+        }
+
+        @Override
+        public final List< Account > loadAccounts( final UUID after, final int limit )
+                throws IOException
+        {
+            if ( loads >= failAfter )
+            {
+                throw new IOException( "The database is unavailable." );
+            }
+
+            loads++;
+
+            final List< Account > batch = new ArrayList<>();
+
+            synchronized ( accounts )
+            {
+                final TreeMap< String, Account > sorted = new TreeMap<>( accounts );
+
+                for ( final Account account : sorted.tailMap( after == null ? "" : after.toString(), false )
+                                                    .values() )
+                {
+                    if ( batch.size() == limit )
+                    {
+                        break;
+                    }
+
+                    batch.add( account );
+                }
+            }
+
+            return batch;
+        }
+
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.qhucy.universalenchant.benchmark;
+
+import com.qhucy.universalenchant.block.BlockChangeBenchmark;
+import com.qhucy.universalenchant.spatial.SpatialGridBenchmark;
+import lombok.NonNull;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal benchmark harness for the hot paths of the plugin. Run it with {@code mvn -P benchmark test-compile
+ * exec:java}.
+ * <p>
+ * Every benchmark is warmed up before it is measured, and the value each iteration returns is accumulated so the JIT
+ * can't remove the measured work.
+ *
+ * @author Qhucy
+ */
+public final class BenchmarkRunner
+{
+
+    private static final int WARMUP_ROUNDS   = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    // Accumulates the results of every benchmark so that their work is never dead code.
+    private static long blackhole;
+
+    private BenchmarkRunner()
+    {
+    }
+
+    public static void main( final String[] args )
+    {
+        SpatialGridBenchmark.run();
+        BlockChangeBenchmark.run();
+
+        System.out.println( "(blackhole " + blackhole + ")" );
+    }
+
+    /**
+     * Measures a benchmark and prints its average time per operation and operations per millisecond.
+     *
+     * @param name       The name of the benchmark. Can't be null.
+     * @param operations The amount of operations one call of the body performs. Must be positive.
+     * @param body       The measured work. Returns a value derived from its work. Can't be null.
+     */
+    public static void measure( @NonNull final String name, final int operations, @NonNull final LongSupplier body )
+    {
+        for ( int round = 0; round < WARMUP_ROUNDS; round++ )
+        {
+            blackhole += body.getAsLong();
+        }
+
+        long bestNanos  = Long.MAX_VALUE;
+        long totalNanos = 0;
+
+        for ( int round = 0; round < MEASURED_ROUNDS; round++ )
+        {
+            final long start = System.nanoTime();
+
+            blackhole += body.getAsLong();
+
+            final long elapsed = System.nanoTime() - start;
+
+            bestNanos = Math.min( bestNanos, elapsed );
+            totalNanos += elapsed;
+        }
+
+        final double averageNanosPerOperation = ( double ) totalNanos / MEASURED_ROUNDS / operations;
+        final double bestNanosPerOperation    = ( double ) bestNanos / operations;
+
+        System.out.printf( "%-48s %12.1f ns/op (best %.1f) %12.1f ops/ms%n", name, averageNanosPerOperation,
+                           bestNanosPerOperation, 1_000_000.0 / averageNanosPerOperation );
+    }
+
+}
@@ -0,0 +1,247 @@
+package com.qhucy.universalenchant.block;
+
+import com.qhucy.universalenchant.benchmark.BenchmarkRunner;
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Benchmarks mining a vein through the {@link BlockChangeEngine} against a model of calling
+ * {@code Block.breakNaturally} per block, which checks protection, updates the physics of every neighbour and spawns
+ * an item entity per block. Both are reported in blocks per millisecond.
+ *
+ * @author Qhucy
+ */
+public final class BlockChangeBenchmark
+{
+
+    // An 8 block wide cube of ores on the corner of four chunks.
+    private static final int SIZE   = 8;
+    private static final int START  = 12;
+    private static final int BLOCKS = SIZE * SIZE * SIZE;
+    private static final int ORES   = 3;
+    // The amount of veins mined per measured round.
+    private static final int VEINS  = 2_000;
+
+    private BlockChangeBenchmark()
+    {
+    }
+
+    public static void run()
+    {
+        final ModelWorld                                       world  = new ModelWorld();
+        final BlockChangeEngine< Object, ModelWorld, Integer > engine = new BlockChangeEngine<>(
+                world, world, 1_000.0, System::nanoTime, new MetricsRegistry() );
+        final Object                                           player = new Object();
+
+        BenchmarkRunner.measure( "block change engine vein (blocks)", BLOCKS * VEINS, () -> {
+            long dropped = 0;
+
+            for ( int vein = 0; vein < VEINS; vein++ )
+            {
+                world.fill();
+
+                final BlockOperation< Object, ModelWorld > operation = new BlockOperation<>( player, world, START,
+                                                                                             64, START );
+
+                for ( int x = START; x < START + SIZE; x++ )
+                {
+                    for ( int y = 64; y < 64 + SIZE; y++ )
+                    {
+                        for ( int z = START; z < START + SIZE; z++ )
+                        {
+                            operation.add( x, y, z );
+                        }
+                    }
+                }
+
+                engine.submit( operation );
+                dropped += world.entities.size();
+            }
+
+            return dropped;
+        } );
+
+        BenchmarkRunner.measure( "breakNaturally per block vein (blocks)", BLOCKS * VEINS, () -> {
+            long updated = 0;
+
+            for ( int vein = 0; vein < VEINS; vein++ )
+            {
+                world.fill();
+
+                for ( int x = START; x < START + SIZE; x++ )
+                {
+                    for ( int y = 64; y < 64 + SIZE; y++ )
+                    {
+                        for ( int z = START; z < START + SIZE; z++ )
+                        {
+                            updated += world.breakNaturally( x, y, z );
+                        }
+                    }
+                }
+
+                updated += world.entities.size();
+            }
+
+            return updated;
+        } );
+    }
+
+    /**
+     * A model of a world of four chunks, whose blocks are ids and whose dropped items are entities.
+     */
+    private static final class ModelWorld
+            implements BlockAccess< Object, ModelWorld, Integer >, BlockProtection< Object, ModelWorld >
+    {
+
+        private final Map< Long, short[] > chunks   = new HashMap<>();
+        // Whether every chunk is protected, looked up like a region by protection plugins.
+        private final Map< Long, Boolean > regions  = new HashMap<>();
+        private final List< Object >       entities = new ArrayList<>();
+
+        private ModelWorld()
+        {
+            for ( int chunkX = 0; chunkX < 2; chunkX++ )
+            {
+                for ( int chunkZ = 0; chunkZ < 2; chunkZ++ )
+                {
+                    final long key = BlockPositions.getChunkKey( BlockPositions.pack( chunkX << 4, 0, chunkZ << 4 ) );
+
+                    chunks.put( key, new short[ 16 * 256 * 16 ] );
+                    regions.put( key, Boolean.FALSE );
+                }
+            }
+        }
+
+        private void fill()
+        {
+            entities.clear();
+
+            for ( int x = START; x < START + SIZE; x++ )
+            {
+                for ( int y = 64; y < 64 + SIZE; y++ )
+                {
+                    for ( int z = START; z < START + SIZE; z++ )
+                    {
+                        setBlock( BlockPositions.pack( x, y, z ), 1 + ( x + y + z ) % ORES );
+                    }
+                }
+            }
+        }
+
+        private int getBlock( final long position )
+        {
+            final short[] chunk = chunks.get( BlockPositions.getChunkKey( position ) );
+
+            return chunk == null ? 0 : chunk[ index( position ) ];
+        }
+
+        private void setBlock( final long position, final int block )
+        {
+            chunks.get( BlockPositions.getChunkKey( position ) )[ index( position ) ] = ( short ) block;
+        }
+
+        private static int index( final long position )
+        {
+            return BlockPositions.getY( position ) << 8 | ( int ) ( position & 0xFF );
+        }
+
+        private boolean isProtected( final long position )
+        {
+            return regions.get( BlockPositions.getChunkKey( position ) );
+        }
+
+        /**
+         * Checks protection, breaks the block, updates the physics of its neighbours and spawns its drop.
+         */
+        private int breakNaturally( final int x, final int y, final int z )
+        {
+            final long position = BlockPositions.pack( x, y, z );
+            final int  block    = getBlock( position );
+
+            if ( isProtected( position ) || block == 0 )
+            {
+                return 0;
+            }
+
+            setBlock( position, 0 );
+            entities.add( new double[] { x + 0.5, y + 0.5, z + 0.5, block } );
+
+            return getBlock( BlockPositions.pack( x - 1, y, z ) ) + getBlock( BlockPositions.pack( x + 1, y, z ) )
+                   + getBlock( BlockPositions.pack( x, y - 1, z ) ) + getBlock( BlockPositions.pack( x, y + 1, z ) )
+                   + getBlock( BlockPositions.pack( x, y, z - 1 ) ) + getBlock( BlockPositions.pack( x, y, z + 1 ) );
+        }
+
+        @Override
+        public final void check( final Object player, final ModelWorld world, final long[] positions,
+                                 final int count, final BitSet denied, final BitSet withoutDrops,
+                                 final int[] experience )
+        {
+            for ( int index = 0; index < count; index++ )
+            {
+                if ( isProtected( positions[ index ] ) )
+                {
+                    denied.set( index );
+                }
+            }
+        }
+
+        @Override
+        public final boolean isChunkLoaded( final ModelWorld world, final int chunkX, final int chunkZ )
+        {
+            return true;
+        }
+
+        @Override
+        public final boolean breakBlock( final Object player, final ModelWorld world, final long position,
+                                         final boolean dropItems, final Consumer< Integer > drops )
+        {
+            final int block = getBlock( position );
+
+            if ( block == 0 )
+            {
+                return false;
+            }
+
+            setBlock( position, 0 );
+
+            if ( dropItems )
+            {
+                drops.accept( block );
+            }
+
+            return true;
+        }
+
+        @Override
+        public final boolean isSimilar( final Integer first, final Integer second )
+        {
+            return first.equals( second );
+        }
+
+        @Override
+        public final int getAmount( final Integer item )
+        {
+            return 1;
+        }
+
+        @Override
+        public final void drop( final ModelWorld world, final long position, final Integer item, final int amount )
+        {
+            entities.add( new double[] { BlockPositions.getX( position ), BlockPositions.getY( position ),
+                                         BlockPositions.getZ( position ), item, amount } );
+        }
+
+        @Override
+        public final void dropExperience( final ModelWorld world, final long position, final int amount )
+        {
+        }
+
+    }
+
+}
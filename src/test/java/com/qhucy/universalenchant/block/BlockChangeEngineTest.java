@@ -0,0 +1,281 @@
+package com.qhucy.universalenchant.block;
+
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "BlockChangeEngine Testing" )
+final class BlockChangeEngineTest
+{
+
+    // Every block costs one millisecond on the fake clock.
+    private static final long BLOCK_NANOS = TimeUnit.MILLISECONDS.toNanos( 1L );
+
+    private MetricsRegistry                                metricsRegistry;
+    private FakeWorld                                      world;
+    private BlockChangeEngine< String, FakeWorld, String > engine;
+
+    @BeforeEach
+    void setUp()
+    {
+        metricsRegistry = new MetricsRegistry();
+        world           = new FakeWorld();
+        engine          = new BlockChangeEngine<>( world, world, 3.0, () -> world.clock, metricsRegistry );
+    }
+
+    private long counter( final String name )
+    {
+        return metricsRegistry.counter( name ).get();
+    }
+
+    @Test
+    @DisplayName( "Positions Pack And Sort By Chunk" )
+    void positions()
+    {
+        final int[][] blocks = { { 0, 0, 0 }, { -1, 255, -1 }, { 29_999_999, -64, -29_999_999 }, { 17, 70, -33 } };
+
+        for ( final int[] block : blocks )
+        {
+            final long position = BlockPositions.pack( block[ 0 ], block[ 1 ], block[ 2 ] );
+
+            assertEquals( block[ 0 ], BlockPositions.getX( position ) );
+            assertEquals( block[ 1 ], BlockPositions.getY( position ) );
+            assertEquals( block[ 2 ], BlockPositions.getZ( position ) );
+            assertEquals( block[ 0 ] >> 4, BlockPositions.getChunkX( position ) );
+            assertEquals( block[ 2 ] >> 4, BlockPositions.getChunkZ( position ) );
+        }
+
+        assertEquals( BlockPositions.getChunkKey( BlockPositions.pack( 16, 0, 31 ) ),
+                      BlockPositions.getChunkKey( BlockPositions.pack( 31, 255, 16 ) ) );
+        assertTrue( BlockPositions.getChunkKey( BlockPositions.pack( 15, 0, 0 ) )
+                    != BlockPositions.getChunkKey( BlockPositions.pack( 16, 0, 0 ) ) );
+    }
+
+    @Test
+    @DisplayName( "Operations Merge Drops And Skip Denied Blocks" )
+    void operation()
+    {
+        final BlockOperation< String, FakeWorld > operation = new BlockOperation<>( "Qhucy", world, 0, 64, 0 );
+
+        for ( int x = -2; x < 2; x++ )
+        {
+            world.place( x, 64, 0, "iron" );
+            world.place( x, 63, 0, x < 0 ? "coal" : "iron" );
+            operation.add( x, 64, 0 );
+            operation.add( x, 63, 0 );
+        }
+
+        // Added twice, changed once.
+        operation.add( 1, 64, 0 );
+        world.denied.add( BlockPositions.pack( -2, 63, 0 ) );
+        engine.submit( operation );
+        engine.flush();
+
+        assertEquals( 1, world.checks );
+        assertEquals( 7, counter( "blocks.changed" ) );
+        assertEquals( 1, counter( "blocks.denied" ) );
+        assertTrue( world.blocks.containsKey( BlockPositions.pack( -2, 63, 0 ) ) );
+        assertEquals( 1, world.blocks.size() );
+        assertEquals( 2, world.dropped.size() );
+        assertEquals( "coal x1 at " + operation.getOrigin(), world.dropped.get( 0 ) );
+        assertEquals( "iron x6 at " + operation.getOrigin(), world.dropped.get( 1 ) );
+    }
+
+    @Test
+    @DisplayName( "Blocks Drop As The Protection Check Decided" )
+    void checkedDrops()
+    {
+        final BlockOperation< String, FakeWorld > operation = new BlockOperation<>( "Qhucy", world, 0, 64, 0 );
+
+        for ( int x = 0; x < 4; x++ )
+        {
+            world.place( x, 64, 0, "diamond" );
+            operation.add( x, 64, 0 );
+        }
+
+        world.withoutDrops.add( BlockPositions.pack( 3, 64, 0 ) );
+        world.denied.add( BlockPositions.pack( 0, 64, 0 ) );
+        engine.submit( operation );
+        engine.flush();
+
+        // The denied block is skipped, and the block without drops still drops its experience.
+        assertEquals( 3, counter( "blocks.changed" ) );
+        assertEquals( "diamond x2 at " + operation.getOrigin(), world.dropped.get( 0 ) );
+        assertEquals( "3 experience at " + operation.getOrigin(), world.dropped.get( 1 ) );
+    }
+
+    @Test
+    @DisplayName( "Operations Are Spread Across Ticks By The Budget" )
+    void budget()
+    {
+        final BlockOperation< String, FakeWorld > first  = new BlockOperation<>( "Qhucy", world, 0, 64, 0 );
+        final BlockOperation< String, FakeWorld > second = new BlockOperation<>( "Qhucy", world, 0, 64, 0 );
+
+        for ( int y = 0; y < 20; y++ )
+        {
+            world.place( 0, y, 0, "stone" );
+            world.place( 1, y, 0, "dirt" );
+            first.add( 0, y, 0 );
+            second.add( 1, y, 0 );
+        }
+
+        // The clock is read every 16 blocks, which is past the budget of 3 blocks every time.
+        engine.submit( first );
+        engine.submit( second );
+
+        assertEquals( 16, counter( "blocks.changed" ) );
+        assertEquals( 24, engine.getPendingBlocks() );
+        assertTrue( world.dropped.isEmpty() );
+
+        engine.tick();
+
+        assertEquals( 32, counter( "blocks.changed" ) );
+        // The first operation finished, so its drops were dropped.
+        assertEquals( 1, world.dropped.size() );
+
+        engine.tick();
+
+        assertEquals( 40, counter( "blocks.changed" ) );
+        assertEquals( 0, engine.getPendingBlocks() );
+        assertEquals( 2, world.dropped.size() );
+    }
+
+    @Test
+    @DisplayName( "Blocks In Unloaded Chunks Are Skipped" )
+    void unloadedChunks()
+    {
+        final BlockOperation< String, FakeWorld > operation = new BlockOperation<>( "Qhucy", world, 0, 64, 0 );
+
+        for ( int x = 0; x < 48; x += 8 )
+        {
+            world.place( x, 64, 0, "stone" );
+            operation.add( x, 64, 0 );
+        }
+
+        world.unloaded.add( 1 );
+        engine.flush();
+        engine.submit( operation );
+        engine.flush();
+
+        assertEquals( 4, counter( "blocks.changed" ) );
+        assertEquals( 2, counter( "blocks.skipped" ) );
+        assertEquals( 2, world.blocks.size() );
+        // Checked once per chunk rather than once per block.
+        assertEquals( 3, world.loadChecks );
+    }
+
+    /**
+     * A world of named blocks that drop their name, which counts one millisecond per broken block on its clock.
+     */
+    private static final class FakeWorld
+            implements BlockAccess< String, FakeWorld, String >, BlockProtection< String, FakeWorld >
+    {
+
+        private final Map< Long, String > blocks   = new HashMap<>();
+        private final Set< Long >         denied       = new HashSet<>();
+        private final Set< Long >         withoutDrops = new HashSet<>();
+        // The x of every chunk that isn't loaded.
+        private final Set< Integer >      unloaded     = new HashSet<>();
+        private final List< String >      dropped      = new ArrayList<>();
+        private long                      clock;
+        private int                       checks;
+        private int                       loadChecks;
+
+        private void place( final int x, final int y, final int z, final String block )
+        {
+            blocks.put( BlockPositions.pack( x, y, z ), block );
+        }
+
+        @Override
+        public final void check( final String player, final FakeWorld world, final long[] positions, final int count,
+                                 final BitSet deniedPositions, final BitSet positionsWithoutDrops,
+                                 final int[] experience )
+        {
+            checks++;
+
+            for ( int index = 0; index < count; index++ )
+            {
+                if ( denied.contains( positions[ index ] ) )
+                {
+                    deniedPositions.set( index );
+                }
+
+                if ( withoutDrops.contains( positions[ index ] ) )
+                {
+                    positionsWithoutDrops.set( index );
+                }
+
+                // Only diamonds drop experience, so the other tests only count dropped items.
+                experience[ index ] = "diamond".equals( blocks.get( positions[ index ] ) ) ? 1 : 0;
+            }
+        }
+
+        @Override
+        public final boolean isChunkLoaded( final FakeWorld world, final int chunkX, final int chunkZ )
+        {
+            loadChecks++;
+
+            return !unloaded.contains( chunkX );
+        }
+
+        @Override
+        public final boolean breakBlock( final String player, final FakeWorld world, final long position,
+                                         final boolean dropItems, final Consumer< String > drops )
+        {
+            final String block = blocks.remove( position );
+
+            if ( block == null )
+            {
+                return false;
+            }
+
+            clock += BLOCK_NANOS;
+
+            if ( dropItems )
+            {
+                drops.accept( block );
+            }
+
+            return true;
+        }
+
+        @Override
+        public final boolean isSimilar( final String first, final String second )
+        {
+            return first.equals( second );
+        }
+
+        @Override
+        public final int getAmount( final String item )
+        {
+            return 1;
+        }
+
+        @Override
+        public final void drop( final FakeWorld world, final long position, final String item, final int amount )
+        {
+            dropped.add( item + " x" + amount + " at " + position );
+        }
+
+        @Override
+        public final void dropExperience( final FakeWorld world, final long position, final int amount )
+        {
+            dropped.add( amount + " experience at " + position );
+        }
+
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.qhucy.universalenchant.broadcast;
+
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "BroadcastDispatcher Testing" )
+final class BroadcastDispatcherTest
+{
+
+    private static final BroadcastMessage MESSAGE = new BroadcastMessage(
+            "%player% bought %enchantment%.", Collections.singletonMap( "de_DE", "%player% kaufte %enchantment%." ) );
+
+    private MetricsRegistry                  metricsRegistry;
+    // Every sent message in order.
+    private List< Sent >                     sent;
+    private BroadcastDispatcher< Recipient > dispatcher;
+
+    @BeforeEach
+    void setUp()
+    {
+        metricsRegistry = new MetricsRegistry();
+        sent            = new ArrayList<>();
+        dispatcher      = new BroadcastDispatcher<>(
+                recipient -> recipient.locale, ( recipient, message ) -> sent.add( new Sent( recipient, message ) ),
+                100, metricsRegistry );
+    }
+
+    private static List< Recipient > recipients( final int amount )
+    {
+        final String[]          locales    = { "en_us", "de_de", "fr_fr" };
+        final List< Recipient > recipients = new ArrayList<>();
+
+        for ( int i = 0; i < amount; i++ )
+        {
+            recipients.add( new Recipient( locales[ i % locales.length ], i % 2 == 0 ? "red" : "blue" ) );
+        }
+
+        return recipients;
+    }
+
+    @Test
+    @DisplayName( "Every Distinct Message Is Rendered Once" )
+    void renderedOncePerLocale()
+    {
+        dispatcher.broadcast( MESSAGE, recipients( 90 ),
+                              new String[] { "%player%", "Qhucy", "%enchantment%", "Lifesteal" } );
+
+        assertEquals( 90, sent.size() );
+        // Locales without a translation share the default message.
+        assertEquals( 2, metricsRegistry.counter( "broadcast.rendered" ).get() );
+        assertEquals( "Qhucy bought Lifesteal.", sent.get( 0 ).message );
+        assertEquals( "Qhucy kaufte Lifesteal.", sent.get( 1 ).message );
+        assertSame( sent.get( 0 ).message, sent.get( 2 ).message );
+        assertSame( sent.get( 1 ).message, sent.get( 4 ).message );
+    }
+
+    @Test
+    @DisplayName( "Recipients Are Grouped By Recipient Variables" )
+    void recipientVariables()
+    {
+        dispatcher.broadcast( MESSAGE, recipients( 60 ), new String[] { "%player%", "Qhucy" },
+                              new RecipientVariable<>( "%enchantment%", recipient -> recipient.team ) );
+
+        assertEquals( 4, metricsRegistry.counter( "broadcast.rendered" ).get() );
+
+        for ( final Sent delivery : sent )
+        {
+            assertTrue( delivery.message.endsWith( delivery.recipient.team + "." ) );
+        }
+    }
+
+    @Test
+    @DisplayName( "Large Broadcasts Are Spread Across Ticks In Order" )
+    void spreadAcrossTicks()
+    {
+        final List< Recipient > first  = recipients( 150 );
+        final List< Recipient > second = recipients( 20 );
+
+        dispatcher.broadcast( MESSAGE, first, new String[ 0 ] );
+        dispatcher.broadcast( MESSAGE, second, new String[ 0 ] );
+
+        assertEquals( 100, sent.size() );
+        assertEquals( 70, dispatcher.getPendingCount() );
+
+        dispatcher.tick();
+
+        assertEquals( 170, sent.size() );
+        assertSame( first.get( 149 ), sent.get( 149 ).recipient );
+        assertSame( second.get( 0 ), sent.get( 150 ).recipient );
+
+        // Broadcasts with room left in the tick are sent immediately.
+        dispatcher.broadcast( MESSAGE, second, new String[ 0 ] );
+
+        assertEquals( 190, sent.size() );
+        assertEquals( 0, dispatcher.getPendingCount() );
+    }
+
+    /**
+     * A recipient with a locale and a team.
+     */
+    private static final class Recipient
+    {
+
+        private final String locale;
+        private final String team;
+
+        private Recipient( final String locale, final String team )
+        {
+            this.locale = locale;
+            this.team   = team;
+        }
+
+    }
+
+    /**
+     * A message sent to a recipient.
+     */
+    private static final class Sent
+    {
+
+        private final Recipient recipient;
+        private final String    message;
+
+        private Sent( final Recipient recipient, final String message )
+        {
+            this.recipient = recipient;
+            this.message   = message;
+        }
+
+    }
+
+}
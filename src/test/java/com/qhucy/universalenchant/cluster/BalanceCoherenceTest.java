@@ -0,0 +1,227 @@
+package com.qhucy.universalenchant.cluster;
+
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import com.qhucy.universalenchant.player.BackpressurePolicy;
+import com.qhucy.universalenchant.player.PlayerData;
+import com.qhucy.universalenchant.player.PlayerDataService;
+import com.qhucy.universalenchant.player.PlayerDataStorage;
+import com.qhucy.universalenchant.player.PlayerDataWriteQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "BalanceCoherence Testing" )
+final class BalanceCoherenceTest
+{
+
+    private static final Logger LOGGER = Logger.getLogger( "BalanceCoherenceTest" );
+
+    private final UUID player = UUID.randomUUID();
+
+    // Deliveries of the network, run manually to control their order.
+    private List< Runnable > deliveries;
+    private LoopbackNetwork  network;
+    private Node             first;
+    private Node             second;
+
+    @BeforeEach
+    void setUp()
+            throws IOException
+    {
+        deliveries = new ArrayList<>();
+        network    = new LoopbackNetwork( deliveries::add );
+        first      = new Node( "first" );
+        second     = new Node( "second" );
+    }
+
+    private void deliverAll()
+    {
+        final List< Runnable > pending = new ArrayList<>( deliveries );
+
+        deliveries.clear();
+        pending.forEach( Runnable::run );
+    }
+
+    @Test
+    @DisplayName( "Balance Changes Update Other Nodes" )
+    void updates()
+    {
+        second.join( player );
+        first.playerDataService.setBalance( new PlayerData( player, 0.0, new HashMap<>() ), 50.0 );
+        deliverAll();
+
+        assertEquals( 50.0, second.playerDataService.get( player ).getBalance() );
+        assertEquals( 1, first.metricsRegistry.counter( "cluster.published" ).get() );
+        assertEquals( 1, second.metricsRegistry.counter( "cluster.applied" ).get() );
+    }
+
+    @Test
+    @DisplayName( "Out Of Order And Repeated Messages Are Dropped" )
+    void outOfOrder()
+    {
+        final PlayerData playerData = new PlayerData( player, 0.0, new HashMap<>() );
+
+        second.join( player );
+        first.playerDataService.setBalance( playerData, 10.0 );
+        first.playerDataService.setBalance( playerData, 20.0 );
+
+        // Delivered newest first, then the newest again.
+        final Runnable older = deliveries.get( 0 );
+        final Runnable newer = deliveries.get( 1 );
+
+        newer.run();
+        older.run();
+        newer.run();
+
+        assertEquals( 20.0, second.playerDataService.get( player ).getBalance() );
+        assertEquals( 2, second.metricsRegistry.counter( "cluster.dropped" ).get() );
+    }
+
+    @Test
+    @DisplayName( "Versions Increase Past Every Known Version" )
+    void versions()
+    {
+        final PlayerData playerData = new PlayerData( player, 0.0, new HashMap<>() );
+
+        first.join( player );
+        second.join( player );
+
+        // The second node's clock is behind and its change is still newer.
+        first.clock  = 2000L;
+        second.clock = 1000L;
+        first.playerDataService.setBalance( playerData, 10.0 );
+        deliverAll();
+        second.playerDataService.setBalance( second.playerDataService.get( player ), 30.0 );
+        deliverAll();
+
+        assertEquals( 30.0, first.playerDataService.get( player ).getBalance() );
+
+        // Changes within the same millisecond are ordered too.
+        first.playerDataService.setBalance( first.playerDataService.get( player ), 40.0 );
+        first.playerDataService.setBalance( first.playerDataService.get( player ), 45.0 );
+        Collections.reverse( deliveries );
+        deliverAll();
+
+        assertEquals( 45.0, second.playerDataService.get( player ).getBalance() );
+        assertEquals( 0, first.metricsRegistry.counter( "cluster.dropped" ).get() );
+        assertEquals( 1, second.metricsRegistry.counter( "cluster.dropped" ).get() );
+    }
+
+    @Test
+    @DisplayName( "Stored Balances Update Other Nodes" )
+    void storedBalances()
+    {
+        second.join( player );
+        first.balanceCoherence.applyStoredBalance( player, 75.0 );
+        deliverAll();
+
+        assertEquals( 75.0, second.playerDataService.get( player ).getBalance() );
+    }
+
+    @Test
+    @DisplayName( "Invalidations Reload Balances Of Online Players" )
+    void onlineInvalidations()
+    {
+        second.join( player );
+        second.playerDataService.get( player ).setBalance( 30.0 );
+
+        first.balanceCoherence.publishInvalidate( player );
+        deliverAll();
+
+        assertEquals( 0.0, second.playerDataService.get( player ).getBalance() );
+    }
+
+    @Test
+    @DisplayName( "Invalidations Evict Cached Data Of Quit Players" )
+    void invalidations()
+    {
+        second.join( player );
+        second.playerDataService.onQuit( player );
+
+        assertNotNull( second.playerDataService.getCached( player ) );
+
+        first.balanceCoherence.publishInvalidate( player );
+        deliverAll();
+
+        assertNull( second.playerDataService.getCached( player ) );
+
+        // Malformed messages are counted and dropped.
+        first.transport.publish( new byte[] { 1, 2, 3 } );
+        deliverAll();
+
+        assertEquals( 1, second.metricsRegistry.counter( "cluster.malformed" ).get() );
+    }
+
+    /**
+     * A node of the cluster with its own player data service, connected to the network.
+     */
+    private final class Node
+    {
+
+        private final MetricsRegistry   metricsRegistry = new MetricsRegistry();
+        private final PlayerDataService playerDataService;
+        private final BalanceCoherence  balanceCoherence;
+        private final ClusterTransport  transport;
+        private long                    clock           = 1000L;
+
+        private Node( final String nodeId )
+                throws IOException
+        {
+            final PlayerDataWriteQueue writeQueue = new PlayerDataWriteQueue(
+                    new EmptyStorage(), Files.createTempDirectory( "journal" ).resolve( "player-data.journal" ), 16,
+                    BackpressurePolicy.SPILL, () -> true, metricsRegistry, LOGGER );
+
+            playerDataService = new PlayerDataService( new EmptyStorage(), writeQueue, Runnable::run, Runnable::run,
+                                                       metricsRegistry, 16, LOGGER );
+            balanceCoherence  = new BalanceCoherence( nodeId, playerDataService, Runnable::run, () -> clock, 16,
+                                                      metricsRegistry, LOGGER );
+            transport         = network.connect();
+
+            playerDataService.addBalanceListener( balanceCoherence );
+            balanceCoherence.connect( transport );
+        }
+
+        private void join( final UUID uniqueId )
+        {
+            playerDataService.onJoin( uniqueId );
+        }
+
+    }
+
+    /**
+     * Storage without any saved data.
+     */
+    private static final class EmptyStorage
+            implements PlayerDataStorage
+    {
+
+        @Override
+        public PlayerData load( final UUID uniqueId )
+        {
+            return new PlayerData( uniqueId, 0.0, new HashMap<>() );
+        }
+
+        @Override
+        public void save( final PlayerData playerData )
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.qhucy.universalenchant.cooldown;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "CooldownService Testing" )
+final class CooldownServiceTest
+{
+
+    private final UUID player = UUID.randomUUID();
+
+    private List< Long >    readyTicks;
+    private CooldownService cooldownService;
+
+    @BeforeEach
+    void setUp()
+    {
+        readyTicks      = new ArrayList<>();
+        cooldownService = new CooldownService(
+                ( player, enchantmentId ) -> readyTicks.add( cooldownService.getCurrentTick() ) );
+    }
+
+    private void advance( final long ticks )
+    {
+        for ( long i = 0; i < ticks; i++ )
+        {
+            cooldownService.tick();
+        }
+    }
+
+    @Test
+    @DisplayName( "Cooldowns Expire On Their Exact Tick Across Every Level" )
+    void expiresOnExactTick()
+    {
+        final long[] lengths = { 1, 63, 64, 65, 4095, 4096, 4097, 300_000 };
+
+        for ( final long length : lengths )
+        {
+            setUp();
+
+            advance( 37 );
+            cooldownService.start( player, 3, length );
+            advance( length - 1 );
+
+            assertTrue( cooldownService.isOnCooldown( player, 3 ) );
+            assertTrue( readyTicks.isEmpty(), "Fired early for length " + length );
+
+            advance( 1 );
+
+            assertFalse( cooldownService.isOnCooldown( player, 3 ) );
+            assertEquals( List.of( 37 + length ), readyTicks );
+            assertEquals( 0, cooldownService.size() );
+        }
+    }
+
+    @Test
+    @DisplayName( "Restarting A Cooldown" )
+    void restart()
+    {
+        cooldownService.start( player, 0, 10 );
+        advance( 5 );
+        cooldownService.start( player, 0, 10 );
+        advance( 9 );
+
+        assertEquals( 1, cooldownService.getRemainingTicks( player, 0 ) );
+        assertTrue( readyTicks.isEmpty() );
+
+        advance( 1 );
+
+        assertEquals( List.of( 15L ), readyTicks );
+    }
+
+    @Test
+    @DisplayName( "Clearing Cooldowns" )
+    void clear()
+    {
+        cooldownService.start( player, 0, 10 );
+        cooldownService.start( player, 20, 10 );
+        cooldownService.clear( player, 0 );
+
+        assertFalse( cooldownService.isOnCooldown( player, 0 ) );
+        assertTrue( cooldownService.isOnCooldown( player, 20 ) );
+
+        cooldownService.clear();
+        advance( 20 );
+
+        assertEquals( 0, cooldownService.size() );
+        assertTrue( readyTicks.isEmpty() );
+    }
+
+    @Test
+    @DisplayName( "Remapping Cooldowns To New Ids" )
+    void remap()
+    {
+        cooldownService.start( player, 0, 10 );
+        cooldownService.start( player, 1, 20 );
+        cooldownService.start( player, 2, 30 );
+        advance( 5 );
+
+        // The first two enchantments swap ids and the third one was removed.
+        cooldownService.remap( new int[] { 1, 0, -1 } );
+
+        assertEquals( 15, cooldownService.getRemainingTicks( player, 0 ) );
+        assertEquals( 5, cooldownService.getRemainingTicks( player, 1 ) );
+        assertEquals( 0, cooldownService.getRemainingTicks( player, 2 ) );
+        assertEquals( 2, cooldownService.size() );
+
+        advance( 5 );
+
+        assertEquals( List.of( 10L ), readyTicks );
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.qhucy.universalenchant.effect;
+
+import com.qhucy.universalenchant.enchant.CustomEnchantment;
+import com.qhucy.universalenchant.enchant.ItemGroup;
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "EffectPipeline Testing" )
+final class EffectPipelineTest
+{
+
+    private static final CustomEnchantment INLINE     = enchantment( 0, false );
+    private static final CustomEnchantment OFF_THREAD = enchantment( 1, true );
+
+    // Worker work, run manually to control when results are computed.
+    private Queue< Runnable > workerTasks;
+    private MetricsRegistry   metricsRegistry;
+    private EffectPipeline    effectPipeline;
+    // Every applied result.
+    private List< Integer >   applied;
+    private boolean           valid;
+
+    @BeforeEach
+    void setUp()
+    {
+        workerTasks     = new ArrayDeque<>();
+        metricsRegistry = new MetricsRegistry();
+        effectPipeline  = new EffectPipeline( workerTasks::add, 5, metricsRegistry,
+                                              Logger.getLogger( "EffectPipelineTest" ) );
+        applied         = new ArrayList<>();
+        valid           = true;
+    }
+
+    private static CustomEnchantment enchantment( final int id, final boolean offThread )
+    {
+        return new CustomEnchantment( id, "effect" + id, "Effect", Collections.emptySet(), Collections.emptyMap(), 1,
+                                      EnumSet.of( ItemGroup.PICKAXES ), Collections.emptySet(),
+                                      Collections.emptyMap(), offThread );
+    }
+
+    /**
+     * Effect that squares its snapshot.
+     */
+    private final SplitEffect< Integer, Integer > square = new SplitEffect< Integer, Integer >()
+    {
+        @Override
+        public Integer compute( final Integer snapshot )
+        {
+            return snapshot * snapshot;
+        }
+
+        @Override
+        public boolean isStillValid( final Integer snapshot )
+        {
+            return valid;
+        }
+
+        @Override
+        public void apply( final Integer snapshot, final Integer result )
+        {
+            applied.add( result );
+        }
+    };
+
+    private void runWorkers()
+    {
+        while ( !workerTasks.isEmpty() )
+        {
+            workerTasks.poll().run();
+        }
+    }
+
+    @Test
+    @DisplayName( "Effects Of Enchantments That Didn't Opt In Run Inline" )
+    void inline()
+    {
+        effectPipeline.run( INLINE, "player", square, 3 );
+
+        assertTrue( workerTasks.isEmpty() );
+        assertEquals( Collections.singletonList( 9 ), applied );
+    }
+
+    @Test
+    @DisplayName( "Results Are Applied On A Later Tick" )
+    void appliedLater()
+    {
+        effectPipeline.run( OFF_THREAD, "player", square, 4 );
+        runWorkers();
+
+        assertTrue( applied.isEmpty() );
+
+        effectPipeline.tick();
+
+        assertEquals( Collections.singletonList( 16 ), applied );
+        assertEquals( 1, metricsRegistry.counter( "effects.applied" ).get() );
+    }
+
+    @Test
+    @DisplayName( "Stale Results Are Discarded" )
+    void staleResults()
+    {
+        // A newer effect under the same key supersedes the older one.
+        effectPipeline.run( OFF_THREAD, "player", square, 2 );
+        effectPipeline.run( OFF_THREAD, "player", square, 5 );
+        effectPipeline.run( OFF_THREAD, "other", square, 6 );
+        runWorkers();
+        effectPipeline.tick();
+
+        assertEquals( 2, applied.size() );
+        assertTrue( applied.contains( 25 ) && applied.contains( 36 ) );
+
+        // Results that no longer apply to the world are discarded.
+        valid = false;
+        effectPipeline.run( OFF_THREAD, "player", square, 7 );
+        runWorkers();
+        effectPipeline.tick();
+
+        // Results that took longer than the maximum age are discarded.
+        valid = true;
+        effectPipeline.run( OFF_THREAD, "player", square, 8 );
+
+        for ( int tick = 0; tick < 6; tick++ )
+        {
+            effectPipeline.tick();
+        }
+
+        runWorkers();
+        effectPipeline.tick();
+
+        assertEquals( 2, applied.size() );
+        assertEquals( 3, metricsRegistry.counter( "effects.stale" ).get() );
+    }
+
+    @Test
+    @DisplayName( "Failed Effects Are Counted And Forgotten" )
+    void failedEffects()
+    {
+        effectPipeline.run( OFF_THREAD, "player", new SplitEffect< Integer, Integer >()
+        {
+            @Override
+            public Integer compute( final Integer snapshot )
+            {
+                throw new IllegalStateException( "Broken effect." );
+            }
+
+            @Override
+            public void apply( final Integer snapshot, final Integer result )
+            {
+                applied.add( result );
+            }
+        }, 1 );
+        runWorkers();
+        effectPipeline.tick();
+
+        assertTrue( applied.isEmpty() );
+        assertEquals( 1, metricsRegistry.counter( "effects.failed" ).get() );
+        assertEquals( 0, metricsRegistry.counter( "effects.stale" ).get() );
+
+        effectPipeline.run( OFF_THREAD, "player", square, 3 );
+        runWorkers();
+        effectPipeline.tick();
+
+        assertEquals( Collections.singletonList( 9 ), applied );
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.qhucy.universalenchant.enchant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "CompatibilityMatrix Testing" )
+final class CompatibilityMatrixTest
+{
+
+    private CompatibilityMatrix compatibilityMatrix;
+
+    @BeforeEach
+    void setUp()
+    {
+        final List< CustomEnchantment > enchantments = new ArrayList<>();
+
+        enchantments.add( new CustomEnchantment( 0, "lifesteal", "Lifesteal", Collections.emptySet(),
+                                                 Collections.emptyMap(), 5,
+                                                 EnumSet.of( ItemGroup.SWORDS, ItemGroup.AXES ),
+                                                 Collections.singleton( "vampiric" ), Collections.emptyMap(),
+                                                 false ) );
+        enchantments.add( new CustomEnchantment( 1, "vampiric", "Vampiric", Collections.emptySet(),
+                                                 Collections.emptyMap(), 3, EnumSet.of( ItemGroup.SWORDS ),
+                                                 Collections.emptySet(), Collections.emptyMap(), false ) );
+        enchantments.add( new CustomEnchantment( 2, "haste", "Haste", Collections.emptySet(), Collections.emptyMap(),
+                                                 3, EnumSet.of( ItemGroup.PICKAXES ), Collections.emptySet(),
+                                                 Collections.emptyMap(), false ) );
+
+        // Fills the registry past one word so that multi-word rows are covered.
+        for ( int id = 3; id < 70; id++ )
+        {
+            enchantments.add( new CustomEnchantment( id, "filler" + id, "Filler", Collections.emptySet(),
+                                                     Collections.emptyMap(), 1, EnumSet.of( ItemGroup.SWORDS ),
+                                                     id == 69 ? Collections.singleton( "lifesteal" )
+                                                              : Collections.emptySet(),
+                                                     Collections.emptyMap(), false ) );
+        }
+
+        compatibilityMatrix = new CompatibilityMatrix( enchantments );
+    }
+
+    @Test
+    @DisplayName( "Conflicts Are Symmetric" )
+    void conflictsAreSymmetric()
+    {
+        assertTrue( compatibilityMatrix.conflicts( 0, 1 ) );
+        assertTrue( compatibilityMatrix.conflicts( 1, 0 ) );
+        assertTrue( compatibilityMatrix.conflicts( 0, 69 ) );
+        assertTrue( compatibilityMatrix.conflicts( 69, 0 ) );
+        assertFalse( compatibilityMatrix.conflicts( 1, 2 ) );
+    }
+
+    @Test
+    @DisplayName( "Checking Applicable Groups" )
+    void isApplicable()
+    {
+        assertTrue( compatibilityMatrix.isApplicable( 0, ItemGroup.AXES ) );
+        assertFalse( compatibilityMatrix.isApplicable( 2, ItemGroup.SWORDS ) );
+        assertFalse( compatibilityMatrix.isApplicable( 0, null ) );
+    }
+
+    @Test
+    @DisplayName( "Adding To An Enchantment Set" )
+    void canAdd()
+    {
+        final long[] set = compatibilityMatrix.newSet();
+
+        CompatibilityMatrix.add( set, 0 );
+
+        assertTrue( compatibilityMatrix.canAdd( set, 0, ItemGroup.SWORDS ) );
+        assertFalse( compatibilityMatrix.canAdd( set, 1, ItemGroup.SWORDS ) );
+        assertFalse( compatibilityMatrix.canAdd( set, 69, ItemGroup.SWORDS ) );
+        assertTrue( compatibilityMatrix.canAdd( set, 68, ItemGroup.SWORDS ) );
+    }
+
+    @Test
+    @DisplayName( "Checking A Whole Enchantment Set" )
+    void isCompatible()
+    {
+        final long[] set = compatibilityMatrix.newSet();
+
+        CompatibilityMatrix.add( set, 0 );
+        CompatibilityMatrix.add( set, 68 );
+
+        assertTrue( compatibilityMatrix.isCompatible( set, ItemGroup.SWORDS ) );
+        assertFalse( compatibilityMatrix.isCompatible( set, ItemGroup.AXES ) );
+
+        CompatibilityMatrix.add( set, 69 );
+
+        assertFalse( compatibilityMatrix.isCompatible( set, ItemGroup.SWORDS ) );
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.qhucy.universalenchant.enchant;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "EnchantmentNames Testing" )
+final class EnchantmentNamesTest
+{
+
+    private static CustomEnchantment enchantment( final int id, final String key, final Set< String > aliases,
+                                                  final Map< String, String > localizedNames, final int maxLevel )
+    {
+        return new CustomEnchantment( id, key, key, aliases, localizedNames, maxLevel, EnumSet.of( ItemGroup.SWORDS ),
+                                      Collections.emptySet(), Collections.emptyMap(), false );
+    }
+
+    private final CustomEnchantment lifesteal = enchantment( 0, "lifesteal", Collections.singleton( "ls" ),
+                                                             Collections.singletonMap( "de_DE", "Lebens Raub" ), 12 );
+    private final CustomEnchantment lightning = enchantment( 1, "lightning", Collections.emptySet(),
+                                                             Collections.singletonMap( "de_de", "Blitz" ), 3 );
+
+    private final EnchantmentNames names = new EnchantmentNames( Arrays.asList( lifesteal, lightning ) );
+
+    @Test
+    @DisplayName( "Resolving Keys, Aliases And Localized Names" )
+    void resolve()
+    {
+        assertSame( lifesteal, names.resolve( "LifeSteal" ) );
+        assertSame( lifesteal, names.resolve( "ls" ) );
+        assertSame( lifesteal, names.resolve( "lebens_raub" ) );
+        assertSame( lightning, names.resolve( "blitz" ) );
+        assertNull( names.resolve( "haste" ) );
+    }
+
+    @Test
+    @DisplayName( "Completing Names In A Locale" )
+    void complete()
+    {
+        assertEquals( Arrays.asList( "lifesteal", "lightning", "ls" ), names.complete( "l", null ) );
+        assertEquals( Arrays.asList( "Lebens_Raub", "lifesteal", "lightning", "ls" ), names.complete( "l", "de_de" ) );
+        assertEquals( Collections.singletonList( "Blitz" ), names.complete( "B", "DE_DE" ) );
+        assertTrue( names.complete( "b", "fr_fr" ).isEmpty() );
+    }
+
+    @Test
+    @DisplayName( "Completing Levels" )
+    void completeLevels()
+    {
+        assertEquals( Arrays.asList( "1", "2", "3" ), names.completeLevels( lightning, "" ) );
+        assertEquals( Arrays.asList( "1", "10", "11", "12" ), names.completeLevels( lifesteal, "1" ) );
+    }
+
+    @Test
+    @DisplayName( "Shared Names Are Rejected" )
+    void sharedNames()
+    {
+        final Map< String, String > localizedNames = new HashMap<>();
+
+        localizedNames.put( "fr_fr", "LS" );
+
+        assertThrows( IllegalArgumentException.class, () -> new EnchantmentNames( Arrays.asList(
+                lifesteal, enchantment( 1, "haste", Collections.emptySet(), localizedNames, 1 ) ) ) );
+    }
+
+}
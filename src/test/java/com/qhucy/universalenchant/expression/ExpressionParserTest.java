@@ -0,0 +1,84 @@
+package com.qhucy.universalenchant.expression;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "ExpressionParser Testing" )
+final class ExpressionParserTest
+{
+
+    private static final String[] VARIABLES = { "level", "damage" };
+
+    private static double evaluate( final String formula, final double level, final double damage )
+            throws ExpressionParseException
+    {
+        return ExpressionParser.parse( formula, VARIABLES ).evaluate( new double[]{ level, damage } );
+    }
+
+    @Test
+    @DisplayName( "Operator Precedence" )
+    void operatorPrecedence()
+            throws ExpressionParseException
+    {
+        assertEquals( 7.0, evaluate( "1 + 2 * 3", 0, 0 ) );
+        assertEquals( 9.0, evaluate( "(1 + 2) * 3", 0, 0 ) );
+        assertEquals( -4.0, evaluate( "-2 ^ 2", 0, 0 ) );
+        assertEquals( 512.0, evaluate( "2 ^ 3 ^ 2", 0, 0 ) );
+        assertEquals( 1.0, evaluate( "7 % 3", 0, 0 ) );
+    }
+
+    @Test
+    @DisplayName( "Variables And Functions" )
+    void variablesAndFunctions()
+            throws ExpressionParseException
+    {
+        assertEquals( 11.5, evaluate( "damage * (1 + level * 0.15)", 1, 10 ), 1e-9 );
+        assertEquals( 3.0, evaluate( "max(level, min(damage, 3))", 2, 5 ) );
+        assertEquals( 1.0, evaluate( "clamp(damage, 0, 1)", 0, 5 ) );
+        assertEquals( 4.0, evaluate( "sqrt(abs(-16))", 0, 0 ) );
+    }
+
+    @Test
+    @DisplayName( "Constant Folding" )
+    void constantFolding()
+            throws ExpressionParseException
+    {
+        assertTrue( ExpressionParser.parse( "2 * (3 + 4)", VARIABLES ).isConstant() );
+        assertFalse( ExpressionParser.parse( "2 * level", VARIABLES ).isConstant() );
+    }
+
+    @Test
+    @DisplayName( "Malformed Formulas" )
+    void malformedFormulas()
+    {
+        assertThrows( ExpressionParseException.class, () -> ExpressionParser.parse( "1 +", VARIABLES ) );
+        assertThrows( ExpressionParseException.class, () -> ExpressionParser.parse( "(1 + 2", VARIABLES ) );
+        assertThrows( ExpressionParseException.class, () -> ExpressionParser.parse( "health * 2", VARIABLES ) );
+        assertThrows( ExpressionParseException.class, () -> ExpressionParser.parse( "foo(1)", VARIABLES ) );
+        assertThrows( ExpressionParseException.class, () -> ExpressionParser.parse( "min(1)", VARIABLES ) );
+    }
+
+    @Test
+    @DisplayName( "Level Specialization" )
+    void levelSpecialization()
+            throws ExpressionParseException
+    {
+        final LevelFormula chance = new LevelFormula( ExpressionParser.parse( "0.05 + level * 0.02", VARIABLES ), 0,
+                                                      5 );
+
+        assertTrue( chance.isLevelOnly() );
+        assertEquals( 0.07, chance.evaluate( 1 ), 1e-9 );
+        assertEquals( 0.15, chance.evaluate( 5 ), 1e-9 );
+        // Levels past the max level are clamped.
+        assertEquals( 0.15, chance.evaluate( 9 ), 1e-9 );
+
+        final LevelFormula damage = new LevelFormula(
+                ExpressionParser.parse( "damage * (1 + level * 0.15)", VARIABLES ), 0, 3 );
+
+        assertFalse( damage.isLevelOnly() );
+        assertEquals( 13.0, damage.evaluate( 2, new double[]{ 0, 10 } ), 1e-9 );
+    }
+
+}
@@ -0,0 +1,213 @@
+package com.qhucy.universalenchant.hud;
+
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "HudService Testing" )
+final class HudServiceTest
+{
+
+    private static final int INTERVAL = 4;
+
+    private Map< String, Long >   balances;
+    private Map< String, Long >   cooldowns;
+    private int                   formats;
+    private RecordingSink         sink;
+    private HudService< String >  service;
+    private HudVariable< String > balance;
+    private HudVariable< String > cooldown;
+
+    @BeforeEach
+    void setUp()
+    {
+        balances  = new HashMap<>();
+        cooldowns = new HashMap<>();
+        formats   = 0;
+        sink      = new RecordingSink();
+        balance   = new HudVariable<>( "%balance%", balances::get, value ->
+        {
+            formats++;
+
+            return Long.toString( value );
+        } );
+        cooldown  = new HudVariable<>( "%seconds%", cooldowns::get, Long::toString );
+        service   = new HudService<>( sink, createLayout( "Title", "Balance: %balance%" ), INTERVAL,
+                                      new MetricsRegistry() );
+    }
+
+    private HudLayout< String > createLayout( final String title, final String balanceLine )
+    {
+        return new HudLayout<>( title, Arrays.asList( new HudLine<>( balanceLine, false, balance ),
+                                                      new HudLine<>( "Static", false ),
+                                                      new HudLine<>( "Cooldown: %seconds%", true, cooldown ) ),
+                                new HudLine<>( "Bar: %balance%", false, balance ) );
+    }
+
+    private void add( final String player )
+    {
+        balances.put( player, 10L );
+        cooldowns.put( player, 0L );
+        service.add( player );
+    }
+
+    private void tick( final int ticks )
+    {
+        for ( int tick = 0; tick < ticks; tick++ )
+        {
+            service.tick();
+        }
+    }
+
+    @Test
+    @DisplayName( "Only Changed Lines Are Rendered And Sent" )
+    void diff()
+    {
+        add( "Qhucy" );
+        tick( INTERVAL );
+
+        assertEquals( Arrays.asList( "Qhucy title Title", "Qhucy row 0 Balance: 10", "Qhucy row 1 Static",
+                                     "Qhucy bar Bar: 10" ), sink.sent );
+        assertEquals( 2, formats );
+
+        sink.sent.clear();
+        tick( INTERVAL );
+
+        assertTrue( sink.sent.isEmpty() );
+        assertEquals( 2, formats );
+
+        balances.put( "Qhucy", 12L );
+        tick( INTERVAL );
+
+        assertEquals( Arrays.asList( "Qhucy row 0 Balance: 12", "Qhucy bar Bar: 12" ), sink.sent );
+        assertEquals( 4, formats );
+    }
+
+    @Test
+    @DisplayName( "Optional Lines Take Rows Only While Shown" )
+    void optional()
+    {
+        add( "Qhucy" );
+        tick( INTERVAL );
+        sink.sent.clear();
+
+        cooldowns.put( "Qhucy", 3L );
+        tick( INTERVAL );
+
+        assertEquals( Collections.singletonList( "Qhucy row 2 Cooldown: 3" ), sink.sent );
+
+        sink.sent.clear();
+        cooldowns.put( "Qhucy", 0L );
+        tick( INTERVAL );
+
+        assertEquals( Collections.singletonList( "Qhucy remove 2" ), sink.sent );
+    }
+
+    @Test
+    @DisplayName( "Viewers Are Spread Across The Refresh Interval" )
+    void spread()
+    {
+        for ( int player = 0; player < INTERVAL * 3; player++ )
+        {
+            add( "Player" + player );
+        }
+
+        for ( int tick = 0; tick < INTERVAL; tick++ )
+        {
+            sink.sent.clear();
+            service.tick();
+
+            // Every tick refreshes a third of the viewers, which show a title, two rows and an action bar.
+            assertEquals( 3 * 4, sink.sent.size() );
+        }
+
+        service.remove( "Player0" );
+
+        assertEquals( INTERVAL * 3 - 1, service.size() );
+    }
+
+    @Test
+    @DisplayName( "Unchanged Action Bars Are Sent Again Before Fading" )
+    void actionBar()
+    {
+        add( "Qhucy" );
+        tick( INTERVAL );
+        sink.sent.clear();
+        tick( 40 );
+
+        assertEquals( Collections.singletonList( "Qhucy bar Bar: 10" ), sink.sent );
+    }
+
+    @Test
+    @DisplayName( "New Layouts Render Every Line Again" )
+    void setLayout()
+    {
+        add( "Qhucy" );
+        tick( INTERVAL );
+        sink.sent.clear();
+
+        service.setLayout( createLayout( "Title", "Money: %balance%" ) );
+        tick( INTERVAL );
+
+        // The title is shown again, but unchanged rows aren't sent.
+        assertEquals( Arrays.asList( "Qhucy title Title", "Qhucy row 0 Money: 10" ), sink.sent );
+
+        sink.sent.clear();
+        service.setLayout( createLayout( null, "Money: %balance%" ) );
+        tick( INTERVAL );
+
+        assertEquals( Collections.singletonList( "Qhucy hide" ), sink.sent );
+    }
+
+    /**
+     * Sink that records everything it shows.
+     */
+    private static final class RecordingSink
+            implements HudSink< String >
+    {
+
+        private final List< String > sent = new ArrayList<>();
+
+        @Override
+        public final void showSidebar( final String viewer, final String title )
+        {
+            sent.add( viewer + " title " + title );
+        }
+
+        @Override
+        public final void setSidebarRow( final String viewer, final int row, final String text )
+        {
+            sent.add( viewer + " row " + row + " " + text );
+        }
+
+        @Override
+        public final void removeSidebarRow( final String viewer, final int row )
+        {
+            sent.add( viewer + " remove " + row );
+        }
+
+        @Override
+        public final void hideSidebar( final String viewer )
+        {
+            sent.add( viewer + " hide" );
+        }
+
+        @Override
+        public final void sendActionBar( final String viewer, final String text )
+        {
+            sent.add( viewer + " bar " + text );
+        }
+
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.qhucy.universalenchant.jfr;
+
+import com.qhucy.universalenchant.enchant.CustomEnchantment;
+import com.qhucy.universalenchant.enchant.ItemGroup;
+import com.qhucy.universalenchant.effect.EffectPipeline;
+import com.qhucy.universalenchant.effect.SplitEffect;
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import com.qhucy.universalenchant.util.MessageManager;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "FlightEvents Testing" )
+final class FlightEventsTest
+{
+
+    /**
+     * Records a workload with a settings profile and returns the recorded events of the plugin.
+     */
+    private static List< RecordedEvent > record( final Configuration configuration, final Runnable workload )
+            throws IOException
+    {
+        final Path recordingFile = Files.createTempFile( "universalenchant", ".jfr" );
+
+        try ( final Recording recording = new Recording( configuration ) )
+        {
+            recording.start();
+            workload.run();
+            recording.stop();
+            recording.dump( recordingFile );
+        }
+
+        return RecordingFile.readAllEvents( recordingFile ).stream().filter(
+                event -> event.getEventType().getName().startsWith( FlightEvents.PREFIX ) ).collect(
+                Collectors.toList() );
+    }
+
+    /**
+     * Renders a template and runs an effect.
+     */
+    private static void workload()
+    {
+        final CustomEnchantment enchantment = new CustomEnchantment( 3, "lifesteal", "Lifesteal",
+                                                                     Collections.emptySet(), Collections.emptyMap(), 1,
+                                                                     EnumSet.of( ItemGroup.SWORDS ),
+                                                                     Collections.emptySet(), Collections.emptyMap(),
+                                                                     false );
+        final EffectPipeline effectPipeline = new EffectPipeline( Runnable::run, 20, new MetricsRegistry(),
+                                                                  Logger.getLogger( "FlightEventsTest" ) );
+
+        MessageManager.replaceVariables( "Healed %amount%.", new String[] { "%amount%", "2" } );
+        effectPipeline.run( enchantment, "player", new SplitEffect< String, String >()
+        {
+            @Override
+            public String compute( final String snapshot )
+            {
+                return snapshot;
+            }
+
+            @Override
+            public void apply( final String snapshot, final String result )
+            {
+            }
+        }, "snapshot" );
+    }
+
+    @Test
+    @DisplayName( "The Bundled Profile Records Every Event" )
+    void bundledProfile()
+            throws IOException, ParseException
+    {
+        final Configuration configuration;
+        final InputStream   resource = FlightEventsTest.class.getResourceAsStream( "/" + FlightEvents.SETTINGS_FILE );
+
+        assertNotNull( resource );
+
+        try ( final Reader reader = new InputStreamReader( resource, StandardCharsets.UTF_8 ) )
+        {
+            configuration = Configuration.create( reader );
+        }
+
+        final List< RecordedEvent > events = record( configuration, FlightEventsTest::workload );
+
+        final RecordedEvent render = events.stream().filter( event -> event.getEventType().getName().equals(
+                FlightEvents.PREFIX + "TemplateRender" ) ).findFirst().orElseThrow( AssertionError::new );
+        final RecordedEvent effect = events.stream().filter( event -> event.getEventType().getName().equals(
+                FlightEvents.PREFIX + "EffectExecution" ) ).findFirst().orElseThrow( AssertionError::new );
+
+        assertEquals( 16, render.getInt( "templateLength" ) );
+        assertEquals( 1, render.getInt( "variables" ) );
+        assertEquals( 3, effect.getInt( "enchantmentId" ) );
+        assertEquals( "lifesteal", effect.getString( "enchantment" ) );
+        assertEquals( "inline", effect.getString( "stage" ) );
+        assertEquals( "player", effect.getString( "key" ) );
+    }
+
+    @Test
+    @DisplayName( "High-Frequency Events Are Disabled By Default" )
+    void defaultProfile()
+            throws IOException, ParseException
+    {
+        final List< RecordedEvent > events = record( Configuration.getConfiguration( "default" ),
+                                                     FlightEventsTest::workload );
+
+        assertTrue( events.stream().noneMatch( event -> event.getEventType().getName().equals(
+                FlightEvents.PREFIX + "TemplateRender" ) ) );
+        assertTrue( events.stream().anyMatch( event -> event.getEventType().getName().equals(
+                FlightEvents.PREFIX + "EffectExecution" ) ) );
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.qhucy.universalenchant.migration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "MigrationCheckpoint Testing" )
+final class MigrationCheckpointTest
+{
+
+    @Test
+    @DisplayName( "Missing Checkpoints Are Complete At Version 0" )
+    void missingCheckpoint()
+            throws IOException
+    {
+        final MigrationCheckpoint checkpoint = MigrationCheckpoint.load(
+                Files.createTempDirectory( "migration" ).resolve( "migration.checkpoint" ) );
+
+        assertEquals( MigrationPhase.COMPLETE, checkpoint.getPhase() );
+        assertEquals( 0, checkpoint.getCompletedVersion() );
+    }
+
+    @Test
+    @DisplayName( "Checkpoints Survive A Restart" )
+    void saveAndLoad()
+            throws IOException
+    {
+        final Path                path       = Files.createTempDirectory( "migration" ).resolve(
+                "migration.checkpoint" );
+        final MigrationCheckpoint checkpoint = new MigrationCheckpoint();
+
+        checkpoint.restart( 2 );
+        checkpoint.moveTo( "world_nether", "r.-1.0.mca", 517 );
+        checkpoint.addChunk( 3, 12 );
+        checkpoint.save( path );
+
+        final MigrationCheckpoint loaded = MigrationCheckpoint.load( path );
+
+        assertEquals( 0, loaded.getCompletedVersion() );
+        assertEquals( 2, loaded.getTargetVersion() );
+        assertEquals( MigrationPhase.WORLDS, loaded.getPhase() );
+        assertEquals( "world_nether", loaded.getWorld() );
+        assertEquals( "r.-1.0.mca", loaded.getRegion() );
+        assertEquals( 517, loaded.getChunk() );
+        assertEquals( 1, loaded.getChunks() );
+        assertEquals( 3, loaded.getContainers() );
+        assertEquals( 12, loaded.getItems() );
+    }
+
+    @Test
+    @DisplayName( "Completing A Sweep Records Its Version" )
+    void complete()
+            throws IOException
+    {
+        final Path                path       = Files.createTempDirectory( "migration" ).resolve(
+                "migration.checkpoint" );
+        final MigrationCheckpoint checkpoint = new MigrationCheckpoint();
+
+        checkpoint.restart( 4 );
+        checkpoint.moveTo( "world", "r.0.0.mca", 3 );
+        checkpoint.moveTo( MigrationPhase.COMPLETE );
+        checkpoint.save( path );
+
+        final MigrationCheckpoint loaded = MigrationCheckpoint.load( path );
+
+        assertEquals( 4, loaded.getCompletedVersion() );
+        assertEquals( MigrationPhase.COMPLETE, loaded.getPhase() );
+        assertNull( loaded.getWorld() );
+        assertNull( loaded.getRegion() );
+    }
+
+    @Test
+    @DisplayName( "Invalid Checkpoints Fail To Load" )
+    void invalidCheckpoint()
+            throws IOException
+    {
+        final Path path = Files.createTempDirectory( "migration" ).resolve( "migration.checkpoint" );
+
+        Files.write( path, "phase=sideways\n".getBytes() );
+
+        assertThrows( IOException.class, () -> MigrationCheckpoint.load( path ) );
+    }
+
+}
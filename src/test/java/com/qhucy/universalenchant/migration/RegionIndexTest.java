@@ -0,0 +1,71 @@
+package com.qhucy.universalenchant.migration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "RegionIndex Testing" )
+final class RegionIndexTest
+{
+
+    @Test
+    @DisplayName( "Parsing Region File Names" )
+    void parseRegion()
+    {
+        assertArrayEquals( new int[] { -3, 7 }, RegionIndex.parseRegion( "r.-3.7.mca" ) );
+        assertNull( RegionIndex.parseRegion( "r.0.0.mcr" ) );
+        assertNull( RegionIndex.parseRegion( "r.a.0.mca" ) );
+        assertNull( RegionIndex.parseRegion( "session.lock" ) );
+    }
+
+    @Test
+    @DisplayName( "Listing Region Files In Order" )
+    void listRegions()
+            throws IOException
+    {
+        final Path folder = Files.createTempDirectory( "region" );
+
+        Files.createFile( folder.resolve( "r.1.0.mca" ) );
+        Files.createFile( folder.resolve( "r.0.0.mca" ) );
+        Files.createFile( folder.resolve( "r.0.0.mca.tmp" ) );
+
+        assertArrayEquals( new String[] { "r.0.0.mca", "r.1.0.mca" }, RegionIndex.listRegions( folder.toFile() ) );
+        assertEquals( 0, RegionIndex.listRegions( folder.resolve( "missing" ).toFile() ).length );
+    }
+
+    @Test
+    @DisplayName( "Reading Saved Chunks From The Location Table" )
+    void readChunks()
+            throws IOException
+    {
+        final ByteBuffer locations = ByteBuffer.allocate( RegionIndex.CHUNKS * 4 + 4096 );
+
+        locations.putInt( 0, 0x00000201 );
+        locations.putInt( 33 * 4, 0x00000301 );
+        locations.putInt( 1023 * 4, 0x00000401 );
+
+        final File regionFile = Files.createTempFile( "r.0.0", ".mca" ).toFile();
+
+        Files.write( regionFile.toPath(), locations.array() );
+
+        final BitSet chunks = RegionIndex.readChunks( regionFile );
+
+        assertEquals( 3, chunks.cardinality() );
+        assertTrue( chunks.get( 0 ) && chunks.get( 33 ) && chunks.get( 1023 ) );
+        assertEquals( -31, RegionIndex.chunkX( -1, 1 ) );
+        assertEquals( 65, RegionIndex.chunkZ( 2, 33 ) );
+
+        Files.write( regionFile.toPath(), new byte[ 0 ] );
+
+        assertTrue( RegionIndex.readChunks( regionFile ).isEmpty() );
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.qhucy.universalenchant.movement;
+
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import org.bukkit.Location;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "MoveSampler Testing" )
+final class MoveSamplerTest
+{
+
+    private final UUID player = UUID.randomUUID();
+
+    private MetricsRegistry       metricsRegistry;
+    private MoveSampler< String > moveSampler;
+    // Every handled move as "mover:fromX>toX".
+    private List< String >        blockMoves;
+    private List< String >        tickMoves;
+
+    @BeforeEach
+    void setUp()
+    {
+        metricsRegistry = new MetricsRegistry();
+        moveSampler     = new MoveSampler<>( metricsRegistry );
+        blockMoves      = new ArrayList<>();
+        tickMoves       = new ArrayList<>();
+    }
+
+    private static Location at( final double x, final float yaw )
+    {
+        return new Location( null, x, 64.0, 0.5, yaw, 0.0f );
+    }
+
+    private void move( final double fromX, final double toX )
+    {
+        moveSampler.offer( player, "player", at( fromX, 0.0f ), at( toX, 0.0f ) );
+    }
+
+    private static MoveHandler< String > recordInto( final List< String > moves )
+    {
+        return ( mover, from, to ) -> moves.add( mover + ":" + from.getX() + ">" + to.getX() );
+    }
+
+    @Test
+    @DisplayName( "Head Rotation And Same Block Moves Are Filtered" )
+    void filtering()
+    {
+        moveSampler.register( MoveTrigger.BLOCK, recordInto( blockMoves ) );
+
+        moveSampler.offer( player, "player", at( 0.5, 0.0f ), at( 0.5, 90.0f ) );
+        move( 0.5, 0.9 );
+        moveSampler.tick();
+
+        assertTrue( blockMoves.isEmpty() );
+
+        move( 0.9, 1.1 );
+        moveSampler.tick();
+
+        assertEquals( 1, blockMoves.size() );
+        assertEquals( 1, metricsRegistry.counter( "movement.samples" ).get() );
+    }
+
+    @Test
+    @DisplayName( "Moves Within A Tick Are Coalesced" )
+    void coalescing()
+    {
+        moveSampler.register( MoveTrigger.BLOCK, recordInto( blockMoves ) );
+        moveSampler.register( MoveTrigger.TICK, recordInto( tickMoves ) );
+
+        move( 0.5, 0.7 );
+        move( 0.7, 1.2 );
+        move( 1.2, 2.4 );
+        moveSampler.tick();
+
+        assertEquals( 1, blockMoves.size() );
+        assertEquals( "player:0.5>2.4", blockMoves.get( 0 ) );
+        assertEquals( 1, tickMoves.size() );
+        assertEquals( 2, metricsRegistry.counter( "movement.coalesced" ).get() );
+
+        // Moves within the same block only reach tick handlers.
+        move( 2.4, 2.6 );
+        moveSampler.tick();
+
+        assertEquals( 1, blockMoves.size() );
+        assertEquals( 2, tickMoves.size() );
+
+        moveSampler.tick();
+
+        assertEquals( 2, tickMoves.size() );
+    }
+
+    @Test
+    @DisplayName( "Removed Movers Are Not Dispatched" )
+    void removal()
+    {
+        moveSampler.register( MoveTrigger.BLOCK, recordInto( blockMoves ) );
+
+        move( 0.5, 1.5 );
+        moveSampler.remove( player );
+        moveSampler.tick();
+
+        assertTrue( blockMoves.isEmpty() );
+    }
+
+}
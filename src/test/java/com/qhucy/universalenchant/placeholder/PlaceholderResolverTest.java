@@ -0,0 +1,118 @@
+package com.qhucy.universalenchant.placeholder;
+
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "PlaceholderResolver Testing" )
+final class PlaceholderResolverTest
+{
+
+    private Map< String, Integer >        resolves;
+    private Map< String, Long >           balances;
+    private PlaceholderResolver< String > resolver;
+
+    @BeforeEach
+    void setUp()
+    {
+        resolves = new HashMap<>();
+        balances = new HashMap<>();
+        resolver = new PlaceholderResolver<>( new MetricsRegistry() );
+
+        balances.put( "Qhucy", 100L );
+        resolver.register( "%balance%", player ->
+        {
+            resolves.merge( "%balance%", 1, Integer::sum );
+
+            return Long.toString( balances.get( player ) );
+        } );
+        resolver.register( "%rank%", player ->
+        {
+            resolves.merge( "%rank%", 1, Integer::sum );
+
+            return "Admin";
+        } );
+    }
+
+    @Test
+    @DisplayName( "Texts Render In One Pass" )
+    void render()
+    {
+        assertEquals( "Qhucy has 100 (Admin)", resolver.render( "%name% has %balance% (%rank%)", "Qhucy",
+                                                                new String[] { "%name%", "Qhucy" } ) );
+        assertEquals( "100% of %unknown% and 100%", resolver.render( "100% of %unknown% and %balance%%", "Qhucy" ) );
+        assertEquals( "Level %level%", resolver.render( "Level %level%", "Qhucy", new String[] { "%level%" } ) );
+        assertEquals( "No placeholders", resolver.render( "No placeholders", "Qhucy" ) );
+        // Variables take precedence over placeholders.
+        assertEquals( "Rank: Owner", resolver.render( "Rank: %rank%", "Qhucy", new String[] { "%rank%", "Owner" } ) );
+        assertThrows( IllegalArgumentException.class, () -> resolver.register( "balance", player -> "" ) );
+        assertThrows( IllegalArgumentException.class, () -> resolver.register( "%my balance%", player -> "" ) );
+    }
+
+    @Test
+    @DisplayName( "Only Referenced Placeholders Resolve, Once Per Tick" )
+    void memoize()
+    {
+        final List< String > lore = new ArrayList<>();
+
+        for ( int line = 0; line < 20; line++ )
+        {
+            lore.add( "Line " + line + ": %balance%" );
+        }
+
+        final List< String > rendered = resolver.render( lore, "Qhucy", null );
+
+        assertEquals( 20, rendered.size() );
+        assertEquals( "Line 19: 100", rendered.get( 19 ) );
+        assertEquals( Collections.singletonMap( "%balance%", 1 ), resolves );
+
+        balances.put( "Qhucy", 150L );
+
+        assertEquals( "100", resolver.render( "%balance%", "Qhucy" ) );
+
+        resolver.tick();
+
+        assertEquals( "150", resolver.render( "%balance%", "Qhucy" ) );
+        assertEquals( 2, resolves.get( "%balance%" ).intValue() );
+
+        balances.put( "Qhucy", 75L );
+        resolver.invalidate( "Qhucy" );
+
+        assertEquals( "75 Admin", resolver.render( "%balance% %rank%", "Qhucy" ) );
+        assertEquals( 3, resolves.get( "%balance%" ).intValue() );
+
+        // Values are memoized per player.
+        balances.put( "Steve", 5L );
+
+        assertEquals( "5", resolver.render( "%balance%", "Steve" ) );
+        assertEquals( 4, resolves.get( "%balance%" ).intValue() );
+    }
+
+    @Test
+    @DisplayName( "Placeholders Registered Later Apply To Cached Texts" )
+    void register()
+    {
+        assertEquals( "%kills%", resolver.render( "%kills%", "Qhucy" ) );
+
+        resolver.register( "%kills%", player -> "12" );
+
+        assertEquals( "12", resolver.render( "%kills%", "Qhucy" ) );
+
+        resolver.register( "%kills%", player -> null );
+
+        assertEquals( "Kills: ", resolver.render( "Kills: %kills%", "Qhucy" ) );
+        assertEquals( Arrays.asList( "Admin", "" ), resolver.render( Arrays.asList( "%rank%", "%kills%" ), "Qhucy",
+                                                                     null ) );
+    }
+
+}
@@ -0,0 +1,266 @@
+package com.qhucy.universalenchant.player;
+
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "PlayerDataService Testing" )
+final class PlayerDataServiceTest
+{
+
+    private static final Logger LOGGER = Logger.getLogger( "PlayerDataServiceTest" );
+
+    private final UUID player = UUID.randomUUID();
+
+    private MemoryStorage        storage;
+    // Load and main thread work, run manually to control when loads finish.
+    private Queue< Runnable >    ioTasks;
+    private Queue< Runnable >    mainTasks;
+    private MetricsRegistry      metricsRegistry;
+    // Written manually instead of by its writer thread.
+    private PlayerDataWriteQueue writeQueue;
+    private PlayerDataService    playerDataService;
+
+    @BeforeEach
+    void setUp()
+            throws IOException
+    {
+        storage           = new MemoryStorage();
+        ioTasks           = new ArrayDeque<>();
+        mainTasks         = new ArrayDeque<>();
+        metricsRegistry   = new MetricsRegistry();
+        writeQueue        = new PlayerDataWriteQueue( storage, Files.createTempDirectory( "journal" ).resolve(
+                "player-data.journal" ), 16, BackpressurePolicy.SPILL, () -> true, metricsRegistry, LOGGER );
+        playerDataService = createService( 2 );
+    }
+
+    private PlayerDataService createService( final int retainedCapacity )
+    {
+        return new PlayerDataService( storage, writeQueue, ioTasks::add, mainTasks::add, metricsRegistry,
+                                      retainedCapacity, LOGGER );
+    }
+
+    private static void runAll( final Queue< Runnable > tasks )
+    {
+        while ( !tasks.isEmpty() )
+        {
+            tasks.poll().run();
+        }
+    }
+
+    private void writeAll()
+    {
+        while ( writeQueue.writeNext() )
+        {
+            // Writes until the queue is empty.
+        }
+    }
+
+    @Test
+    @DisplayName( "Prefetched Data Is Ready On Join" )
+    void prefetchHit()
+    {
+        storage.saved.put( player, new PlayerData( player, 25.0, new HashMap<>() ) );
+
+        playerDataService.prefetch( player );
+        runAll( ioTasks );
+        playerDataService.onJoin( player );
+
+        assertTrue( playerDataService.isReady( player ) );
+        assertEquals( 25.0, playerDataService.get( player ).getBalance() );
+        assertEquals( 1, metricsRegistry.counter( "player-data.prefetch.hits" ).get() );
+        assertEquals( 1.0, playerDataService.getPrefetchHitRate() );
+    }
+
+    @Test
+    @DisplayName( "Unfinished Loads Complete On The Main Thread" )
+    void prefetchMiss()
+    {
+        playerDataService.prefetch( player );
+        playerDataService.onJoin( player );
+
+        assertFalse( playerDataService.isReady( player ) );
+
+        runAll( ioTasks );
+
+        assertFalse( playerDataService.isReady( player ) );
+
+        runAll( mainTasks );
+
+        assertTrue( playerDataService.isReady( player ) );
+        assertEquals( 1, metricsRegistry.counter( "player-data.prefetch.misses" ).get() );
+        assertEquals( 1, metricsRegistry.latency( "player-data.join-to-ready" ).getCount() );
+    }
+
+    @Test
+    @DisplayName( "Quit Players Are Saved And Retained" )
+    void retainedAfterQuit()
+    {
+        playerDataService.onJoin( player );
+        runAll( ioTasks );
+        runAll( mainTasks );
+
+        playerDataService.get( player ).setEnchantmentLevel( "lifesteal", 3 );
+        playerDataService.onQuit( player );
+        writeAll();
+
+        assertEquals( 3, storage.saved.get( player ).getEnchantmentLevel( "lifesteal" ) );
+
+        final int loads = storage.loads;
+
+        playerDataService.prefetch( player );
+        playerDataService.onJoin( player );
+
+        assertTrue( playerDataService.isReady( player ) );
+        assertEquals( loads, storage.loads );
+        assertEquals( 1, metricsRegistry.counter( "player-data.retained.hits" ).get() );
+    }
+
+    @Test
+    @DisplayName( "Least Recently Quit Players Are Evicted" )
+    void retainedEviction()
+    {
+        final UUID[] players = { UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID() };
+
+        for ( final UUID uniqueId : players )
+        {
+            playerDataService.onJoin( uniqueId );
+            runAll( ioTasks );
+            runAll( mainTasks );
+            playerDataService.onQuit( uniqueId );
+            writeAll();
+        }
+
+        final int loads = storage.loads;
+
+        playerDataService.prefetch( players[ 0 ] );
+
+        assertEquals( 1, ioTasks.size() );
+
+        runAll( ioTasks );
+
+        assertEquals( loads + 1, storage.loads );
+    }
+
+    @Test
+    @DisplayName( "Loads Read Unwritten Saves" )
+    void loadAfterSave()
+    {
+        final PlayerDataService uncached = createService( 0 );
+
+        uncached.onJoin( player );
+        runAll( ioTasks );
+        runAll( mainTasks );
+
+        uncached.get( player ).setBalance( 50.0 );
+        uncached.onQuit( player );
+        uncached.prefetch( player );
+        runAll( ioTasks );
+        uncached.onJoin( player );
+
+        assertEquals( 50.0, uncached.get( player ).getBalance() );
+        assertFalse( storage.saved.containsKey( player ) );
+    }
+
+    @Test
+    @DisplayName( "Invalidations Keep Balance Changes Made While Reloading" )
+    void invalidateAfterChange()
+    {
+        playerDataService.onJoin( player );
+        runAll( ioTasks );
+        runAll( mainTasks );
+
+        final PlayerData playerData = playerDataService.get( player );
+
+        storage.saved.put( player, new PlayerData( player, 20.0, new HashMap<>() ) );
+
+        assertTrue( playerDataService.invalidate( player ) );
+
+        runAll( ioTasks );
+        runAll( mainTasks );
+
+        assertEquals( 20.0, playerData.getBalance() );
+
+        storage.saved.put( player, new PlayerData( player, 30.0, new HashMap<>() ) );
+        playerDataService.invalidate( player );
+        playerDataService.setBalance( playerData, 50.0 );
+        runAll( ioTasks );
+        runAll( mainTasks );
+
+        assertEquals( 50.0, playerData.getBalance() );
+    }
+
+    @Test
+    @DisplayName( "Failed Loads Are Never Saved" )
+    void failedLoadNotSaved()
+    {
+        storage.failing = true;
+
+        playerDataService.prefetch( player );
+        runAll( ioTasks );
+        playerDataService.onJoin( player );
+
+        assertFalse( playerDataService.isReady( player ) );
+
+        storage.failing = false;
+
+        playerDataService.onQuit( player );
+        writeAll();
+
+        assertFalse( storage.saved.containsKey( player ) );
+        assertEquals( 1, metricsRegistry.counter( "player-data.load.failures" ).get() );
+    }
+
+    /**
+     * Storage that keeps player data in memory.
+     */
+    private static final class MemoryStorage
+            implements PlayerDataStorage
+    {
+
+        private final Map< UUID, PlayerData > saved = new HashMap<>();
+        private int                           loads;
+        private boolean                       failing;
+
+        @Override
+        public PlayerData load( final UUID uniqueId )
+                throws IOException
+        {
+            loads++;
+
+            if ( failing )
+            {
+                throw new IOException( "Storage is unavailable." );
+            }
+
+            final PlayerData playerData = saved.get( uniqueId );
+
+            return playerData == null ? new PlayerData( uniqueId, 0.0, new HashMap<>() ) : playerData.copy();
+        }
+
+        @Override
+        public void save( final PlayerData playerData )
+        {
+            saved.put( playerData.getUniqueId(), playerData.copy() );
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+    }
+
+}
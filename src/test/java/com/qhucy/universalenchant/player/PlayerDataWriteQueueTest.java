@@ -0,0 +1,306 @@
+package com.qhucy.universalenchant.player;
+
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "PlayerDataWriteQueue Testing" )
+final class PlayerDataWriteQueueTest
+{
+
+    private static final Logger LOGGER = Logger.getLogger( "PlayerDataWriteQueueTest" );
+
+    private final UUID first  = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+
+    private Path            journalPath;
+    private MemoryStorage   storage;
+    private MetricsRegistry metricsRegistry;
+
+    @BeforeEach
+    void setUp()
+            throws IOException
+    {
+        journalPath     = Files.createTempDirectory( "journal" ).resolve( "player-data.journal" );
+        storage         = new MemoryStorage();
+        metricsRegistry = new MetricsRegistry();
+    }
+
+    private PlayerDataWriteQueue createQueue( final int capacity, final BackpressurePolicy backpressurePolicy,
+                                              final boolean mainThread )
+            throws IOException
+    {
+        return new PlayerDataWriteQueue( storage, journalPath, capacity, backpressurePolicy, () -> mainThread,
+                                         metricsRegistry, LOGGER );
+    }
+
+    private static PlayerData data( final UUID uniqueId, final double balance )
+    {
+        return new PlayerData( uniqueId, balance, new HashMap<>() );
+    }
+
+    private static void writeAll( final PlayerDataWriteQueue writeQueue )
+    {
+        while ( writeQueue.writeNext() )
+        {
+            // Writes until the queue is empty.
+        }
+    }
+
+    @Test
+    @DisplayName( "Writes Of The Same Player Are Coalesced" )
+    void coalescing()
+            throws IOException
+    {
+        final PlayerDataWriteQueue writeQueue = createQueue( 4, BackpressurePolicy.SPILL, true );
+
+        writeQueue.submit( data( first, 1.0 ), WritePriority.LOW );
+        writeQueue.submit( data( first, 2.0 ), WritePriority.NORMAL );
+        writeQueue.submit( data( first, 3.0 ), WritePriority.LOW );
+
+        assertEquals( 1, writeQueue.getDepth() );
+        assertEquals( 3.0, writeQueue.getLatest( first ).getBalance() );
+
+        writeAll( writeQueue );
+
+        assertEquals( 1, storage.writes );
+        assertEquals( 3.0, storage.saved.get( first ).getBalance() );
+        assertNull( writeQueue.getLatest( first ) );
+        assertEquals( 2, metricsRegistry.counter( "player-data.write-queue.coalesced" ).get() );
+    }
+
+    @Test
+    @DisplayName( "Full Queues Spill To The Journal" )
+    void spillAndRefill()
+            throws IOException
+    {
+        final PlayerDataWriteQueue writeQueue = createQueue( 1, BackpressurePolicy.SPILL, true );
+
+        writeQueue.submit( data( first, 1.0 ), WritePriority.NORMAL );
+        writeQueue.submit( data( second, 2.0 ), WritePriority.NORMAL );
+
+        assertEquals( 1, writeQueue.getDepth() );
+        assertEquals( 2.0, writeQueue.getLatest( second ).getBalance() );
+        assertFalse( Files.exists( journalPath ) );
+
+        writeQueue.flushJournal();
+
+        assertTrue( Files.exists( journalPath ) );
+
+        writeAll( writeQueue );
+        writeQueue.flushJournal();
+
+        assertEquals( 2.0, storage.saved.get( second ).getBalance() );
+        assertFalse( Files.exists( journalPath ) );
+        assertEquals( 1, metricsRegistry.counter( "player-data.write-queue.spilled" ).get() );
+    }
+
+    @Test
+    @DisplayName( "Journaled Writes Survive Restarts" )
+    void journalRestart()
+            throws IOException
+    {
+        final PlayerDataWriteQueue writeQueue = createQueue( 1, BackpressurePolicy.SPILL, true );
+
+        writeQueue.submit( data( first, 1.0 ), WritePriority.NORMAL );
+        writeQueue.submit( data( second, 2.0 ), WritePriority.NORMAL );
+        writeQueue.flushJournal();
+
+        final PlayerDataWriteQueue restarted = createQueue( 1, BackpressurePolicy.SPILL, true );
+
+        assertEquals( 2.0, restarted.getLatest( second ).getBalance() );
+
+        writeAll( restarted );
+
+        assertEquals( 2.0, storage.saved.get( second ).getBalance() );
+    }
+
+    @Test
+    @DisplayName( "Drained Journaled Writes Are Kept Until Saved" )
+    void journalDrain()
+            throws IOException
+    {
+        final PlayerDataWriteQueue writeQueue = createQueue( 2, BackpressurePolicy.SPILL, true );
+        final UUID                 third      = UUID.randomUUID();
+        final UUID                 fourth     = UUID.randomUUID();
+
+        writeQueue.submit( data( first, 1.0 ), WritePriority.NORMAL );
+        writeQueue.submit( data( second, 2.0 ), WritePriority.NORMAL );
+        writeQueue.submit( data( third, 3.0 ), WritePriority.NORMAL );
+        writeQueue.submit( data( fourth, 4.0 ), WritePriority.NORMAL );
+        writeQueue.flushJournal();
+        writeQueue.writeNext();
+        writeQueue.writeNext();
+
+        // Refills the queue with both journaled writes, but only saves the first of them.
+        writeQueue.writeNext();
+        writeQueue.flushJournal();
+
+        final PlayerDataWriteQueue restarted = createQueue( 2, BackpressurePolicy.SPILL, true );
+
+        assertEquals( 3.0, storage.saved.get( third ).getBalance() );
+        assertNull( restarted.getLatest( third ) );
+        assertEquals( 4.0, restarted.getLatest( fourth ).getBalance() );
+        assertEquals( 4.0, writeQueue.getLatest( fourth ).getBalance() );
+
+        writeAll( writeQueue );
+        writeQueue.flushJournal();
+
+        assertEquals( 4.0, storage.saved.get( fourth ).getBalance() );
+        assertFalse( Files.exists( journalPath ) );
+    }
+
+    @Test
+    @DisplayName( "Cut Off Journal Lines Are Dropped" )
+    void journalTornLine()
+            throws IOException
+    {
+        Files.write( journalPath, ( first + "\t1.0\n" + second + "\t1234" ).getBytes( StandardCharsets.UTF_8 ) );
+
+        final PlayerDataWriteQueue writeQueue = createQueue( 1, BackpressurePolicy.SPILL, true );
+
+        assertEquals( 1.0, writeQueue.getLatest( first ).getBalance() );
+        assertNull( writeQueue.getLatest( second ) );
+        assertEquals( first + "\t1.0\n", new String( Files.readAllBytes( journalPath ), StandardCharsets.UTF_8 ) );
+    }
+
+    @Test
+    @DisplayName( "Superseded Journaled Writes Are Tombstoned" )
+    void journalTombstones()
+            throws IOException
+    {
+        final PlayerDataWriteQueue writeQueue = createQueue( 1, BackpressurePolicy.SPILL, true );
+
+        writeQueue.submit( data( first, 1.0 ), WritePriority.NORMAL );
+        writeQueue.submit( data( second, 2.0 ), WritePriority.NORMAL );
+        writeQueue.flushJournal();
+        writeQueue.writeNext();
+
+        // The queue has room again, so the newer write is queued and the journaled write is tombstoned.
+        writeQueue.submit( data( second, 3.0 ), WritePriority.NORMAL );
+        writeQueue.flushJournal();
+
+        assertNull( createQueue( 1, BackpressurePolicy.SPILL, true ).getLatest( second ) );
+        assertEquals( 3.0, writeQueue.getLatest( second ).getBalance() );
+        assertFalse( Files.exists( journalPath ) );
+    }
+
+    @Test
+    @DisplayName( "Low Priority Writes Are Shed" )
+    void shedding()
+            throws IOException
+    {
+        final PlayerDataWriteQueue writeQueue = createQueue( 1, BackpressurePolicy.SHED, true );
+
+        writeQueue.submit( data( first, 1.0 ), WritePriority.LOW );
+        writeQueue.submit( data( second, 2.0 ), WritePriority.LOW );
+
+        assertNull( writeQueue.getLatest( second ) );
+
+        // A normal write takes the place of the queued low priority write.
+        writeQueue.submit( data( second, 3.0 ), WritePriority.NORMAL );
+
+        assertNull( writeQueue.getLatest( first ) );
+        assertEquals( 3.0, writeQueue.getLatest( second ).getBalance() );
+        assertEquals( 2, metricsRegistry.counter( "player-data.write-queue.shed" ).get() );
+        assertFalse( Files.exists( journalPath ) );
+    }
+
+    @Test
+    @DisplayName( "Failed Writes Are Kept Until Superseded" )
+    void failedWrites()
+            throws IOException
+    {
+        final PlayerDataWriteQueue writeQueue = createQueue( 4, BackpressurePolicy.SPILL, true );
+
+        storage.failing = true;
+
+        writeQueue.submit( data( first, 1.0 ), WritePriority.NORMAL );
+        writeAll( writeQueue );
+
+        assertEquals( 1.0, writeQueue.getLatest( first ).getBalance() );
+
+        storage.failing = false;
+
+        writeQueue.submit( data( first, 2.0 ), WritePriority.NORMAL );
+        writeAll( writeQueue );
+
+        assertEquals( 2.0, storage.saved.get( first ).getBalance() );
+        assertNull( writeQueue.getLatest( first ) );
+        assertEquals( 1, metricsRegistry.counter( "player-data.save.failures" ).get() );
+    }
+
+    @Test
+    @DisplayName( "Async Callers Block Until There Is Room" )
+    void blocking()
+            throws IOException, InterruptedException
+    {
+        final PlayerDataWriteQueue writeQueue = createQueue( 1, BackpressurePolicy.BLOCK, false );
+
+        writeQueue.submit( data( first, 1.0 ), WritePriority.NORMAL );
+
+        final Thread caller = new Thread( () -> writeQueue.submit( data( second, 2.0 ), WritePriority.NORMAL ) );
+
+        caller.start();
+        caller.join( 100L );
+
+        assertTrue( caller.isAlive() );
+
+        writeQueue.writeNext();
+        caller.join( 5000L );
+
+        assertFalse( caller.isAlive() );
+        assertEquals( 2.0, writeQueue.getLatest( second ).getBalance() );
+        assertEquals( 1, metricsRegistry.latency( "player-data.write-queue.backpressure" ).getCount() );
+    }
+
+    /**
+     * Storage that keeps player data in memory.
+     */
+    private static final class MemoryStorage
+            implements PlayerDataStorage
+    {
+
+        private final Map< UUID, PlayerData > saved = new HashMap<>();
+        private int                           writes;
+        private boolean                       failing;
+
+        @Override
+        public PlayerData load( final UUID uniqueId )
+        {
+            return data( uniqueId, 0.0 );
+        }
+
+        @Override
+        public void save( final PlayerData playerData )
+                throws IOException
+        {
+            if ( failing )
+            {
+                throw new IOException( "Storage is unavailable." );
+            }
+
+            writes++;
+            saved.put( playerData.getUniqueId(), playerData.copy() );
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+    }
+
+}
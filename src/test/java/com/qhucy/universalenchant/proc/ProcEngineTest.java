@@ -0,0 +1,72 @@
+package com.qhucy.universalenchant.proc;
+
+import com.qhucy.universalenchant.enchant.EnchantmentRegistry;
+import com.qhucy.universalenchant.enchant.ProcTable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "ProcEngine Testing" )
+final class ProcEngineTest
+{
+
+    @Test
+    @DisplayName( "Seeded Engines Roll The Same Sequence" )
+    void seededEnginesAreDeterministic()
+    {
+        final ProcEngine first  = new ProcEngine( new EnchantmentRegistry(), 42L );
+        final ProcEngine second = new ProcEngine( new EnchantmentRegistry(), 42L );
+
+        for ( int i = 0; i < 1000; i++ )
+        {
+            assertEquals( first.nextInt(), second.nextInt() );
+        }
+    }
+
+    @Test
+    @DisplayName( "Reseeding Restarts The Sequence" )
+    void reseedingRestartsTheSequence()
+    {
+        final ProcEngine procEngine = new ProcEngine( new EnchantmentRegistry(), 7L );
+        final int        firstRoll  = procEngine.nextInt();
+
+        procEngine.nextInt();
+        procEngine.reseed( 7L );
+
+        assertEquals( firstRoll, procEngine.nextInt() );
+    }
+
+    @Test
+    @DisplayName( "Rolling Edge Chances" )
+    void rollingEdgeChances()
+    {
+        final ProcEngine procEngine = new ProcEngine( new EnchantmentRegistry(), 1L );
+
+        for ( int i = 0; i < 1000; i++ )
+        {
+            assertFalse( procEngine.roll( ProcTable.thresholdOf( 0.0 ) ) );
+            assertTrue( procEngine.roll( ProcTable.thresholdOf( 1.0 ) ) );
+        }
+    }
+
+    @Test
+    @DisplayName( "Rolling Matches The Chance" )
+    void rollingMatchesTheChance()
+    {
+        final ProcEngine procEngine = new ProcEngine( new EnchantmentRegistry(), 3L );
+        final long       threshold  = ProcTable.thresholdOf( 0.25 );
+        int              procs      = 0;
+
+        for ( int i = 0; i < 100_000; i++ )
+        {
+            if ( procEngine.roll( threshold ) )
+            {
+                procs++;
+            }
+        }
+
+        assertEquals( 0.25, procs / 100_000.0, 0.01 );
+    }
+
+}
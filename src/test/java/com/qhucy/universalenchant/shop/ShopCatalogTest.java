@@ -0,0 +1,140 @@
+package com.qhucy.universalenchant.shop;
+
+import com.qhucy.universalenchant.enchant.CustomEnchantment;
+import com.qhucy.universalenchant.enchant.ItemGroup;
+import com.qhucy.universalenchant.expression.ExpressionParseException;
+import com.qhucy.universalenchant.expression.ExpressionParser;
+import com.qhucy.universalenchant.expression.FormulaVariables;
+import com.qhucy.universalenchant.expression.LevelFormula;
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "ShopCatalog Testing" )
+final class ShopCatalogTest
+{
+
+    private static CustomEnchantment enchantment( final int id, final String price,
+                                                  final Map< String, String > localizedNames )
+            throws ExpressionParseException
+    {
+        final Map< String, LevelFormula > formulas =
+                price == null ? Collections.emptyMap()
+                              : Collections.singletonMap( ShopCatalog.PRICE_FORMULA, formula( price ) );
+
+        return new CustomEnchantment( id, "enchantment" + id, "Enchantment", Collections.emptySet(), localizedNames,
+                                      3, EnumSet.of( ItemGroup.SWORDS ), Collections.emptySet(), formulas, false );
+    }
+
+    private static LevelFormula formula( final String source )
+            throws ExpressionParseException
+    {
+        return new LevelFormula( ExpressionParser.parse( source, FormulaVariables.getNames() ), FormulaVariables.LEVEL,
+                                 3 );
+    }
+
+    private static List< CustomEnchantment > enchantments( final int amount )
+            throws ExpressionParseException
+    {
+        final List< CustomEnchantment > enchantments = new ArrayList<>();
+
+        for ( int id = 0; id < amount; id++ )
+        {
+            enchantments.add( enchantment( id, "100 * level", Collections.emptyMap() ) );
+        }
+
+        return enchantments;
+    }
+
+    @Test
+    @DisplayName( "Only Priced Enchantments Are Split Into Pages" )
+    void pages()
+            throws ExpressionParseException
+    {
+        final List< CustomEnchantment > enchantments = enchantments( 5 );
+
+        enchantments.add( 2, enchantment( 5, null, Collections.emptyMap() ) );
+
+        final ShopCatalog catalog = new ShopCatalog( enchantments, 2 );
+
+        assertEquals( 5, catalog.size() );
+        assertEquals( 3, catalog.getPageCount() );
+        assertEquals( "enchantment2", catalog.getOffers( 1 ).get( 0 ).getEnchantment().getKey() );
+        assertEquals( 1, catalog.getOffers( 2 ).size() );
+        assertThrows( IndexOutOfBoundsException.class, () -> catalog.getOffers( 3 ) );
+
+        // An empty shop still has a page.
+        assertEquals( 1, new ShopCatalog( Collections.emptyList(), 2 ).getPageCount() );
+    }
+
+    @Test
+    @DisplayName( "Offer States Depend On The Next Level And Balance" )
+    void offerStates()
+            throws ExpressionParseException
+    {
+        final ShopOffer offer = new ShopCatalog( enchantments( 1 ), 9 ).getOffers( 0 ).get( 0 );
+
+        assertEquals( 200.0, offer.getPrice( 2 ) );
+
+        final int affordable   = offer.getState( 1, 200.0 );
+        final int unaffordable = offer.getState( 1, 199.0 );
+
+        assertTrue( ShopOffer.isAffordable( affordable ) );
+        assertFalse( ShopOffer.isAffordable( unaffordable ) );
+        assertEquals( 2, ShopOffer.getLevel( affordable ) );
+        assertEquals( 2, ShopOffer.getLevel( unaffordable ) );
+        assertEquals( ShopOffer.MAXED, offer.getState( 3, 1000.0 ) );
+
+        for ( int level = 0; level <= 3; level++ )
+        {
+            assertTrue( offer.getState( level, 1000.0 ) < offer.getStateCount() );
+        }
+    }
+
+    @Test
+    @DisplayName( "Locales Without Names Share The Default Pages" )
+    void locales()
+            throws ExpressionParseException
+    {
+        final ShopCatalog catalog = new ShopCatalog( Collections.singletonList(
+                enchantment( 0, "100", Collections.singletonMap( "de_DE", "Verzauberung" ) ) ), 9 );
+
+        assertEquals( "de_de", catalog.resolveLocale( "de_DE" ) );
+        assertEquals( ShopCatalog.DEFAULT_LOCALE, catalog.resolveLocale( "en_us" ) );
+        assertEquals( ShopCatalog.DEFAULT_LOCALE, catalog.resolveLocale( null ) );
+    }
+
+    @Test
+    @DisplayName( "Pages Are Rendered Once Per Locale Until Invalidated" )
+    void pageCache()
+    {
+        final MetricsRegistry         metricsRegistry = new MetricsRegistry();
+        final ShopPageCache< String > pages           = new ShopPageCache<>( ( locale, page ) -> locale + page, 2,
+                                                                           metricsRegistry );
+
+        assertEquals( "0", pages.get( ShopCatalog.DEFAULT_LOCALE, 0 ) );
+        assertSame( pages.get( "de_de", 1 ), pages.get( "de_de", 1 ) );
+        pages.get( ShopCatalog.DEFAULT_LOCALE, 0 );
+
+        assertEquals( 2, metricsRegistry.counter( "shop.pages.rendered" ).get() );
+
+        final long version = pages.getVersion();
+
+        pages.invalidate( 3 );
+        pages.get( "de_de", 1 );
+        pages.get( "de_de", 2 );
+
+        assertTrue( pages.getVersion() > version );
+        assertEquals( 4, metricsRegistry.counter( "shop.pages.rendered" ).get() );
+        assertThrows( IndexOutOfBoundsException.class, () -> pages.get( "de_de", 3 ) );
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.qhucy.universalenchant.spatial;
+
+import com.qhucy.universalenchant.benchmark.BenchmarkRunner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Benchmarks radius queries on the {@link SpatialGrid} against a model of {@code World.getNearbyEntities}, which scans
+ * the entity list of every chunk overlapping the query box and allocates a new result list per call.
+ *
+ * @author Qhucy
+ */
+public final class SpatialGridBenchmark
+{
+
+    // A mob farm: entities packed into a 64 block wide area.
+    private static final int    ENTITIES = 1_000;
+    private static final int    AREA     = 64;
+    private static final double RADIUS   = 6.0;
+    private static final int    QUERIES  = 10_000;
+
+    private SpatialGridBenchmark()
+    {
+    }
+
+    public static void run()
+    {
+        final SplittableRandom              random       = new SplittableRandom( 1L );
+        final SpatialGrid< double[] >       grid         = new SpatialGrid<>( 3 );
+        final Map< Long, List< double[] > > chunks       = new HashMap<>();
+        final double[][]                    queryCenters = new double[ QUERIES ][];
+
+        for ( int id = 0; id < ENTITIES; id++ )
+        {
+            final double[] position = { random.nextDouble() * AREA, 64 + random.nextDouble() * 8,
+                                         random.nextDouble() * AREA };
+
+            grid.put( id, position, position[ 0 ], position[ 1 ], position[ 2 ] );
+            chunks.computeIfAbsent( chunkKey( ( int ) position[ 0 ] >> 4, ( int ) position[ 2 ] >> 4 ),
+                                    key -> new ArrayList<>() ).add( position );
+        }
+
+        for ( int i = 0; i < QUERIES; i++ )
+        {
+            queryCenters[ i ] = new double[]{ random.nextDouble() * AREA, 68, random.nextDouble() * AREA };
+        }
+
+        final QueryBuffer< double[] > buffer = new QueryBuffer<>();
+
+        BenchmarkRunner.measure( "spatial grid radius query", QUERIES, () -> {
+            long found = 0;
+
+            for ( final double[] center : queryCenters )
+            {
+                found += grid.query( center[ 0 ], center[ 1 ], center[ 2 ], RADIUS, buffer );
+            }
+
+            return found;
+        } );
+
+        BenchmarkRunner.measure( "chunk scan radius query (getNearbyEntities)", QUERIES, () -> {
+            long found = 0;
+
+            for ( final double[] center : queryCenters )
+            {
+                found += chunkScan( chunks, center, RADIUS ).size();
+            }
+
+            return found;
+        } );
+
+        BenchmarkRunner.measure( "spatial grid move within and across cells", ENTITIES, () -> {
+            long moved = 0;
+
+            for ( int id = 0; id < ENTITIES; id++ )
+            {
+                final double offset = ( id & 1 ) == 0 ? 0.3 : 9.0;
+
+                moved += grid.move( id, ( id * 7 ) % AREA + offset, 66, ( id * 13 ) % AREA ) ? 1 : 0;
+            }
+
+            return moved;
+        } );
+    }
+
+    private static long chunkKey( final int chunkX, final int chunkZ )
+    {
+        return ( ( long ) chunkX << 32 ) ^ ( chunkZ & 0xFFFFFFFFL );
+    }
+
+    private static List< double[] > chunkScan( final Map< Long, List< double[] > > chunks, final double[] center,
+                                               final double radius )
+    {
+        final List< double[] > result = new ArrayList<>();
+        final int              minX   = ( int ) Math.floor( center[ 0 ] - radius ) >> 4;
+        final int              maxX   = ( int ) Math.floor( center[ 0 ] + radius ) >> 4;
+        final int              minZ   = ( int ) Math.floor( center[ 2 ] - radius ) >> 4;
+        final int              maxZ   = ( int ) Math.floor( center[ 2 ] + radius ) >> 4;
+
+        for ( int chunkX = minX; chunkX <= maxX; chunkX++ )
+        {
+            for ( int chunkZ = minZ; chunkZ <= maxZ; chunkZ++ )
+            {
+                final List< double[] > entities = chunks.get( chunkKey( chunkX, chunkZ ) );
+
+                if ( entities == null )
+                {
+                    continue;
+                }
+
+                for ( final double[] position : entities )
+                {
+                    final double dx = position[ 0 ] - center[ 0 ];
+                    final double dy = position[ 1 ] - center[ 1 ];
+                    final double dz = position[ 2 ] - center[ 2 ];
+
+                    if ( dx * dx + dy * dy + dz * dz <= radius * radius )
+                    {
+                        result.add( position );
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.qhucy.universalenchant.spatial;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "SpatialGrid Testing" )
+final class SpatialGridTest
+{
+
+    private SpatialGrid< String > spatialGrid;
+    private QueryBuffer< String > buffer;
+
+    @BeforeEach
+    void setUp()
+    {
+        spatialGrid = new SpatialGrid<>( 3 );
+        buffer      = new QueryBuffer<>();
+    }
+
+    private Set< String > results()
+    {
+        final Set< String > results = new HashSet<>();
+
+        for ( int i = 0; i < buffer.size(); i++ )
+        {
+            results.add( buffer.get( i ) );
+        }
+
+        return results;
+    }
+
+    @Test
+    @DisplayName( "Querying A Radius" )
+    void query()
+    {
+        spatialGrid.put( 1, "near", 1, 64, 1 );
+        spatialGrid.put( 2, "edge", 5, 64, 0 );
+        spatialGrid.put( 3, "far", 20, 64, 20 );
+        spatialGrid.put( 4, "negative", -3, 64, -2 );
+
+        assertEquals( 3, spatialGrid.query( 0, 64, 0, 5, buffer ) );
+        assertEquals( Set.of( "near", "edge", "negative" ), results() );
+    }
+
+    @Test
+    @DisplayName( "Moving Across Cells" )
+    void moveAcrossCells()
+    {
+        spatialGrid.put( 1, "mob", 1, 64, 1 );
+
+        assertTrue( spatialGrid.move( 1, 100, 64, 100 ) );
+        assertEquals( 0, spatialGrid.query( 0, 64, 0, 10, buffer ) );
+        assertEquals( 1, spatialGrid.query( 100, 64, 100, 1, buffer ) );
+        assertEquals( 1, spatialGrid.getCellCount() );
+        assertFalse( spatialGrid.move( 2, 0, 0, 0 ) );
+    }
+
+    @Test
+    @DisplayName( "Removing Values" )
+    void remove()
+    {
+        for ( int id = 0; id < 100; id++ )
+        {
+            spatialGrid.put( id, "mob" + id, id % 10, 64, id / 10 );
+        }
+
+        for ( int id = 0; id < 100; id += 2 )
+        {
+            assertTrue( spatialGrid.remove( id ) );
+        }
+
+        assertFalse( spatialGrid.remove( 0 ) );
+        assertEquals( 50, spatialGrid.size() );
+        assertEquals( 50, spatialGrid.query( 5, 64, 5, 20, buffer ) );
+
+        for ( int id = 1; id < 100; id += 2 )
+        {
+            assertTrue( spatialGrid.contains( id ) );
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.qhucy.universalenchant.state;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "EnchantmentStateStore Testing" )
+final class EnchantmentStateStoreTest
+{
+
+    @Test
+    @DisplayName( "State Is Kept Per Player And Enchantment" )
+    void statePerPlayer()
+    {
+        final EnchantmentStateStore store  = new EnchantmentStateStore( 3, 4 );
+        final int                   first  = store.allocate( UUID.randomUUID() );
+        final int                   second = store.allocate( UUID.randomUUID() );
+
+        store.setStacks( first, 2, 5 );
+        store.setCharges( first, 0, 1 );
+        store.setLastProcTick( second, 2, 1200L );
+        store.setCombo( second, 1, 7 );
+
+        assertEquals( 5, store.getStacks( first, 2 ) );
+        assertEquals( 0, store.getStacks( second, 2 ) );
+        assertEquals( 1, store.getCharges( first, 0 ) );
+        assertEquals( 1200L, store.getLastProcTick( second, 2 ) );
+        assertEquals( 0L, store.getLastProcTick( first, 2 ) );
+        assertEquals( 7, store.getCombo( second, 1 ) );
+        assertThrows( IndexOutOfBoundsException.class, () -> store.getStacks( first, 3 ) );
+        assertThrows( IndexOutOfBoundsException.class, () -> store.getStacks( 2, 0 ) );
+    }
+
+    @Test
+    @DisplayName( "Released Slots Are Cleared And Reused" )
+    void slotReuse()
+    {
+        final EnchantmentStateStore store  = new EnchantmentStateStore( 2, 4 );
+        final UUID                  player = UUID.randomUUID();
+        final int                   slot   = store.allocate( player );
+
+        assertEquals( slot, store.allocate( player ) );
+
+        store.setStacks( slot, 1, 9 );
+        store.release( player );
+
+        assertEquals( -1, store.getSlot( player ) );
+
+        final int reused = store.allocate( UUID.randomUUID() );
+
+        assertEquals( slot, reused );
+        assertEquals( 0, store.getStacks( reused, 1 ) );
+        assertEquals( 1, store.size() );
+    }
+
+    @Test
+    @DisplayName( "Growing Keeps State And Footprint Tracks Capacity" )
+    void growth()
+    {
+        final EnchantmentStateStore store     = new EnchantmentStateStore( 4, 1 );
+        final int                   first     = store.allocate( UUID.randomUUID() );
+        final long                  footprint = store.getMemoryFootprint();
+
+        store.setCombo( first, 3, 4 );
+
+        for ( int i = 0; i < 20; i++ )
+        {
+            store.allocate( UUID.randomUUID() );
+        }
+
+        assertEquals( 4, store.getCombo( first, 3 ) );
+        assertEquals( 21, store.size() );
+        assertTrue( store.getMemoryFootprint() > footprint );
+    }
+
+    @Test
+    @DisplayName( "Remapping Moves State To New Ids" )
+    void remap()
+    {
+        final EnchantmentStateStore store  = new EnchantmentStateStore( 3, 2 );
+        final int                   first  = store.allocate( UUID.randomUUID() );
+        final int                   second = store.allocate( UUID.randomUUID() );
+
+        store.setStacks( first, 0, 5 );
+        store.setCharges( second, 1, 2 );
+        store.setLastProcTick( second, 2, 1200L );
+
+        // The first enchantment moves to the end, the second keeps its id, the third was removed and one was added.
+        store.remap( new int[] { 3, 1, -1 }, 4 );
+
+        assertEquals( 5, store.getStacks( first, 3 ) );
+        assertEquals( 0, store.getStacks( first, 0 ) );
+        assertEquals( 2, store.getCharges( second, 1 ) );
+        assertEquals( 0L, store.getLastProcTick( second, 2 ) );
+        assertEquals( 2, store.size() );
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.qhucy.universalenchant.statistics;
+
+import com.qhucy.universalenchant.metrics.MetricsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "UsageStatistics Testing" )
+final class UsageStatisticsTest
+{
+
+    private static final long DAY = TimeUnit.DAYS.toMillis( 1L );
+
+    private long            time;
+    private UsageStatistics statistics;
+
+    @BeforeEach
+    void setUp()
+    {
+        time       = DAY * 100L;
+        statistics = new UsageStatistics( Arrays.asList( "lifesteal", "explosive" ), 1024, 3, () -> time,
+                                          new MetricsRegistry() );
+    }
+
+    private static UUID player( final int index )
+    {
+        return new UUID( 0x5678L, index );
+    }
+
+    private static void assertClose( final long expected, final long actual, final double error )
+    {
+        assertTrue( Math.abs( expected - actual ) <= expected * error,
+                    "Expected about " + expected + " but got " + actual );
+    }
+
+    @Test
+    @DisplayName( "Distinct Players Are Estimated And Merged" )
+    void hyperLogLog()
+    {
+        final HyperLogLog first  = new HyperLogLog();
+        final HyperLogLog second = new HyperLogLog();
+
+        for ( int index = 0; index < 100_000; index++ )
+        {
+            first.add( player( index ) );
+            // Adding a player again changes nothing.
+            first.add( player( index ) );
+            second.add( player( index + 50_000 ) );
+        }
+
+        assertEquals( 0L, new HyperLogLog().estimate() );
+        assertClose( 100_000L, first.estimate(), 0.05 );
+
+        first.merge( second );
+
+        assertClose( 150_000L, first.estimate(), 0.05 );
+        assertEquals( first.estimate(), HyperLogLog.fromByteArray( first.toByteArray() ).estimate() );
+        assertThrows( IllegalArgumentException.class, () -> HyperLogLog.fromByteArray( new byte[ 16 ] ) );
+
+        final HyperLogLog small = new HyperLogLog();
+
+        for ( int index = 0; index < 20; index++ )
+        {
+            small.add( player( index ) );
+        }
+
+        assertEquals( 20L, small.estimate() );
+    }
+
+    @Test
+    @DisplayName( "Heavy Hitters Are Found Among Many Keys" )
+    void heavyHitters()
+    {
+        final HeavyHitters heavyHitters = new HeavyHitters( 512, 3 );
+
+        for ( int round = 0; round < 100; round++ )
+        {
+            heavyHitters.add( "lifesteal", 50L );
+            heavyHitters.add( "explosive", 30L );
+            heavyHitters.add( "poison", 20L );
+
+            for ( int noise = 0; noise < 50; noise++ )
+            {
+                heavyHitters.add( "noise-" + round + "-" + noise, 1L );
+            }
+        }
+
+        final Map< String, Long > top = heavyHitters.top();
+
+        assertEquals( Arrays.asList( "lifesteal", "explosive", "poison" ), Arrays.asList( top.keySet().toArray() ) );
+        // Estimates never undercount.
+        assertTrue( top.get( "lifesteal" ) >= 5_000L );
+        assertTrue( top.get( "poison" ) >= 2_000L );
+        assertTrue( top.get( "poison" ) < 3_000L );
+    }
+
+    @Test
+    @DisplayName( "Rollups Count Procs, Players And Damage Per Period" )
+    void rollup()
+    {
+        for ( int index = 0; index < 10; index++ )
+        {
+            statistics.recordProc( player( index ), 0 );
+        }
+
+        statistics.recordProc( player( 0 ), 1 );
+        // Ids of enchantments that aren't loaded are ignored.
+        statistics.recordProc( player( 0 ), 7 );
+        statistics.recordDamage( "lifesteal", 4.5 );
+        statistics.recordDamage( "lifesteal", 0.25 );
+        statistics.recordDamage( "explosive\"", 2.0 );
+        statistics.recordDamage( "explosive\"", -1.0 );
+
+        time += 1_000L;
+
+        final UsageRollup first = statistics.rollup();
+
+        assertEquals( DAY * 100L, first.getStart() );
+        assertEquals( DAY * 100L + 1_000L, first.getEnd() );
+        assertEquals( 10L, first.getProcs().get( "lifesteal" ).longValue() );
+        assertEquals( 1L, first.getProcs().get( "explosive" ).longValue() );
+        assertEquals( 10L, first.getUniquePlayers() );
+        assertEquals( 4.75, first.getDamageSources().get( "lifesteal" ).doubleValue() );
+        assertEquals( 2.0, first.getDamageSources().get( "explosive\"" ).doubleValue() );
+        assertTrue( first.toJson().startsWith( "{\"start\":8640000000,\"end\":8640001000,\"procs\":{\"lifesteal\""
+                                               + ":10,\"explosive\":1},\"unique-players\":10," ) );
+        assertTrue( first.toJson().endsWith( "\"damage-sources\":{\"lifesteal\":4.75,\"explosive\\\"\":2.00}}" ) );
+
+        // Players of earlier periods count towards the day.
+        statistics.recordProc( player( 5 ), 0 );
+        statistics.recordProc( player( 10 ), 0 );
+
+        assertEquals( 11L, statistics.getUniquePlayersToday() );
+
+        time += 1_000L;
+
+        final UsageRollup second = statistics.rollup( Arrays.asList( "explosive", "lifesteal" ) );
+
+        assertEquals( 2L, second.getUniquePlayers() );
+        assertEquals( 11L, second.getUniquePlayersToday() );
+        assertTrue( second.getDamageSources().isEmpty() );
+
+        // The new ids count towards the new keys, and a new day starts over.
+        statistics.recordProc( player( 0 ), 1 );
+        time += DAY;
+
+        final UsageRollup third = statistics.rollup();
+
+        assertEquals( 1L, third.getProcs().get( "lifesteal" ).longValue() );
+        assertNull( third.getProcs().get( "explosive" ) );
+        assertEquals( 1L, third.getUniquePlayersToday() );
+    }
+
+}
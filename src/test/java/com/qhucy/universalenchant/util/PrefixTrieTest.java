@@ -0,0 +1,47 @@
+package com.qhucy.universalenchant.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName( "PrefixTrie Testing" )
+final class PrefixTrieTest
+{
+
+    private final PrefixTrie prefixTrie = new PrefixTrie(
+            Arrays.asList( "lifesteal", "Lightning", "life", "haste", "Lebensraub", "LIFE" ) );
+
+    @Test
+    @DisplayName( "Completing Prefixes Ignores Case" )
+    void completePrefixes()
+    {
+        assertEquals( Arrays.asList( "life", "lifesteal", "Lightning" ), prefixTrie.complete( "li" ) );
+        assertEquals( Arrays.asList( "life", "lifesteal" ), prefixTrie.complete( "LIF" ) );
+        assertEquals( Collections.singletonList( "lifesteal" ), prefixTrie.complete( "lifes" ) );
+        assertEquals( Collections.singletonList( "haste" ), prefixTrie.complete( "haste" ) );
+    }
+
+    @Test
+    @DisplayName( "Completing Unknown Prefixes" )
+    void completeUnknownPrefixes()
+    {
+        assertTrue( prefixTrie.complete( "z" ).isEmpty() );
+        assertTrue( prefixTrie.complete( "hastey" ).isEmpty() );
+        assertTrue( PrefixTrie.EMPTY.complete( "" ).isEmpty() );
+    }
+
+    @Test
+    @DisplayName( "Empty Prefixes Complete Every Word Once" )
+    void completeEverything()
+    {
+        assertEquals( 5, prefixTrie.size() );
+        assertEquals( Arrays.asList( "haste", "Lebensraub", "life", "lifesteal", "Lightning" ),
+                      prefixTrie.complete( "" ) );
+        assertThrows( UnsupportedOperationException.class, () -> prefixTrie.complete( "" ).clear() );
+    }
+
+}